@@ -0,0 +1,64 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.benchmark;
+
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import org.mockito.Mockito;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+public final class BenchmarkSupport {
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Binds the import properties from the default application.properties, overridden by the given {@code key=value} pairs.
+     */
+    public static ImportConfigProperties importConfigProperties(String... overrides) {
+        Properties properties;
+        try {
+            properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        for (String override : overrides) {
+            String[] keyValue = override.split("=", 2);
+            properties.setProperty(keyValue[0], keyValue[1]);
+        }
+
+        return new Binder(new MapConfigurationPropertySource(properties))
+                .bindOrCreate("import", ImportConfigProperties.class);
+    }
+
+    /**
+     * Creates a stub which does not record its invocations, so it does not grow over millions of benchmark calls.
+     */
+    public static <T> T stub(Class<T> type) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+}
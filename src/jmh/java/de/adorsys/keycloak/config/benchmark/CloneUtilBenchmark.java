@@ -0,0 +1,103 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.benchmark;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.util.CloneUtil;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparing, patching and cloning of representations as done for every entity of an import.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CloneUtilBenchmark {
+    @Param({"10", "100"})
+    private int size;
+
+    private RealmImport realm;
+    private RealmImport existingRealm;
+    private List<ClientRepresentation> clients;
+    private List<ClientRepresentation> existingClients;
+    private List<UserRepresentation> users;
+    private List<UserRepresentation> existingUsers;
+
+    @Setup
+    public void setup() {
+        realm = SyntheticRealm.create("benchmark", size);
+        existingRealm = SyntheticRealm.create("benchmark", size);
+
+        clients = realm.getClients();
+        existingClients = existingRealm.getClients();
+        users = realm.getUsers();
+        existingUsers = existingRealm.getUsers();
+
+        // every tenth entity differs in a nested property
+        for (int i = 0; i < existingClients.size(); i += 10) {
+            existingClients.get(i).getAttributes().put("changed", "true");
+        }
+        for (int i = 0; i < existingUsers.size(); i += 10) {
+            existingUsers.get(i).setLastName("Changed");
+        }
+    }
+
+    @Benchmark
+    public boolean deepEqualsRealm() {
+        return CloneUtil.deepEquals(existingRealm, realm, "users", "clients");
+    }
+
+    @Benchmark
+    public void deepEqualsClients(Blackhole blackhole) {
+        for (int i = 0; i < clients.size(); i++) {
+            blackhole.consume(CloneUtil.deepEquals(existingClients.get(i), clients.get(i), "id", "protocolMappers"));
+        }
+    }
+
+    @Benchmark
+    public void patchClients(Blackhole blackhole) {
+        for (int i = 0; i < clients.size(); i++) {
+            blackhole.consume(CloneUtil.patch(existingClients.get(i), clients.get(i), "id"));
+        }
+    }
+
+    @Benchmark
+    public void patchAndCompareUsers(Blackhole blackhole) {
+        for (int i = 0; i < users.size(); i++) {
+            UserRepresentation patchedUser = CloneUtil.patch(existingUsers.get(i), users.get(i), "realmRoles", "clientRoles");
+            blackhole.consume(CloneUtil.deepEquals(existingUsers.get(i), patchedUser, "access"));
+        }
+    }
+
+    @Benchmark
+    public RealmImport deepCloneRealm() {
+        return CloneUtil.deepClone(realm);
+    }
+}
@@ -0,0 +1,151 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.benchmark;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.repository.*;
+import de.adorsys.keycloak.config.service.RoleImportService;
+import de.adorsys.keycloak.config.service.UserImportService;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.rolecomposites.client.ClientRoleCompositeImportService;
+import de.adorsys.keycloak.config.service.rolecomposites.realm.RealmRoleCompositeImportService;
+import de.adorsys.keycloak.config.service.stage.ImportStageExecutor;
+import de.adorsys.keycloak.config.service.stage.ImportTaskExecutor;
+import de.adorsys.keycloak.config.service.state.StateService;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Comparison of existing and imported roles and users, including role mappings and group memberships.
+ * The repositories are stubbed, so only the CPU time of the import services is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportDiffBenchmark {
+    private static final String REALM_NAME = "benchmark";
+
+    @Param({"100", "500"})
+    private int size;
+
+    private RealmImport realmImport;
+    private RoleImportService roleImportService;
+    private UserImportService userImportService;
+
+    @Setup
+    public void setup() {
+        realmImport = SyntheticRealm.create(REALM_NAME, size);
+        RealmImport existingRealm = SyntheticRealm.create(REALM_NAME, size);
+
+        // every tenth role and user differs from the import
+        List<RoleRepresentation> existingRealmRoles = existingRealm.getRoles().getRealm();
+        for (int i = 0; i < existingRealmRoles.size(); i += 10) {
+            existingRealmRoles.get(i).setDescription("Changed");
+        }
+
+        // the ids of the existing users are their usernames, so the stubs below serve lookups by either
+        existingRealm.getUsers().forEach(user -> user.setId(user.getUsername()));
+        Map<String, UserRepresentation> existingUsers = existingRealm.getUsers().stream()
+                .collect(Collectors.toMap(UserRepresentation::getUsername, Function.identity()));
+        for (UserRepresentation existingUser : existingRealm.getUsers().subList(0, existingUsers.size() / 10)) {
+            existingUser.setRealmRoles(Collections.singletonList("role-0"));
+            existingUser.setGroups(Collections.singletonList("/group-0"));
+        }
+
+        ImportConfigProperties importConfigProperties = BenchmarkSupport.importConfigProperties("import.remote-state.enabled=false");
+        ImportTaskExecutor importTaskExecutor = new ImportTaskExecutor(importConfigProperties);
+        ImportMetrics importMetrics = new ImportMetrics(importConfigProperties, new ImportStageExecutor(importConfigProperties), importTaskExecutor);
+
+        RealmRepository realmRepository = BenchmarkSupport.stub(RealmRepository.class);
+        when(realmRepository.get(REALM_NAME)).thenReturn(new RealmRepresentation());
+
+        RoleRepository roleRepository = BenchmarkSupport.stub(RoleRepository.class);
+        when(roleRepository.getRealmRoles(REALM_NAME)).thenReturn(existingRealmRoles);
+        when(roleRepository.getClientRoles(REALM_NAME)).thenReturn(existingRealm.getRoles().getClient());
+        when(roleRepository.getUserRealmLevelRoles(eq(REALM_NAME), anyString()))
+                .thenAnswer(invocation -> existingUsers.get(invocation.<String>getArgument(1)).getRealmRoles());
+        when(roleRepository.getUserClientLevelRoles(eq(REALM_NAME), anyString()))
+                .thenAnswer(invocation -> existingUsers.get(invocation.<String>getArgument(1)).getClientRoles());
+
+        UserRepository userRepository = BenchmarkSupport.stub(UserRepository.class);
+        when(userRepository.search(eq(REALM_NAME), anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(existingUsers.get(invocation.<String>getArgument(1))));
+        when(userRepository.getGroups(eq(REALM_NAME), anyString()))
+                .thenAnswer(invocation -> toGroups(existingUsers.get(invocation.<String>getArgument(1))));
+
+        roleImportService = new RoleImportService(
+                BenchmarkSupport.stub(RealmRoleCompositeImportService.class),
+                BenchmarkSupport.stub(ClientRoleCompositeImportService.class),
+                roleRepository,
+                importConfigProperties,
+                BenchmarkSupport.stub(StateService.class),
+                importTaskExecutor,
+                importMetrics
+        );
+
+        userImportService = new UserImportService(
+                realmRepository,
+                userRepository,
+                roleRepository,
+                BenchmarkSupport.stub(GroupRepository.class),
+                BenchmarkSupport.stub(ClientRepository.class),
+                importConfigProperties,
+                importTaskExecutor,
+                importMetrics
+        );
+    }
+
+    @Benchmark
+    public void importRoles() {
+        roleImportService.doImport(realmImport);
+    }
+
+    @Benchmark
+    public void importUsers() {
+        userImportService.doImport(realmImport);
+    }
+
+    private static List<GroupRepresentation> toGroups(UserRepresentation user) {
+        List<GroupRepresentation> groups = new ArrayList<>();
+        for (String path : user.getGroups()) {
+            GroupRepresentation group = new GroupRepresentation();
+            group.setPath(path);
+            groups.add(group);
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,90 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import de.adorsys.keycloak.config.model.KeycloakImport;
+import de.adorsys.keycloak.config.provider.KeycloakImportProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing, variable substitution and checksum calculation of a single import file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeycloakImportProviderBenchmark {
+    @Param({"10", "100"})
+    private int size;
+
+    @Param({"json", "yaml"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean varSubstitution;
+
+    private Path importFile;
+    private KeycloakImportProvider keycloakImportProvider;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = "yaml".equals(format) ? new ObjectMapper(new YAMLFactory()) : new ObjectMapper();
+        objectMapper.setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
+
+        String content = objectMapper.writeValueAsString(SyntheticRealm.create("benchmark", size));
+        if (varSubstitution) {
+            System.setProperty("benchmark.domain", "example.com");
+            content = content.replace("example.com", "$(sys:benchmark.domain)");
+        }
+
+        importFile = Files.createTempFile("realm-", "." + format);
+        Files.write(importFile, content.getBytes(StandardCharsets.UTF_8));
+
+        keycloakImportProvider = new KeycloakImportProvider(
+                new StandardEnvironment(),
+                new PathMatchingResourcePatternResolver(),
+                BenchmarkSupport.importConfigProperties("import.var-substitution.enabled=" + varSubstitution)
+        );
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(importFile);
+    }
+
+    @Benchmark
+    public KeycloakImport readFromLocations() {
+        return keycloakImportProvider.readFromLocations(importFile.toUri().toString());
+    }
+}
@@ -0,0 +1,102 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.adorsys.keycloak.config.util.ObjectMapperUtil;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization of large representations, as sent to and received from keycloak,
+ * with a plain object mapper and with the one of {@link ObjectMapperUtil}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectMapperBenchmark {
+    @Param({"100", "1000"})
+    private int size;
+
+    @Param({"plain", "blackbird"})
+    private String mapper;
+
+    private ObjectMapper objectMapper;
+    private RealmRepresentation realm;
+    private List<ClientRepresentation> clients;
+    private List<UserRepresentation> users;
+    private byte[] realmJson;
+    private byte[] clientsJson;
+    private byte[] usersJson;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        objectMapper = "plain".equals(mapper) ? new ObjectMapper() : ObjectMapperUtil.create();
+
+        realm = objectMapper.convertValue(SyntheticRealm.create("benchmark", size), RealmRepresentation.class);
+        clients = realm.getClients();
+        users = realm.getUsers();
+
+        realmJson = objectMapper.writeValueAsBytes(realm);
+        clientsJson = objectMapper.writeValueAsBytes(clients);
+        usersJson = objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] writeRealm() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(realm);
+    }
+
+    @Benchmark
+    public RealmRepresentation readRealm() throws IOException {
+        return objectMapper.readValue(realmJson, RealmRepresentation.class);
+    }
+
+    @Benchmark
+    public byte[] writeClients() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(clients);
+    }
+
+    @Benchmark
+    public ClientRepresentation[] readClients() throws IOException {
+        return objectMapper.readValue(clientsJson, ClientRepresentation[].class);
+    }
+
+    @Benchmark
+    public byte[] writeUsers() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public UserRepresentation[] readUsers() throws IOException {
+        return objectMapper.readValue(usersJson, UserRepresentation[].class);
+    }
+}
@@ -0,0 +1,88 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.benchmark;
+
+import de.adorsys.keycloak.config.repository.RealmAttributeBuffer;
+import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.repository.StateRepository;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing, encrypting and splitting the remote state into realm attributes, and reading it back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateRepositoryBenchmark {
+    private static final String REALM_NAME = "benchmark";
+
+    @Param({"100", "5000"})
+    private int entries;
+
+    @Param({"false", "true"})
+    private boolean encrypted;
+
+    private StateRepository stateRepository;
+    private List<String> values;
+
+    @Setup
+    public void setup() {
+        RealmRepresentation realm = new RealmRepresentation();
+        realm.setRealm(REALM_NAME);
+        realm.setAttributes(new HashMap<>());
+
+        RealmRepository realmRepository = BenchmarkSupport.stub(RealmRepository.class);
+        Mockito.when(realmRepository.get(REALM_NAME)).thenReturn(realm);
+
+        stateRepository = new StateRepository(realmRepository, new RealmAttributeBuffer(realmRepository), encrypted
+                ? BenchmarkSupport.importConfigProperties("import.remote-state.encryption-key=benchmark")
+                : BenchmarkSupport.importConfigProperties()
+        );
+        stateRepository.loadCustomAttributes(REALM_NAME);
+
+        values = new ArrayList<>();
+        for (int i = 0; i < entries; i++) {
+            values.add("client-" + i);
+        }
+
+        stateRepository.setState(REALM_NAME, "clients", values);
+    }
+
+    @Benchmark
+    public void setState() {
+        stateRepository.setState(REALM_NAME, "clients", values);
+    }
+
+    @Benchmark
+    public List<String> getState() {
+        return stateRepository.getState(REALM_NAME, "clients");
+    }
+}
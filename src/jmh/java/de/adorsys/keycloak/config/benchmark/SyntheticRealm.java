@@ -0,0 +1,193 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.benchmark;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+import org.keycloak.representations.idm.*;
+
+import java.util.*;
+
+/**
+ * Deterministic realm imports of configurable size, used as input for the benchmarks.
+ */
+public final class SyntheticRealm {
+    private static final int CLIENT_ROLES_PER_CLIENT = 5;
+    private static final int ROLES_PER_ENTITY = 5;
+    private static final int GROUPS_PER_USER = 3;
+
+    private SyntheticRealm() {
+    }
+
+    public static RealmImport create(String realmName, int size) {
+        return create(realmName, size, size * 4, size, size * 10);
+    }
+
+    public static RealmImport create(String realmName, int clients, int roles, int groups, int users) {
+        RealmImport realm = new RealmImport();
+        realm.setRealm(realmName);
+        realm.setEnabled(true);
+        realm.setDisplayName("Benchmark realm " + realmName);
+        realm.setAccessTokenLifespan(300);
+        realm.setAttributes(attributes("realm", 10));
+
+        List<ClientRepresentation> clientRepresentations = new ArrayList<>();
+        Map<String, List<RoleRepresentation>> clientRoles = new LinkedHashMap<>();
+        for (int i = 0; i < clients; i++) {
+            ClientRepresentation client = client(i);
+            clientRepresentations.add(client);
+            clientRoles.put(client.getClientId(), clientRoles(client.getClientId()));
+        }
+        realm.setClients(clientRepresentations);
+
+        List<RoleRepresentation> realmRoles = new ArrayList<>();
+        for (int i = 0; i < roles; i++) {
+            realmRoles.add(role("role-" + i));
+        }
+
+        RolesRepresentation rolesRepresentation = new RolesRepresentation();
+        rolesRepresentation.setRealm(realmRoles);
+        rolesRepresentation.setClient(clientRoles);
+        realm.setRoles(rolesRepresentation);
+
+        List<GroupRepresentation> groupRepresentations = new ArrayList<>();
+        for (int i = 0; i < groups; i++) {
+            groupRepresentations.add(group(i, roles, clients));
+        }
+        realm.setGroups(groupRepresentations);
+
+        List<UserRepresentation> userRepresentations = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            userRepresentations.add(user(i, roles, clients, groups));
+        }
+        realm.setUsers(userRepresentations);
+
+        return realm;
+    }
+
+    public static ClientRepresentation client(int index) {
+        ClientRepresentation client = new ClientRepresentation();
+        client.setClientId("client-" + index);
+        client.setName("Client " + index);
+        client.setEnabled(true);
+        client.setPublicClient(index % 2 == 0);
+        client.setRedirectUris(Arrays.asList(
+                "https://client-" + index + ".example.com/*",
+                "https://client-" + index + ".example.org/*",
+                "http://localhost:" + (8000 + index) + "/*"
+        ));
+        client.setWebOrigins(Collections.singletonList("+"));
+        client.setAttributes(attributes("client-" + index, 8));
+        client.setDefaultClientScopes(Arrays.asList("web-origins", "profile", "roles", "email"));
+        client.setOptionalClientScopes(Arrays.asList("address", "phone", "offline_access"));
+
+        List<ProtocolMapperRepresentation> protocolMappers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ProtocolMapperRepresentation protocolMapper = new ProtocolMapperRepresentation();
+            protocolMapper.setName("mapper-" + i);
+            protocolMapper.setProtocol("openid-connect");
+            protocolMapper.setProtocolMapper("oidc-usermodel-attribute-mapper");
+            protocolMapper.setConfig(attributes("mapper-" + i, 5));
+            protocolMappers.add(protocolMapper);
+        }
+        client.setProtocolMappers(protocolMappers);
+
+        return client;
+    }
+
+    public static RoleRepresentation role(String name) {
+        RoleRepresentation role = new RoleRepresentation();
+        role.setName(name);
+        role.setDescription("Description of " + name);
+        role.setComposite(false);
+        role.setAttributes(Collections.singletonMap("origin", Collections.singletonList(name)));
+        return role;
+    }
+
+    private static List<RoleRepresentation> clientRoles(String clientId) {
+        List<RoleRepresentation> roles = new ArrayList<>();
+        for (int i = 0; i < CLIENT_ROLES_PER_CLIENT; i++) {
+            roles.add(role(clientId + "-role-" + i));
+        }
+        return roles;
+    }
+
+    private static GroupRepresentation group(int index, int roles, int clients) {
+        GroupRepresentation group = new GroupRepresentation();
+        group.setName("group-" + index);
+        group.setPath("/group-" + index);
+        group.setAttributes(Collections.singletonMap("index", Collections.singletonList(String.valueOf(index))));
+        group.setRealmRoles(realmRoleNames(index, roles));
+        group.setClientRoles(clientRoleNames(index, clients));
+
+        GroupRepresentation subGroup = new GroupRepresentation();
+        subGroup.setName("sub-group-" + index);
+        subGroup.setPath("/group-" + index + "/sub-group-" + index);
+        group.setSubGroups(new ArrayList<>(Collections.singletonList(subGroup)));
+
+        return group;
+    }
+
+    private static UserRepresentation user(int index, int roles, int clients, int groups) {
+        UserRepresentation user = new UserRepresentation();
+        user.setUsername("user-" + index);
+        user.setEmail("user-" + index + "@example.com");
+        user.setFirstName("First" + index);
+        user.setLastName("Last" + index);
+        user.setEnabled(true);
+        user.setEmailVerified(true);
+        user.setAttributes(Collections.singletonMap("locale", Collections.singletonList("en")));
+        user.setRealmRoles(realmRoleNames(index, roles));
+        user.setClientRoles(clientRoleNames(index, clients));
+
+        List<String> userGroups = new ArrayList<>();
+        for (int i = 0; i < Math.min(GROUPS_PER_USER, groups); i++) {
+            userGroups.add("/group-" + (index + i) % groups);
+        }
+        user.setGroups(userGroups);
+
+        return user;
+    }
+
+    private static List<String> realmRoleNames(int index, int roles) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < Math.min(ROLES_PER_ENTITY, roles); i++) {
+            names.add("role-" + (index + i) % roles);
+        }
+        return names;
+    }
+
+    private static Map<String, List<String>> clientRoleNames(int index, int clients) {
+        Map<String, List<String>> names = new LinkedHashMap<>();
+        if (clients == 0) return names;
+
+        String clientId = "client-" + index % clients;
+        names.put(clientId, Arrays.asList(clientId + "-role-0", clientId + "-role-1"));
+        return names;
+    }
+
+    private static Map<String, String> attributes(String prefix, int count) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            attributes.put(prefix + ".attribute." + i, "value-" + i);
+        }
+        return attributes;
+    }
+}
@@ -20,11 +20,14 @@
 
 package de.adorsys.keycloak.config;
 
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.model.KeycloakImport;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.provider.KeycloakImportProvider;
 import de.adorsys.keycloak.config.service.RealmImportService;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.watch.ImportWatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,10 +36,17 @@ import org.springframework.boot.ExitCodeGenerator;
 import org.springframework.stereotype.Component;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 public class KeycloakConfigRunner implements CommandLineRunner, ExitCodeGenerator {
@@ -46,6 +56,8 @@ public class KeycloakConfigRunner implements CommandLineRunner, ExitCodeGenerato
     private final KeycloakImportProvider keycloakImportProvider;
     private final RealmImportService realmImportService;
     private final ImportConfigProperties importConfigProperties;
+    private final ImportMetrics importMetrics;
+    private final ImportWatcher importWatcher;
 
     private int exitCode = 0;
 
@@ -53,10 +65,14 @@ public class KeycloakConfigRunner implements CommandLineRunner, ExitCodeGenerato
     public KeycloakConfigRunner(
             KeycloakImportProvider keycloakImportProvider,
             RealmImportService realmImportService,
-            ImportConfigProperties importConfigProperties) {
+            ImportConfigProperties importConfigProperties,
+            ImportMetrics importMetrics,
+            ImportWatcher importWatcher) {
         this.keycloakImportProvider = keycloakImportProvider;
         this.realmImportService = realmImportService;
         this.importConfigProperties = importConfigProperties;
+        this.importMetrics = importMetrics;
+        this.importWatcher = importWatcher;
     }
 
     @Override
@@ -68,18 +84,14 @@ public class KeycloakConfigRunner implements CommandLineRunner, ExitCodeGenerato
     public void run(String... args) {
         try {
             Collection<String> importLocations = importConfigProperties.getFiles().getLocations();
-            KeycloakImport keycloakImport = keycloakImportProvider.readFromLocations(importLocations);
-
-            Map<String, Map<String, List<RealmImport>>> realmImports = keycloakImport.getRealmImports();
 
-            for (Map<String, List<RealmImport>> realmImportLocations : realmImports.values()) {
-                for (Map.Entry<String, List<RealmImport>> realmImport : realmImportLocations.entrySet()) {
-                    logger.info("Importing file '{}'", realmImport.getKey());
-                    for (RealmImport realmImportParts : realmImport.getValue()) {
-                        realmImportService.doImport(realmImportParts);
-                    }
-                }
+            if (importConfigProperties.getWatch().isEnabled()) {
+                importWatcher.watch(importLocations, this::doImport);
+                return;
             }
+
+            KeycloakImport keycloakImport = keycloakImportProvider.readFromLocations(importLocations);
+            doImport(keycloakImport.getRealmImports());
         } catch (NullPointerException e) {
             throw e;
         } catch (Exception e) {
@@ -94,6 +106,114 @@ public class KeycloakConfigRunner implements CommandLineRunner, ExitCodeGenerato
             long totalTime = System.currentTimeMillis() - START_TIME;
             String formattedTime = new SimpleDateFormat("mm:ss.SSS").format(new Date(totalTime));
             logger.info("keycloak-config-cli running in {}.", formattedTime);
+
+            // in watch mode, every run is reported on its own
+            if (!importConfigProperties.getWatch().isEnabled()) {
+                importMetrics.report(totalTime);
+            }
+        }
+    }
+
+    private void doImport(Map<String, Map<String, List<RealmImport>>> realmImports) {
+        if (importConfigProperties.getConcurrency().getRealms() > 1) {
+            importRealmsConcurrently(realmImports);
+        } else {
+            importRealms(realmImports);
+        }
+    }
+
+    private void importRealms(Map<String, Map<String, List<RealmImport>>> realmImports) {
+        for (Map<String, List<RealmImport>> realmImportLocations : realmImports.values()) {
+            for (Map.Entry<String, List<RealmImport>> realmImport : realmImportLocations.entrySet()) {
+                logger.info("Importing file '{}'", realmImport.getKey());
+                for (RealmImport realmImportParts : realmImport.getValue()) {
+                    realmImportService.doImport(realmImportParts);
+                }
+            }
+        }
+    }
+
+    /**
+     * Imports distinct realms at the same time. All files of a realm are still imported one after another in their
+     * original order. Failed realms don't stop the import of other realms; they are reported together at the end.
+     */
+    private void importRealmsConcurrently(Map<String, Map<String, List<RealmImport>>> realmImports) {
+        Map<String, Map<String, List<RealmImport>>> realmImportsByRealm = groupByRealm(realmImports);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.min(importConfigProperties.getConcurrency().getRealms(), Math.max(1, realmImportsByRealm.size()));
+        ExecutorService executorService = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "import-realm-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Map<String, Future<?>> futures = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Map<String, List<RealmImport>>> realm : realmImportsByRealm.entrySet()) {
+                futures.put(realm.getKey(), executorService.submit(() -> importRealmFiles(realm.getValue())));
+            }
+
+            Map<String, RuntimeException> errors = awaitRealmImports(futures);
+
+            if (!errors.isEmpty()) {
+                errors.forEach((realm, error) -> logger.error("Import of realm '{}' failed: {}", realm, error.getMessage()));
+
+                throw new ImportProcessingException(
+                        "Import of %d realm(s) failed: %s", errors.size(), String.join(", ", errors.keySet())
+                );
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void importRealmFiles(Map<String, List<RealmImport>> realmImportFiles) {
+        for (Map.Entry<String, List<RealmImport>> realmImport : realmImportFiles.entrySet()) {
+            logger.info("Importing file '{}'", realmImport.getKey());
+            for (RealmImport realmImportParts : realmImport.getValue()) {
+                realmImportService.doImport(realmImportParts);
+            }
+        }
+    }
+
+    private Map<String, RuntimeException> awaitRealmImports(Map<String, Future<?>> futures) {
+        Map<String, RuntimeException> errors = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Future<?>> future : futures.entrySet()) {
+            try {
+                future.getValue().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ImportProcessingException("Interrupted while importing realm '%s'", future.getKey());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                errors.put(future.getKey(), cause instanceof RuntimeException
+                        ? (RuntimeException) cause
+                        : new ImportProcessingException(cause));
+            }
         }
+
+        return errors;
+    }
+
+    /**
+     * realm name -> file -> parts of the file for this realm, all in import order
+     */
+    private static Map<String, Map<String, List<RealmImport>>> groupByRealm(Map<String, Map<String, List<RealmImport>>> realmImports) {
+        Map<String, Map<String, List<RealmImport>>> realmImportsByRealm = new LinkedHashMap<>();
+
+        for (Map<String, List<RealmImport>> realmImportLocations : realmImports.values()) {
+            for (Map.Entry<String, List<RealmImport>> realmImport : realmImportLocations.entrySet()) {
+                for (RealmImport realmImportParts : realmImport.getValue()) {
+                    realmImportsByRealm
+                            .computeIfAbsent(realmImportParts.getRealm(), realm -> new LinkedHashMap<>())
+                            .computeIfAbsent(realmImport.getKey(), file -> new ArrayList<>())
+                            .add(realmImportParts);
+                }
+            }
+        }
+
+        return realmImportsByRealm;
     }
 }
@@ -28,6 +28,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Component
 public class RealmImport extends RealmRepresentation {
@@ -35,6 +36,8 @@ public class RealmImport extends RealmRepresentation {
 
     private String checksum;
 
+    private Map<String, String> sectionChecksums;
+
     @Override
     @SuppressWarnings("java:S1168")
     public List<AuthenticationFlowRepresentation> getAuthenticationFlows() {
@@ -58,4 +61,14 @@ public class RealmImport extends RealmRepresentation {
     public void setChecksum(String checksum) {
         this.checksum = checksum;
     }
+
+    @JsonIgnore
+    public Map<String, String> getSectionChecksums() {
+        return sectionChecksums;
+    }
+
+    @JsonIgnore
+    public void setSectionChecksums(Map<String, String> sectionChecksums) {
+        this.sectionChecksums = sectionChecksums;
+    }
 }
@@ -24,8 +24,10 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.ConstructorBinding;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
 import java.util.Collection;
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 
@@ -36,7 +38,10 @@ import javax.validation.constraints.Pattern;
 public class ImportConfigProperties {
     public static final String REALM_STATE_ATTRIBUTE_COMMON_PREFIX = "de.adorsys.keycloak.config";
     public static final String REALM_CHECKSUM_ATTRIBUTE_PREFIX_KEY = REALM_STATE_ATTRIBUTE_COMMON_PREFIX + ".import-checksum-{0}";
+    public static final String REALM_SECTION_CHECKSUM_ATTRIBUTE_PREFIX_KEY = REALM_STATE_ATTRIBUTE_COMMON_PREFIX + ".import-section-checksum-{0}-{1}";
     public static final String REALM_STATE_ATTRIBUTE_PREFIX_KEY = REALM_STATE_ATTRIBUTE_COMMON_PREFIX + ".state-{0}-{1}";
+    public static final String REALM_STATE_MANIFEST_ATTRIBUTE_KEY = REALM_STATE_ATTRIBUTE_COMMON_PREFIX + ".remote-state-{0}";
+    public static final String REALM_STATE_CHUNK_ATTRIBUTE_PREFIX_KEY = REALM_STATE_ATTRIBUTE_COMMON_PREFIX + ".remote-state-{0}-{1}";
 
     @NotNull
     private final boolean validate;
@@ -62,10 +67,20 @@ public class ImportConfigProperties {
     @Valid
     private final ImportRemoteStateProperties remoteState;
 
+    @Valid
+    private final ImportConcurrencyProperties concurrency;
+
+    @Valid
+    private final ImportMetricsProperties metrics;
+
+    @Valid
+    private final ImportWatchProperties watch;
+
     public ImportConfigProperties(boolean validate, boolean parallel,
                                   ImportFilesProperties files, ImportVarSubstitutionProperties varSubstitution,
                                   ImportBehaviorsProperties behaviors, ImportCacheProperties cache, ImportManagedProperties managed,
-                                  ImportRemoteStateProperties remoteState
+                                  ImportRemoteStateProperties remoteState, ImportConcurrencyProperties concurrency,
+                                  ImportMetricsProperties metrics, ImportWatchProperties watch
     ) {
         this.validate = validate;
         this.parallel = parallel;
@@ -75,6 +90,9 @@ public class ImportConfigProperties {
         this.cache = cache;
         this.managed = managed;
         this.remoteState = remoteState;
+        this.concurrency = concurrency;
+        this.metrics = metrics;
+        this.watch = watch;
     }
 
     public boolean isValidate() {
@@ -109,6 +127,18 @@ public class ImportConfigProperties {
         return remoteState;
     }
 
+    public ImportConcurrencyProperties getConcurrency() {
+        return concurrency;
+    }
+
+    public ImportMetricsProperties getMetrics() {
+        return metrics;
+    }
+
+    public ImportWatchProperties getWatch() {
+        return watch;
+    }
+
     @SuppressWarnings("unused")
     public static class ImportManagedProperties {
         @NotNull
@@ -316,10 +346,23 @@ public class ImportConfigProperties {
         @NotNull
         private final boolean skipAttributesForFederatedUser;
 
-        public ImportBehaviorsProperties(boolean syncUserFederation, boolean removeDefaultRoleFromUser, boolean skipAttributesForFederatedUser) {
+        @Min(0)
+        private final int userBatchSize;
+
+        @NotNull
+        private final boolean createRealmInOneRequest;
+
+        @Min(0)
+        private final int clientAuthorizationBatchSize;
+
+        public ImportBehaviorsProperties(boolean syncUserFederation, boolean removeDefaultRoleFromUser, boolean skipAttributesForFederatedUser,
+                                         int userBatchSize, boolean createRealmInOneRequest, int clientAuthorizationBatchSize) {
             this.syncUserFederation = syncUserFederation;
             this.removeDefaultRoleFromUser = removeDefaultRoleFromUser;
             this.skipAttributesForFederatedUser = skipAttributesForFederatedUser;
+            this.userBatchSize = userBatchSize;
+            this.createRealmInOneRequest = createRealmInOneRequest;
+            this.clientAuthorizationBatchSize = clientAuthorizationBatchSize;
         }
 
         public boolean isSyncUserFederation() {
@@ -333,6 +376,18 @@ public class ImportConfigProperties {
         public boolean isSkipAttributesForFederatedUser() {
             return skipAttributesForFederatedUser;
         }
+
+        public int getUserBatchSize() {
+            return userBatchSize;
+        }
+
+        public boolean isCreateRealmInOneRequest() {
+            return createRealmInOneRequest;
+        }
+
+        public int getClientAuthorizationBatchSize() {
+            return clientAuthorizationBatchSize;
+        }
     }
 
     @SuppressWarnings("unused")
@@ -343,9 +398,13 @@ public class ImportConfigProperties {
         @NotNull
         private final String key;
 
-        public ImportCacheProperties(boolean enabled, String key) {
+        @NotNull
+        private final boolean sections;
+
+        public ImportCacheProperties(boolean enabled, String key, boolean sections) {
             this.enabled = enabled;
             this.key = key;
+            this.sections = sections;
         }
 
         public boolean isEnabled() {
@@ -355,6 +414,10 @@ public class ImportConfigProperties {
         public String getKey() {
             return key;
         }
+
+        public boolean isSections() {
+            return sections;
+        }
     }
 
     @SuppressWarnings("unused")
@@ -385,4 +448,108 @@ public class ImportConfigProperties {
             return encryptionSalt;
         }
     }
+
+    @SuppressWarnings("unused")
+    public static class ImportConcurrencyProperties {
+        @Min(1)
+        private final int stages;
+
+        @Min(1)
+        private final int realms;
+
+        @Min(1)
+        private final int tasks;
+
+        @NotNull
+        private final Duration readTtl;
+
+        public ImportConcurrencyProperties(int stages, int realms, int tasks, Duration readTtl) {
+            this.stages = stages;
+            this.realms = realms;
+            this.tasks = tasks;
+            this.readTtl = readTtl;
+        }
+
+        public int getStages() {
+            return stages;
+        }
+
+        public int getRealms() {
+            return realms;
+        }
+
+        public int getTasks() {
+            return tasks;
+        }
+
+        public Duration getReadTtl() {
+            return readTtl;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    public static class ImportMetricsProperties {
+        @NotNull
+        private final boolean enabled;
+
+        private final String jsonFile;
+
+        private final String prometheusFile;
+
+        public ImportMetricsProperties(boolean enabled, String jsonFile, String prometheusFile) {
+            this.enabled = enabled;
+            this.jsonFile = jsonFile;
+            this.prometheusFile = prometheusFile;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public String getJsonFile() {
+            return jsonFile;
+        }
+
+        public String getPrometheusFile() {
+            return prometheusFile;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    public static class ImportWatchProperties {
+        @NotNull
+        private final boolean enabled;
+
+        @NotNull
+        private final Duration pollInterval;
+
+        @NotNull
+        private final Duration delay;
+
+        @Min(0)
+        private final int port;
+
+        public ImportWatchProperties(boolean enabled, Duration pollInterval, Duration delay, int port) {
+            this.enabled = enabled;
+            this.pollInterval = pollInterval;
+            this.delay = delay;
+            this.port = port;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public Duration getDelay() {
+            return delay;
+        }
+
+        public int getPort() {
+            return port;
+        }
+    }
 }
@@ -0,0 +1,139 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Computes the SHA-256 checksum of the UTF-8 encoded characters while they are read.
+ * The result is the same as {@link DigestUtils#sha256Hex(String)} of the whole content.
+ */
+class ChecksumReader extends FilterReader {
+    private final MessageDigest digest = DigestUtils.getSha256Digest();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(8192);
+
+    private Character pendingHighSurrogate;
+    private long length;
+
+    ChecksumReader(Reader reader) {
+        super(reader);
+    }
+
+    @Override
+    public int read() throws IOException {
+        char[] chars = new char[1];
+        return read(chars, 0, 1) < 0 ? -1 : chars[0];
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        int count = super.read(cbuf, off, len);
+
+        if (count > 0) {
+            update(cbuf, off, count);
+        }
+
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        char[] chars = new char[(int) Math.min(n, 8192)];
+        int count = read(chars, 0, chars.length);
+        return Math.max(count, 0);
+    }
+
+    /**
+     * number of characters read so far
+     */
+    long getLength() {
+        return length;
+    }
+
+    /**
+     * checksum of all characters read so far, may only be called once
+     */
+    String getChecksum() {
+        CharBuffer chars = CharBuffer.allocate(1);
+        if (pendingHighSurrogate != null) {
+            chars.put(pendingHighSurrogate);
+            pendingHighSurrogate = null;
+        }
+        chars.flip();
+
+        encode(chars, true);
+        encoder.flush(bytes);
+        digestBytes();
+
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private void update(char[] cbuf, int off, int count) {
+        length += count;
+
+        CharBuffer chars = CharBuffer.allocate(count + 1);
+        if (pendingHighSurrogate != null) {
+            chars.put(pendingHighSurrogate);
+        }
+        chars.put(cbuf, off, count);
+        chars.flip();
+
+        // a high surrogate at the end belongs to the first character of the next chunk
+        char last = chars.get(chars.limit() - 1);
+        if (Character.isHighSurrogate(last)) {
+            pendingHighSurrogate = last;
+            chars.limit(chars.limit() - 1);
+        } else {
+            pendingHighSurrogate = null;
+        }
+
+        encode(chars, false);
+    }
+
+    private void encode(CharBuffer chars, boolean endOfInput) {
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, bytes, endOfInput);
+            digestBytes();
+        } while (result.isOverflow());
+    }
+
+    private void digestBytes() {
+        bytes.flip();
+        digest.update(bytes);
+        bytes.clear();
+    }
+}
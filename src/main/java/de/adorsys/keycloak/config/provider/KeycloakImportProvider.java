@@ -20,13 +20,20 @@
 
 package de.adorsys.keycloak.config.provider;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLParser;
 import de.adorsys.keycloak.config.exception.InvalidImportException;
-import de.adorsys.keycloak.config.model.ImportResource;
 import de.adorsys.keycloak.config.model.KeycloakImport;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.util.ObjectMapperUtil;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -47,6 +54,8 @@ import org.yaml.snakeyaml.Yaml;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.Authenticator;
 import java.net.PasswordAuthentication;
 import java.nio.charset.StandardCharsets;
@@ -62,9 +71,14 @@ public class KeycloakImportProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(KeycloakImportProvider.class);
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMapperUtil.create()
             .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
 
+    private static final YAMLFactory YAML_FACTORY = new YAMLFactory();
+    private static final ObjectReader REALM_IMPORT_READER = ObjectMapperUtil.create(YAML_FACTORY)
+            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(RealmImport.class);
+
     @Autowired
     public KeycloakImportProvider(
             Environment environment,
@@ -119,10 +133,8 @@ public class KeycloakImportProvider {
             // Import Pipe
             Map<String, List<RealmImport>> realmImport = Arrays.stream(resources)
                     .map(this::readResource)
-                    .filter(this::filterEmptyResources)
+                    .filter(Objects::nonNull)
                     .sorted(Map.Entry.comparingByKey())
-                    .map(this::substituteImportResource)
-                    .map(this::readRealmImportFromImportResource)
                     .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
                             (oldValue, newValue) -> oldValue, LinkedHashMap::new));
 
@@ -169,13 +181,14 @@ public class KeycloakImportProvider {
                 });
     }
 
-    private ImportResource readResource(Resource resource) {
+    // returns null for empty resources
+    private Pair<String, List<RealmImport>> readResource(Resource resource) {
         logger.debug("Loading file '{}'", resource.getFilename());
 
         try {
             resource = setupAuthentication(resource);
             try (InputStream inputStream = resource.getInputStream()) {
-                return new ImportResource(resource.getURI().toString(), new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+                return readRealmImportFromResource(resource.getURI().toString(), resource, inputStream);
             }
         } catch (IOException e) {
             throw new InvalidImportException("Unable to proceed resource '" + resource + "': " + e.getMessage(), e);
@@ -184,21 +197,67 @@ public class KeycloakImportProvider {
         }
     }
 
-    private boolean filterEmptyResources(ImportResource resource) {
-        return !resource.getValue().isEmpty();
-    }
+    /*
+     * The content is parsed as stream, so large files don't need to fit into memory several times.
+     * YAML aliases can't be resolved that way, files using them are read by readRealmImportWithAliases.
+     */
+    private Pair<String, List<RealmImport>> readRealmImportFromResource(
+            String location, Resource resource, InputStream inputStream
+    ) throws IOException {
+        Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
 
-    private ImportResource substituteImportResource(ImportResource importResource) {
+        VariableSubstitutionReader substitutionReader = null;
         if (importConfigProperties.getVarSubstitution().isEnabled()) {
-            importResource.setValue(interpolator.replace(importResource.getValue()));
+            substitutionReader = new VariableSubstitutionReader(reader, interpolator,
+                    importConfigProperties.getVarSubstitution().getPrefix(),
+                    importConfigProperties.getVarSubstitution().getSuffix(),
+                    importConfigProperties.getVarSubstitution().isNested());
+            reader = substitutionReader;
+        }
+
+        List<RealmImport> realmImports;
+        String contentChecksum;
+
+        try (ChecksumReader checksumReader = new ChecksumReader(reader);
+                AliasDetectingParser parser = new AliasDetectingParser(YAML_FACTORY.createParser(checksumReader))) {
+            try {
+                realmImports = REALM_IMPORT_READER.<RealmImport>readValues(parser).readAll();
+            } catch (IOException | RuntimeException e) {
+                if (substitutionReader != null && substitutionReader.getSubstitutionError() != null) {
+                    throw substitutionReader.getSubstitutionError();
+                }
+
+                if (parser.isAliasDetected()) {
+                    return readRealmImportWithAliases(location, resource);
+                }
+
+                throw new InvalidImportException("Unable to parse file '" + location + "': " + e.getMessage(), e);
+            }
+
+            if (checksumReader.getLength() == 0) {
+                return null;
+            }
+
+            contentChecksum = checksumReader.getChecksum();
         }
 
-        return importResource;
+        realmImports.forEach(realmImport -> realmImport.setChecksum(contentChecksum));
+
+        return new ImmutablePair<>(location, realmImports);
     }
 
-    private Pair<String, List<RealmImport>> readRealmImportFromImportResource(ImportResource resource) {
-        String location = resource.getFilename();
-        String content = resource.getValue();
+    private Pair<String, List<RealmImport>> readRealmImportWithAliases(String location, Resource resource) throws IOException {
+        logger.debug("File '{}' contains YAML aliases, reading it completely", location);
+
+        String content;
+        try (InputStream inputStream = resource.getInputStream()) {
+            content = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        if (importConfigProperties.getVarSubstitution().isEnabled()) {
+            content = interpolator.replace(content);
+        }
+
         String contentChecksum = DigestUtils.sha256Hex(content);
 
         if (logger.isTraceEnabled()) {
@@ -267,4 +326,62 @@ public class KeycloakImportProvider {
         String location = resource.getURI().toString().replace(userInfo + "@", "***@");
         return new UrlResource(location);
     }
+
+    /**
+     * Jackson doesn't resolve YAML aliases and merge keys, so parsing is aborted as soon as one shows up.
+     */
+    private static class AliasDetectingParser extends JsonParserDelegate {
+        private static final String MERGE_KEY = "<<";
+
+        private boolean aliasDetected;
+
+        AliasDetectingParser(YAMLParser parser) {
+            super(parser);
+        }
+
+        boolean isAliasDetected() {
+            return aliasDetected;
+        }
+
+        @Override
+        public JsonToken nextToken() throws IOException {
+            JsonToken token = super.nextToken();
+
+            if (((YAMLParser) delegate).isCurrentAlias()
+                    || token == JsonToken.FIELD_NAME && MERGE_KEY.equals(delegate.currentName())) {
+                aliasDetected = true;
+                throw new JsonParseException(this, "YAML aliases are not supported while streaming");
+            }
+
+            return token;
+        }
+
+        // route through nextToken, so field names are checked as well
+        @Override
+        public JsonToken nextValue() throws IOException {
+            JsonToken token = nextToken();
+            return token == JsonToken.FIELD_NAME ? nextToken() : token;
+        }
+
+        @Override
+        public JsonParser skipChildren() throws IOException {
+            if (currentToken() != JsonToken.START_OBJECT && currentToken() != JsonToken.START_ARRAY) {
+                return this;
+            }
+
+            int depth = 1;
+            while (depth > 0) {
+                JsonToken token = nextToken();
+                if (token == null) break;
+
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                }
+            }
+
+            return this;
+        }
+    }
 }
@@ -21,7 +21,11 @@
 package de.adorsys.keycloak.config.provider;
 
 import de.adorsys.keycloak.config.exception.KeycloakProviderException;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportConcurrencyProperties;
 import de.adorsys.keycloak.config.properties.KeycloakConfigProperties;
+import de.adorsys.keycloak.config.repository.ReadCoalescer;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
 import de.adorsys.keycloak.config.util.ResteasyUtil;
 import net.jodah.failsafe.Failsafe;
 import net.jodah.failsafe.RetryPolicy;
@@ -30,6 +34,7 @@ import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
 import org.jboss.resteasy.client.jaxrs.internal.BasicAuthentication;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.KeycloakBuilder;
+import org.keycloak.admin.client.token.TokenManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,6 +45,11 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.text.MessageFormat;
 import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Form;
@@ -53,32 +63,69 @@ import javax.ws.rs.core.Response;
 public class KeycloakProvider implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(KeycloakProvider.class);
 
+    // the token manager considers tokens expiring within 30 seconds as expired, they are refreshed before
+    private static final long TOKEN_REFRESH_MARGIN_SECONDS = 40;
+    private static final long MIN_TOKEN_REFRESH_DELAY_SECONDS = 5;
+
     private final KeycloakConfigProperties properties;
     private final ResteasyClient resteasyClient;
+    private final ScheduledExecutorService tokenRefresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "keycloak-token-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong refreshRequests = new AtomicLong();
+    private final Object refreshLock = new Object();
+    private long refreshedRequests;
 
-    private Keycloak keycloak;
+    private volatile Keycloak keycloak;
 
-    private String version;
+    private volatile String version;
 
     @Autowired
-    private KeycloakProvider(KeycloakConfigProperties properties) {
+    private KeycloakProvider(KeycloakConfigProperties properties, ImportConfigProperties importConfigProperties, ImportMetrics importMetrics,
+                             ReadCoalescer readCoalescer) {
         this.properties = properties;
         this.resteasyClient = ResteasyUtil.getClient(
                 !this.properties.isSslVerify(),
                 this.properties.getHttpProxy(),
                 this.properties.getConnectTimeout(),
-                this.properties.getReadTimeout()
+                this.properties.getReadTimeout(),
+                getConnectionPoolSize(importConfigProperties),
+                importMetrics.isEnabled() ? importMetrics.getHttpFilter() : null,
+                this::reauthenticate,
+                readCoalescer::invalidate
         );
     }
 
+    // every concurrent import task and stage may hold a connection
+    private static int getConnectionPoolSize(ImportConfigProperties importConfigProperties) {
+        ImportConcurrencyProperties concurrency = importConfigProperties.getConcurrency();
+        return Math.max(10, concurrency.getTasks() + concurrency.getStages() * concurrency.getRealms());
+    }
+
+    /**
+     * Safe for concurrent use. Only the creation of the instance is serialized, all later calls don't lock.
+     */
     public Keycloak getInstance() {
-        if (keycloak == null || keycloak.isClosed()) {
-            keycloak = createKeycloak();
+        Keycloak instance = keycloak;
+        if (instance != null && !instance.isClosed()) {
+            return instance;
+        }
 
-            checkServerVersion();
+        synchronized (this) {
+            instance = keycloak;
+            if (instance == null || instance.isClosed()) {
+                instance = createKeycloak();
+                keycloak = instance;
+
+                checkServerVersion();
+                scheduleTokenRefresh(instance);
+            }
         }
 
-        return keycloak;
+        return instance;
     }
 
     public String getKeycloakVersion() {
@@ -89,8 +136,21 @@ public class KeycloakProvider implements AutoCloseable {
         return version;
     }
 
+    /**
+     * Gets a new access token, e.g. to see the roles of a new realm. Concurrent calls are served by a single request to keycloak,
+     * as long as it started after they were made.
+     */
     public void refreshToken() {
-        getInstance().tokenManager().refreshToken();
+        long request = refreshRequests.incrementAndGet();
+        Keycloak instance = getInstance();
+
+        synchronized (refreshLock) {
+            if (refreshedRequests >= request) return;
+
+            long coveredRequests = refreshRequests.get();
+            instance.tokenManager().refreshToken();
+            refreshedRequests = coveredRequests;
+        }
     }
 
     public <T> T getCustomApiProxy(Class<T> proxyClass) {
@@ -102,6 +162,61 @@ public class KeycloakProvider implements AutoCloseable {
         }
     }
 
+    /*
+     * Tokens are renewed in the background before they expire, so import workers never wait for the token endpoint. If it fails,
+     * the token manager still refreshes on demand.
+     */
+    private void scheduleTokenRefresh(Keycloak instance) {
+        long delay;
+        try {
+            long expiresIn = instance.tokenManager().getAccessToken().getExpiresIn();
+            delay = Math.max(MIN_TOKEN_REFRESH_DELAY_SECONDS, expiresIn - TOKEN_REFRESH_MARGIN_SECONDS);
+        } catch (RuntimeException e) {
+            logger.warn("Unable to get the access token: {}", e.getMessage());
+            delay = MIN_TOKEN_REFRESH_DELAY_SECONDS;
+        }
+
+        try {
+            tokenRefresher.schedule(() -> refreshInBackground(instance), delay, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Token refresh not scheduled, keycloak provider is closed");
+        }
+    }
+
+    private void refreshInBackground(Keycloak instance) {
+        if (instance != keycloak || instance.isClosed()) return;
+
+        try {
+            refreshToken();
+            logger.trace("Refreshed access token");
+        } catch (RuntimeException e) {
+            logger.warn("Unable to refresh the access token: {}", e.getMessage());
+        }
+
+        scheduleTokenRefresh(instance);
+    }
+
+    /*
+     * Called for every request rejected with 401. The token manager lock makes invalidate and re-authentication one step, so only
+     * the first request rejected with a token gets a new token from keycloak, all others reuse it.
+     */
+    private String reauthenticate(String rejectedToken) {
+        Keycloak instance = keycloak;
+        if (instance == null || instance.isClosed()) return null;
+
+        TokenManager tokenManager = instance.tokenManager();
+        String token;
+        synchronized (tokenManager) {
+            tokenManager.invalidate(rejectedToken);
+            token = tokenManager.getAccessTokenString();
+        }
+
+        if (rejectedToken.equals(token)) return null;
+
+        logger.debug("Access token was rejected, repeat request with a new one");
+        return token;
+    }
+
     private Keycloak createKeycloak() {
         Keycloak result;
         if (properties.getAvailabilityCheck().isEnabled()) {
@@ -176,6 +291,8 @@ public class KeycloakProvider implements AutoCloseable {
 
     @Override
     public void close() {
+        tokenRefresher.shutdownNow();
+
         if (!isClosed()) {
             logout();
             keycloak.close();
@@ -0,0 +1,178 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import org.apache.commons.text.StringSubstitutor;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Applies the variable substitution to a character stream without reading it completely into memory.
+ * Each variable expression is passed to the {@link StringSubstitutor} together with the character in front of it,
+ * so escaped and nested variables are handled in the same way as with {@link StringSubstitutor#replace(String)}.
+ */
+class VariableSubstitutionReader extends Reader {
+    private static final int MAX_VARIABLE_LENGTH = 64 * 1024;
+
+    private final Reader reader;
+    private final StringSubstitutor substitutor;
+    private final String prefix;
+    private final String suffix;
+    private final boolean nested;
+
+    private final char[] buffer = new char[8192];
+    private final StringBuilder input = new StringBuilder();
+    private boolean endOfInput;
+
+    private String output = "";
+    private int outputPosition;
+
+    private RuntimeException substitutionError;
+
+    VariableSubstitutionReader(Reader reader, StringSubstitutor substitutor, String prefix, String suffix, boolean nested) {
+        this.reader = reader;
+        this.substitutor = substitutor;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.nested = nested;
+    }
+
+    /**
+     * the exception thrown by the substitutor, parsers may wrap it on its way up
+     */
+    RuntimeException getSubstitutionError() {
+        return substitutionError;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) return 0;
+
+        while (outputPosition >= output.length()) {
+            if (!substituteNext()) return -1;
+        }
+
+        int count = Math.min(len, output.length() - outputPosition);
+        output.getChars(outputPosition, outputPosition + count, cbuf, off);
+        outputPosition += count;
+
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // moves the next part of the input to the output, returns false at the end of the input
+    private boolean substituteNext() throws IOException {
+        while (true) {
+            int start = input.indexOf(prefix);
+
+            if (start < 0) {
+                if (endOfInput) {
+                    return input.length() > 0 && emit(input.length(), false);
+                }
+
+                // the end of the input may contain an escape character and the beginning of a prefix
+                if (input.length() > prefix.length()) {
+                    return emit(input.length() - prefix.length(), false);
+                }
+
+                fill();
+                continue;
+            }
+
+            // keep a possible escape character in front of the prefix
+            if (start > 1) {
+                return emit(start - 1, false);
+            }
+
+            int end = findEnd(start + prefix.length());
+            if (end < 0) {
+                if (!endOfInput && input.length() < MAX_VARIABLE_LENGTH) {
+                    fill();
+                    continue;
+                }
+
+                // not a complete variable expression, only the prefix is passed to the substitutor
+                end = start + prefix.length();
+            }
+
+            return emit(end, true);
+        }
+    }
+
+    private int findEnd(int from) {
+        int depth = 0;
+
+        for (int index = from; index < input.length(); index++) {
+            if (matches(index, suffix)) {
+                if (depth == 0) return index + suffix.length();
+                depth--;
+            } else if (nested && matches(index, prefix)) {
+                depth++;
+            }
+        }
+
+        return -1;
+    }
+
+    private boolean matches(int index, String value) {
+        if (index + value.length() > input.length()) return false;
+
+        for (int i = 0; i < value.length(); i++) {
+            if (input.charAt(index + i) != value.charAt(i)) return false;
+        }
+
+        return true;
+    }
+
+    private boolean emit(int length, boolean substitute) {
+        String segment = input.substring(0, length);
+        input.delete(0, length);
+
+        if (substitute) {
+            try {
+                segment = substitutor.replace(segment);
+            } catch (RuntimeException e) {
+                substitutionError = e;
+                throw e;
+            }
+        }
+
+        output = segment;
+        outputPosition = 0;
+
+        return true;
+    }
+
+    private void fill() throws IOException {
+        int count = reader.read(buffer);
+
+        if (count < 0) {
+            endOfInput = true;
+        } else {
+            input.append(buffer, 0, count);
+        }
+    }
+}
@@ -48,24 +48,31 @@ public class AuthenticationFlowRepository {
     private static final Logger logger = LoggerFactory.getLogger(AuthenticationFlowRepository.class);
 
     private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository snapshotRepository;
 
     @Autowired
-    public AuthenticationFlowRepository(RealmRepository realmRepository) {
+    public AuthenticationFlowRepository(RealmRepository realmRepository, RealmSnapshotRepository snapshotRepository) {
         this.realmRepository = realmRepository;
+        this.snapshotRepository = snapshotRepository;
     }
 
     public Optional<AuthenticationFlowRepresentation> searchByAlias(String realmName, String alias) {
         logger.trace("Try to get top-level-flow '{}' from realm '{}'", alias, realmName);
 
-        // with `AuthenticationManagementResource.getFlows()` keycloak is NOT returning all so-called top-level-flows, so
-        // we need a partial export
-        RealmRepresentation realmExport = realmRepository.partialExport(realmName, false, false);
-        Assert.notNull(realmExport, "partialExport returns null.");
-
-        return realmExport.getAuthenticationFlows()
-                .stream()
-                .filter(flow -> Objects.equals(flow.getAlias(), alias))
-                .findFirst();
+        return snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getAuthenticationFlows().findBySecondaryKey(alias),
+                () -> {
+                    // with `AuthenticationManagementResource.getFlows()` keycloak is NOT returning all so-called top-level-flows, so
+                    // we need a partial export
+                    RealmRepresentation realmExport = realmRepository.partialExport(realmName, false, false);
+                    Assert.notNull(realmExport, "partialExport returns null.");
+
+                    return realmExport.getAuthenticationFlows()
+                            .stream()
+                            .filter(flow -> Objects.equals(flow.getAlias(), alias))
+                            .findFirst();
+                }
+        );
     }
 
     public AuthenticationFlowRepresentation getByAlias(String realmName, String alias) {
@@ -94,6 +101,8 @@ public class AuthenticationFlowRepository {
             );
 
             throw new ImportProcessingException(errorMessage, error);
+        } finally {
+            snapshotRepository.update(realmName, RealmSnapshot::invalidateAuthentication);
         }
     }
 
@@ -105,6 +114,8 @@ public class AuthenticationFlowRepository {
             String errorMessage = String.format("Cannot update top-level-flow '%s' in realm '%s'.", flow.getAlias(), realmName);
 
             throw new ImportProcessingException(errorMessage, error);
+        } finally {
+            snapshotRepository.update(realmName, RealmSnapshot::invalidateAuthentication);
         }
     }
 
@@ -137,6 +148,8 @@ public class AuthenticationFlowRepository {
                     ),
                     e
             );
+        } finally {
+            snapshotRepository.update(realmName, RealmSnapshot::invalidateAuthentication);
         }
     }
 
@@ -156,10 +169,10 @@ public class AuthenticationFlowRepository {
     }
 
     public List<AuthenticationFlowRepresentation> getAll(String realmName) {
-        RealmRepresentation realmExport = realmRepository
-                .partialExport(realmName, false, false);
-
-        return realmExport.getAuthenticationFlows();
+        return snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getAuthenticationFlows().getAll(),
+                () -> realmRepository.partialExport(realmName, false, false).getAuthenticationFlows()
+        );
     }
 
     public Optional<AuthenticationExecutionInfoRepresentation> searchSubFlow(
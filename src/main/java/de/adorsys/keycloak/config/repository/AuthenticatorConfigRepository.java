@@ -22,7 +22,6 @@ package de.adorsys.keycloak.config.repository;
 
 import org.keycloak.admin.client.resource.AuthenticationManagementResource;
 import org.keycloak.representations.idm.AuthenticatorConfigRepresentation;
-import org.keycloak.representations.idm.RealmRepresentation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -34,19 +33,21 @@ import java.util.stream.Collectors;
 public class AuthenticatorConfigRepository {
     private final AuthenticationFlowRepository authenticationFlowRepository;
     private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository snapshotRepository;
 
     @Autowired
     public AuthenticatorConfigRepository(
             AuthenticationFlowRepository authenticationFlowRepository,
-            RealmRepository realmRepository
+            RealmRepository realmRepository,
+            RealmSnapshotRepository snapshotRepository
     ) {
         this.authenticationFlowRepository = authenticationFlowRepository;
         this.realmRepository = realmRepository;
+        this.snapshotRepository = snapshotRepository;
     }
 
     public List<AuthenticatorConfigRepresentation> getConfigsByAlias(String realmName, String alias) {
-        RealmRepresentation realmExport = realmRepository.partialExport(realmName, false, false);
-        return realmExport.getAuthenticatorConfig()
+        return getAll(realmName)
                 .stream()
                 .filter(flow -> Objects.equals(flow.getAlias(), alias))
                 .collect(Collectors.toList());
@@ -55,6 +56,8 @@ public class AuthenticatorConfigRepository {
     public void delete(String realmName, String id) {
         AuthenticationManagementResource flowsResource = authenticationFlowRepository.getFlowResources(realmName);
         flowsResource.removeAuthenticatorConfig(id);
+
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateAuthentication);
     }
 
     public void create(
@@ -64,6 +67,8 @@ public class AuthenticatorConfigRepository {
     ) {
         AuthenticationManagementResource flowsResource = authenticationFlowRepository.getFlowResources(realmName);
         flowsResource.newExecutionConfig(executionId, authenticatorConfigRepresentation);
+
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateAuthentication);
     }
 
     public void update(
@@ -72,10 +77,14 @@ public class AuthenticatorConfigRepository {
     ) {
         AuthenticationManagementResource flowsResource = authenticationFlowRepository.getFlowResources(realmName);
         flowsResource.updateAuthenticatorConfig(authenticatorConfigRepresentation.getId(), authenticatorConfigRepresentation);
+
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateAuthentication);
     }
 
     public List<AuthenticatorConfigRepresentation> getAll(String realmName) {
-        RealmRepresentation realmExport = realmRepository.partialExport(realmName, false, false);
-        return realmExport.getAuthenticatorConfig();
+        return snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getAuthenticatorConfigs().getAll(),
+                () -> realmRepository.partialExport(realmName, false, false).getAuthenticatorConfig()
+        );
     }
 }
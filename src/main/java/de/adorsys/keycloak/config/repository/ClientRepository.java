@@ -49,14 +49,27 @@ import javax.ws.rs.core.Response;
 public class ClientRepository {
 
     private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository snapshotRepository;
+    private final ReadCoalescer readCoalescer;
 
     @Autowired
-    public ClientRepository(RealmRepository realmRepository) {
+    public ClientRepository(RealmRepository realmRepository, RealmSnapshotRepository snapshotRepository, ReadCoalescer readCoalescer) {
         this.realmRepository = realmRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.readCoalescer = readCoalescer;
     }
 
     public Optional<ClientRepresentation> searchByClientId(String realmName, String clientId) {
-        List<ClientRepresentation> foundClients = getResource(realmName).findByClientId(Objects.requireNonNull(clientId));
+        return snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getClients().findBySecondaryKey(Objects.requireNonNull(clientId)),
+                () -> findByClientId(realmName, clientId)
+        );
+    }
+
+    private Optional<ClientRepresentation> findByClientId(String realmName, String clientId) {
+        List<ClientRepresentation> foundClients = readCoalescer.read(realmName, "clients?clientId=" + Objects.requireNonNull(clientId),
+                () -> getResource(realmName).findByClientId(clientId)
+        );
 
         Optional<ClientRepresentation> client;
         if (foundClients.isEmpty()) {
@@ -73,8 +86,7 @@ public class ClientRepository {
 
         // this is expensive, but easy to implement.
         // if this too expensive, please provide a PR which implement a pagination for findAll()
-        Optional<ClientRepresentation> foundClients = realmRepository.getResource(realmName)
-                .partialExport(false, true)
+        Optional<ClientRepresentation> foundClients = snapshotRepository.partialExport(realmName, false, true)
                 .getClients()
                 .stream()
                 .filter(client -> Objects.equals(name, client.getName()))
@@ -114,7 +126,8 @@ public class ClientRepository {
 
     public void create(String realmName, ClientRepresentation client) {
         try (Response response = getResource(realmName).create(client)) {
-            CreatedResponseUtil.getCreatedId(response);
+            String id = CreatedResponseUtil.getCreatedId(response);
+            refresh(realmName, id);
         } catch (WebApplicationException error) {
             String errorMessage = ResponseUtil.getErrorMessage(error);
 
@@ -128,11 +141,35 @@ public class ClientRepository {
     public void update(String realmName, ClientRepresentation client) {
         ClientResource clientResource = getResourceById(realmName, client.getId());
         clientResource.update(client);
+
+        refresh(realmName, client.getId());
     }
 
     public void remove(String realmName, ClientRepresentation client) {
         ClientResource clientResource = getResourceById(realmName, client.getId());
         clientResource.remove();
+
+        snapshotRepository.update(realmName, snapshot -> {
+            snapshot.getClients().remove(client.getId());
+            snapshot.removeClientRoles(client.getId());
+        });
+    }
+
+    /**
+     * Re-reads a client after a write, so the snapshot of the realm reflects the server side defaults.
+     * Client roles are dropped too, since enabling authorization creates some.
+     */
+    private void refresh(String realmName, String id) {
+        snapshotRepository.update(realmName, snapshot -> {
+            snapshot.getClients().put(getResourceById(realmName, id).toRepresentation());
+            snapshot.removeClientRoles(id);
+        });
+    }
+
+    private void refreshByClientId(String realmName, String clientId) {
+        snapshotRepository.update(realmName, snapshot -> snapshot.getClients().findBySecondaryKey(clientId)
+                .ifPresent(client -> snapshot.getClients().put(getResourceById(realmName, client.getId()).toRepresentation()))
+        );
     }
 
     private ClientsResource getResource(String realmName) {
@@ -163,7 +200,10 @@ public class ClientRepository {
     }
 
     public final List<ClientRepresentation> getAll(String realmName) {
-        return getResource(realmName).findAll();
+        return snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getClients().getAll(),
+                () -> getResource(realmName).findAll()
+        );
     }
 
     public void updateAuthorizationSettings(String realmName, String id, ResourceServerRepresentation authorizationSettings) {
@@ -171,6 +211,14 @@ public class ClientRepository {
         clientResource.authorization().update(authorizationSettings);
     }
 
+    /**
+     * Creates or updates, by name, all scopes, resources and policies of the given settings in one transaction.
+     */
+    public void importAuthorizationSettings(String realmName, String id, ResourceServerRepresentation authorizationSettings) {
+        ClientResource clientResource = getResourceById(realmName, id);
+        clientResource.authorization().importSettings(authorizationSettings);
+    }
+
     public void createAuthorizationResource(String realmName, String id, ResourceRepresentation resource) {
         ClientResource clientResource = getResourceById(realmName, id);
 
@@ -215,6 +263,11 @@ public class ClientRepository {
         }
     }
 
+    public PolicyRepresentation getAuthorizationPolicyByName(String realmName, String id, String name) {
+        ClientResource clientResource = getResourceById(realmName, id);
+        return clientResource.authorization().policies().findByName(name);
+    }
+
     public void updateAuthorizationPolicy(String realmName, String id, PolicyRepresentation policy) {
         ClientResource clientResource = getResourceById(realmName, id);
         clientResource.authorization().policies().policy(policy.getId()).update(policy);
@@ -232,6 +285,7 @@ public class ClientRepository {
                 .getScopeMappings()
                 .clientLevel(clientLevelId)
                 .add(roles);
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateExports);
     }
 
     public void removeScopeMapping(String realmName, String clientId,
@@ -241,6 +295,7 @@ public class ClientRepository {
                 .getScopeMappings()
                 .clientLevel(clientLevelId)
                 .remove(roles);
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateExports);
     }
 
     public void addDefaultClientScopes(String realmName, String clientId,
@@ -250,6 +305,8 @@ public class ClientRepository {
         for (ClientScopeRepresentation defaultClientScope : defaultClientScopes) {
             clientResource.addDefaultClientScope(defaultClientScope.getId());
         }
+
+        refreshByClientId(realmName, clientId);
     }
 
     public void removeDefaultClientScopes(String realmName, String clientId,
@@ -259,6 +316,8 @@ public class ClientRepository {
         for (ClientScopeRepresentation defaultClientScope : defaultClientScopes) {
             clientResource.removeDefaultClientScope(defaultClientScope.getId());
         }
+
+        refreshByClientId(realmName, clientId);
     }
 
     public void addOptionalClientScopes(String realmName, String clientId,
@@ -268,6 +327,8 @@ public class ClientRepository {
         for (ClientScopeRepresentation optionalClientScope : optionalClientScopes) {
             clientResource.addOptionalClientScope(optionalClientScope.getId());
         }
+
+        refreshByClientId(realmName, clientId);
     }
 
     public void removeOptionalClientScopes(String realmName, String clientId,
@@ -277,6 +338,8 @@ public class ClientRepository {
         for (ClientScopeRepresentation optionalClientScope : optionalClientScopes) {
             clientResource.removeOptionalClientScope(optionalClientScope.getId());
         }
+
+        refreshByClientId(realmName, clientId);
     }
 
     public void enablePermission(String realmName, String id) {
@@ -24,7 +24,6 @@ import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.util.ResponseUtil;
 import org.keycloak.admin.client.CreatedResponseUtil;
 import org.keycloak.admin.client.resource.ClientScopeResource;
-import org.keycloak.admin.client.resource.ClientScopesResource;
 import org.keycloak.admin.client.resource.ProtocolMappersResource;
 import org.keycloak.representations.idm.ClientScopeRepresentation;
 import org.keycloak.representations.idm.ProtocolMapperRepresentation;
@@ -43,15 +42,19 @@ import javax.ws.rs.core.Response;
 public class ClientScopeRepository {
 
     private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository snapshotRepository;
 
     @Autowired
-    public ClientScopeRepository(RealmRepository realmRepository) {
+    public ClientScopeRepository(RealmRepository realmRepository, RealmSnapshotRepository snapshotRepository) {
         this.realmRepository = realmRepository;
+        this.snapshotRepository = snapshotRepository;
     }
 
     public List<ClientScopeRepresentation> getAll(String realmName) {
-        ClientScopesResource clientScopeResource = realmRepository.getResource(realmName).clientScopes();
-        return clientScopeResource.findAll();
+        return snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getClientScopes().getAll(),
+                () -> realmRepository.getResource(realmName).clientScopes().findAll()
+        );
     }
 
     public List<ClientScopeRepresentation> getListByNames(String realmName, List<String> clientScopeNames) {
@@ -62,6 +65,10 @@ public class ClientScopeRepository {
     }
 
     public ClientScopeRepresentation getByName(String realmName, String clientScopeName) {
+        if (snapshotRepository.isOpen(realmName)) {
+            return searchByName(realmName, clientScopeName).orElse(null);
+        }
+
         ClientScopeResource clientScopeResource = getResourceByName(realmName, clientScopeName);
         if (clientScopeResource == null) {
             return null;
@@ -70,6 +77,15 @@ public class ClientScopeRepository {
     }
 
     public ClientScopeRepresentation getById(String realmName, String clientScopeId) {
+        Optional<ClientScopeRepresentation> cachedClientScope = snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getClientScopes().findByPrimaryKey(clientScopeId),
+                Optional::empty
+        );
+
+        if (cachedClientScope.isPresent()) {
+            return cachedClientScope.get();
+        }
+
         ClientScopeResource clientScopeResource = getResourceById(realmName, clientScopeId);
         if (clientScopeResource == null) {
             return null;
@@ -79,18 +95,27 @@ public class ClientScopeRepository {
 
     public void create(String realmName, ClientScopeRepresentation clientScope) {
         try (Response response = realmRepository.getResource(realmName).clientScopes().create(clientScope)) {
-            CreatedResponseUtil.getCreatedId(response);
+            String id = CreatedResponseUtil.getCreatedId(response);
+            refresh(realmName, id);
         }
     }
 
     public void delete(String realmName, String id) {
         ClientScopeResource clientScopeResource = getResourceById(realmName, id);
         clientScopeResource.remove();
+
+        snapshotRepository.update(realmName, snapshot -> {
+            snapshot.getClientScopes().remove(id);
+            snapshot.getClients().invalidate();
+        });
     }
 
     public void update(String realmName, ClientScopeRepresentation clientScope) {
         ClientScopeResource clientScopeResource = getResourceById(realmName, clientScope.getId());
         clientScopeResource.update(clientScope);
+
+        refresh(realmName, clientScope.getId());
+        snapshotRepository.update(realmName, snapshot -> snapshot.getClients().invalidate());
     }
 
     public void addProtocolMappers(String realmName, String clientScopeId, List<ProtocolMapperRepresentation> protocolMappers) {
@@ -102,6 +127,8 @@ public class ClientScopeRepository {
                 CreatedResponseUtil.getCreatedId(response);
             }
         }
+
+        refresh(realmName, clientScopeId);
     }
 
     public void removeProtocolMappers(String realmName, String clientScopeId, List<ProtocolMapperRepresentation> protocolMappers) {
@@ -118,6 +145,8 @@ public class ClientScopeRepository {
         for (ProtocolMapperRepresentation protocolMapper : protocolMapperToRemove) {
             protocolMappersResource.delete(protocolMapper.getId());
         }
+
+        refresh(realmName, clientScopeId);
     }
 
     public void updateProtocolMappers(String realmName, String clientScopeId, List<ProtocolMapperRepresentation> protocolMappers) {
@@ -139,6 +168,12 @@ public class ClientScopeRepository {
                 );
             }
         }
+
+        refresh(realmName, clientScopeId);
+    }
+
+    private void refresh(String realmName, String id) {
+        snapshotRepository.update(realmName, snapshot -> snapshot.getClientScopes().put(getResourceById(realmName, id).toRepresentation()));
     }
 
     private ClientScopeResource getResourceByName(String realmName, String clientScopeName) {
@@ -158,12 +193,13 @@ public class ClientScopeRepository {
     }
 
     public Optional<ClientScopeRepresentation> searchByName(String realmName, String clientScopeName) {
-        ClientScopesResource clientScopeResource = realmRepository.getResource(realmName).clientScopes();
-
-        return clientScopeResource.findAll()
-                .stream()
-                .filter(s -> Objects.equals(s.getName(), clientScopeName))
-                .findFirst();
+        return snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getClientScopes().findBySecondaryKey(clientScopeName),
+                () -> realmRepository.getResource(realmName).clientScopes().findAll()
+                        .stream()
+                        .filter(s -> Objects.equals(s.getName(), clientScopeName))
+                        .findFirst()
+        );
     }
 
     public List<ClientScopeRepresentation> getDefaultClientScopes(String realmName) {
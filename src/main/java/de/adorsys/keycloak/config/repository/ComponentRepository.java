@@ -34,6 +34,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 
@@ -41,15 +42,22 @@ import javax.ws.rs.core.Response;
 public class ComponentRepository {
 
     private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository snapshotRepository;
 
     @Autowired
-    public ComponentRepository(RealmRepository realmRepository) {
+    public ComponentRepository(RealmRepository realmRepository, RealmSnapshotRepository snapshotRepository) {
         this.realmRepository = realmRepository;
+        this.snapshotRepository = snapshotRepository;
     }
 
     public String create(String realmName, ComponentRepresentation component) {
         try (Response response = getComponentsResource(realmName).add(component)) {
-            return CreatedResponseUtil.getCreatedId(response);
+            String id = CreatedResponseUtil.getCreatedId(response);
+
+            // some providers, e.g. ldap, create their own sub-components
+            snapshotRepository.update(realmName, snapshot -> snapshot.getComponents().invalidate());
+
+            return id;
         } catch (WebApplicationException error) {
             String errorMessage = ResponseUtil.getErrorMessage(error);
 
@@ -66,11 +74,16 @@ public class ComponentRepository {
     public void update(String realmName, ComponentRepresentation component) {
         ComponentsResource componentsResource = getComponentsResource(realmName);
         componentsResource.component(component.getId()).update(component);
+
+        snapshotRepository.update(realmName, snapshot -> snapshot.getComponents().put(getById(realmName, component.getId())));
     }
 
     public void delete(String realmName, ComponentRepresentation component) {
         ComponentsResource componentsResource = getComponentsResource(realmName);
         componentsResource.component(component.getId()).remove();
+
+        // sub-components are removed as well
+        snapshotRepository.update(realmName, snapshot -> snapshot.getComponents().invalidate());
     }
 
     public ComponentRepresentation getById(String realmName, String componentId) {
@@ -89,6 +102,10 @@ public class ComponentRepository {
             parentId = realmResource.toRepresentation().getId();
         }
 
+        if (snapshotRepository.isOpen(realmName)) {
+            return search(realmName, null, null, null, parentId, true);
+        }
+
         RealmResource realmResource = realmRepository.getResource(realmName);
 
         List<ComponentRepresentation> subComponents = realmResource.components().query(parentId);
@@ -105,14 +122,28 @@ public class ComponentRepository {
     }
 
     public Optional<ComponentRepresentation> search(String realmName, String type, String subType, String name, String parentId) {
-        List<ComponentRepresentation> component = getComponentsResource(realmName)
-                .query(parentId, type, name);
-
-        return component.stream()
-                .filter(item -> Objects.equals(subType, item.getSubType()))
+        return search(realmName, type, subType, name, parentId, false)
+                .stream()
                 .findFirst();
     }
 
+    private List<ComponentRepresentation> search(
+            String realmName, String type, String subType, String name, String parentId, boolean anySubType
+    ) {
+        List<ComponentRepresentation> components = snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getComponents().getAll(),
+                () -> getComponentsResource(realmName).query(parentId, type, name)
+        );
+
+        // the filters are no-ops for the result of the query above
+        return components.stream()
+                .filter(item -> parentId == null || Objects.equals(parentId, item.getParentId()))
+                .filter(item -> type == null || Objects.equals(type, item.getProviderType()))
+                .filter(item -> name == null || Objects.equals(name, item.getName()))
+                .filter(item -> anySubType || Objects.equals(subType, item.getSubType()))
+                .collect(Collectors.toList());
+    }
+
     private ComponentsResource getComponentsResource(String realmName) {
         return realmRepository.getResource(realmName).components();
     }
@@ -45,10 +45,15 @@ public class ExecutionFlowRepository {
     private static final Logger logger = LoggerFactory.getLogger(ExecutionFlowRepository.class);
 
     private final AuthenticationFlowRepository authenticationFlowRepository;
+    private final RealmSnapshotRepository snapshotRepository;
 
     @Autowired
-    public ExecutionFlowRepository(AuthenticationFlowRepository authenticationFlowRepository) {
+    public ExecutionFlowRepository(
+            AuthenticationFlowRepository authenticationFlowRepository,
+            RealmSnapshotRepository snapshotRepository
+    ) {
         this.authenticationFlowRepository = authenticationFlowRepository;
+        this.snapshotRepository = snapshotRepository;
     }
 
     public List<AuthenticationExecutionInfoRepresentation> getExecutionFlowsByAlias(
@@ -87,6 +92,8 @@ public class ExecutionFlowRepository {
 
         AuthenticationManagementResource flowsResource = authenticationFlowRepository.getFlowResources(realmName);
         flowsResource.addExecutionFlow(topLevelFlowAlias, executionFlowData);
+
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateAuthentication);
     }
 
     public void updateExecutionFlow(
@@ -99,6 +106,8 @@ public class ExecutionFlowRepository {
 
         AuthenticationManagementResource flowsResource = authenticationFlowRepository.getFlowResources(realmName);
         flowsResource.updateExecutions(flowAlias, executionFlowToUpdate);
+
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateAuthentication);
     }
 
     public String createTopLevelFlowExecution(
@@ -124,6 +133,8 @@ public class ExecutionFlowRepository {
                     ),
                     error
             );
+        } finally {
+            snapshotRepository.update(realmName, RealmSnapshot::invalidateAuthentication);
         }
     }
 
@@ -137,11 +148,50 @@ public class ExecutionFlowRepository {
 
         AuthenticationManagementResource flowsResource = authenticationFlowRepository.getFlowResources(realmName);
         flowsResource.addExecution(subFlowAlias, executionData);
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateAuthentication);
 
         logger.trace("Created flow-execution in realm '{}' and non-top-level-flow '{}'",
                 realmName, subFlowAlias);
     }
 
+    /**
+     * Removes an execution. If it is an execution-flow, keycloak removes the non-top-level flow with all its executions, too.
+     */
+    public void removeExecution(String realmName, String executionId) {
+        logger.trace("Remove flow-execution '{}' in realm '{}'", executionId, realmName);
+
+        AuthenticationManagementResource flowsResource = authenticationFlowRepository.getFlowResources(realmName);
+        try {
+            flowsResource.removeExecution(executionId);
+        } catch (WebApplicationException error) {
+            throw new ImportProcessingException(
+                    String.format("Cannot remove flow-execution '%s' in realm '%s'", executionId, realmName),
+                    error
+            );
+        } finally {
+            snapshotRepository.update(realmName, RealmSnapshot::invalidateAuthentication);
+        }
+    }
+
+    /**
+     * Swaps the execution with its predecessor in the parent flow.
+     */
+    public void raisePriority(String realmName, String executionId) {
+        logger.trace("Raise priority of flow-execution '{}' in realm '{}'", executionId, realmName);
+
+        AuthenticationManagementResource flowsResource = authenticationFlowRepository.getFlowResources(realmName);
+        try {
+            flowsResource.raisePriority(executionId);
+        } catch (WebApplicationException error) {
+            throw new ImportProcessingException(
+                    String.format("Cannot raise priority of flow-execution '%s' in realm '%s'", executionId, realmName),
+                    error
+            );
+        } finally {
+            snapshotRepository.update(realmName, RealmSnapshot::invalidateAuthentication);
+        }
+    }
+
     private List<AuthenticationExecutionInfoRepresentation> searchByAlias(
             String realmName,
             String topLevelFlowAlias,
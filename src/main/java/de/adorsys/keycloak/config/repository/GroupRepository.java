@@ -48,24 +48,30 @@ public class GroupRepository {
     private final RoleRepository roleRepository;
     private final ClientRepository clientRepository;
     private final UserRepository userRepository;
+    private final RealmSnapshotRepository snapshotRepository;
+    private final ReadCoalescer readCoalescer;
 
     @Autowired
     public GroupRepository(
             RealmRepository realmRepository,
             RoleRepository roleRepository,
             ClientRepository clientRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            RealmSnapshotRepository snapshotRepository,
+            ReadCoalescer readCoalescer) {
         this.realmRepository = realmRepository;
         this.roleRepository = roleRepository;
         this.clientRepository = clientRepository;
         this.userRepository = userRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.readCoalescer = readCoalescer;
     }
 
     public List<GroupRepresentation> getAll(String realmName) {
-        GroupsResource groupsResource = realmRepository.getResource(realmName)
-                .groups();
-
-        return groupsResource.groups();
+        return snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getGroups().getAll(),
+                () -> realmRepository.getResource(realmName).groups().groups()
+        );
     }
 
     public List<GroupRepresentation> findGroupsByGroupPath(String realmName, List<String> groupPaths) {
@@ -86,19 +92,20 @@ public class GroupRepository {
     }
 
     public Optional<GroupRepresentation> searchByName(String realmName, String groupName) {
-        GroupsResource groupsResource = realmRepository.getResource(realmName)
-                .groups();
-
-        return groupsResource.groups()
-                .stream()
-                .filter(g -> Objects.equals(g.getName(), groupName))
-                .findFirst();
+        return snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getGroups().findBySecondaryKey(groupName),
+                () -> realmRepository.getResource(realmName).groups().groups()
+                        .stream()
+                        .filter(g -> Objects.equals(g.getName(), groupName))
+                        .findFirst()
+        );
     }
 
     public void createGroup(String realmName, GroupRepresentation group) {
         GroupsResource groupsResource = realmRepository.getResource(realmName).groups();
         try (Response response = groupsResource.add(group)) {
-            CreatedResponseUtil.getCreatedId(response);
+            String groupId = CreatedResponseUtil.getCreatedId(response);
+            snapshotRepository.update(realmName, snapshot -> snapshot.getGroups().put(getResourceById(realmName, groupId).toRepresentation()));
         }
     }
 
@@ -107,6 +114,8 @@ public class GroupRepository {
         try (Response response = groupResource.subGroup(subGroup)) {
             CreatedResponseUtil.getCreatedId(response);
         }
+
+        snapshotRepository.update(realmName, snapshot -> snapshot.getGroups().invalidate());
     }
 
     public GroupRepresentation getSubGroupByName(String realmName, String parentGroupId, String name) {
@@ -146,17 +155,19 @@ public class GroupRepository {
     public void deleteGroup(String realmName, String id) {
         GroupResource groupResource = getResourceById(realmName, id);
         groupResource.remove();
+
+        snapshotRepository.update(realmName, snapshot -> snapshot.getGroups().invalidate());
     }
 
-    public void addGroupsToUser(String realmName, String username, List<GroupRepresentation> groups) {
-        UserResource userResource = userRepository.getResource(realmName, username);
+    public void addGroupsToUser(String realmName, String userId, List<GroupRepresentation> groups) {
+        UserResource userResource = userRepository.getResourceById(realmName, userId);
         for (GroupRepresentation group : groups) {
             userResource.joinGroup(group.getId());
         }
     }
 
-    public void removeGroupsFromUser(String realmName, String username, List<GroupRepresentation> groups) {
-        UserResource userResource = userRepository.getResource(realmName, username);
+    public void removeGroupsFromUser(String realmName, String userId, List<GroupRepresentation> groups) {
+        UserResource userResource = userRepository.getResourceById(realmName, userId);
         for (GroupRepresentation group : groups) {
             userResource.leaveGroup(group.getId());
         }
@@ -188,6 +199,8 @@ public class GroupRepository {
     public void update(String realmName, GroupRepresentation group) {
         GroupResource groupResource = getResourceById(realmName, group.getId());
         groupResource.update(group);
+
+        snapshotRepository.update(realmName, snapshot -> snapshot.getGroups().invalidate());
     }
 
     public GroupRepresentation getGroupByName(String realmName, String groupName) {
@@ -205,8 +218,17 @@ public class GroupRepository {
         return groupResource.toRepresentation();
     }
 
+    /**
+     * Within an import, the group is served from the realm snapshot and only carries the brief representation.
+     */
     public GroupRepresentation getGroupByPath(String realmName, String groupPath) {
-        return realmRepository.getResource(realmName).getGroupByPath(groupPath);
+        return snapshotRepository.lookup(realmName,
+                        snapshot -> snapshot.findGroupByPath(groupPath),
+                        Optional::<GroupRepresentation>empty
+                )
+                .orElseGet(() -> readCoalescer.read(realmName, "group-by-path/" + groupPath,
+                        () -> realmRepository.getResource(realmName).getGroupByPath(groupPath)
+                ));
     }
 
     public void enablePermission(String realmName, String id) {
@@ -0,0 +1,121 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares reads from keycloak between identical concurrent callers: while a read of a resource is in flight, further reads of the
+ * same resource wait for its result instead of sending their own request. The result is shared for {@code import.concurrency.read-ttl}
+ * after it arrived. Every write to a realm discards the shared results of the realm, see {@link #invalidate(String)}.
+ * <p>
+ * Callers share the returned objects, they must not modify them.
+ */
+@Service
+public class ReadCoalescer {
+    private final long ttlNanos;
+
+    private final Map<String, Map<String, Flight>> realms = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReadCoalescer(ImportConfigProperties importConfigProperties) {
+        this.ttlNanos = importConfigProperties.getConcurrency().getReadTtl().toNanos();
+    }
+
+    /**
+     * @param path identifies the resource within the realm, e.g. {@code clients?clientId=account}
+     */
+    @SuppressWarnings("unchecked")
+    <T> T read(String realmName, String path, Supplier<T> loader) {
+        Map<String, Flight> flights = realms.computeIfAbsent(realmName, key -> new ConcurrentHashMap<>());
+
+        Flight ownFlight = new Flight();
+        long now = System.nanoTime();
+        Flight flight = flights.compute(path, (key, existing) -> existing != null && existing.isReusable(now, ttlNanos) ? existing : ownFlight);
+
+        if (flight == ownFlight) {
+            try {
+                ownFlight.complete(loader.get());
+            } catch (RuntimeException error) {
+                flights.remove(path, ownFlight);
+                ownFlight.fail(error);
+                throw error;
+            }
+
+            if (ttlNanos <= 0) {
+                flights.remove(path, ownFlight);
+            }
+        }
+
+        return (T) flight.join();
+    }
+
+    /**
+     * Discards the shared results of a realm. Reads which are in flight complete for their current callers.
+     *
+     * @param realmName the realm, or null for all realms
+     */
+    public void invalidate(String realmName) {
+        if (realmName == null) {
+            realms.clear();
+        } else {
+            realms.remove(realmName);
+        }
+    }
+
+    private static class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        void complete(Object value) {
+            completedAt = System.nanoTime();
+            result.complete(value);
+        }
+
+        void fail(RuntimeException error) {
+            result.completeExceptionally(error);
+        }
+
+        boolean isReusable(long now, long ttlNanos) {
+            if (!result.isDone()) {
+                return true;
+            }
+
+            return !result.isCompletedExceptionally() && now - completedAt < ttlNanos;
+        }
+
+        Object join() {
+            try {
+                return result.join();
+            } catch (CompletionException error) {
+                throw (RuntimeException) error.getCause();
+            }
+        }
+    }
+}
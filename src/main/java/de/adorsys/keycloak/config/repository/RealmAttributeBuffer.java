@@ -0,0 +1,193 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the realm attributes written during the import of a realm, like the remote state and the import checksums,
+ * and writes them with a single realm update once the import is done. Outside an import, attributes are written directly.
+ */
+@Service
+public class RealmAttributeBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(RealmAttributeBuffer.class);
+
+    private final RealmRepository realmRepository;
+
+    private final Map<String, Buffer> buffers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RealmAttributeBuffer(RealmRepository realmRepository) {
+        this.realmRepository = realmRepository;
+    }
+
+    public void open(String realmName) {
+        logger.trace("Open attribute buffer of realm '{}'", realmName);
+        buffers.put(realmName, new Buffer(retrieveAttributes(realmName)));
+    }
+
+    public void close(String realmName) {
+        Buffer buffer = buffers.remove(realmName);
+
+        if (buffer != null && !buffer.pending.isEmpty()) {
+            logger.debug("Discard unwritten attributes {} of realm '{}'", buffer.pending.keySet(), realmName);
+        }
+    }
+
+    public boolean isOpen(String realmName) {
+        return buffers.containsKey(realmName);
+    }
+
+    /**
+     * Returns the attributes of the realm as they will be after the next flush.
+     */
+    public Map<String, String> getAttributes(String realmName) {
+        Buffer buffer = buffers.get(realmName);
+        if (buffer == null) {
+            return retrieveAttributes(realmName);
+        }
+
+        return buffer.getAttributes();
+    }
+
+    public void putAll(String realmName, Map<String, String> attributes) {
+        Buffer buffer = buffers.get(realmName);
+        if (buffer == null) {
+            write(realmName, attributes);
+            return;
+        }
+
+        buffer.putAll(attributes);
+    }
+
+    /**
+     * Writes the buffered attributes with one realm update. Fails, if one of them was changed by someone else since the buffer was opened.
+     */
+    public void flush(String realmName) {
+        Buffer buffer = buffers.get(realmName);
+        if (buffer == null) {
+            throw new IllegalStateException(String.format("Attribute buffer of realm '%s' is not open", realmName));
+        }
+
+        synchronized (buffer) {
+            if (buffer.pending.isEmpty()) return;
+
+            RealmRepresentation existingRealm = realmRepository.fetch(realmName);
+            Map<String, String> existingAttributes = existingRealm.getAttributes();
+            if (existingAttributes == null) {
+                existingAttributes = new HashMap<>();
+                existingRealm.setAttributes(existingAttributes);
+            }
+
+            List<String> conflicts = buffer.getConflicts(existingAttributes);
+            if (!conflicts.isEmpty()) {
+                throw new KeycloakRepositoryException(
+                        "Cannot update attributes %s of realm '%s', they were changed during the import",
+                        conflicts, realmName
+                );
+            }
+
+            Map<String, String> changes = getChanges(existingAttributes, buffer.pending);
+            if (changes.isEmpty()) {
+                logger.debug("No need to update attributes of realm '{}'", realmName);
+            } else {
+                existingAttributes.putAll(changes);
+                realmRepository.update(existingRealm);
+
+                logger.debug("Updated attributes {} of realm '{}'", changes.keySet(), realmName);
+            }
+
+            buffer.baseline.putAll(buffer.pending);
+            buffer.pending.clear();
+        }
+    }
+
+    private void write(String realmName, Map<String, String> attributes) {
+        RealmRepresentation existingRealm = realmRepository.fetch(realmName);
+        Map<String, String> existingAttributes = existingRealm.getAttributes();
+        if (existingAttributes == null) {
+            existingAttributes = new HashMap<>();
+            existingRealm.setAttributes(existingAttributes);
+        }
+
+        if (getChanges(existingAttributes, attributes).isEmpty()) return;
+
+        existingAttributes.putAll(attributes);
+        realmRepository.update(existingRealm);
+    }
+
+    private Map<String, String> retrieveAttributes(String realmName) {
+        Map<String, String> attributes = realmRepository.get(realmName).getAttributes();
+
+        return attributes != null ? new HashMap<>(attributes) : new HashMap<>();
+    }
+
+    private static Map<String, String> getChanges(Map<String, String> existingAttributes, Map<String, String> attributes) {
+        return attributes.entrySet()
+                .stream()
+                .filter(attribute -> !Objects.equals(existingAttributes.get(attribute.getKey()), attribute.getValue()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static class Buffer {
+        private final Map<String, String> baseline;
+        private final Map<String, String> pending = new LinkedHashMap<>();
+
+        private Buffer(Map<String, String> baseline) {
+            this.baseline = baseline;
+        }
+
+        private synchronized Map<String, String> getAttributes() {
+            Map<String, String> attributes = new HashMap<>(baseline);
+            attributes.putAll(pending);
+
+            return Collections.unmodifiableMap(attributes);
+        }
+
+        private synchronized void putAll(Map<String, String> attributes) {
+            pending.putAll(attributes);
+        }
+
+        // an attribute conflicts, if it was changed remotely to something else than the value we are about to write
+        private List<String> getConflicts(Map<String, String> existingAttributes) {
+            return pending.entrySet()
+                    .stream()
+                    .filter(attribute -> !Objects.equals(existingAttributes.get(attribute.getKey()), baseline.get(attribute.getKey())))
+                    .filter(attribute -> !Objects.equals(existingAttributes.get(attribute.getKey()), attribute.getValue()))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+    }
+}
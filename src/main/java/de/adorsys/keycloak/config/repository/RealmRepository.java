@@ -22,6 +22,7 @@ package de.adorsys.keycloak.config.repository;
 
 import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
 import de.adorsys.keycloak.config.provider.KeycloakProvider;
+import de.adorsys.keycloak.config.util.CloneUtil;
 import de.adorsys.keycloak.config.util.ResponseUtil;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.resource.RealmResource;
@@ -30,12 +31,18 @@ import org.keycloak.representations.idm.RealmRepresentation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.ws.rs.WebApplicationException;
 
 @Service
 public class RealmRepository {
     private final KeycloakProvider keycloakProvider;
 
+    private final Map<String, CachedRealm> cachedRealms = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
     @Autowired
     public RealmRepository(KeycloakProvider keycloakProvider) {
         this.keycloakProvider = keycloakProvider;
@@ -55,16 +62,52 @@ public class RealmRepository {
         return keycloakProvider.getInstance().realms().realm(realmName);
     }
 
+    /**
+     * Keeps the representation of the realm in memory until the cache is closed, so the import asks keycloak for it only
+     * once per write on the realm.
+     */
+    public void openCache(String realmName) {
+        cachedRealms.put(realmName, new CachedRealm(realmName));
+    }
+
+    public void closeCache(String realmName) {
+        cachedRealms.remove(realmName);
+    }
+
+    /**
+     * Returns a copy of the cached realm, if its cache is open, otherwise asks keycloak directly.
+     */
     public RealmRepresentation get(String realmName) {
+        CachedRealm cachedRealm = cachedRealms.get(realmName);
+        if (cachedRealm == null) {
+            return fetch(realmName);
+        }
+
+        return CloneUtil.deepClone(cachedRealm.get());
+    }
+
+    /**
+     * Always asks keycloak, for callers which have to see changes made by someone else.
+     */
+    public RealmRepresentation fetch(String realmName) {
         return getResource(realmName).toRepresentation();
     }
 
+    /**
+     * Counts the writes on the realm through this repository. A copy of the realm is stale, if the version changed since it was read.
+     */
+    public long getVersion(String realmName) {
+        AtomicLong version = versions.get(realmName);
+        return version != null ? version.get() : 0;
+    }
+
     public void create(RealmRepresentation realm) {
         Keycloak keycloak = keycloakProvider.getInstance();
         RealmsResource realmsResource = keycloak.realms();
 
         try {
             realmsResource.create(realm);
+            incrementVersion(realm.getRealm());
         } catch (WebApplicationException error) {
             String errorMessage = ResponseUtil.getErrorMessage(error);
             throw new KeycloakRepositoryException(
@@ -77,6 +120,7 @@ public class RealmRepository {
     public void update(RealmRepresentation realm) {
         try {
             getResource(realm.getRealm()).update(realm);
+            incrementVersion(realm.getRealm());
         } catch (WebApplicationException error) {
             String errorMessage = ResponseUtil.getErrorMessage(error);
             throw new KeycloakRepositoryException(
@@ -92,17 +136,58 @@ public class RealmRepository {
 
     public void addDefaultDefaultClientScope(String realmName, String scopeId) {
         getResource(realmName).addDefaultDefaultClientScope(scopeId);
+        incrementVersion(realmName);
     }
 
     public void addDefaultOptionalClientScope(String realmName, String scopeId) {
         getResource(realmName).addDefaultOptionalClientScope(scopeId);
+        incrementVersion(realmName);
     }
 
     public void removeDefaultDefaultClientScope(String realmName, String scopeId) {
         getResource(realmName).removeDefaultDefaultClientScope(scopeId);
+        incrementVersion(realmName);
     }
 
     public void removeDefaultOptionalClientScope(String realmName, String scopeId) {
         getResource(realmName).removeDefaultOptionalClientScope(scopeId);
+        incrementVersion(realmName);
+    }
+
+    public void addDefaultGroup(String realmName, String groupId) {
+        getResource(realmName).addDefaultGroup(groupId);
+        incrementVersion(realmName);
+    }
+
+    public void removeDefaultGroup(String realmName, String groupId) {
+        getResource(realmName).removeDefaultGroup(groupId);
+        incrementVersion(realmName);
+    }
+
+    private void incrementVersion(String realmName) {
+        versions.computeIfAbsent(realmName, name -> new AtomicLong()).incrementAndGet();
+    }
+
+    private class CachedRealm {
+        private final String realmName;
+
+        private RealmRepresentation realm;
+        private long version;
+
+        private CachedRealm(String realmName) {
+            this.realmName = realmName;
+        }
+
+        // the version is read before the realm, so a write during the fetch makes the next get fetch again
+        private synchronized RealmRepresentation get() {
+            long currentVersion = getVersion(realmName);
+
+            if (realm == null || version != currentVersion) {
+                realm = fetch(realmName);
+                version = currentVersion;
+            }
+
+            return realm;
+        }
     }
 }
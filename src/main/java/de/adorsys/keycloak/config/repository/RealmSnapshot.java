@@ -0,0 +1,192 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds the bulk-loaded collections of a single realm while it is imported.
+ * Every collection is fetched lazily at most once and kept in sync by the repositories after their own writes.
+ */
+class RealmSnapshot {
+    private final Supplier<RealmResource> realmResource;
+
+    private final SnapshotIndex<ClientRepresentation> clients;
+    private final SnapshotIndex<RoleRepresentation> realmRoles;
+    private final Map<String, SnapshotIndex<RoleRepresentation>> clientRoles = new ConcurrentHashMap<>();
+    private final SnapshotIndex<GroupRepresentation> groups;
+    private final SnapshotIndex<ClientScopeRepresentation> clientScopes;
+    private final SnapshotIndex<AuthenticationFlowRepresentation> authenticationFlows;
+    private final SnapshotIndex<AuthenticatorConfigRepresentation> authenticatorConfigs;
+    private final SnapshotIndex<ComponentRepresentation> components;
+    private final Map<String, String> userIds = new ConcurrentHashMap<>();
+
+    // partial exports by variant, see getExport
+    private final Map<Integer, RealmRepresentation> exports = new ConcurrentHashMap<>();
+
+    RealmSnapshot(Supplier<RealmResource> realmResource) {
+        this.realmResource = realmResource;
+
+        clients = new SnapshotIndex<>(
+                () -> realmResource.get().clients().findAll(),
+                ClientRepresentation::getId, ClientRepresentation::getClientId, this::invalidateExports
+        );
+        realmRoles = new SnapshotIndex<>(
+                () -> realmResource.get().roles().list(),
+                RoleRepresentation::getId, RoleRepresentation::getName, this::invalidateExports
+        );
+        groups = new SnapshotIndex<>(
+                () -> realmResource.get().groups().groups(),
+                GroupRepresentation::getId, GroupRepresentation::getName, this::invalidateExports
+        );
+        clientScopes = new SnapshotIndex<>(
+                () -> realmResource.get().clientScopes().findAll(),
+                ClientScopeRepresentation::getId, ClientScopeRepresentation::getName, this::invalidateExports
+        );
+        authenticationFlows = new SnapshotIndex<>(
+                () -> getAuthenticationExport().getAuthenticationFlows(),
+                AuthenticationFlowRepresentation::getId, AuthenticationFlowRepresentation::getAlias
+        );
+        authenticatorConfigs = new SnapshotIndex<>(
+                () -> getAuthenticationExport().getAuthenticatorConfig(),
+                AuthenticatorConfigRepresentation::getId, null
+        );
+        components = new SnapshotIndex<>(
+                () -> realmResource.get().components().query(),
+                ComponentRepresentation::getId, null
+        );
+    }
+
+    SnapshotIndex<ClientRepresentation> getClients() {
+        return clients;
+    }
+
+    SnapshotIndex<RoleRepresentation> getRealmRoles() {
+        return realmRoles;
+    }
+
+    /**
+     * @param clientUuid the id (not the clientId) of the client
+     */
+    SnapshotIndex<RoleRepresentation> getClientRoles(String clientUuid) {
+        return clientRoles.computeIfAbsent(clientUuid, id -> new SnapshotIndex<>(
+                () -> realmResource.get().clients().get(id).roles().list(),
+                RoleRepresentation::getId, RoleRepresentation::getName, this::invalidateExports
+        ));
+    }
+
+    void removeClientRoles(String clientUuid) {
+        clientRoles.remove(clientUuid);
+        invalidateExports();
+    }
+
+    /**
+     * top-level groups, including their sub-groups
+     */
+    SnapshotIndex<GroupRepresentation> getGroups() {
+        return groups;
+    }
+
+    Optional<GroupRepresentation> findGroupByPath(String groupPath) {
+        return searchGroupByPath(groups.getAll(), groupPath);
+    }
+
+    SnapshotIndex<ClientScopeRepresentation> getClientScopes() {
+        return clientScopes;
+    }
+
+    SnapshotIndex<AuthenticationFlowRepresentation> getAuthenticationFlows() {
+        return authenticationFlows;
+    }
+
+    SnapshotIndex<AuthenticatorConfigRepresentation> getAuthenticatorConfigs() {
+        return authenticatorConfigs;
+    }
+
+    /**
+     * Flows, executions and authenticator configs are only available through a partial export,
+     * so every write on one of them drops all of them, including every export.
+     */
+    void invalidateAuthentication() {
+        exports.clear();
+        authenticationFlows.invalidate();
+        authenticatorConfigs.invalidate();
+    }
+
+    /**
+     * Each variant is fetched at most once until a write changes its content. Concurrent callers wait for the same request.
+     * The export is shared, it must not be modified.
+     */
+    RealmRepresentation getExport(boolean exportGroupsAndRoles, boolean exportClients) {
+        return exports.computeIfAbsent(getExportVariant(exportGroupsAndRoles, exportClients),
+                variant -> realmResource.get().partialExport(exportGroupsAndRoles, exportClients)
+        );
+    }
+
+    /**
+     * Drops the exports including groups and roles or clients, after a write on clients, roles, groups, client scopes or scope mappings.
+     * The export without them is only read for flows and authenticator configs, see {@link #invalidateAuthentication()}.
+     */
+    void invalidateExports() {
+        exports.keySet().removeIf(variant -> variant != getExportVariant(false, false));
+    }
+
+    SnapshotIndex<ComponentRepresentation> getComponents() {
+        return components;
+    }
+
+    Map<String, String> getUserIds() {
+        return userIds;
+    }
+
+    private RealmRepresentation getAuthenticationExport() {
+        return getExport(false, false);
+    }
+
+    private static int getExportVariant(boolean exportGroupsAndRoles, boolean exportClients) {
+        return (exportGroupsAndRoles ? 2 : 0) + (exportClients ? 1 : 0);
+    }
+
+    private static Optional<GroupRepresentation> searchGroupByPath(List<GroupRepresentation> groups, String groupPath) {
+        if (groups == null) return Optional.empty();
+
+        for (GroupRepresentation group : groups) {
+            if (Objects.equals(group.getPath(), groupPath)) {
+                return Optional.of(group);
+            }
+
+            Optional<GroupRepresentation> subGroup = searchGroupByPath(group.getSubGroups(), groupPath);
+            if (subGroup.isPresent()) {
+                return subGroup;
+            }
+        }
+
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,98 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Manages the {@link RealmSnapshot} of each realm while it is imported. Outside an import, every repository
+ * talks to keycloak directly.
+ */
+@Service
+public class RealmSnapshotRepository {
+    private static final Logger logger = LoggerFactory.getLogger(RealmSnapshotRepository.class);
+
+    private final RealmRepository realmRepository;
+
+    private final Map<String, RealmSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RealmSnapshotRepository(RealmRepository realmRepository) {
+        this.realmRepository = realmRepository;
+    }
+
+    public void open(String realmName) {
+        logger.trace("Open snapshot of realm '{}'", realmName);
+        snapshots.put(realmName, new RealmSnapshot(() -> realmRepository.getResource(realmName)));
+    }
+
+    public void close(String realmName) {
+        logger.trace("Close snapshot of realm '{}'", realmName);
+        snapshots.remove(realmName);
+    }
+
+    public boolean isOpen(String realmName) {
+        return snapshots.containsKey(realmName);
+    }
+
+    /**
+     * Serves a partial export of the realm from the snapshot, if there is one, so every variant is fetched once
+     * per import phase. The result may be shared, callers must not modify it.
+     */
+    public RealmRepresentation partialExport(String realmName, boolean exportGroupsAndRoles, boolean exportClients) {
+        return lookup(realmName,
+                snapshot -> snapshot.getExport(exportGroupsAndRoles, exportClients),
+                () -> realmRepository.partialExport(realmName, exportGroupsAndRoles, exportClients)
+        );
+    }
+
+    /**
+     * Serves a lookup from the snapshot of the realm, if there is one, otherwise asks keycloak directly.
+     */
+    <T> T lookup(String realmName, Function<RealmSnapshot, T> cached, Supplier<T> direct) {
+        RealmSnapshot snapshot = snapshots.get(realmName);
+        if (snapshot == null) {
+            return direct.get();
+        }
+
+        return cached.apply(snapshot);
+    }
+
+    /**
+     * Applies a write to the snapshot of the realm, if there is one.
+     */
+    void update(String realmName, Consumer<RealmSnapshot> action) {
+        RealmSnapshot snapshot = snapshots.get(realmName);
+        if (snapshot != null) {
+            action.accept(snapshot);
+        }
+    }
+}
@@ -39,20 +39,30 @@ public class RoleRepository {
     private final ClientRepository clientRepository;
     private final UserRepository userRepository;
     private final KeycloakProvider keycloakProvider;
+    private final RealmSnapshotRepository snapshotRepository;
+    private final ReadCoalescer readCoalescer;
 
     @Autowired
     public RoleRepository(
             RealmRepository realmRepository,
             ClientRepository clientRepository,
             UserRepository userRepository,
-            KeycloakProvider keycloakProvider) {
+            KeycloakProvider keycloakProvider,
+            RealmSnapshotRepository snapshotRepository,
+            ReadCoalescer readCoalescer) {
         this.realmRepository = realmRepository;
         this.clientRepository = clientRepository;
         this.userRepository = userRepository;
         this.keycloakProvider = keycloakProvider;
+        this.snapshotRepository = snapshotRepository;
+        this.readCoalescer = readCoalescer;
     }
 
     public Optional<RoleRepresentation> searchRealmRole(String realmName, String name) {
+        return readCoalescer.read(realmName, "roles/" + name, () -> findRealmRole(realmName, name));
+    }
+
+    private Optional<RoleRepresentation> findRealmRole(String realmName, String name) {
         Optional<RoleRepresentation> maybeRole;
 
         RolesResource rolesResource = realmRepository.getResource(realmName).roles();
@@ -70,6 +80,8 @@ public class RoleRepository {
     public void createRealmRole(String realmName, RoleRepresentation role) {
         RolesResource rolesResource = realmRepository.getResource(realmName).roles();
         rolesResource.create(role);
+
+        snapshotRepository.update(realmName, snapshot -> snapshot.getRealmRoles().invalidate());
     }
 
     public void updateRealmRole(String realmName, RoleRepresentation roleToUpdate) {
@@ -78,24 +90,37 @@ public class RoleRepository {
                 .get(roleToUpdate.getName());
 
         roleResource.update(roleToUpdate);
+
+        snapshotRepository.update(realmName, snapshot -> snapshot.getRealmRoles().invalidate());
     }
 
     public void deleteRealmRole(String realmName, RoleRepresentation roleToUpdate) {
         realmRepository.getResource(realmName)
                 .roles()
                 .deleteRole(roleToUpdate.getName());
+
+        snapshotRepository.update(realmName, snapshot -> snapshot.getRealmRoles().invalidate());
     }
 
+    /**
+     * Within an import, the role is served from the realm snapshot and only carries the brief representation.
+     */
     public RoleRepresentation getRealmRole(String realmName, String roleName) {
-        return searchRealmRole(realmName, roleName)
+        return snapshotRepository.lookup(realmName,
+                        snapshot -> snapshot.getRealmRoles().findBySecondaryKey(roleName),
+                        Optional::<RoleRepresentation>empty
+                )
+                .or(() -> searchRealmRole(realmName, roleName))
                 .orElseThrow(() -> new KeycloakRepositoryException(
                         "Cannot find realm role '%s' within realm '%s'", roleName, realmName
                 ));
     }
 
     public List<RoleRepresentation> getRealmRoles(String realmName) {
-        return realmRepository.getResource(realmName)
-                .roles().list();
+        return snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getRealmRoles().getAll(),
+                () -> realmRepository.getResource(realmName).roles().list()
+        );
     }
 
     public List<RoleRepresentation> getRealmRolesByName(String realmName, Collection<String> roles) {
@@ -106,12 +131,8 @@ public class RoleRepository {
 
     public final RoleRepresentation getClientRole(String realmName, String clientId, String roleName) {
         ClientRepresentation client = clientRepository.getByClientId(realmName, clientId);
-        RealmResource realmResource = realmRepository.getResource(realmName);
 
-        List<RoleRepresentation> clientRoles = realmResource.clients()
-                .get(client.getId())
-                .roles()
-                .list();
+        List<RoleRepresentation> clientRoles = getClientRolesById(realmName, client.getId());
 
         return clientRoles.stream()
                 .filter(r -> Objects.equals(r.getName(), roleName))
@@ -120,33 +141,73 @@ public class RoleRepository {
     }
 
     public Map<String, List<RoleRepresentation>> getClientRoles(String realmName) {
-        return realmRepository.getResource(realmName).clients().findAll().stream()
+        return clientRepository.getAll(realmName).stream()
                 .collect(Collectors.toMap(
                         ClientRepresentation::getClientId,
-                        client -> realmRepository.getResource(realmName).clients()
-                                .get(client.getId()).roles().list()
+                        client -> getClientRolesById(realmName, client.getId())
                 ));
     }
 
     public List<RoleRepresentation> getClientRolesByName(String realmName, String clientId, List<String> roleNames) {
+        if (snapshotRepository.isOpen(realmName)) {
+            return getClientRolesByNameFromSnapshot(realmName, clientId, roleNames);
+        }
+
         ClientResource clientResource = clientRepository.getResourceByClientId(realmName, clientId);
 
         List<RoleRepresentation> roles = new ArrayList<>();
 
         for (String roleName : roleNames) {
-            try {
-                roles.add(clientResource.roles().get(roleName).toRepresentation());
-            } catch (javax.ws.rs.NotFoundException e) {
-                throw new KeycloakRepositoryException(
-                        "Cannot find client role '%s' for client '%s' within realm '%s'",
-                        roleName, clientId, realmName
-                );
-            }
+            RoleRepresentation role = readCoalescer.read(realmName, "clients/" + clientId + "/roles/" + roleName, () -> {
+                try {
+                    return Optional.of(clientResource.roles().get(roleName).toRepresentation());
+                } catch (javax.ws.rs.NotFoundException e) {
+                    return Optional.<RoleRepresentation>empty();
+                }
+            }).orElseThrow(() -> new KeycloakRepositoryException(
+                    "Cannot find client role '%s' for client '%s' within realm '%s'",
+                    roleName, clientId, realmName
+            ));
+
+            roles.add(role);
+        }
+
+        return roles;
+    }
+
+    private List<RoleRepresentation> getClientRolesByNameFromSnapshot(String realmName, String clientId, List<String> roleNames) {
+        ClientRepresentation client = clientRepository.getByClientId(realmName, clientId);
+
+        List<RoleRepresentation> roles = new ArrayList<>();
+
+        for (String roleName : roleNames) {
+            RoleRepresentation role = snapshotRepository.lookup(realmName,
+                    snapshot -> snapshot.getClientRoles(client.getId()).findBySecondaryKey(roleName),
+                    Optional::<RoleRepresentation>empty
+            ).orElseThrow(() -> new KeycloakRepositoryException(
+                    "Cannot find client role '%s' for client '%s' within realm '%s'",
+                    roleName, clientId, realmName
+            ));
+
+            roles.add(role);
         }
 
         return roles;
     }
 
+    private List<RoleRepresentation> getClientRolesById(String realmName, String id) {
+        return snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getClientRoles(id).getAll(),
+                () -> realmRepository.getResource(realmName).clients().get(id).roles().list()
+        );
+    }
+
+    private void invalidateClientRoles(String realmName, String clientId) {
+        snapshotRepository.update(realmName, snapshot -> clientRepository.searchByClientId(realmName, clientId)
+                .ifPresent(client -> snapshot.getClientRoles(client.getId()).invalidate())
+        );
+    }
+
     public void createClientRole(String realmName, String clientId, RoleRepresentation role) {
         RolesResource rolesResource = clientRepository.getResourceByClientId(realmName, clientId).roles();
         rolesResource.create(role);
@@ -158,6 +219,8 @@ public class RoleRepository {
     public void updateClientRole(String realmName, String clientId, RoleRepresentation role) {
         RoleResource roleResource = loadClientRole(realmName, clientId, role.getName());
         roleResource.update(role);
+
+        invalidateClientRoles(realmName, clientId);
     }
 
     public void deleteClientRole(String realmName, String clientId, RoleRepresentation role) {
@@ -168,32 +231,47 @@ public class RoleRepository {
                 .get(client.getId())
                 .roles()
                 .deleteRole(role.getName());
+
+        snapshotRepository.update(realmName, snapshot -> snapshot.getClientRoles(client.getId()).invalidate());
     }
 
     public List<RoleRepresentation> searchRealmRoles(String realmName, List<String> roleNames) {
+        if (snapshotRepository.isOpen(realmName)) {
+            return searchRealmRolesFromSnapshot(realmName, roleNames);
+        }
+
+        List<RoleRepresentation> roles = new ArrayList<>();
+
+        for (String roleName : roleNames) {
+            RoleRepresentation role = searchRealmRole(realmName, roleName).orElseThrow(() -> new ImportProcessingException(
+                    String.format("Could not find role '%s' in realm '%s'!", roleName, realmName)
+            ));
+
+            roles.add(role);
+        }
+
+        return roles;
+    }
+
+    private List<RoleRepresentation> searchRealmRolesFromSnapshot(String realmName, List<String> roleNames) {
         List<RoleRepresentation> roles = new ArrayList<>();
-        RealmResource realmResource = realmRepository.getResource(realmName);
 
         for (String roleName : roleNames) {
-            try {
-                RoleRepresentation role = realmResource.roles().get(roleName).toRepresentation();
-
-                roles.add(role);
-            } catch (javax.ws.rs.NotFoundException e) {
-                throw new ImportProcessingException(
-                        String.format("Could not find role '%s' in realm '%s'!", roleName, realmName)
-                );
-            }
+            RoleRepresentation role = snapshotRepository.lookup(realmName,
+                    snapshot -> snapshot.getRealmRoles().findBySecondaryKey(roleName),
+                    Optional::<RoleRepresentation>empty
+            ).orElseThrow(() -> new ImportProcessingException(
+                    String.format("Could not find role '%s' in realm '%s'!", roleName, realmName)
+            ));
+
+            roles.add(role);
         }
 
         return roles;
     }
 
-    public List<String> getUserRealmLevelRoles(String realmName, String username) {
-        UserRepresentation user = userRepository.get(realmName, username);
-        UserResource userResource = realmRepository.getResource(realmName)
-                .users()
-                .get(user.getId());
+    public List<String> getUserRealmLevelRoles(String realmName, String userId) {
+        UserResource userResource = userRepository.getResourceById(realmName, userId);
 
         List<RoleRepresentation> roles = userResource.roles()
                 .realmLevel()
@@ -204,19 +282,19 @@ public class RoleRepository {
                 .collect(Collectors.toList());
     }
 
-    public void addRealmRolesToUser(String realmName, String username, List<RoleRepresentation> realmRoles) {
-        UserResource userResource = userRepository.getResource(realmName, username);
+    public void addRealmRolesToUser(String realmName, String userId, List<RoleRepresentation> realmRoles) {
+        UserResource userResource = userRepository.getResourceById(realmName, userId);
         userResource.roles().realmLevel().add(realmRoles);
     }
 
-    public void removeRealmRolesForUser(String realmName, String username, List<RoleRepresentation> realmRoles) {
-        UserResource userResource = userRepository.getResource(realmName, username);
+    public void removeRealmRolesForUser(String realmName, String userId, List<RoleRepresentation> realmRoles) {
+        UserResource userResource = userRepository.getResourceById(realmName, userId);
         userResource.roles().realmLevel().remove(realmRoles);
     }
 
-    public void addClientRolesToUser(String realmName, String username, String clientId, List<RoleRepresentation> clientRoles) {
+    public void addClientRolesToUser(String realmName, String userId, String clientId, List<RoleRepresentation> clientRoles) {
         ClientRepresentation client = clientRepository.getByClientId(realmName, clientId);
-        UserResource userResource = userRepository.getResource(realmName, username);
+        UserResource userResource = userRepository.getResourceById(realmName, userId);
 
         RoleScopeResource userClientRoles = userResource.roles()
                 .clientLevel(client.getId());
@@ -224,9 +302,9 @@ public class RoleRepository {
         userClientRoles.add(clientRoles);
     }
 
-    public void removeClientRolesForUser(String realmName, String username, String clientId, List<RoleRepresentation> clientRoles) {
+    public void removeClientRolesForUser(String realmName, String userId, String clientId, List<RoleRepresentation> clientRoles) {
         ClientRepresentation client = clientRepository.getByClientId(realmName, clientId);
-        UserResource userResource = userRepository.getResource(realmName, username);
+        UserResource userResource = userRepository.getResourceById(realmName, userId);
 
         RoleScopeResource userClientRoles = userResource.roles()
                 .clientLevel(client.getId());
@@ -234,8 +312,8 @@ public class RoleRepository {
         userClientRoles.remove(clientRoles);
     }
 
-    public Map<String, List<String>> getUserClientLevelRoles(String realmName, String username) {
-        UserResource userResource = userRepository.getResource(realmName, username);
+    public Map<String, List<String>> getUserClientLevelRoles(String realmName, String userId) {
+        UserResource userResource = userRepository.getResourceById(realmName, userId);
 
         MappingsRepresentation mappings = userResource.roles()
                 .getAll();
@@ -39,16 +39,19 @@ public class ScopeMappingRepository {
     private final RealmRepository realmRepository;
     private final ClientRepository clientRepository;
     private final RoleRepository roleRepository;
+    private final RealmSnapshotRepository snapshotRepository;
 
     @Autowired
     public ScopeMappingRepository(
             RealmRepository realmRepository,
             ClientRepository clientRepository,
-            RoleRepository roleRepository
+            RoleRepository roleRepository,
+            RealmSnapshotRepository snapshotRepository
     ) {
         this.realmRepository = realmRepository;
         this.clientRepository = clientRepository;
         this.roleRepository = roleRepository;
+        this.snapshotRepository = snapshotRepository;
     }
 
     public void addScopeMappingRolesForClient(String realmName, String clientId, Collection<String> roles) {
@@ -58,6 +61,7 @@ public class ScopeMappingRepository {
 
         List<RoleRepresentation> realmRoles = roleRepository.getRealmRolesByName(realmName, roles);
         roleScopeResource.add(realmRoles);
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateExports);
     }
 
     public void addScopeMappingRolesForClientScope(String realmName, String clientScopeName, Collection<String> roles) {
@@ -65,6 +69,7 @@ public class ScopeMappingRepository {
 
         List<RoleRepresentation> realmRoles = roleRepository.getRealmRolesByName(realmName, roles);
         roleScopeResource.add(realmRoles);
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateExports);
     }
 
     public void addScopeMappingClientRolesForClientScope(String realmName, String clientScopeName, String clientUuid,
@@ -72,6 +77,7 @@ public class ScopeMappingRepository {
         final RoleScopeResource roleScopeResource = loadClientScope(realmName, clientScopeName, clientUuid);
 
         roleScopeResource.add(roles);
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateExports);
     }
 
     public void removeScopeMappingRolesForClient(String realmName, String clientId, Collection<String> roles) {
@@ -82,6 +88,7 @@ public class ScopeMappingRepository {
                 .collect(Collectors.toList());
 
         scopeMappingsResource.realmLevel().remove(realmRoles);
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateExports);
     }
 
     public void removeScopeMappingRolesForClientScope(String realmName, String clientScopeName, Collection<String> roles) {
@@ -89,6 +96,7 @@ public class ScopeMappingRepository {
 
         List<RoleRepresentation> realmRoles = roleRepository.getRealmRolesByName(realmName, roles);
         roleScopeResource.remove(realmRoles);
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateExports);
     }
 
     public void removeScopeMappingClientRolesForClientScope(String realmName, String clientScopeName, String clientUuid,
@@ -96,6 +104,7 @@ public class ScopeMappingRepository {
         final RoleScopeResource roleScopeResource = loadClientScope(realmName, clientScopeName, clientUuid);
 
         roleScopeResource.remove(roles);
+        snapshotRepository.update(realmName, RealmSnapshot::invalidateExports);
     }
 
 
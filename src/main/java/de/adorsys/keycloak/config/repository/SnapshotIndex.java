@@ -0,0 +1,136 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory index of a keycloak collection, loaded in bulk on first access.
+ * Entries are looked up by a primary key (usually the id) and an optional secondary key (clientId, name, alias, ...).
+ */
+class SnapshotIndex<T> {
+    private final Supplier<List<T>> loader;
+    private final Function<T, String> primaryKey;
+    private final Function<T, String> secondaryKey;
+    private final Runnable changeListener;
+
+    private Map<String, T> byPrimaryKey;
+    private Map<String, T> bySecondaryKey;
+
+    SnapshotIndex(Supplier<List<T>> loader, Function<T, String> primaryKey, Function<T, String> secondaryKey) {
+        this(loader, primaryKey, secondaryKey, () -> {
+        });
+    }
+
+    /**
+     * @param changeListener is run on every write to the index, e.g. to drop data derived from the same collection
+     */
+    SnapshotIndex(Supplier<List<T>> loader, Function<T, String> primaryKey, Function<T, String> secondaryKey, Runnable changeListener) {
+        this.loader = loader;
+        this.primaryKey = Objects.requireNonNull(primaryKey);
+        this.secondaryKey = secondaryKey;
+        this.changeListener = Objects.requireNonNull(changeListener);
+    }
+
+    public synchronized List<T> getAll() {
+        load();
+        return new ArrayList<>(byPrimaryKey.values());
+    }
+
+    public synchronized Optional<T> findByPrimaryKey(String key) {
+        load();
+        return Optional.ofNullable(byPrimaryKey.get(key));
+    }
+
+    public synchronized Optional<T> findBySecondaryKey(String key) {
+        load();
+        return Optional.ofNullable(bySecondaryKey.get(key));
+    }
+
+    /**
+     * Adds or replaces an entry after a write. If the index isn't loaded yet, the entry will be part of the next bulk load.
+     */
+    public synchronized void put(T entry) {
+        changeListener.run();
+        if (byPrimaryKey == null) return;
+
+        removeEntry(primaryKey.apply(entry));
+        add(entry);
+    }
+
+    public synchronized void remove(String key) {
+        changeListener.run();
+        if (byPrimaryKey == null) return;
+
+        removeEntry(key);
+    }
+
+    /**
+     * Drops all entries; the next access triggers a new bulk load.
+     */
+    public synchronized void invalidate() {
+        changeListener.run();
+
+        byPrimaryKey = null;
+        bySecondaryKey = null;
+    }
+
+    private void load() {
+        if (byPrimaryKey != null) return;
+
+        List<T> entries = loader.get();
+
+        byPrimaryKey = new LinkedHashMap<>();
+        bySecondaryKey = new HashMap<>();
+
+        if (entries == null) return;
+
+        for (T entry : entries) {
+            add(entry);
+        }
+    }
+
+    private void removeEntry(String key) {
+        T existing = byPrimaryKey.remove(key);
+        if (existing != null && secondaryKey != null) {
+            bySecondaryKey.remove(secondaryKey.apply(existing), existing);
+        }
+    }
+
+    private void add(T entry) {
+        byPrimaryKey.put(primaryKey.apply(entry), entry);
+
+        if (secondaryKey != null) {
+            String key = secondaryKey.apply(entry);
+            if (key != null) {
+                bySecondaryKey.putIfAbsent(key, entry);
+            }
+        }
+    }
+}
@@ -20,32 +20,78 @@
 
 package de.adorsys.keycloak.config.repository;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.util.CryptoUtil;
 import org.keycloak.representations.idm.RealmRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import static de.adorsys.keycloak.config.util.JsonUtil.fromJson;
 import static de.adorsys.keycloak.config.util.JsonUtil.toJson;
+import static de.adorsys.keycloak.config.util.JsonUtil.toJsonBytes;
 
+/**
+ * Stores the remote state of all entities of a realm as one deflated, optionally encrypted and base64 encoded blob,
+ * split into realm attributes, next to a manifest attribute with the format version and the number of chunks.
+ * The state is decoded once per import. States in the former format, one JSON list per entity, are still read and
+ * replaced on the next update.
+ */
 @Component
 public class StateRepository {
+    private static final Logger logger = LoggerFactory.getLogger(StateRepository.class);
+
     private static final int MAX_ATTRIBUTE_LENGTH = 250;
+    private static final int STATE_FORMAT_VERSION = 2;
+
+    // entities of the former format, the cache key may contain dashes as well
+    private static final String LEGACY_STATE_ENTITIES =
+            "roles-realm|roles-client-.+|resources-client-.+|clients|required-actions|components|sub-components-.+";
+
+    private static final TypeReference<Map<String, List<String>>> STATE_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<StateManifest> MANIFEST_TYPE = new TypeReference<>() {
+    };
 
     private final RealmRepository realmRepository;
+    private final RealmAttributeBuffer realmAttributeBuffer;
     private final ImportConfigProperties importConfigProperties;
 
-    private Map<String, String> customAttributes;
+    private final Map<String, Map<String, String>> customAttributes = new ConcurrentHashMap<>();
+    private final Map<String, RemoteState> states = new ConcurrentHashMap<>();
 
-    public StateRepository(RealmRepository realmRepository, ImportConfigProperties importConfigProperties) {
+    public StateRepository(
+            RealmRepository realmRepository,
+            RealmAttributeBuffer realmAttributeBuffer,
+            ImportConfigProperties importConfigProperties
+    ) {
         this.realmRepository = realmRepository;
+        this.realmAttributeBuffer = realmAttributeBuffer;
         this.importConfigProperties = importConfigProperties;
     }
 
@@ -65,7 +111,8 @@ public class StateRepository {
     }
 
     public void loadCustomAttributes(String realmName) {
-        customAttributes = retrieveCustomAttributes(realmName);
+        customAttributes.put(realmName, retrieveCustomAttributes(realmName));
+        states.remove(realmName);
     }
 
     /**
@@ -77,6 +124,7 @@ public class StateRepository {
      */
     public void loadCustomAttributes(RealmRepresentation realmForUpdating) {
         loadCustomAttributes(realmForUpdating.getRealm());
+        Map<String, String> realmCustomAttributes = getCustomAttributes(realmForUpdating.getRealm());
 
         Map<String, String> attributes = realmForUpdating.getAttributes();
 
@@ -89,9 +137,9 @@ public class StateRepository {
         attributes.entrySet()
                 .stream()
                 .filter(e -> !isStateAttribute(e))
-                .forEach(e -> customAttributes.put(e.getKey(), e.getValue()));
+                .forEach(e -> realmCustomAttributes.put(e.getKey(), e.getValue()));
 
-        customAttributes.entrySet()
+        realmCustomAttributes.entrySet()
                 .stream()
                 .filter(this::isStateAttribute)
                 .forEach(e -> attributes.put(e.getKey(), e.getValue()));
@@ -101,78 +149,235 @@ public class StateRepository {
         return e.getKey().startsWith(ImportConfigProperties.REALM_STATE_ATTRIBUTE_COMMON_PREFIX);
     }
 
-    public List<String> getState(String entity) {
-        List<String> stateValues = new ArrayList<>();
+    public List<String> getState(String realmName, String entity) {
+        List<String> state = getRemoteState(realmName).entities.get(entity);
+
+        return state != null ? state : Collections.emptyList();
+    }
+
+    public void setState(String realmName, String entity, List<String> values) {
+        RemoteState remoteState = getRemoteState(realmName);
+        List<String> state = new ArrayList<>(values);
+
+        if (!state.equals(remoteState.entities.put(entity, state))) {
+            remoteState.changed = true;
+        }
+    }
 
-        long attributeCount = customAttributes
-                .entrySet()
+    /**
+     * Encodes the state, if it has changed, and writes it through the {@link RealmAttributeBuffer}, so it is stored
+     * together with the import checksum. Chunks which are no longer needed are emptied, since keycloak keeps
+     * attributes which are missing in a realm update.
+     */
+    public void update(RealmImport realmImport) {
+        String realmName = realmImport.getRealm();
+        RemoteState remoteState = getRemoteState(realmName);
+
+        if (!remoteState.changed && !remoteState.legacy) {
+            logger.debug("No need to update remote state of realm '{}'", realmName);
+            return;
+        }
+
+        Map<String, String> realmCustomAttributes = getCustomAttributes(realmName);
+        Map<String, String> stateAttributes = encodeState(remoteState);
+
+        Pattern obsoleteAttribute = Pattern.compile(String.format("^(%s|%s)$", getChunkAttributePattern(), getLegacyAttributePattern()));
+        realmCustomAttributes.entrySet()
                 .stream()
-                .filter(attribute -> attribute.getKey().matches(String.format("^%s-\\d+$", getCustomAttributeKey(entity))))
-                .count();
+                .filter(attribute -> !stateAttributes.containsKey(attribute.getKey()))
+                .filter(attribute -> !Objects.equals(attribute.getValue(), ""))
+                .filter(attribute -> obsoleteAttribute.matcher(attribute.getKey()).matches())
+                .forEach(attribute -> stateAttributes.put(attribute.getKey(), ""));
+
+        realmCustomAttributes.putAll(stateAttributes);
+        realmAttributeBuffer.putAll(realmName, stateAttributes);
 
-        for (int index = 0; index < attributeCount; index++) {
-            stateValues.add(customAttributes.get(getCustomAttributeKey(entity) + "-" + index));
+        remoteState.changed = false;
+        remoteState.legacy = false;
+    }
+
+    private Map<String, String> encodeState(RemoteState remoteState) {
+        byte[] data = deflate(toJsonBytes(new TreeMap<>(remoteState.entities)));
+
+        String encryptionKey = importConfigProperties.getRemoteState().getEncryptionKey();
+        if (encryptionKey != null) {
+            data = CryptoUtil.encrypt(data, encryptionKey, importConfigProperties.getRemoteState().getEncryptionSalt());
+        }
+
+        List<String> chunks = splitEqually(Base64.getEncoder().encodeToString(data));
+
+        Map<String, String> stateAttributes = new LinkedHashMap<>();
+        stateAttributes.put(getManifestAttributeKey(), toJson(new StateManifest(STATE_FORMAT_VERSION, chunks.size(), encryptionKey != null)));
+
+        // split value into multiple attributes to avoid max length limit
+        for (int index = 0; index < chunks.size(); index++) {
+            stateAttributes.put(getChunkAttributeKey(index), chunks.get(index));
+        }
+
+        return stateAttributes;
+    }
+
+    private RemoteState getRemoteState(String realmName) {
+        return states.computeIfAbsent(realmName, name -> decodeState(name, getCustomAttributes(name)));
+    }
+
+    private RemoteState decodeState(String realmName, Map<String, String> attributes) {
+        String manifestValue = attributes.get(getManifestAttributeKey());
+        if (manifestValue == null || manifestValue.isEmpty()) {
+            return decodeLegacyState(attributes);
         }
 
-        if (stateValues.isEmpty()) {
-            return Collections.emptyList();
+        StateManifest manifest = fromJson(manifestValue.getBytes(StandardCharsets.UTF_8), MANIFEST_TYPE);
+        if (manifest.version != STATE_FORMAT_VERSION) {
+            throw new ImportProcessingException("Unsupported format version %d of the remote state of realm '%s'", manifest.version, realmName);
         }
 
-        String state = String.join("", stateValues);
+        StringBuilder encodedState = new StringBuilder();
+        for (int index = 0; index < manifest.chunks; index++) {
+            String chunk = attributes.get(getChunkAttributeKey(index));
+            if (chunk == null) {
+                throw new ImportProcessingException("Chunk %d of the remote state of realm '%s' is missing", index, realmName);
+            }
+
+            encodedState.append(chunk);
+        }
+
+        byte[] data = Base64.getDecoder().decode(encodedState.toString());
+
+        if (manifest.encrypted) {
+            String encryptionKey = importConfigProperties.getRemoteState().getEncryptionKey();
+            if (encryptionKey == null) {
+                throw new ImportProcessingException("The remote state of realm '%s' is encrypted, but no encryption key is configured", realmName);
+            }
 
-        if (this.importConfigProperties.getRemoteState().getEncryptionKey() != null) {
-            state = CryptoUtil.decrypt(
-                    state,
-                    this.importConfigProperties.getRemoteState().getEncryptionKey(),
-                    this.importConfigProperties.getRemoteState().getEncryptionSalt()
-            );
+            data = CryptoUtil.decrypt(data, encryptionKey, importConfigProperties.getRemoteState().getEncryptionSalt());
         }
 
-        return fromJson(state);
+        return new RemoteState(new ConcurrentHashMap<>(fromJson(inflate(data), STATE_TYPE)), false);
     }
 
-    public void update(RealmImport realmImport) {
-        RealmRepresentation existingRealm = realmRepository.get(realmImport.getRealm());
-        Map<String, String> realmAttributes = existingRealm.getAttributes();
-        realmAttributes.putAll(customAttributes);
+    private RemoteState decodeLegacyState(Map<String, String> attributes) {
+        Pattern legacyAttribute = Pattern.compile(String.format("^(?:%s)$", getLegacyAttributePattern()));
+        Map<String, TreeMap<Integer, String>> chunksByEntity = new HashMap<>();
+
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            Matcher matcher = legacyAttribute.matcher(attribute.getKey());
+            if (!matcher.matches() || attribute.getValue() == null || attribute.getValue().isEmpty()) continue;
+
+            chunksByEntity.computeIfAbsent(matcher.group(1), entity -> new TreeMap<>())
+                    .put(Integer.parseInt(matcher.group(2)), attribute.getValue());
+        }
+
+        Map<String, List<String>> entities = new ConcurrentHashMap<>();
+        chunksByEntity.forEach((entity, chunks) -> {
+            String state = String.join("", chunks.values());
+
+            if (this.importConfigProperties.getRemoteState().getEncryptionKey() != null) {
+                state = CryptoUtil.decrypt(
+                        state,
+                        this.importConfigProperties.getRemoteState().getEncryptionKey(),
+                        this.importConfigProperties.getRemoteState().getEncryptionSalt()
+                );
+            }
+
+            entities.put(entity, fromJson(state));
+        });
+
+        return new RemoteState(entities, !entities.isEmpty());
+    }
 
-        realmRepository.update(existingRealm);
+    private static byte[] deflate(byte[] data) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        try (OutputStream outputStream = new DeflaterOutputStream(compressed)) {
+            outputStream.write(data);
+        } catch (IOException e) {
+            throw new ImportProcessingException("Unable to compress remote state", e);
+        }
+
+        return compressed.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] data) {
+        try (InputStream inputStream = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new ImportProcessingException("Unable to decompress remote state", e);
+        }
+    }
+
+    private String getManifestAttributeKey() {
+        return MessageFormat.format(
+                ImportConfigProperties.REALM_STATE_MANIFEST_ATTRIBUTE_KEY,
+                importConfigProperties.getCache().getKey()
+        );
     }
 
-    private String getCustomAttributeKey(String entity) {
+    private String getChunkAttributeKey(int index) {
         return MessageFormat.format(
+                ImportConfigProperties.REALM_STATE_CHUNK_ATTRIBUTE_PREFIX_KEY,
+                importConfigProperties.getCache().getKey(),
+                String.valueOf(index)
+        );
+    }
+
+    private String getChunkAttributePattern() {
+        return Pattern.quote(getManifestAttributeKey() + "-") + "\\d+";
+    }
+
+    // group 1 is the entity, group 2 the index of the chunk
+    private String getLegacyAttributePattern() {
+        String prefix = MessageFormat.format(
                 ImportConfigProperties.REALM_STATE_ATTRIBUTE_PREFIX_KEY,
                 importConfigProperties.getCache().getKey(),
-                entity
+                ""
         );
+
+        return Pattern.quote(prefix) + "(" + LEGACY_STATE_ENTITIES + ")-(\\d+)";
     }
 
     private Map<String, String> retrieveCustomAttributes(String realmName) {
         RealmRepresentation existingRealm = realmRepository.get(realmName);
-        return existingRealm.getAttributes();
+        Map<String, String> attributes = existingRealm.getAttributes();
+
+        return attributes != null ? new HashMap<>(attributes) : new HashMap<>();
     }
 
-    public void setState(String entity, List<String> values) {
-        String valuesAsString = toJson(values);
+    private Map<String, String> getCustomAttributes(String realmName) {
+        Map<String, String> realmCustomAttributes = customAttributes.get(realmName);
 
-        if (this.importConfigProperties.getRemoteState().getEncryptionKey() != null) {
-            valuesAsString = CryptoUtil.encrypt(
-                    valuesAsString,
-                    this.importConfigProperties.getRemoteState().getEncryptionKey(),
-                    this.importConfigProperties.getRemoteState().getEncryptionSalt()
-            );
+        if (realmCustomAttributes == null) {
+            throw new IllegalStateException(String.format("State of realm '%s' is not loaded", realmName));
         }
 
-        List<String> valueList = splitEqually(valuesAsString);
+        return realmCustomAttributes;
+    }
 
-        customAttributes.entrySet()
-                .removeIf(attribute -> attribute.getKey().startsWith(getCustomAttributeKey(entity) + "-"));
+    private static class RemoteState {
+        private final Map<String, List<String>> entities;
 
-        // split value into multiple attributes to avoid max length limit
-        int index = 0;
-        for (String value : valueList) {
-            customAttributes.put(getCustomAttributeKey(entity) + "-" + index, value);
-            index++;
+        // a legacy state is converted on the next update, even if it has not changed
+        private boolean legacy;
+        private boolean changed;
+
+        private RemoteState(Map<String, List<String>> entities, boolean legacy) {
+            this.entities = entities;
+            this.legacy = legacy;
+        }
+    }
+
+    private static class StateManifest {
+        public int version;
+        public int chunks;
+        public boolean encrypted;
+
+        private StateManifest() {
+        }
+
+        private StateManifest(int version, int chunks, boolean encrypted) {
+            this.version = version;
+            this.chunks = chunks;
+            this.encrypted = encrypted;
         }
     }
 }
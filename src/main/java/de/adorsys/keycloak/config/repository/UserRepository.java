@@ -20,28 +20,35 @@
 
 package de.adorsys.keycloak.config.repository;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
 import org.keycloak.admin.client.CreatedResponseUtil;
 import org.keycloak.admin.client.resource.RealmResource;
 import org.keycloak.admin.client.resource.UserResource;
 import org.keycloak.admin.client.resource.UsersResource;
 import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.PartialImportRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import javax.ws.rs.core.Response;
 
 @Service
 public class UserRepository {
+    private static final int PAGE_SIZE = 500;
 
     private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository snapshotRepository;
 
     @Autowired
-    public UserRepository(RealmRepository realmRepository) {
+    public UserRepository(RealmRepository realmRepository, RealmSnapshotRepository snapshotRepository) {
         this.realmRepository = realmRepository;
+        this.snapshotRepository = snapshotRepository;
     }
 
     public Optional<UserRepresentation> search(String realmName, String username) {
@@ -53,14 +60,27 @@ public class UserRepository {
             user = Optional.empty();
         } else {
             user = Optional.of(foundUsers.get(0));
+            rememberUserId(realmName, username, foundUsers.get(0).getId());
         }
 
         return user;
     }
 
     final UserResource getResource(String realmName, String username) {
-        UserRepresentation user = get(realmName, username);
-        return realmRepository.getResource(realmName).users().get(user.getId());
+        String userId = snapshotRepository.lookup(realmName,
+                snapshot -> snapshot.getUserIds().get(toUserIdKey(username)),
+                () -> null
+        );
+
+        if (userId == null) {
+            userId = get(realmName, username).getId();
+        }
+
+        return getResourceById(realmName, userId);
+    }
+
+    final UserResource getResourceById(String realmName, String userId) {
+        return realmRepository.getResource(realmName).users().get(userId);
     }
 
     public UserRepresentation get(String realmName, String username) {
@@ -71,13 +91,59 @@ public class UserRepository {
         );
     }
 
-    public void create(String realmName, UserRepresentation user) {
+    public List<UserRepresentation> getAll(String realmName) {
+        UsersResource usersResource = realmRepository.getResource(realmName).users();
+
+        List<UserRepresentation> users = new ArrayList<>();
+        List<UserRepresentation> page;
+        do {
+            page = usersResource.list(users.size(), PAGE_SIZE);
+            users.addAll(page);
+        } while (page.size() == PAGE_SIZE);
+
+        users.forEach(user -> rememberUserId(realmName, user.getUsername(), user.getId()));
+
+        return users;
+    }
+
+    /**
+     * @return the id of the created user
+     */
+    public String create(String realmName, UserRepresentation user) {
         RealmResource realmResource = realmRepository.getResource(realmName);
         UsersResource usersResource = realmResource.users();
 
         try (Response response = usersResource.create(user)) {
-            CreatedResponseUtil.getCreatedId(response);
+            String userId = CreatedResponseUtil.getCreatedId(response);
+            rememberUserId(realmName, user.getUsername(), userId);
+            return userId;
+        }
+    }
+
+    /**
+     * @return false, if the import was rejected, because at least one of the users exists already
+     */
+    public boolean partialImport(String realmName, List<UserRepresentation> users) {
+        PartialImportRepresentation partialImport = new PartialImportRepresentation();
+        partialImport.setUsers(users);
+        partialImport.setIfResourceExists(PartialImportRepresentation.Policy.FAIL.name());
+
+        try (Response response = realmRepository.getResource(realmName).partialImport(partialImport)) {
+            if (response.getStatus() == Response.Status.CONFLICT.getStatusCode()) {
+                return false;
+            }
+
+            if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+                throw new KeycloakRepositoryException("Cannot import %d users into realm '%s': %s",
+                        users.size(), realmName, response.readEntity(String.class));
+            }
+
+            for (JsonNode result : response.readEntity(JsonNode.class).path("results")) {
+                rememberUserId(realmName, result.path("resourceName").asText(null), result.path("id").asText(null));
+            }
         }
+
+        return true;
     }
 
     public void updateUser(String realmName, UserRepresentation user) {
@@ -85,8 +151,19 @@ public class UserRepository {
         userResource.update(user);
     }
 
-    public List<GroupRepresentation> getGroups(String realmName, UserRepresentation user) {
-        UserResource userResource = getResource(realmName, user.getUsername());
+    public List<GroupRepresentation> getGroups(String realmName, String userId) {
+        UserResource userResource = getResourceById(realmName, userId);
         return userResource.groups();
     }
+
+    private void rememberUserId(String realmName, String username, String userId) {
+        if (username == null || userId == null) return;
+
+        snapshotRepository.update(realmName, snapshot -> snapshot.getUserIds().put(toUserIdKey(username), userId));
+    }
+
+    // keycloak stores usernames in lower case
+    private static String toUserIdKey(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
 }
@@ -27,6 +27,8 @@ import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
 import de.adorsys.keycloak.config.repository.AuthenticationFlowRepository;
 import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics.Outcome;
 import de.adorsys.keycloak.config.util.AuthenticationFlowUtil;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import org.keycloak.representations.idm.AuthenticationExecutionInfoRepresentation;
@@ -38,6 +40,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -61,6 +64,7 @@ public class AuthenticationFlowsImportService {
     private final UsedAuthenticationFlowWorkaroundFactory workaroundFactory;
 
     private final ImportConfigProperties importConfigProperties;
+    private final ImportMetrics importMetrics;
 
     @Autowired
     public AuthenticationFlowsImportService(
@@ -68,7 +72,8 @@ public class AuthenticationFlowsImportService {
             AuthenticationFlowRepository authenticationFlowRepository,
             ExecutionFlowsImportService executionFlowsImportService,
             AuthenticatorConfigImportService authenticatorConfigImportService, UsedAuthenticationFlowWorkaroundFactory workaroundFactory,
-            ImportConfigProperties importConfigProperties
+            ImportConfigProperties importConfigProperties,
+            ImportMetrics importMetrics
     ) {
         this.realmRepository = realmRepository;
         this.authenticationFlowRepository = authenticationFlowRepository;
@@ -76,6 +81,7 @@ public class AuthenticationFlowsImportService {
         this.authenticatorConfigImportService = authenticatorConfigImportService;
         this.workaroundFactory = workaroundFactory;
         this.importConfigProperties = importConfigProperties;
+        this.importMetrics = importMetrics;
     }
 
     /**
@@ -83,7 +89,8 @@ public class AuthenticationFlowsImportService {
      * - check the authentication flows:
      * -- if the flow is not present: create the authentication flow
      * -- if the flow is present, check:
-     * --- if the flow contains any changes: update the authentication flow, which means: delete and recreate the authentication flow
+     * --- if the flow contains any changes: update the authentication flow and its executions in place. Only if this is not
+     * possible: delete and recreate the authentication flow
      * --- if nothing of above: do nothing
      */
     public void doImport(RealmImport realmImport) {
@@ -145,6 +152,7 @@ public class AuthenticationFlowsImportService {
 
     private void createTopLevelFlow(RealmImport realmImport, AuthenticationFlowRepresentation topLevelFlowToImport) {
         logger.debug("Creating top-level flow: {}", topLevelFlowToImport.getAlias());
+        importMetrics.record("authentication-flows", Outcome.CREATED);
         authenticationFlowRepository.createTopLevel(realmImport.getRealm(), topLevelFlowToImport);
 
         AuthenticationFlowRepresentation createdTopLevelFlow = authenticationFlowRepository.getByAlias(
@@ -162,10 +170,11 @@ public class AuthenticationFlowsImportService {
                 || hasAnySubFlowToBeUpdated(realmName, topLevelFlowToImport);
 
         if (hasToBeUpdated) {
-            logger.debug("Recreate top-level flow: {}", topLevelFlowToImport.getAlias());
-            recreateTopLevelFlow(realmName, topLevelFlowToImport, existingAuthenticationFlow);
+            importMetrics.record("authentication-flows", Outcome.UPDATED);
+            updateTopLevelFlow(realmName, topLevelFlowToImport, existingAuthenticationFlow);
         } else {
             logger.debug("No need to update flow: {}", topLevelFlowToImport.getAlias());
+            importMetrics.record("authentication-flows", Outcome.UNCHANGED);
         }
     }
 
@@ -253,6 +262,7 @@ public class AuthenticationFlowsImportService {
             AuthenticationFlowRepresentation existingFlow = maybeFlow.get();
             if (hasAuthenticationFlowToBeUpdated(flowToImport, existingFlow)) {
                 logger.debug("Updating builtin flow: {}", flowToImport.getAlias());
+                importMetrics.record("authentication-flows", Outcome.UPDATED);
                 updateBuiltInFlow(realmImport, flowToImport, existingFlow);
             }
         }
@@ -278,6 +288,36 @@ public class AuthenticationFlowsImportService {
         executionFlowsImportService.updateExecutionFlows(realmImport, topLevelFlowToImport);
     }
 
+    /**
+     * Updates the top-level flow and its executions in place, so the flow keeps its id and stays usable for logins.
+     * Only if the flow type changed or a sub-flow moved to another parent flow, the flow is deleted and recreated.
+     */
+    private void updateTopLevelFlow(
+            RealmImport realmImport,
+            AuthenticationFlowRepresentation topLevelFlowToImport,
+            AuthenticationFlowRepresentation existingAuthenticationFlow
+    ) {
+        boolean isUpdatable = !existingAuthenticationFlow.isBuiltIn()
+                && Objects.equals(existingAuthenticationFlow.getProviderId(), topLevelFlowToImport.getProviderId())
+                && executionFlowsImportService.updateExecutionsAndExecutionFlows(realmImport, topLevelFlowToImport);
+
+        if (!isUpdatable) {
+            logger.debug("Recreate top-level flow: {}", topLevelFlowToImport.getAlias());
+            recreateTopLevelFlow(realmImport, topLevelFlowToImport, existingAuthenticationFlow);
+            return;
+        }
+
+        logger.debug("Updated executions of top-level flow: {}", topLevelFlowToImport.getAlias());
+
+        if (!CloneUtil.deepEquals(topLevelFlowToImport, existingAuthenticationFlow, "id", "authenticationExecutions")) {
+            AuthenticationFlowRepresentation patchedAuthenticationFlow = CloneUtil.patch(
+                    existingAuthenticationFlow, topLevelFlowToImport, "id", "authenticationExecutions"
+            );
+
+            authenticationFlowRepository.update(realmImport.getRealm(), patchedAuthenticationFlow);
+        }
+    }
+
     /**
      * Deletes the top-level flow and all its executions and recreates them.
      */
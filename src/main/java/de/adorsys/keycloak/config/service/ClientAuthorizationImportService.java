@@ -28,6 +28,7 @@ import de.adorsys.keycloak.config.repository.GroupRepository;
 import de.adorsys.keycloak.config.repository.IdentityProviderRepository;
 import de.adorsys.keycloak.config.repository.RoleRepository;
 import de.adorsys.keycloak.config.service.clientauthorization.*;
+import de.adorsys.keycloak.config.service.stage.ImportTaskExecutor;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import de.adorsys.keycloak.config.util.JsonUtil;
@@ -42,12 +43,17 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
 
 import static de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.FULL;
 import static java.lang.Boolean.TRUE;
@@ -65,6 +71,7 @@ public class ClientAuthorizationImportService {
     private final GroupRepository groupRepository;
     private final ImportConfigProperties importConfigProperties;
     private final StateService stateService;
+    private final ImportTaskExecutor importTaskExecutor;
 
     @Autowired
     public ClientAuthorizationImportService(
@@ -73,7 +80,8 @@ public class ClientAuthorizationImportService {
             RoleRepository roleRepository,
             GroupRepository groupRepository,
             ImportConfigProperties importConfigProperties,
-            StateService stateService
+            StateService stateService,
+            ImportTaskExecutor importTaskExecutor
     ) {
         this.clientRepository = clientRepository;
         this.identityProviderRepository = identityProviderRepository;
@@ -81,6 +89,7 @@ public class ClientAuthorizationImportService {
         this.groupRepository = groupRepository;
         this.importConfigProperties = importConfigProperties;
         this.stateService = stateService;
+        this.importTaskExecutor = importTaskExecutor;
     }
 
     public void doImport(RealmImport realmImport) {
@@ -102,7 +111,8 @@ public class ClientAuthorizationImportService {
                 .filter(client -> client.getAuthorizationSettings() != null)
                 .collect(Collectors.toList());
 
-        for (ClientRepresentation client : clientsWithAuthorization) {
+        // the authorization settings of distinct clients are independent of each other
+        importTaskExecutor.forEach("client-authorizations", clientsWithAuthorization, client -> {
             ClientRepresentation existingClient;
             if (client.getClientId() != null) {
                 existingClient = clientRepository.getByClientId(realmName, client.getClientId());
@@ -113,7 +123,7 @@ public class ClientAuthorizationImportService {
             }
 
             updateAuthorization(realmName, existingClient, client.getAuthorizationSettings());
-        }
+        });
     }
 
     private void updateAuthorization(
@@ -129,38 +139,96 @@ public class ClientAuthorizationImportService {
             );
         }
 
-        RealmManagementPermissionsResolver realmManagementPermissionsResolver = new RealmManagementPermissionsResolver(realmName);
-        if (REALM_MANAGEMENT_CLIENT_ID.equals(client.getClientId())) {
-            realmManagementPermissionsResolver.createFineGrantedPermissions(authorizationSettingsToImport);
-        }
-
         ResourceServerRepresentation existingAuthorization = clientRepository.getAuthorizationConfigById(
                 realmName, client.getId()
         );
 
-        handleAuthorizationSettings(realmName, client, existingAuthorization, authorizationSettingsToImport);
+        RealmManagementPermissionsResolver realmManagementPermissionsResolver = new RealmManagementPermissionsResolver(
+                realmName, clientRepository, identityProviderRepository, roleRepository, groupRepository
+        );
+        if (REALM_MANAGEMENT_CLIENT_ID.equals(client.getClientId())
+                && realmManagementPermissionsResolver.createFineGrantedPermissions(authorizationSettingsToImport, existingAuthorization)) {
+            // enabling permissions creates resources and policies in the authorization settings of realm-management
+            existingAuthorization = clientRepository.getAuthorizationConfigById(realmName, client.getId());
+        }
+
+        ResourceServerRepresentation settings = handleAuthorizationSettings(
+                realmName, client, existingAuthorization, authorizationSettingsToImport
+        );
 
         final List<ResourceRepresentation> sanitizedAuthorizationResources =
                 sanitizeAuthorizationResources(authorizationSettingsToImport, realmManagementPermissionsResolver);
         final List<PolicyRepresentation> sanitizedAuthorizationPolicies = sanitizeAuthorizationPolicies(authorizationSettingsToImport,
                 realmManagementPermissionsResolver);
 
-        createOrUpdateAuthorizationResources(realmName, client, existingAuthorization.getResources(), sanitizedAuthorizationResources);
-        createOrUpdateAuthorizationScopes(realmName, client, existingAuthorization.getScopes(), authorizationSettingsToImport.getScopes());
+        List<ScopeRepresentation> authorizationScopesToImport = authorizationSettingsToImport.getScopes();
+        List<ResourceRepresentation> authorizationResourcesToImport = sanitizedAuthorizationResources;
+
+        int batchSize = importConfigProperties.getBehaviors().getClientAuthorizationBatchSize();
+        if (batchSize > 0) {
+            Set<String> existingScopeNames = existingAuthorization.getScopes().stream()
+                    .map(ScopeRepresentation::getName)
+                    .collect(Collectors.toSet());
+            authorizationScopesToImport = importNewInBatches(realmName, client, settings, authorizationScopesToImport,
+                    scope -> existingScopeNames.contains(scope.getName()), ResourceServerRepresentation::setScopes, batchSize);
+
+            Set<String> existingResourceNames = existingAuthorization.getResources().stream()
+                    .map(ResourceRepresentation::getName)
+                    .collect(Collectors.toSet());
+            authorizationResourcesToImport.forEach(this::setAuthorizationResourceOwner);
+            authorizationResourcesToImport = importNewInBatches(realmName, client, settings, authorizationResourcesToImport,
+                    resource -> existingResourceNames.contains(resource.getName()), ResourceServerRepresentation::setResources, batchSize);
+        }
+
+        // resources refer to scopes, so scopes go first
+        createOrUpdateAuthorizationScopes(realmName, client, existingAuthorization.getScopes(), authorizationScopesToImport);
+        createOrUpdateAuthorizationResources(realmName, client, existingAuthorization.getResources(), authorizationResourcesToImport);
+
+        // keycloak removes policies together with the resources, scopes or policies they refer to, see AuthorizationPolicies
+        AuthorizationPolicies existingPolicies = new AuthorizationPolicies(existingAuthorization.getPolicies());
 
         if (importConfigProperties.getManaged().getClientAuthorizationResources() == FULL) {
-            removeAuthorizationResources(realmName, client, existingAuthorization.getResources(), sanitizedAuthorizationResources);
+            removeAuthorizationResources(realmName, client, existingAuthorization.getResources(), sanitizedAuthorizationResources, existingPolicies);
         }
 
-        removeAuthorizationPolicies(realmName, client, existingAuthorization.getPolicies(), sanitizedAuthorizationPolicies);
-        removeAuthorizationScopes(realmName, client, existingAuthorization.getScopes(), authorizationSettingsToImport.getScopes());
+        removeAuthorizationPolicies(realmName, client, existingPolicies, sanitizedAuthorizationPolicies);
+        removeAuthorizationScopes(realmName, client, existingAuthorization.getScopes(), authorizationSettingsToImport.getScopes(), existingPolicies);
 
-        // refresh existingAuthorization
-        existingAuthorization = clientRepository.getAuthorizationConfigById(
-                realmName, client.getId()
-        );
+        createOrUpdateAuthorizationPolicies(realmName, client, settings, existingPolicies, sanitizedAuthorizationPolicies);
+    }
 
-        createOrUpdateAuthorizationPolicies(realmName, client, existingAuthorization.getPolicies(), sanitizedAuthorizationPolicies);
+    /**
+     * Creates the items which don't exist yet through the resource server import endpoint, in batches. Each batch is one
+     * transaction, keycloak resolves references by name within it. Returns the existing items, which are left to be updated.
+     */
+    private <T> List<T> importNewInBatches(
+            String realmName,
+            ClientRepresentation client,
+            ResourceServerRepresentation settings,
+            List<T> itemsToImport,
+            Predicate<T> isExisting,
+            BiConsumer<ResourceServerRepresentation, List<T>> batchSetter,
+            int batchSize
+    ) {
+        Map<Boolean, List<T>> itemsByExistence = itemsToImport.stream().collect(Collectors.partitioningBy(isExisting));
+        List<T> newItems = itemsByExistence.get(false);
+
+        for (int start = 0; start < newItems.size(); start += batchSize) {
+            ResourceServerRepresentation batch = new ResourceServerRepresentation();
+            batch.setPolicyEnforcementMode(settings.getPolicyEnforcementMode());
+            batch.setDecisionStrategy(settings.getDecisionStrategy());
+            batch.setAllowRemoteResourceManagement(settings.isAllowRemoteResourceManagement());
+            batch.setScopes(Collections.emptyList());
+            batch.setResources(Collections.emptyList());
+            batch.setPolicies(Collections.emptyList());
+            batchSetter.accept(batch, newItems.subList(start, Math.min(newItems.size(), start + batchSize)));
+
+            logger.debug("Import {} authorization scopes, {} resources and {} policies for client '{}' in realm '{}'",
+                    batch.getScopes().size(), batch.getResources().size(), batch.getPolicies().size(), getClientIdentifier(client), realmName);
+            clientRepository.importAuthorizationSettings(realmName, client.getId(), batch);
+        }
+
+        return itemsByExistence.get(true);
     }
 
     private List<ResourceRepresentation> sanitizeAuthorizationResources(ResourceServerRepresentation authorizationSettings,
@@ -208,7 +276,10 @@ public class ClientAuthorizationImportService {
         return resources;
     }
 
-    private void handleAuthorizationSettings(
+    /**
+     * @return the settings of the resource server after the import
+     */
+    private ResourceServerRepresentation handleAuthorizationSettings(
             String realmName,
             ClientRepresentation client,
             ResourceServerRepresentation existingClientAuthorizationResources,
@@ -218,7 +289,7 @@ public class ClientAuthorizationImportService {
 
         boolean isEquals = CloneUtil.deepEquals(authorizationResourcesToImport, existingClientAuthorizationResources, ignoredProperties);
 
-        if (isEquals) return;
+        if (isEquals) return existingClientAuthorizationResources;
 
         ResourceServerRepresentation patchedAuthorizationSettings = CloneUtil
                 .patch(existingClientAuthorizationResources, authorizationResourcesToImport);
@@ -226,6 +297,7 @@ public class ClientAuthorizationImportService {
         patchedAuthorizationSettings.setId(client.getClientId());
         logger.debug("Update authorization settings for client '{}' in realm '{}'", getClientIdentifier(client), realmName);
         clientRepository.updateAuthorizationSettings(realmName, client.getId(), patchedAuthorizationSettings);
+        return patchedAuthorizationSettings;
     }
 
     private void createOrUpdateAuthorizationResources(
@@ -239,9 +311,9 @@ public class ClientAuthorizationImportService {
                         .stream()
                         .collect(Collectors.toMap(ResourceRepresentation::getName, resource -> resource));
 
-        for (ResourceRepresentation authorizationResourceToImport : authorizationResourcesToImport) {
-            createOrUpdateAuthorizationResource(realmName, client, existingClientAuthorizationResourcesMap, authorizationResourceToImport);
-        }
+        importTaskExecutor.forEach("client-authorization-resources", authorizationResourcesToImport, authorizationResourceToImport ->
+                createOrUpdateAuthorizationResource(realmName, client, existingClientAuthorizationResourcesMap, authorizationResourceToImport)
+        );
     }
 
     private void createOrUpdateAuthorizationResource(
@@ -310,23 +382,27 @@ public class ClientAuthorizationImportService {
             String realmName,
             ClientRepresentation client,
             List<ResourceRepresentation> existingClientAuthorizationResources,
-            List<ResourceRepresentation> authorizationResourcesToImport
+            List<ResourceRepresentation> authorizationResourcesToImport,
+            AuthorizationPolicies existingPolicies
     ) {
         List<String> authorizationResourceNamesToImport = authorizationResourcesToImport
                 .stream().map(ResourceRepresentation::getName)
                 .collect(Collectors.toList());
 
-        List<ResourceRepresentation> managedClientAuthorizationResources = getManagedClientResources(client, existingClientAuthorizationResources);
+        List<ResourceRepresentation> managedClientAuthorizationResources = getManagedClientResources(
+                realmName, client, existingClientAuthorizationResources
+        );
 
         managedClientAuthorizationResources.stream()
                 .filter(resource -> !authorizationResourceNamesToImport.contains(resource.getName()))
-                .forEach(resource -> removeAuthorizationResource(realmName, client, resource));
+                .forEach(resource -> removeAuthorizationResource(realmName, client, resource, existingPolicies));
     }
 
     private void removeAuthorizationResource(
             String realmName,
             ClientRepresentation client,
-            ResourceRepresentation existingClientAuthorizationResource
+            ResourceRepresentation existingClientAuthorizationResource,
+            AuthorizationPolicies existingPolicies
     ) {
         logger.debug("Remove authorization resource '{}' for client '{}' in realm '{}'",
                 existingClientAuthorizationResource.getName(), getClientIdentifier(client), realmName
@@ -334,6 +410,7 @@ public class ClientAuthorizationImportService {
         clientRepository.removeAuthorizationResource(
                 realmName, client.getId(), existingClientAuthorizationResource.getId()
         );
+        existingPolicies.removeResource(existingClientAuthorizationResource.getName());
     }
 
     private void createOrUpdateAuthorizationScopes(
@@ -346,11 +423,9 @@ public class ClientAuthorizationImportService {
                 .stream()
                 .collect(Collectors.toMap(ScopeRepresentation::getName, scope -> scope));
 
-        for (ScopeRepresentation authorizationScopeToImport : authorizationScopesToImport) {
-            createOrUpdateAuthorizationScope(
-                    realmName, client, existingClientAuthorizationScopesMap, authorizationScopeToImport
-            );
-        }
+        importTaskExecutor.forEach("client-authorization-scopes", authorizationScopesToImport, authorizationScopeToImport ->
+                createOrUpdateAuthorizationScope(realmName, client, existingClientAuthorizationScopesMap, authorizationScopeToImport)
+        );
     }
 
     private void createOrUpdateAuthorizationScope(
@@ -398,7 +473,8 @@ public class ClientAuthorizationImportService {
             String realmName,
             ClientRepresentation client,
             List<ScopeRepresentation> existingClientAuthorizationScopes,
-            List<ScopeRepresentation> authorizationScopesToImport
+            List<ScopeRepresentation> authorizationScopesToImport,
+            AuthorizationPolicies existingPolicies
     ) {
         List<String> authorizationScopeNamesToImport = authorizationScopesToImport
                 .stream().map(ScopeRepresentation::getName)
@@ -406,7 +482,7 @@ public class ClientAuthorizationImportService {
 
         for (ScopeRepresentation existingClientAuthorizationScope : existingClientAuthorizationScopes) {
             if (!authorizationScopeNamesToImport.contains(existingClientAuthorizationScope.getName())) {
-                removeAuthorizationScope(realmName, client, existingClientAuthorizationScope);
+                removeAuthorizationScope(realmName, client, existingClientAuthorizationScope, existingPolicies);
             }
         }
     }
@@ -414,27 +490,36 @@ public class ClientAuthorizationImportService {
     private void removeAuthorizationScope(
             String realmName,
             ClientRepresentation client,
-            ScopeRepresentation existingClientAuthorizationScope
+            ScopeRepresentation existingClientAuthorizationScope,
+            AuthorizationPolicies existingPolicies
     ) {
         logger.debug("Remove authorization scope '{}' for client '{}' in realm '{}'",
                 existingClientAuthorizationScope.getName(), getClientIdentifier(client), realmName);
 
         clientRepository.removeAuthorizationScope(realmName, client.getId(), existingClientAuthorizationScope.getId());
+        existingPolicies.removeScope(existingClientAuthorizationScope.getName());
     }
 
+    /**
+     * Policies can apply other policies, which have to exist already. Policies independent of each other are imported concurrently.
+     */
     private void createOrUpdateAuthorizationPolicies(
             String realmName,
             ClientRepresentation client,
-            List<PolicyRepresentation> existingClientAuthorizationPolicies,
+            ResourceServerRepresentation settings,
+            AuthorizationPolicies existingPolicies,
             List<PolicyRepresentation> authorizationPoliciesToImport
     ) {
-        Map<String, PolicyRepresentation> existingClientAuthorizationPoliciesMap = existingClientAuthorizationPolicies
-                .stream()
-                .collect(Collectors.toMap(PolicyRepresentation::getName, resource -> resource));
+        int batchSize = importConfigProperties.getBehaviors().getClientAuthorizationBatchSize();
 
-        for (PolicyRepresentation authorizationPolicyToImport : authorizationPoliciesToImport) {
-            createOrUpdateAuthorizationPolicy(
-                    realmName, client, existingClientAuthorizationPoliciesMap, authorizationPolicyToImport
+        for (List<PolicyRepresentation> wave : AuthorizationPolicies.groupByDependencies(authorizationPoliciesToImport)) {
+            if (batchSize > 0) {
+                wave = importNewInBatches(realmName, client, settings, wave,
+                        policy -> existingPolicies.contains(policy.getName()), ResourceServerRepresentation::setPolicies, batchSize);
+            }
+
+            importTaskExecutor.forEach("client-authorization-policies", wave, authorizationPolicyToImport ->
+                    createOrUpdateAuthorizationPolicy(realmName, client, existingPolicies, authorizationPolicyToImport)
             );
         }
     }
@@ -442,56 +527,81 @@ public class ClientAuthorizationImportService {
     private void createOrUpdateAuthorizationPolicy(
             String realmName,
             ClientRepresentation client,
-            Map<String, PolicyRepresentation> existingClientAuthorizationPoliciesMap,
+            AuthorizationPolicies existingPolicies,
+            PolicyRepresentation authorizationPolicyToImport
+    ) {
+        if (!existingPolicies.contains(authorizationPolicyToImport.getName())) {
+            createAuthorizationPolicy(realmName, client, authorizationPolicyToImport);
+        } else {
+            updateAuthorizationPolicy(
+                    realmName, client, existingPolicies.get(authorizationPolicyToImport.getName()), authorizationPolicyToImport
+            );
+        }
+    }
+
+    private void createAuthorizationPolicy(
+            String realmName,
+            ClientRepresentation client,
             PolicyRepresentation authorizationPolicyToImport
     ) {
-        if (!existingClientAuthorizationPoliciesMap.containsKey(authorizationPolicyToImport.getName())) {
-            logger.debug("Create authorization policy '{}' for client '{}' in realm '{}'",
-                    authorizationPolicyToImport.getName(), getClientIdentifier(client), realmName);
+        logger.debug("Create authorization policy '{}' for client '{}' in realm '{}'",
+                authorizationPolicyToImport.getName(), getClientIdentifier(client), realmName);
 
+        try {
             clientRepository.createAuthorizationPolicy(
                     realmName, client.getId(), authorizationPolicyToImport
             );
-        } else {
-            updateAuthorizationPolicy(
-                    realmName, client, existingClientAuthorizationPoliciesMap, authorizationPolicyToImport
+        } catch (WebApplicationException error) {
+            if (error.getResponse().getStatus() != Response.Status.CONFLICT.getStatusCode()) throw error;
+
+            // keycloak kept a policy which was expected to be removed together with a resource, scope or policy
+            PolicyRepresentation existingClientAuthorizationPolicy = clientRepository.getAuthorizationPolicyByName(
+                    realmName, client.getId(), authorizationPolicyToImport.getName()
             );
+            authorizationPolicyToImport.setId(existingClientAuthorizationPolicy.getId());
+            clientRepository.updateAuthorizationPolicy(realmName, client.getId(), authorizationPolicyToImport);
         }
     }
 
     private void updateAuthorizationPolicy(
             String realmName,
             ClientRepresentation client,
-            Map<String, PolicyRepresentation> existingClientAuthorizationPoliciesMap,
+            PolicyRepresentation existingClientAuthorizationPolicy,
             PolicyRepresentation authorizationPolicyToImport
     ) {
-        PolicyRepresentation existingClientAuthorizationPolicy = existingClientAuthorizationPoliciesMap
-                .get(authorizationPolicyToImport.getName());
+        if (CloneUtil.deepEquals(authorizationPolicyToImport, existingClientAuthorizationPolicy, "id")) return;
 
-        if (!CloneUtil.deepEquals(authorizationPolicyToImport, existingClientAuthorizationPolicy, "id")) {
-            authorizationPolicyToImport.setId(existingClientAuthorizationPolicy.getId());
+        authorizationPolicyToImport.setId(existingClientAuthorizationPolicy.getId());
 
-            logger.debug(
-                    "Update authorization policy '{}' for client '{}' in realm '{}'",
-                    authorizationPolicyToImport.getName(), getClientIdentifier(client), realmName
-            );
+        logger.debug(
+                "Update authorization policy '{}' for client '{}' in realm '{}'",
+                authorizationPolicyToImport.getName(), getClientIdentifier(client), realmName
+        );
+
+        try {
             clientRepository.updateAuthorizationPolicy(realmName, client.getId(), authorizationPolicyToImport);
+        } catch (NotFoundException error) {
+            // keycloak removed the policy together with a resource, scope or policy
+            authorizationPolicyToImport.setId(null);
+            clientRepository.createAuthorizationPolicy(realmName, client.getId(), authorizationPolicyToImport);
         }
     }
 
     private void removeAuthorizationPolicies(
             String realmName,
             ClientRepresentation client,
-            List<PolicyRepresentation> existingClientAuthorizationPolicies,
+            AuthorizationPolicies existingPolicies,
             List<PolicyRepresentation> authorizationPoliciesToImport
     ) {
         List<String> authorizationPolicyNamesToImport = authorizationPoliciesToImport
                 .stream().map(PolicyRepresentation::getName)
                 .collect(Collectors.toList());
 
-        for (PolicyRepresentation existingClientAuthorizationPolicy : existingClientAuthorizationPolicies) {
+        for (PolicyRepresentation existingClientAuthorizationPolicy : existingPolicies.getAll()) {
+            if (!existingPolicies.contains(existingClientAuthorizationPolicy.getName())) continue;
+
             if (!authorizationPolicyNamesToImport.contains(existingClientAuthorizationPolicy.getName())) {
-                removeAuthorizationPolicy(realmName, client, existingClientAuthorizationPolicy);
+                removeAuthorizationPolicy(realmName, client, existingClientAuthorizationPolicy, existingPolicies);
             }
         }
     }
@@ -499,7 +609,8 @@ public class ClientAuthorizationImportService {
     private void removeAuthorizationPolicy(
             String realmName,
             ClientRepresentation client,
-            PolicyRepresentation existingClientAuthorizationPolicy
+            PolicyRepresentation existingClientAuthorizationPolicy,
+            AuthorizationPolicies existingPolicies
     ) {
         logger.debug(
                 "Remove authorization policy '{}' for client '{}' in realm '{}'",
@@ -513,6 +624,8 @@ public class ClientAuthorizationImportService {
         } catch (NotFoundException ignored) {
             // policies got deleted if linked resources are deleted, too.
         }
+
+        existingPolicies.removePolicy(existingClientAuthorizationPolicy.getName());
     }
 
     private String getClientIdentifier(ClientRepresentation client) {
@@ -527,10 +640,12 @@ public class ClientAuthorizationImportService {
         }
     }
 
-    private List<ResourceRepresentation> getManagedClientResources(ClientRepresentation client, List<ResourceRepresentation> existingResources) {
+    private List<ResourceRepresentation> getManagedClientResources(
+            String realmName, ClientRepresentation client, List<ResourceRepresentation> existingResources
+    ) {
         if (importConfigProperties.getRemoteState().isEnabled()) {
             String clientKey = Objects.equals(client.getId(), client.getClientId()) ? "name:" + client.getName() : client.getClientId();
-            List<String> clientResourcesInState = stateService.getClientAuthorizationResources(clientKey);
+            List<String> clientResourcesInState = stateService.getClientAuthorizationResources(realmName, clientKey);
             // ignore all object there are not in state
             return existingResources.stream()
                     .filter(resource -> clientResourcesInState.contains(resource.getName()) || Objects.equals(resource.getName(), "Default Resource"))
@@ -539,82 +654,4 @@ public class ClientAuthorizationImportService {
             return existingResources;
         }
     }
-
-    /**
-     * Helper class that is scoped per realm per import, so it can keep a cache of certain objects
-     */
-    private class RealmManagementPermissionsResolver {
-
-        private final String realmName;
-        private final Map<String, PermissionResolver> resolvers;
-
-        public RealmManagementPermissionsResolver(String realmName) {
-            this.realmName = realmName;
-            this.resolvers = new HashMap<>();
-
-            resolvers.put("client", new ClientPermissionResolver(realmName, clientRepository));
-            resolvers.put("idp", new IdpPermissionResolver(realmName, identityProviderRepository));
-            resolvers.put("role", new RolePermissionResolver(realmName, roleRepository));
-            resolvers.put("group", new GroupPermissionResolver(realmName, groupRepository));
-        }
-
-        public void createFineGrantedPermissions(ResourceServerRepresentation authorizationSettingsToImport) {
-            for (ResourceRepresentation resource : authorizationSettingsToImport.getResources()) {
-                PermissionTypeAndId typeAndId = PermissionTypeAndId.fromResourceName(resource.getName());
-                if (typeAndId != null) {
-                    String id = resolveObjectId(typeAndId, resource.getName());
-                    enableFineGrainedPermission(typeAndId.type, id, resource.getName());
-                }
-            }
-        }
-
-        public String resolveObjectId(PermissionTypeAndId typeAndId, String authzName) {
-            if (!typeAndId.isPlaceholder()) {
-                return typeAndId.idOrPlaceholder;
-            }
-
-            PermissionResolver resolver = getPermissionResolver(typeAndId.type, authzName);
-            return resolver.resolveObjectId(typeAndId.getPlaceholder(), authzName);
-        }
-
-        private void enableFineGrainedPermission(String type, String id, String authzName) {
-            PermissionResolver resolver;
-            try {
-                resolver = getPermissionResolver(type, authzName);
-                resolver.enablePermissions(id);
-            } catch (ImportProcessingException ex) {
-                logger.warn(String.format("Unable to enable permissions for '%s'. Import will continue, but may fail later. Reason: %s",
-                        authzName, ex.getMessage()));
-            }
-        }
-
-        private PermissionResolver getPermissionResolver(String type, String authzName) {
-            PermissionResolver resolver = resolvers.get(type);
-            if (resolver == null) {
-                throw new ImportProcessingException("Cannot resolve '%s' in realm '%s', the type '%s' is not supported by keycloak-config-cli.",
-                        authzName, realmName, type);
-            }
-            return resolver;
-        }
-
-        private String getSanitizedAuthzPolicyName(String authzName) {
-            PermissionTypeAndId typeAndId = PermissionTypeAndId.fromPolicyName(authzName);
-            return getSanitizedAuthzName(authzName, typeAndId);
-        }
-
-        private String getSanitizedAuthzResourceName(String authzName) {
-            PermissionTypeAndId typeAndId = PermissionTypeAndId.fromResourceName(authzName);
-            return getSanitizedAuthzName(authzName, typeAndId);
-        }
-
-
-        private String getSanitizedAuthzName(String authzName, PermissionTypeAndId typeAndId) {
-            if (typeAndId == null || !typeAndId.isPlaceholder()) {
-                return authzName;
-            }
-
-            String id = resolveObjectId(typeAndId, authzName);
-            return authzName.replace(typeAndId.idOrPlaceholder, id);
-        }
-    }
 }
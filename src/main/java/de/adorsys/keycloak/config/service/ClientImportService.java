@@ -26,6 +26,9 @@ import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.AuthenticationFlowRepository;
 import de.adorsys.keycloak.config.repository.ClientRepository;
 import de.adorsys.keycloak.config.repository.ClientScopeRepository;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics.Outcome;
+import de.adorsys.keycloak.config.service.stage.ImportTaskExecutor;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.*;
 import org.apache.commons.lang3.ArrayUtils;
@@ -62,6 +65,8 @@ public class ClientImportService {
     private final AuthenticationFlowRepository authenticationFlowRepository;
     private final ImportConfigProperties importConfigProperties;
     private final StateService stateService;
+    private final ImportTaskExecutor importTaskExecutor;
+    private final ImportMetrics importMetrics;
 
     @Autowired
     public ClientImportService(
@@ -69,12 +74,16 @@ public class ClientImportService {
             ClientScopeRepository clientScopeRepository,
             AuthenticationFlowRepository authenticationFlowRepository,
             ImportConfigProperties importConfigProperties,
-            StateService stateService) {
+            StateService stateService,
+            ImportTaskExecutor importTaskExecutor,
+            ImportMetrics importMetrics) {
         this.clientRepository = clientRepository;
         this.clientScopeRepository = clientScopeRepository;
         this.authenticationFlowRepository = authenticationFlowRepository;
         this.importConfigProperties = importConfigProperties;
         this.stateService = stateService;
+        this.importTaskExecutor = importTaskExecutor;
+        this.importMetrics = importMetrics;
     }
 
     public void doImport(RealmImport realmImport) {
@@ -98,16 +107,22 @@ public class ClientImportService {
         updateClientAuthenticationFlowBindingOverrides(realmImport, clients);
     }
 
+    /**
+     * The clients of a new realm, as they are created together with the realm. Their dependencies are imported later
+     * through {@link #doImportDependencies} and the client authorization import.
+     */
+    public List<ClientRepresentation> toRealmCreationClients(List<ClientRepresentation> clients) {
+        return clients.stream()
+                .map(client -> CloneUtil.deepClone(client, ClientRepresentation.class, propertiesWithDependencies))
+                .collect(Collectors.toList());
+    }
+
     private void createOrUpdateClients(
             RealmImport realmImport,
             List<ClientRepresentation> clients
     ) {
         Consumer<ClientRepresentation> loop = client -> createOrUpdateClient(realmImport, client);
-        if (importConfigProperties.isParallel()) {
-            clients.parallelStream().forEach(loop);
-        } else {
-            clients.forEach(loop);
-        }
+        importTaskExecutor.forEach("clients", clients, loop);
     }
 
     private void deleteClientsMissingInImport(
@@ -119,7 +134,7 @@ public class ClientImportService {
                 .collect(Collectors.toSet());
 
         boolean isState = importConfigProperties.getRemoteState().isEnabled();
-        final List<String> stateClients = stateService.getClients();
+        final List<String> stateClients = stateService.getClients(realmImport.getRealm());
 
         List<ClientRepresentation> clientsToRemove = clientRepository.getAll(realmImport.getRealm())
                 .stream()
@@ -174,6 +189,7 @@ public class ClientImportService {
             updateClientIfNeeded(realmName, client, existingClient.get());
         } else {
             logger.debug("Create client '{}' in realm '{}'", getClientIdentifier(client), realmName);
+            importMetrics.record("clients", Outcome.CREATED);
             createClient(realmName, client);
         }
     }
@@ -188,10 +204,12 @@ public class ClientImportService {
 
         if (!isClientEqual(realmName, existingClient, mergedClient)) {
             logger.debug("Update client '{}' in realm '{}'", getClientIdentifier(clientToUpdate), realmName);
+            importMetrics.record("clients", Outcome.UPDATED);
             updateClient(realmName, mergedClient);
             updateClientDefaultOptionalClientScopes(realmName, mergedClient, existingClient);
         } else {
             logger.debug("No need to update client '{}' in realm '{}'", getClientIdentifier(clientToUpdate), realmName);
+            importMetrics.record("clients", Outcome.UNCHANGED);
         }
     }
 
@@ -25,6 +25,9 @@ import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.ClientScopeRepository;
 import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics.Outcome;
+import de.adorsys.keycloak.config.service.stage.ImportTaskExecutor;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import de.adorsys.keycloak.config.util.ProtocolMapperUtil;
 import org.keycloak.representations.idm.ClientScopeRepresentation;
@@ -47,14 +50,20 @@ public class ClientScopeImportService {
     private final ClientScopeRepository clientScopeRepository;
     private final ImportConfigProperties importConfigProperties;
     private final RealmRepository realmRepository;
+    private final ImportTaskExecutor importTaskExecutor;
+    private final ImportMetrics importMetrics;
 
     public ClientScopeImportService(
             ClientScopeRepository clientScopeRepository,
             ImportConfigProperties importConfigProperties,
-            RealmRepository realmRepository) {
+            RealmRepository realmRepository,
+            ImportTaskExecutor importTaskExecutor,
+            ImportMetrics importMetrics) {
         this.clientScopeRepository = clientScopeRepository;
         this.importConfigProperties = importConfigProperties;
         this.realmRepository = realmRepository;
+        this.importTaskExecutor = importTaskExecutor;
+        this.importMetrics = importMetrics;
     }
 
     public void doImport(RealmImport realmImport) {
@@ -170,11 +179,7 @@ public class ClientScopeImportService {
             List<ClientScopeRepresentation> clientScopes
     ) {
         Consumer<ClientScopeRepresentation> loop = clientScope -> createOrUpdateClientScope(realmName, clientScope);
-        if (importConfigProperties.isParallel()) {
-            clientScopes.parallelStream().forEach(loop);
-        } else {
-            clientScopes.forEach(loop);
-        }
+        importTaskExecutor.forEach("client-scopes", clientScopes, loop);
     }
 
     private void deleteClientScopesMissingInImport(
@@ -223,6 +228,7 @@ public class ClientScopeImportService {
             updateClientScopeIfNecessary(realmName, clientScope);
         } else {
             logger.debug("Create clientScope '{}' in realm '{}'", clientScopeName, realmName);
+            importMetrics.record("client-scopes", Outcome.CREATED);
             createClientScope(realmName, clientScope);
         }
     }
@@ -249,8 +255,10 @@ public class ClientScopeImportService {
 
         if (isClientScopeEqual(existingClientScope, patchedClientScope)) {
             logger.debug("No need to update clientScope '{}' in realm '{}'", clientScopeName, realmName);
+            importMetrics.record("client-scopes", Outcome.UNCHANGED);
         } else {
             logger.debug("Update clientScope '{}' in realm '{}'", clientScopeName, realmName);
+            importMetrics.record("client-scopes", Outcome.UPDATED);
             updateClientScope(realmName, patchedClientScope);
         }
     }
@@ -23,7 +23,7 @@ package de.adorsys.keycloak.config.service;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.ClientRepository;
-import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.repository.RealmSnapshotRepository;
 import de.adorsys.keycloak.config.repository.RoleRepository;
 import de.adorsys.keycloak.config.repository.ScopeMappingRepository;
 import org.keycloak.representations.idm.RealmRepresentation;
@@ -45,7 +45,7 @@ import java.util.stream.Collectors;
 public class ClientScopeMappingImportService {
     private static final Logger logger = LoggerFactory.getLogger(ClientScopeMappingImportService.class);
 
-    private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository realmSnapshotRepository;
     private final ClientRepository clientRepository;
     private final RoleRepository roleRepository;
     private final ScopeMappingRepository scopeMappingRepository;
@@ -53,13 +53,13 @@ public class ClientScopeMappingImportService {
 
     @Autowired
     public ClientScopeMappingImportService(
-            RealmRepository realmRepository,
+            RealmSnapshotRepository realmSnapshotRepository,
             ClientRepository clientRepository,
             RoleRepository roleRepository,
             ScopeMappingRepository scopeMappingRepository,
             ImportConfigProperties importConfigProperties
     ) {
-        this.realmRepository = realmRepository;
+        this.realmSnapshotRepository = realmSnapshotRepository;
         this.clientRepository = clientRepository;
         this.roleRepository = roleRepository;
         this.scopeMappingRepository = scopeMappingRepository;
@@ -71,7 +71,7 @@ public class ClientScopeMappingImportService {
         if (clientScopeMappingsToImport == null) return;
 
         String realmName = realmImport.getRealm();
-        RealmRepresentation existingRealm = realmRepository.partialExport(realmName, true, true);
+        RealmRepresentation existingRealm = realmSnapshotRepository.partialExport(realmName, true, true);
         Map<String, List<ScopeMappingRepresentation>> existingClientScopeMappings = existingRealm.getClientScopeMappings();
 
         for (Map.Entry<String, List<ScopeMappingRepresentation>> scopeMappingToImport : clientScopeMappingsToImport.entrySet()) {
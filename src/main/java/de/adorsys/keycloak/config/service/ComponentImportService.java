@@ -25,6 +25,8 @@ import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
 import de.adorsys.keycloak.config.repository.ComponentRepository;
 import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics.Outcome;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import org.keycloak.admin.client.resource.RealmResource;
@@ -46,17 +48,20 @@ public class ComponentImportService {
     private final ImportConfigProperties importConfigProperties;
     private final StateService stateService;
     private final RealmRepository realmRepository;
+    private final ImportMetrics importMetrics;
 
     @Autowired
     public ComponentImportService(
             ComponentRepository componentRepository,
             ImportConfigProperties importConfigProperties,
             StateService stateService,
-            RealmRepository realmRepository) {
+            RealmRepository realmRepository,
+            ImportMetrics importMetrics) {
         this.componentRepository = componentRepository;
         this.importConfigProperties = importConfigProperties;
         this.stateService = stateService;
         this.realmRepository = realmRepository;
+        this.importMetrics = importMetrics;
     }
 
     public void doImport(RealmImport realmImport) {
@@ -97,6 +102,7 @@ public class ComponentImportService {
             updateComponentIfNeeded(realmName, providerType, componentToImport, existingComponent.get());
         } else {
             logger.debug("Creating component: {}/{}", providerType, componentToImport.getName());
+            importMetrics.record("components", Outcome.CREATED);
             createComponent(realmName, providerType, componentToImport);
         }
     }
@@ -143,6 +149,7 @@ public class ComponentImportService {
             updateComponent(realmName, providerType, componentToImport, patchedComponent);
         } else {
             logger.debug("No need to update component: {}/{}", existingComponent.getProviderType(), componentToImport.getName());
+            importMetrics.record("components", Outcome.UNCHANGED);
         }
     }
 
@@ -185,6 +192,7 @@ public class ComponentImportService {
             ComponentRepresentation patchedComponent
     ) {
         logger.debug("Updating component: {}/{}", patchedComponent.getProviderType(), componentToImport.getName());
+        importMetrics.record("components", Outcome.UPDATED);
 
         if (patchedComponent.getProviderType() == null) {
             patchedComponent.setProviderType(providerType);
@@ -266,7 +274,7 @@ public class ComponentImportService {
         String parentName = parentComponent != null ? parentComponent.getName() : null;
 
         // ignore all object there are not in state
-        return stateService.getComponents(existingComponents, parentName);
+        return stateService.getComponents(realmName, existingComponents, parentName);
     }
 
     private boolean checkIfComponentMissingImport(
@@ -24,7 +24,6 @@ import de.adorsys.keycloak.config.exception.InvalidImportException;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.repository.GroupRepository;
 import de.adorsys.keycloak.config.repository.RealmRepository;
-import org.keycloak.admin.client.resource.RealmResource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -50,14 +49,13 @@ public class DefaultGroupsImportService {
 
         String realmName = realmImport.getRealm();
 
-        RealmResource realmResource = realmRepository.getResource(realmName);
-        List<String> existingDefaultGroups = realmResource.toRepresentation().getDefaultGroups();
+        List<String> existingDefaultGroups = realmRepository.fetch(realmName).getDefaultGroups();
 
         if (existingDefaultGroups != null) {
             for (String existingDefaultGroup : existingDefaultGroups) {
                 if (!newDefaultGroups.contains(existingDefaultGroup)) {
                     String existingDefaultGroupId = groupRepository.getGroupByPath(realmName, existingDefaultGroup).getId();
-                    realmResource.removeDefaultGroup(existingDefaultGroupId);
+                    realmRepository.removeDefaultGroup(realmName, existingDefaultGroupId);
                 }
             }
         }
@@ -66,7 +64,7 @@ public class DefaultGroupsImportService {
             if (existingDefaultGroups == null || !existingDefaultGroups.contains(newDefaultGroup)) {
                 try {
                     String newDefaultGroupId = groupRepository.getGroupByPath(realmName, newDefaultGroup).getId();
-                    realmResource.addDefaultGroup(newDefaultGroupId);
+                    realmRepository.addDefaultGroup(realmName, newDefaultGroupId);
                 } catch (javax.ws.rs.NotFoundException ignored) {
                     throw new InvalidImportException(String.format("Unable to add default group '%s'. Does group exists?", newDefaultGroup));
                 }
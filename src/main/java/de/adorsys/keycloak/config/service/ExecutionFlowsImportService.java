@@ -23,9 +23,11 @@ package de.adorsys.keycloak.config.service;
 import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.exception.InvalidImportException;
 import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.repository.AuthenticationFlowRepository;
 import de.adorsys.keycloak.config.repository.AuthenticatorConfigRepository;
 import de.adorsys.keycloak.config.repository.ExecutionFlowRepository;
 import de.adorsys.keycloak.config.util.AuthenticationFlowUtil;
+import de.adorsys.keycloak.config.util.CloneUtil;
 import de.adorsys.keycloak.config.util.ResponseUtil;
 import org.keycloak.representations.idm.*;
 import org.slf4j.Logger;
@@ -34,9 +36,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.ws.rs.WebApplicationException;
 
@@ -49,14 +54,17 @@ public class ExecutionFlowsImportService {
 
     private final ExecutionFlowRepository executionFlowRepository;
     private final AuthenticatorConfigRepository authenticatorConfigRepository;
+    private final AuthenticationFlowRepository authenticationFlowRepository;
 
     @Autowired
     public ExecutionFlowsImportService(
             ExecutionFlowRepository executionFlowRepository,
-            AuthenticatorConfigRepository authenticatorConfigRepository
+            AuthenticatorConfigRepository authenticatorConfigRepository,
+            AuthenticationFlowRepository authenticationFlowRepository
     ) {
         this.executionFlowRepository = executionFlowRepository;
         this.authenticatorConfigRepository = authenticatorConfigRepository;
+        this.authenticationFlowRepository = authenticationFlowRepository;
     }
 
     public void createExecutionsAndExecutionFlows(
@@ -78,6 +86,224 @@ public class ExecutionFlowsImportService {
         }
     }
 
+    /**
+     * Brings the executions and execution-flows of an existing top-level flow in line with the import, with as few requests
+     * as possible: surplus executions are removed, missing ones added and the others moved, and their requirement and
+     * authenticator config are set where they differ. The top-level flow and unchanged executions keep their ids.
+     *
+     * @return false without any change, if a sub-flow moved to another parent flow. The top-level flow has to be recreated then.
+     */
+    public boolean updateExecutionsAndExecutionFlows(
+            RealmImport realmImport,
+            AuthenticationFlowRepresentation topLevelFlowToImport
+    ) {
+        String realmName = realmImport.getRealm();
+        List<AuthenticationExecutionInfoRepresentation> existingExecutions = executionFlowRepository
+                .getExecutionsByAuthFlow(realmName, topLevelFlowToImport.getAlias());
+
+        Map<String, String> existingSubFlowParents = AuthenticationFlowUtil
+                .getSubFlowParents(topLevelFlowToImport.getAlias(), existingExecutions);
+        boolean hasMovedSubFlows = AuthenticationFlowUtil.getSubFlowParents(realmImport, topLevelFlowToImport)
+                .entrySet()
+                .stream()
+                .anyMatch(subFlowParent -> existingSubFlowParents.containsKey(subFlowParent.getKey())
+                        && !Objects.equals(existingSubFlowParents.get(subFlowParent.getKey()), subFlowParent.getValue()));
+
+        if (hasMovedSubFlows) {
+            return false;
+        }
+
+        // flows and configs as they were before the first change, new ones are always created completely
+        Map<String, AuthenticationFlowRepresentation> existingFlows = authenticationFlowRepository.getAll(realmName)
+                .stream()
+                .collect(Collectors.toMap(AuthenticationFlowRepresentation::getAlias, flow -> flow));
+        Map<String, String> existingConfigAliases = new HashMap<>();
+        authenticatorConfigRepository.getAll(realmName)
+                .forEach(config -> existingConfigAliases.put(config.getId(), config.getAlias()));
+
+        updateExecutions(realmImport, topLevelFlowToImport, existingExecutions, null, existingFlows, existingConfigAliases);
+
+        return true;
+    }
+
+    @SuppressWarnings("deprecation")
+    private void updateExecutions(
+            RealmImport realmImport,
+            AuthenticationFlowRepresentation flowToImport,
+            List<AuthenticationExecutionInfoRepresentation> existingExecutions,
+            AuthenticationExecutionInfoRepresentation parentExecution,
+            Map<String, AuthenticationFlowRepresentation> existingFlows,
+            Map<String, String> existingConfigAliases
+    ) {
+        String realmName = realmImport.getRealm();
+        List<AuthenticationExecutionExportRepresentation> executionsToImport = flowToImport.getAuthenticationExecutions();
+
+        List<AuthenticationExecutionInfoRepresentation> directExecutions = AuthenticationFlowUtil
+                .getDirectExecutions(existingExecutions, parentExecution);
+        List<AuthenticationExecutionInfoRepresentation> matches = AuthenticationFlowUtil
+                .matchExecutions(executionsToImport, directExecutions);
+
+        for (int index = 0; index < executionsToImport.size(); index++) {
+            if (matches.get(index) != null && hasSubFlowTypeChanged(realmImport, executionsToImport.get(index), matches.get(index), existingFlows)) {
+                matches.set(index, null);
+            }
+        }
+
+        boolean hasStructureChanged = false;
+        for (AuthenticationExecutionInfoRepresentation directExecution : directExecutions) {
+            if (matches.contains(directExecution)) continue;
+
+            logger.debug("Removing execution '{}' from flow '{}' in realm '{}'",
+                    Optional.ofNullable(directExecution.getDisplayName()).orElse(directExecution.getProviderId()),
+                    flowToImport.getAlias(), realmName
+            );
+            executionFlowRepository.removeExecution(realmName, directExecution.getId());
+            hasStructureChanged = true;
+        }
+
+        Set<String> createdSubFlows = new HashSet<>();
+        for (int index = 0; index < executionsToImport.size(); index++) {
+            if (matches.get(index) != null) continue;
+
+            AuthenticationExecutionExportRepresentation executionToImport = executionsToImport.get(index);
+            if (flowToImport.isTopLevel()) {
+                createExecutionOrExecutionFlow(realmImport, flowToImport, existingFlows.get(flowToImport.getAlias()), executionToImport);
+            } else {
+                createExecutionOrExecutionFlowForSubFlow(realmImport, flowToImport, executionToImport);
+            }
+            if (executionToImport.isAutheticatorFlow()) {
+                createdSubFlows.add(executionToImport.getFlowAlias());
+            }
+            hasStructureChanged = true;
+        }
+
+        if (hasStructureChanged) {
+            existingExecutions = executionFlowRepository.getExecutionsByAuthFlow(realmName, flowToImport.getAlias());
+            directExecutions = AuthenticationFlowUtil.getDirectExecutions(existingExecutions, null);
+            matches = AuthenticationFlowUtil.matchExecutions(executionsToImport, directExecutions);
+        }
+
+        List<String> desiredOrder = matches.stream()
+                .filter(Objects::nonNull)
+                .map(AuthenticationExecutionInfoRepresentation::getId)
+                .collect(Collectors.toList());
+        List<String> currentOrder = directExecutions.stream()
+                .map(AuthenticationExecutionInfoRepresentation::getId)
+                .collect(Collectors.toList());
+        for (String executionId : AuthenticationFlowUtil.getPriorityRaises(currentOrder, desiredOrder)) {
+            executionFlowRepository.raisePriority(realmName, executionId);
+        }
+
+        for (int index = 0; index < executionsToImport.size(); index++) {
+            AuthenticationExecutionExportRepresentation executionToImport = executionsToImport.get(index);
+            AuthenticationExecutionInfoRepresentation existingExecution = matches.get(index);
+            if (existingExecution == null) continue;
+
+            updateRequirement(realmImport, flowToImport, executionToImport, existingExecution);
+            updateAuthenticatorConfig(realmImport, executionToImport, existingExecution, existingConfigAliases);
+
+            if (executionToImport.isAutheticatorFlow() && !createdSubFlows.contains(executionToImport.getFlowAlias())) {
+                AuthenticationFlowRepresentation subFlowToImport = AuthenticationFlowUtil
+                        .getSubFlow(realmImport, executionToImport.getFlowAlias());
+
+                updateSubFlow(realmName, subFlowToImport, existingFlows.get(subFlowToImport.getAlias()));
+                updateExecutions(realmImport, subFlowToImport, existingExecutions, existingExecution, existingFlows, existingConfigAliases);
+            }
+        }
+    }
+
+    /**
+     * A sub-flow cannot change its type or form provider, it has to be removed and added again.
+     */
+    @SuppressWarnings("deprecation")
+    private boolean hasSubFlowTypeChanged(
+            RealmImport realmImport,
+            AuthenticationExecutionExportRepresentation executionToImport,
+            AuthenticationExecutionInfoRepresentation existingExecution,
+            Map<String, AuthenticationFlowRepresentation> existingFlows
+    ) {
+        if (!executionToImport.isAutheticatorFlow()) return false;
+
+        AuthenticationFlowRepresentation subFlowToImport = AuthenticationFlowUtil.getSubFlow(realmImport, executionToImport.getFlowAlias());
+        AuthenticationFlowRepresentation existingSubFlow = existingFlows.get(executionToImport.getFlowAlias());
+
+        if (existingSubFlow == null || !Objects.equals(existingSubFlow.getProviderId(), subFlowToImport.getProviderId())) {
+            return true;
+        }
+
+        return Objects.equals(subFlowToImport.getProviderId(), "form-flow")
+                && !Objects.equals(existingExecution.getProviderId(), executionToImport.getAuthenticator());
+    }
+
+    private void updateSubFlow(
+            String realmName,
+            AuthenticationFlowRepresentation subFlowToImport,
+            AuthenticationFlowRepresentation existingSubFlow
+    ) {
+        if (CloneUtil.deepEquals(subFlowToImport, existingSubFlow, "id", "authenticationExecutions")) return;
+
+        logger.debug("Updating non-top-level-flow '{}' in realm '{}'", subFlowToImport.getAlias(), realmName);
+
+        AuthenticationFlowRepresentation patchedSubFlow = CloneUtil.patch(
+                existingSubFlow, subFlowToImport, "id", "authenticationExecutions"
+        );
+        authenticationFlowRepository.update(realmName, patchedSubFlow);
+    }
+
+    private void updateRequirement(
+            RealmImport realmImport,
+            AuthenticationFlowRepresentation flowToImport,
+            AuthenticationExecutionExportRepresentation executionToImport,
+            AuthenticationExecutionInfoRepresentation existingExecution
+    ) {
+        if (Objects.equals(existingExecution.getRequirement(), executionToImport.getRequirement())) return;
+
+        debugLogExecutionFlowCreation(realmImport, flowToImport.getAlias(), executionToImport);
+        existingExecution.setRequirement(executionToImport.getRequirement());
+
+        try {
+            executionFlowRepository.updateExecutionFlow(realmImport.getRealm(), flowToImport.getAlias(), existingExecution);
+        } catch (WebApplicationException error) {
+            String errorMessage = ResponseUtil.getErrorMessage(error);
+            throw new ImportProcessingException(
+                    String.format(
+                            "Cannot update execution-flow '%s' for flow '%s' in realm '%s': %s",
+                            executionToImport.getAuthenticator(), flowToImport.getAlias(),
+                            realmImport.getRealm(), errorMessage
+                    ),
+                    error
+            );
+        }
+    }
+
+    /**
+     * Replaces the authenticator config of an execution, if it refers to another one than the import. The properties of
+     * the configs are imported afterwards by {@link AuthenticatorConfigImportService}.
+     */
+    private void updateAuthenticatorConfig(
+            RealmImport realmImport,
+            AuthenticationExecutionExportRepresentation executionToImport,
+            AuthenticationExecutionInfoRepresentation existingExecution,
+            Map<String, String> existingConfigAliases
+    ) {
+        String existingConfigId = existingExecution.getAuthenticationConfig();
+        String configAliasToImport = executionToImport.getAuthenticatorConfig();
+
+        // configs unknown by id were created while reconciling this flow, from the import
+        if (existingConfigId != null && !existingConfigAliases.containsKey(existingConfigId)) return;
+        if (existingConfigId != null && Objects.equals(existingConfigAliases.get(existingConfigId), configAliasToImport)) return;
+        if (existingConfigId == null && configAliasToImport == null) return;
+
+        if (existingConfigId != null) {
+            logger.debug("Delete authenticator config: '{}'", existingConfigId);
+            authenticatorConfigRepository.delete(realmImport.getRealm(), existingConfigId);
+        }
+
+        if (configAliasToImport != null) {
+            createAuthenticatorConfig(realmImport, configAliasToImport, existingExecution.getId());
+        }
+    }
+
     @SuppressWarnings("deprecation")
     private void createExecutionOrExecutionFlow(
             RealmImport realmImport,
@@ -230,19 +456,26 @@ public class ExecutionFlowsImportService {
         }
     }
 
-    @SuppressWarnings("deprecation")
     private void createExecutionAndExecutionFlowsForSubFlows(
             RealmImport realmImport,
             AuthenticationFlowRepresentation subFlow
     ) {
         for (AuthenticationExecutionExportRepresentation executionOrExecutionFlowToImport : subFlow.getAuthenticationExecutions()) {
+            createExecutionOrExecutionFlowForSubFlow(realmImport, subFlow, executionOrExecutionFlowToImport);
+        }
+    }
 
-            if (executionOrExecutionFlowToImport.isAutheticatorFlow()) {
-                createAndConfigureExecutionFlow(realmImport, subFlow, executionOrExecutionFlowToImport);
-            } else {
-                createExecutionForSubFlow(realmImport, subFlow, executionOrExecutionFlowToImport);
-                configureExecutionFlow(realmImport, subFlow, executionOrExecutionFlowToImport);
-            }
+    @SuppressWarnings("deprecation")
+    private void createExecutionOrExecutionFlowForSubFlow(
+            RealmImport realmImport,
+            AuthenticationFlowRepresentation subFlow,
+            AuthenticationExecutionExportRepresentation executionOrExecutionFlowToImport
+    ) {
+        if (executionOrExecutionFlowToImport.isAutheticatorFlow()) {
+            createAndConfigureExecutionFlow(realmImport, subFlow, executionOrExecutionFlowToImport);
+        } else {
+            createExecutionForSubFlow(realmImport, subFlow, executionOrExecutionFlowToImport);
+            configureExecutionFlow(realmImport, subFlow, executionOrExecutionFlowToImport);
         }
     }
 
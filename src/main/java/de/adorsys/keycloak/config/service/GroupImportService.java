@@ -24,6 +24,9 @@ import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
 import de.adorsys.keycloak.config.repository.GroupRepository;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics.Outcome;
+import de.adorsys.keycloak.config.service.stage.ImportTaskExecutor;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import org.keycloak.representations.idm.GroupRepresentation;
 import org.slf4j.Logger;
@@ -40,10 +43,16 @@ public class GroupImportService {
 
     private final GroupRepository groupRepository;
     private final ImportConfigProperties importConfigProperties;
+    private final ImportTaskExecutor importTaskExecutor;
+    private final ImportMetrics importMetrics;
 
-    public GroupImportService(GroupRepository groupRepository, ImportConfigProperties importConfigProperties) {
+    public GroupImportService(GroupRepository groupRepository, ImportConfigProperties importConfigProperties,
+                              ImportTaskExecutor importTaskExecutor,
+                              ImportMetrics importMetrics) {
         this.groupRepository = groupRepository;
         this.importConfigProperties = importConfigProperties;
+        this.importTaskExecutor = importTaskExecutor;
+        this.importMetrics = importMetrics;
     }
 
     public void importGroups(RealmImport realmImport) {
@@ -65,11 +74,7 @@ public class GroupImportService {
 
     public void createOrUpdateGroups(List<GroupRepresentation> groups, String realmName) {
         Consumer<GroupRepresentation> loop = group -> createOrUpdateRealmGroup(realmName, group);
-        if (importConfigProperties.isParallel()) {
-            groups.parallelStream().forEach(loop);
-        } else {
-            groups.forEach(loop);
-        }
+        importTaskExecutor.forEach("groups", groups, loop);
     }
 
     private void deleteGroupsMissingInImport(
@@ -98,6 +103,7 @@ public class GroupImportService {
             updateGroupIfNecessary(realmName, group);
         } else {
             logger.debug("Create group '{}' in realm '{}'", groupName, realmName);
+            importMetrics.record("groups", Outcome.CREATED);
             createGroup(realmName, group);
         }
     }
@@ -164,8 +170,10 @@ public class GroupImportService {
 
         if (isGroupEqual(existingGroup, patchedGroup)) {
             logger.debug("No need to update group '{}' in realm '{}'", groupName, realmName);
+            importMetrics.record("groups", Outcome.UNCHANGED);
         } else {
             logger.debug("Update group '{}' in realm '{}'", groupName, realmName);
+            importMetrics.record("groups", Outcome.UPDATED);
             updateGroup(realmName, group, patchedGroup);
         }
     }
@@ -190,10 +198,11 @@ public class GroupImportService {
     }
 
     private boolean areSubGroupsEqual(List<GroupRepresentation> existingSubGroups, List<GroupRepresentation> importedSubGroups) {
+        Map<String, GroupRepresentation> existingSubGroupsByName = existingSubGroups.stream()
+                .collect(Collectors.toMap(GroupRepresentation::getName, group -> group, (first, second) -> first));
+
         for (GroupRepresentation importedSubGroup : importedSubGroups) {
-            GroupRepresentation existingSubGroup = existingSubGroups.stream()
-                    .filter(group -> Objects.equals(group.getName(), importedSubGroup.getName()))
-                    .findFirst().orElse(null);
+            GroupRepresentation existingSubGroup = existingSubGroupsByName.get(importedSubGroup.getName());
 
             if (existingSubGroup == null) {
                 return false;
@@ -244,9 +253,10 @@ public class GroupImportService {
 
     private List<String> estimateRealmRolesToRemove(List<String> realmRoles, List<String> existingRealmRolesNames) {
         List<String> realmRoleNamesToRemove = new ArrayList<>();
+        Set<String> realmRoleNames = new HashSet<>(realmRoles);
 
         for (String existingRealmRolesName : existingRealmRolesNames) {
-            if (!realmRoles.contains(existingRealmRolesName)) {
+            if (!realmRoleNames.contains(existingRealmRolesName)) {
                 realmRoleNamesToRemove.add(existingRealmRolesName);
             }
         }
@@ -256,9 +266,10 @@ public class GroupImportService {
 
     private List<String> estimateRealmRolesToAdd(List<String> realmRoles, List<String> existingRealmRolesNames) {
         List<String> realmRoleNamesToAdd = new ArrayList<>();
+        Set<String> existingRealmRoleNames = new HashSet<>(existingRealmRolesNames);
 
         for (String realmRoleName : realmRoles) {
-            if (!existingRealmRolesNames.contains(realmRoleName)) {
+            if (!existingRealmRoleNames.contains(realmRoleName)) {
                 realmRoleNamesToAdd.add(realmRoleName);
             }
         }
@@ -315,8 +326,10 @@ public class GroupImportService {
         List<String> clientRoleNamesToRemove = new ArrayList<>();
 
         if (existingClientRoleNamesForClient != null) {
+            Set<String> clientRoleNames = new HashSet<>(clientRoleNamesFromImport);
+
             for (String existingClientRoleNameForClient : existingClientRoleNamesForClient) {
-                if (!clientRoleNamesFromImport.contains(existingClientRoleNameForClient)) {
+                if (!clientRoleNames.contains(existingClientRoleNameForClient)) {
                     clientRoleNamesToRemove.add(existingClientRoleNameForClient);
                 }
             }
@@ -327,9 +340,12 @@ public class GroupImportService {
 
     private List<String> estimateClientRolesToAdd(List<String> existingClientRoleNamesForClient, List<String> clientRoleNamesFromImport) {
         List<String> clientRoleNamesToAdd = new ArrayList<>();
+        Set<String> existingClientRoleNames = existingClientRoleNamesForClient != null
+                ? new HashSet<>(existingClientRoleNamesForClient)
+                : Collections.emptySet();
 
         for (String clientRoleName : clientRoleNamesFromImport) {
-            if (existingClientRoleNamesForClient == null || !existingClientRoleNamesForClient.contains(clientRoleName)) {
+            if (!existingClientRoleNames.contains(clientRoleName)) {
                 clientRoleNamesToAdd.add(clientRoleName);
             }
         }
@@ -380,8 +396,10 @@ public class GroupImportService {
 
         if (CloneUtil.deepEquals(existingSubGroup, patchedSubGroup)) {
             logger.debug("No need to update subGroup '{}' in group with id '{}' in realm '{}'", subGroupName, parentGroupId, realmName);
+            importMetrics.record("groups", Outcome.UNCHANGED);
         } else {
             logger.debug("Update subGroup '{}' in group with id '{}' in realm '{}'", subGroupName, parentGroupId, realmName);
+            importMetrics.record("groups", Outcome.UPDATED);
 
             updateGroup(realmName, subGroup, patchedSubGroup);
         }
@@ -24,6 +24,8 @@ import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.IdentityProviderMapperRepository;
 import de.adorsys.keycloak.config.repository.IdentityProviderRepository;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics.Outcome;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import org.keycloak.representations.idm.IdentityProviderMapperRepresentation;
 import org.keycloak.representations.idm.IdentityProviderRepresentation;
@@ -45,16 +47,19 @@ public class IdentityProviderImportService {
     private final IdentityProviderRepository identityProviderRepository;
     private final IdentityProviderMapperRepository identityProviderMapperRepository;
     private final ImportConfigProperties importConfigProperties;
+    private final ImportMetrics importMetrics;
 
     @Autowired
     public IdentityProviderImportService(
             IdentityProviderRepository identityProviderRepository,
             IdentityProviderMapperRepository identityProviderMapperRepository,
-            ImportConfigProperties importConfigProperties
+            ImportConfigProperties importConfigProperties,
+            ImportMetrics importMetrics
     ) {
         this.identityProviderRepository = identityProviderRepository;
         this.identityProviderMapperRepository = identityProviderMapperRepository;
         this.importConfigProperties = importConfigProperties;
+        this.importMetrics = importMetrics;
     }
 
     public void doImport(RealmImport realmImport) {
@@ -101,6 +106,7 @@ public class IdentityProviderImportService {
             updateIdentityProviderIfNecessary(realmName, identityProvider);
         } else {
             logger.debug("Create identityProvider '{}' in realm '{}'", identityProviderName, realmName);
+            importMetrics.record("identity-providers", Outcome.CREATED);
             identityProviderRepository.create(realmName, identityProvider);
         }
     }
@@ -112,8 +118,10 @@ public class IdentityProviderImportService {
 
         if (isIdentityProviderEqual(existingIdentityProvider, patchedIdentityProvider)) {
             logger.debug("No need to update identityProvider '{}' in realm '{}'", identityProviderAlias, realmName);
+            importMetrics.record("identity-providers", Outcome.UNCHANGED);
         } else {
             logger.debug("Update identityProvider '{}' in realm '{}'", identityProviderAlias, realmName);
+            importMetrics.record("identity-providers", Outcome.UPDATED);
             identityProviderRepository.update(realmName, patchedIdentityProvider);
         }
     }
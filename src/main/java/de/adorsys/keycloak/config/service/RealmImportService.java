@@ -23,8 +23,13 @@ package de.adorsys.keycloak.config.service;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.provider.KeycloakProvider;
+import de.adorsys.keycloak.config.repository.RealmAttributeBuffer;
 import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.repository.RealmSnapshotRepository;
 import de.adorsys.keycloak.config.service.checksum.ChecksumService;
+import de.adorsys.keycloak.config.service.checksum.RealmImportSection;
+import de.adorsys.keycloak.config.service.stage.ImportStageExecutor;
+import de.adorsys.keycloak.config.service.stage.ImportStageGraph;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import org.keycloak.representations.idm.RealmRepresentation;
@@ -33,6 +38,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static de.adorsys.keycloak.config.service.checksum.RealmImportSection.*;
+
 @Service
 public class RealmImportService {
     static final String[] ignoredPropertiesForRealmImport = new String[]{
@@ -58,9 +70,56 @@ public class RealmImportService {
             "defaultOptionalClientScopes",
     };
 
+    /**
+     * Sections keycloak resolves on its own, if a new realm is created together with them. Client scopes, flows, required actions
+     * and components are left out, since keycloak skips its built-in defaults of those, if the realm representation contains them.
+     */
+    static final Set<String> propertiesForRealmCreation = Set.of(
+            "clients",
+            "roles",
+            "users",
+            "groups",
+            "defaultGroups"
+    );
+
+    /**
+     * The import stages which have nothing left to do after a realm was created together with {@link #propertiesForRealmCreation}.
+     */
+    static final List<String> importStagesDoneByRealmCreation = List.of(
+            "roles",
+            "groups",
+            "default-groups",
+            "users"
+    );
+
+    /**
+     * The import sections read by each import stage. Every stage reads the realm section as well.
+     */
+    static final Map<String, List<RealmImportSection>> importStageSections = Map.ofEntries(
+            Map.entry("client-scopes", List.of(CLIENT_SCOPES)),
+            Map.entry("default-client-scopes", List.of(CLIENT_SCOPES, DEFAULT_CLIENT_SCOPES)),
+            Map.entry("clients", List.of(CLIENTS, CLIENT_SCOPES)),
+            Map.entry("roles", List.of(ROLES, CLIENTS)),
+            Map.entry("groups", List.of(GROUPS, ROLES, CLIENTS)),
+            Map.entry("default-groups", List.of(DEFAULT_GROUPS, GROUPS)),
+            Map.entry("components", List.of(COMPONENTS)),
+            Map.entry("users", List.of(USERS, ROLES, GROUPS, CLIENTS, COMPONENTS)),
+            Map.entry("required-actions", List.of(REQUIRED_ACTIONS)),
+            Map.entry("authentication-flows", List.of(AUTHENTICATION_FLOWS)),
+            Map.entry("authenticator-configs", List.of(AUTHENTICATOR_CONFIG, AUTHENTICATION_FLOWS)),
+            Map.entry("client-dependencies", List.of(CLIENTS, AUTHENTICATION_FLOWS)),
+            Map.entry("identity-providers", List.of(IDENTITY_PROVIDERS, AUTHENTICATION_FLOWS, ROLES, GROUPS)),
+            Map.entry("client-authorization", List.of(CLIENTS, ROLES, GROUPS, IDENTITY_PROVIDERS)),
+            Map.entry("scope-mappings", List.of(SCOPE_MAPPINGS, ROLES, CLIENT_SCOPES, CLIENTS)),
+            Map.entry("client-scope-mappings", List.of(CLIENT_SCOPE_MAPPINGS, ROLES, CLIENT_SCOPES, CLIENTS)),
+            Map.entry("client-scope-orphans", List.of(CLIENT_SCOPES, CLIENTS))
+    );
+
     private static final Logger logger = LoggerFactory.getLogger(RealmImportService.class);
     private final KeycloakProvider keycloakProvider;
     private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository realmSnapshotRepository;
+    private final RealmAttributeBuffer realmAttributeBuffer;
 
     private final UserImportService userImportService;
     private final RoleImportService roleImportService;
@@ -81,12 +140,15 @@ public class RealmImportService {
 
     private final ChecksumService checksumService;
     private final StateService stateService;
+    private final ImportStageExecutor importStageExecutor;
 
     @Autowired
     public RealmImportService(
             ImportConfigProperties importProperties,
             KeycloakProvider keycloakProvider,
             RealmRepository realmRepository,
+            RealmSnapshotRepository realmSnapshotRepository,
+            RealmAttributeBuffer realmAttributeBuffer,
             UserImportService userImportService,
             RoleImportService roleImportService,
             ClientImportService clientImportService,
@@ -102,10 +164,13 @@ public class RealmImportService {
             ClientScopeMappingImportService clientScopeMappingImportService,
             IdentityProviderImportService identityProviderImportService,
             ChecksumService checksumService,
-            StateService stateService) {
+            StateService stateService,
+            ImportStageExecutor importStageExecutor) {
         this.importProperties = importProperties;
         this.keycloakProvider = keycloakProvider;
         this.realmRepository = realmRepository;
+        this.realmSnapshotRepository = realmSnapshotRepository;
+        this.realmAttributeBuffer = realmAttributeBuffer;
         this.userImportService = userImportService;
         this.roleImportService = roleImportService;
         this.clientImportService = clientImportService;
@@ -122,15 +187,22 @@ public class RealmImportService {
         this.identityProviderImportService = identityProviderImportService;
         this.checksumService = checksumService;
         this.stateService = stateService;
+        this.importStageExecutor = importStageExecutor;
     }
 
     public void doImport(RealmImport realmImport) {
-        boolean realmExists = realmRepository.exists(realmImport.getRealm());
+        realmRepository.openCache(realmImport.getRealm());
 
-        if (realmExists) {
-            updateRealmIfNecessary(realmImport);
-        } else {
-            createRealm(realmImport);
+        try {
+            boolean realmExists = realmRepository.exists(realmImport.getRealm());
+
+            if (realmExists) {
+                updateRealmIfNecessary(realmImport);
+            } else {
+                createRealm(realmImport);
+            }
+        } finally {
+            realmRepository.closeCache(realmImport.getRealm());
         }
     }
 
@@ -158,14 +230,40 @@ public class RealmImportService {
     private void createRealm(RealmImport realmImport) {
         logger.debug("Creating realm '{}' ...", realmImport.getRealm());
 
-        RealmRepresentation realm = CloneUtil.deepClone(realmImport, RealmRepresentation.class, ignoredPropertiesForRealmImport);
+        boolean inOneRequest = importProperties.getBehaviors().isCreateRealmInOneRequest();
+        RealmRepresentation realm = inOneRequest
+                ? toRealmCreation(realmImport)
+                : CloneUtil.deepClone(realmImport, RealmRepresentation.class, ignoredPropertiesForRealmImport);
         realmRepository.create(realm);
 
         // refresh the access token to update the scopes. See: https://github.com/adorsys/keycloak-config-cli/issues/339
         keycloakProvider.refreshToken();
 
         stateService.loadState(realmImport);
-        configureRealm(realmImport, realm);
+        configureRealm(realmImport, realm, inOneRequest ? importStagesDoneByRealmCreation : List.of());
+    }
+
+    /*
+     * The realm is empty, so everything keycloak can resolve by name is created with the realm itself instead of being looked up
+     * and created one by one. Client flow overrides and authorization settings depend on flows and client scopes which are
+     * imported afterwards.
+     */
+    private RealmRepresentation toRealmCreation(RealmImport realmImport) {
+        String[] ignoredProperties = Arrays.stream(ignoredPropertiesForRealmImport)
+                .filter(property -> !propertiesForRealmCreation.contains(property))
+                .toArray(String[]::new);
+
+        RealmRepresentation realm = CloneUtil.deepClone(realmImport, RealmRepresentation.class, ignoredProperties);
+
+        if (realm.getClients() != null) {
+            realm.setClients(clientImportService.toRealmCreationClients(realm.getClients()));
+        }
+
+        if (realm.getUsers() != null) {
+            realm.setUsers(userImportService.toRealmCreationUsers(realm));
+        }
+
+        return realm;
     }
 
     private void updateRealm(RealmImport realmImport) {
@@ -179,29 +277,82 @@ public class RealmImportService {
 
         realmRepository.update(realm);
 
-        configureRealm(realmImport, realm);
+        configureRealm(realmImport, realm, List.of());
+    }
+
+    private void configureRealm(RealmImport realmImport, RealmRepresentation existingRealm, List<String> completedImportStages) {
+        realmSnapshotRepository.open(realmImport.getRealm());
+        realmAttributeBuffer.open(realmImport.getRealm());
+
+        try {
+            ImportStageGraph importStages = createImportStages(realmImport, existingRealm);
+            completedImportStages.forEach(importStages::skip);
+
+            if (importProperties.getCache().isEnabled() && importProperties.getCache().isSections()) {
+                skipUnchangedImportStages(realmImport, importStages);
+            }
+
+            importStageExecutor.run(realmImport.getRealm(), importStages);
+
+            stateService.doImport(realmImport);
+            checksumService.doImport(realmImport);
+
+            // state and checksums are written together, so a failed import never leaves a checksum without its state
+            realmAttributeBuffer.flush(realmImport.getRealm());
+        } finally {
+            realmAttributeBuffer.close(realmImport.getRealm());
+            realmSnapshotRepository.close(realmImport.getRealm());
+        }
+    }
+
+    private void skipUnchangedImportStages(RealmImport realmImport, ImportStageGraph importStages) {
+        Set<RealmImportSection> changedSections = checksumService.getChangedSections(realmImport);
+        if (changedSections.contains(REALM)) return;
+
+        importStageSections.forEach((stage, sections) -> {
+            if (sections.stream().noneMatch(changedSections::contains)) {
+                importStages.skip(stage);
+            }
+        });
     }
 
-    private void configureRealm(RealmImport realmImport, RealmRepresentation existingRealm) {
-        clientScopeImportService.doImport(realmImport);
-        clientScopeImportService.updateDefaultClientScopes(realmImport, existingRealm);
-        clientImportService.doImport(realmImport);
-        roleImportService.doImport(realmImport);
-        groupImportService.importGroups(realmImport);
-        defaultGroupsImportService.doImport(realmImport);
-        componentImportService.doImport(realmImport);
-        userImportService.doImport(realmImport);
-        requiredActionsImportService.doImport(realmImport);
-        authenticationFlowsImportService.doImport(realmImport);
-        authenticatorConfigImportService.doImport(realmImport);
-        clientImportService.doImportDependencies(realmImport);
-        identityProviderImportService.doImport(realmImport);
-        clientAuthorizationImportService.doImport(realmImport);
-        scopeMappingImportService.doImport(realmImport);
-        clientScopeMappingImportService.doImport(realmImport);
-        clientScopeImportService.doRemoveOrphan(realmImport);
-
-        stateService.doImport(realmImport);
-        checksumService.doImport(realmImport);
+    /**
+     * The declaration order is the serial import order. The dependencies describe which stages have to be finished before a stage can start.
+     */
+    private ImportStageGraph createImportStages(RealmImport realmImport, RealmRepresentation existingRealm) {
+        return new ImportStageGraph()
+                .add("client-scopes", () -> clientScopeImportService.doImport(realmImport))
+                .add("default-client-scopes", () -> clientScopeImportService.updateDefaultClientScopes(realmImport, existingRealm),
+                        "client-scopes")
+                .add("clients", () -> clientImportService.doImport(realmImport),
+                        "default-client-scopes")
+                .add("roles", () -> roleImportService.doImport(realmImport),
+                        "clients")
+                .add("groups", () -> groupImportService.importGroups(realmImport),
+                        "roles")
+                .add("default-groups", () -> defaultGroupsImportService.doImport(realmImport),
+                        "groups")
+                .add("components", () -> componentImportService.doImport(realmImport),
+                        "groups")
+                .add("users", () -> userImportService.doImport(realmImport),
+                        "groups", "components")
+                .add("required-actions", () -> requiredActionsImportService.doImport(realmImport))
+                // updates the whole realm, which must not overwrite the default groups written concurrently
+                .add("authentication-flows", () -> authenticationFlowsImportService.doImport(realmImport),
+                        "clients", "default-groups")
+                .add("authenticator-configs", () -> authenticatorConfigImportService.doImport(realmImport),
+                        "authentication-flows")
+                .add("client-dependencies", () -> clientImportService.doImportDependencies(realmImport),
+                        "clients", "authentication-flows")
+                .add("identity-providers", () -> identityProviderImportService.doImport(realmImport),
+                        "groups", "authentication-flows")
+                .add("client-authorization", () -> clientAuthorizationImportService.doImport(realmImport),
+                        "users", "client-dependencies", "identity-providers")
+                .add("scope-mappings", () -> scopeMappingImportService.doImport(realmImport),
+                        "client-scopes", "roles")
+                .add("client-scope-mappings", () -> clientScopeMappingImportService.doImport(realmImport),
+                        "client-scopes", "roles")
+                .add("client-scope-orphans", () -> clientScopeImportService.doRemoveOrphan(realmImport),
+                        "client-dependencies", "client-authorization", "scope-mappings", "client-scope-mappings");
     }
 }
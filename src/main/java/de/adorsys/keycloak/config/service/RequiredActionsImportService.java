@@ -24,6 +24,8 @@ import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
 import de.adorsys.keycloak.config.repository.RequiredActionRepository;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics.Outcome;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import org.keycloak.representations.idm.RequiredActionProviderRepresentation;
@@ -46,13 +48,16 @@ public class RequiredActionsImportService {
     private final RequiredActionRepository requiredActionRepository;
     private final ImportConfigProperties importConfigProperties;
     private final StateService stateService;
+    private final ImportMetrics importMetrics;
 
     public RequiredActionsImportService(
             RequiredActionRepository requiredActionRepository,
-            ImportConfigProperties importConfigProperties, StateService stateService) {
+            ImportConfigProperties importConfigProperties, StateService stateService,
+            ImportMetrics importMetrics) {
         this.requiredActionRepository = requiredActionRepository;
         this.importConfigProperties = importConfigProperties;
         this.stateService = stateService;
+        this.importMetrics = importMetrics;
     }
 
     public void doImport(RealmImport realmImport) {
@@ -83,6 +88,7 @@ public class RequiredActionsImportService {
             updateRequiredActionIfNeeded(realmName, requiredActionToImport, existingRequiredAction);
         } else {
             logger.debug("Creating required action: {}", requiredActionToImport.getAlias());
+            importMetrics.record("required-actions", Outcome.CREATED);
             createAndConfigureRequiredAction(realmName, requiredActionToImport);
         }
     }
@@ -101,10 +107,12 @@ public class RequiredActionsImportService {
                 createAndConfigureRequiredAction(realmName, requiredActionToImport);
             } else {
                 logger.debug("Updating required action: {}", requiredActionToImport.getAlias());
+                importMetrics.record("required-actions", Outcome.UPDATED);
                 updateRequiredAction(realmName, requiredActionToImport, existingRequiredAction);
             }
         } else {
             logger.debug("No need to update required action: {}", requiredActionToImport.getAlias());
+            importMetrics.record("required-actions", Outcome.UNCHANGED);
         }
     }
 
@@ -178,7 +186,7 @@ public class RequiredActionsImportService {
             List<RequiredActionProviderRepresentation> existingRequiredActions
     ) {
         if (importConfigProperties.getRemoteState().isEnabled()) {
-            List<String> requiredActionsInState = stateService.getRequiredActions();
+            List<String> requiredActionsInState = stateService.getRequiredActions(realmName);
 
             // ignore all object there are not in state
             existingRequiredActions = existingRequiredActions.stream()
@@ -24,8 +24,11 @@ import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.RoleRepository;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics.Outcome;
 import de.adorsys.keycloak.config.service.rolecomposites.client.ClientRoleCompositeImportService;
 import de.adorsys.keycloak.config.service.rolecomposites.realm.RealmRoleCompositeImportService;
+import de.adorsys.keycloak.config.service.stage.ImportTaskExecutor;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import de.adorsys.keycloak.config.util.KeycloakUtil;
@@ -36,9 +39,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -56,18 +60,24 @@ public class RoleImportService {
     private final RoleRepository roleRepository;
     private final ImportConfigProperties importConfigProperties;
     private final StateService stateService;
+    private final ImportTaskExecutor importTaskExecutor;
+    private final ImportMetrics importMetrics;
 
     @Autowired
     public RoleImportService(
             RealmRoleCompositeImportService realmRoleCompositeImportService,
             ClientRoleCompositeImportService clientRoleCompositeImportService,
             RoleRepository roleRepository,
-            ImportConfigProperties importConfigProperties, StateService stateService) {
+            ImportConfigProperties importConfigProperties, StateService stateService,
+            ImportTaskExecutor importTaskExecutor,
+            ImportMetrics importMetrics) {
         this.realmRoleCompositeImport = realmRoleCompositeImportService;
         this.clientRoleCompositeImport = clientRoleCompositeImportService;
         this.roleRepository = roleRepository;
         this.importConfigProperties = importConfigProperties;
         this.stateService = stateService;
+        this.importTaskExecutor = importTaskExecutor;
+        this.importMetrics = importMetrics;
     }
 
     public void doImport(RealmImport realmImport) {
@@ -120,24 +130,20 @@ public class RoleImportService {
             List<RoleRepresentation> rolesToImport,
             List<RoleRepresentation> existingRealmRoles
     ) {
-        Consumer<RoleRepresentation> loop = role -> createOrUpdateRealmRole(realmName, role, existingRealmRoles);
-        if (importConfigProperties.isParallel()) {
-            rolesToImport.parallelStream().forEach(loop);
-        } else {
-            rolesToImport.forEach(loop);
-        }
+        Map<String, RoleRepresentation> existingRealmRolesByName = indexByName(existingRealmRoles);
+
+        Consumer<RoleRepresentation> loop = role -> createOrUpdateRealmRole(realmName, role, existingRealmRolesByName);
+        importTaskExecutor.forEach("realm-roles", rolesToImport, loop);
     }
 
     private void createOrUpdateRealmRole(
             String realmName,
             RoleRepresentation roleToImport,
-            List<RoleRepresentation> existingRoles
+            Map<String, RoleRepresentation> existingRolesByName
     ) {
         String roleName = roleToImport.getName();
 
-        RoleRepresentation existingRole = existingRoles.stream()
-                .filter(r -> Objects.equals(r.getName(), roleToImport.getName()))
-                .findFirst().orElse(null);
+        RoleRepresentation existingRole = existingRolesByName.get(roleName);
 
         if (existingRole != null) {
             updateRoleIfNeeded(realmName, existingRole, roleToImport);
@@ -148,6 +154,7 @@ public class RoleImportService {
 
     private void createRole(String realmName, RoleRepresentation roleToImport, String roleName) {
         logger.debug("Create realm-level role '{}' in realm '{}'", roleName, realmName);
+        importMetrics.record("roles", Outcome.CREATED);
         RoleRepresentation roleToImportWithoutDependencies = CloneUtil.deepClone(
                 roleToImport, RoleRepresentation.class, propertiesWithDependencies
         );
@@ -160,12 +167,17 @@ public class RoleImportService {
             Map<String, List<RoleRepresentation>> rolesToImport,
             Map<String, List<RoleRepresentation>> existingRoles
     ) {
+        Map<String, Map<String, RoleRepresentation>> existingRolesByName = new HashMap<>();
+        for (Map.Entry<String, List<RoleRepresentation>> client : existingRoles.entrySet()) {
+            existingRolesByName.put(client.getKey(), indexByName(client.getValue()));
+        }
+
         for (Map.Entry<String, List<RoleRepresentation>> client : rolesToImport.entrySet()) {
             String clientId = client.getKey();
             List<RoleRepresentation> clientRoles = client.getValue();
 
             for (RoleRepresentation role : clientRoles) {
-                createOrUpdateClientRole(realmName, clientId, role, existingRoles);
+                createOrUpdateClientRole(realmName, clientId, role, existingRolesByName);
             }
         }
     }
@@ -174,20 +186,18 @@ public class RoleImportService {
             String realmName,
             String clientId,
             RoleRepresentation roleToImport,
-            Map<String, List<RoleRepresentation>> existingRoles
+            Map<String, Map<String, RoleRepresentation>> existingRolesByName
     ) {
         String roleName = roleToImport.getName();
 
-        if (!existingRoles.containsKey(clientId)) {
+        if (!existingRolesByName.containsKey(clientId)) {
             throw new ImportProcessingException(String.format(
                     "Can't create role '%s' for non existing client '%s' in realm '%s'!",
                     roleName, clientId, realmName
             ));
         }
 
-        RoleRepresentation existingClientRole = existingRoles.get(clientId).stream()
-                .filter(r -> Objects.equals(r.getName(), roleToImport.getName()))
-                .findFirst().orElse(null);
+        RoleRepresentation existingClientRole = existingRolesByName.get(clientId).get(roleName);
 
         if (existingClientRole != null) {
             updateClientRoleIfNecessary(realmName, clientId, existingClientRole, roleToImport);
@@ -198,6 +208,7 @@ public class RoleImportService {
 
     private void createClientRole(String realmName, String clientId, RoleRepresentation roleToImport, String roleName) {
         logger.debug("Create client-level role '{}' for client '{}' in realm '{}'", roleName, clientId, realmName);
+        importMetrics.record("roles", Outcome.CREATED);
         RoleRepresentation roleToImportWithoutDependencies = CloneUtil.deepClone(
                 roleToImport, RoleRepresentation.class, propertiesWithDependencies
         );
@@ -217,9 +228,11 @@ public class RoleImportService {
 
         if (!CloneUtil.deepEquals(existingRole, patchedRole)) {
             logger.debug("Update realm-level role '{}' in realm '{}'", roleName, realmName);
+            importMetrics.record("roles", Outcome.UPDATED);
             roleRepository.updateRealmRole(realmName, patchedRole);
         } else {
             logger.debug("No need to update realm-level '{}' in realm '{}'", roleName, realmName);
+            importMetrics.record("roles", Outcome.UNCHANGED);
         }
     }
 
@@ -234,8 +247,10 @@ public class RoleImportService {
 
         if (CloneUtil.deepEquals(existingRole, patchedRole)) {
             logger.debug("No need to update client-level role '{}' for client '{}' in realm '{}'", roleName, clientId, realmName);
+            importMetrics.record("roles", Outcome.UNCHANGED);
         } else {
             logger.debug("Update client-level role '{}' for client '{}' in realm '{}'", roleName, clientId, realmName);
+            importMetrics.record("roles", Outcome.UPDATED);
             roleRepository.updateClientRole(realmName, clientId, patchedRole);
         }
     }
@@ -246,7 +261,7 @@ public class RoleImportService {
             List<RoleRepresentation> existingRoles
     ) {
         if (importConfigProperties.getRemoteState().isEnabled()) {
-            List<String> realmRolesInState = stateService.getRealmRoles();
+            Set<String> realmRolesInState = new HashSet<>(stateService.getRealmRoles(realmName));
 
             // ignore all object there are not in state
             existingRoles = existingRoles.stream()
@@ -274,7 +289,7 @@ public class RoleImportService {
             Map<String, List<RoleRepresentation>> existingRoles
     ) {
         for (Map.Entry<String, List<RoleRepresentation>> client : existingRoles.entrySet()) {
-            List<RoleRepresentation> managedRoles = getManagedClientRoles(client.getKey(), client.getValue());
+            List<RoleRepresentation> managedRoles = getManagedClientRoles(realmName, client.getKey(), client.getValue());
 
             Set<String> importedClientRoles = importedClientsRoles.containsKey(client.getKey())
                     ? importedClientsRoles.get(client.getKey()).stream()
@@ -294,9 +309,9 @@ public class RoleImportService {
         }
     }
 
-    private List<RoleRepresentation> getManagedClientRoles(String client, List<RoleRepresentation> existingRoles) {
+    private List<RoleRepresentation> getManagedClientRoles(String realmName, String client, List<RoleRepresentation> existingRoles) {
         if (importConfigProperties.getRemoteState().isEnabled()) {
-            List<String> clientRolesInState = stateService.getClientRoles(client);
+            Set<String> clientRolesInState = new HashSet<>(stateService.getClientRoles(realmName, client));
             // ignore all object there are not in state
             return existingRoles.stream()
                     .filter(role -> clientRolesInState.contains(role.getName()))
@@ -305,4 +320,9 @@ public class RoleImportService {
             return existingRoles;
         }
     }
+
+    private static Map<String, RoleRepresentation> indexByName(List<RoleRepresentation> roles) {
+        return roles.stream()
+                .collect(Collectors.toMap(RoleRepresentation::getName, role -> role, (first, second) -> first));
+    }
 }
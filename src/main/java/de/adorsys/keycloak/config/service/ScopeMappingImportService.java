@@ -23,7 +23,7 @@ package de.adorsys.keycloak.config.service;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
-import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.repository.RealmSnapshotRepository;
 import de.adorsys.keycloak.config.repository.ScopeMappingRepository;
 import org.keycloak.representations.idm.RealmRepresentation;
 import org.keycloak.representations.idm.ScopeMappingRepresentation;
@@ -42,17 +42,17 @@ import java.util.stream.Collectors;
 public class ScopeMappingImportService {
     private static final Logger logger = LoggerFactory.getLogger(ScopeMappingImportService.class);
 
-    private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository realmSnapshotRepository;
     private final ScopeMappingRepository scopeMappingRepository;
     private final ImportConfigProperties importConfigProperties;
 
     @Autowired
     public ScopeMappingImportService(
-            RealmRepository realmRepository,
+            RealmSnapshotRepository realmSnapshotRepository,
             ScopeMappingRepository scopeMappingRepository,
             ImportConfigProperties importConfigProperties
     ) {
-        this.realmRepository = realmRepository;
+        this.realmSnapshotRepository = realmSnapshotRepository;
         this.scopeMappingRepository = scopeMappingRepository;
         this.importConfigProperties = importConfigProperties;
     }
@@ -66,7 +66,7 @@ public class ScopeMappingImportService {
         if (scopeMappingsToImport == null) return;
 
         String realmName = realmImport.getRealm();
-        RealmRepresentation existingRealm = realmRepository.partialExport(realmName, true, true);
+        RealmRepresentation existingRealm = realmSnapshotRepository.partialExport(realmName, true, true);
         List<ScopeMappingRepresentation> existingScopeMappings = existingRealm.getScopeMappings();
 
         createOrUpdateRolesInScopeMappings(realmName, scopeMappingsToImport, existingScopeMappings);
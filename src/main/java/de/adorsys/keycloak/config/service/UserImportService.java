@@ -24,6 +24,9 @@ import de.adorsys.keycloak.config.exception.InvalidImportException;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.*;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics.Outcome;
+import de.adorsys.keycloak.config.service.stage.ImportTaskExecutor;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import de.adorsys.keycloak.config.util.KeycloakUtil;
 import org.keycloak.representations.idm.*;
@@ -34,7 +37,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.*;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -51,13 +53,17 @@ public class UserImportService {
     private final ClientRepository clientRepository;
 
     private final ImportConfigProperties importConfigProperties;
+    private final ImportTaskExecutor importTaskExecutor;
+    private final ImportMetrics importMetrics;
 
     @Autowired
     public UserImportService(
             RealmRepository realmRepository, UserRepository userRepository,
             RoleRepository roleRepository,
             GroupRepository groupRepository,
-            ClientRepository clientRepository, ImportConfigProperties importConfigProperties
+            ClientRepository clientRepository, ImportConfigProperties importConfigProperties,
+            ImportTaskExecutor importTaskExecutor,
+            ImportMetrics importMetrics
     ) {
         this.realmRepository = realmRepository;
         this.userRepository = userRepository;
@@ -65,6 +71,8 @@ public class UserImportService {
         this.groupRepository = groupRepository;
         this.clientRepository = clientRepository;
         this.importConfigProperties = importConfigProperties;
+        this.importTaskExecutor = importTaskExecutor;
+        this.importMetrics = importMetrics;
     }
 
     public void doImport(RealmImport realmImport) {
@@ -79,34 +87,122 @@ public class UserImportService {
             return;
         }
 
-        Consumer<UserRepresentation> loop = user -> importUser(realmImport.getRealm(), user);
-        if (importConfigProperties.isParallel()) {
-            users.parallelStream().forEach(loop);
+        String realmName = realmImport.getRealm();
+        RealmRepresentation realm = realmRepository.get(realmName);
+        boolean isEmailAsUsername = Boolean.TRUE.equals(realm.isRegistrationEmailAsUsername());
+
+        // The service accounts shall not be taken into account
+        List<UserImport> userImports = users.stream()
+                .map(user -> new UserImport(realmName, user, isEmailAsUsername && !StringUtils.hasLength(user.getServiceAccountClientId())))
+                .collect(Collectors.toList());
+
+        int batchSize = importConfigProperties.getBehaviors().getUserBatchSize();
+        if (batchSize > 0) {
+            importUsersInBatches(realm, userImports, batchSize);
         } else {
-            users.forEach(loop);
+            importTaskExecutor.forEach("users", userImports, UserImport::importUser);
+        }
+    }
+
+    /**
+     * The users of a new realm, as they are created together with the realm. Keycloak resolves their roles and groups itself,
+     * but doesn't grant the default role of the realm to them.
+     */
+    public List<UserRepresentation> toRealmCreationUsers(RealmRepresentation realm) {
+        boolean isEmailAsUsername = Boolean.TRUE.equals(realm.isRegistrationEmailAsUsername());
+        String defaultRoleName = getDefaultRoleNameToGrant(realm);
+
+        List<UserRepresentation> users = realm.getUsers().stream()
+                .map(user -> new UserImport(realm.getRealm(), user, isEmailAsUsername && !StringUtils.hasLength(user.getServiceAccountClientId())))
+                .map(userImport -> userImport.toPartialImportUser(defaultRoleName))
+                .collect(Collectors.toList());
+
+        importMetrics.record("users", Outcome.CREATED, users.size());
+        return users;
+    }
+
+    /*
+     * Users which don't exist yet are created together with their roles, groups and credentials through the partial import
+     * endpoint. Only existing users are compared and updated one by one.
+     */
+    private void importUsersInBatches(RealmRepresentation realm, List<UserImport> userImports, int batchSize) {
+        String realmName = realm.getRealm();
+        String defaultRoleName = getDefaultRoleNameToGrant(realm);
+
+        Map<String, UserRepresentation> existingUsers = userRepository.getAll(realmName).stream()
+                .collect(Collectors.toMap(user -> toUsernameKey(user.getUsername()), user -> user, (first, second) -> first));
+
+        List<UserImport> usersToCreate = new ArrayList<>();
+        Set<String> usernamesToCreate = new HashSet<>();
+        List<UserImport> usersToUpdate = new ArrayList<>();
+        List<UserImport> usersToSearch = new ArrayList<>();
+
+        for (UserImport userImport : userImports) {
+            String username = userImport.getUsername();
+            UserRepresentation existingUser = username != null ? existingUsers.get(toUsernameKey(username)) : null;
+
+            if (existingUser != null) {
+                userImport.setExistingUser(existingUser);
+                usersToUpdate.add(userImport);
+            } else if (username != null && !userImport.isServiceAccount() && usernamesToCreate.add(toUsernameKey(username))) {
+                usersToCreate.add(userImport);
+            } else {
+                // keycloak doesn't list service account users, they are created together with their clients.
+                // Service account users, duplicates and users without username are handled after the batches
+                usersToSearch.add(userImport);
+            }
+        }
+
+        for (int start = 0; start < usersToCreate.size(); start += batchSize) {
+            List<UserImport> batch = usersToCreate.subList(start, Math.min(start + batchSize, usersToCreate.size()));
+            List<UserRepresentation> batchUsers = batch.stream()
+                    .map(userImport -> userImport.toPartialImportUser(defaultRoleName))
+                    .collect(Collectors.toList());
+
+            logger.debug("Create {} users in realm '{}'", batch.size(), realmName);
+            if (userRepository.partialImport(realmName, batchUsers)) {
+                importMetrics.record("users", Outcome.CREATED, batch.size());
+            } else {
+                logger.debug("Some of {} users exist in realm '{}' already, import them one by one", batch.size(), realmName);
+                usersToSearch.addAll(batch);
+            }
+        }
+
+        importTaskExecutor.forEach("users", usersToUpdate, UserImport::importUser);
+        importTaskExecutor.forEach("users", usersToSearch, UserImport::importUser);
+    }
+
+    /*
+     * Keycloak grants the default role to users created one by one, but not to users of a partial or realm import. Users created
+     * one by one lose it again, if it isn't listed and the removal of the default role is enabled.
+     */
+    private String getDefaultRoleNameToGrant(RealmRepresentation realm) {
+        if (importConfigProperties.getBehaviors().isRemoveDefaultRoleFromUser()) {
+            return null;
         }
+
+        return realm.getDefaultRole() != null
+                ? realm.getDefaultRole().getName()
+                : "default-roles-" + realm.getRealm().toLowerCase();
     }
 
-    private void importUser(String realmName, UserRepresentation user) {
-        UserImport userImport = new UserImport(realmName, user);
-        userImport.importUser();
+    // keycloak stores usernames in lower case
+    private static String toUsernameKey(String username) {
+        return username.toLowerCase(Locale.ROOT);
     }
 
     private class UserImport {
         private final String realmName;
         private final UserRepresentation userToImport;
 
-        private UserImport(String realmName, UserRepresentation userToImport) {
+        private UserRepresentation existingUser;
+        private String userId;
+
+        private UserImport(String realmName, UserRepresentation userToImport, boolean isEmailAsUsername) {
             this.realmName = realmName;
             this.userToImport = userToImport;
-        }
 
-        public void importUser() {
-            if (
-                    // The service accounts shall not be taken into account
-                    !StringUtils.hasLength(userToImport.getServiceAccountClientId())
-                            && Boolean.TRUE.equals(realmRepository.get(realmName).isRegistrationEmailAsUsername())
-            ) {
+            if (isEmailAsUsername) {
                 if (
                         userToImport.getUsername() != null
                                 && !Objects.equals(userToImport.getUsername(), userToImport.getEmail())
@@ -120,14 +216,56 @@ public class UserImportService {
 
                 userToImport.setUsername(userToImport.getEmail());
             }
+        }
 
-            Optional<UserRepresentation> maybeUser = userRepository.search(realmName, userToImport.getUsername());
+        public String getUsername() {
+            return userToImport.getUsername();
+        }
+
+        public boolean isServiceAccount() {
+            return StringUtils.hasLength(userToImport.getServiceAccountClientId());
+        }
+
+        public void setExistingUser(UserRepresentation existingUser) {
+            this.existingUser = existingUser;
+        }
+
+        /**
+         * @param defaultRoleName the realm role to grant in addition to the imported ones, or null
+         * @return a copy of the user to import for the partial or realm import endpoint
+         */
+        public UserRepresentation toPartialImportUser(String defaultRoleName) {
+            UserRepresentation user = CloneUtil.deepClone(userToImport);
+
+            if (user.getGroups() != null) {
+                user.setGroups(user.getGroups().stream()
+                        .map(groupName -> groupName.startsWith("/") ? groupName : "/" + groupName)
+                        .collect(Collectors.toList()));
+            }
+
+            if (defaultRoleName != null) {
+                List<String> realmRoles = user.getRealmRoles() != null ? new ArrayList<>(user.getRealmRoles()) : new ArrayList<>();
+                if (!realmRoles.contains(defaultRoleName)) {
+                    realmRoles.add(defaultRoleName);
+                }
+                user.setRealmRoles(realmRoles);
+            }
+
+            return user;
+        }
+
+        public void importUser() {
+            Optional<UserRepresentation> maybeUser = existingUser != null
+                    ? Optional.of(existingUser)
+                    : userRepository.search(realmName, userToImport.getUsername());
 
             if (maybeUser.isPresent()) {
+                userId = maybeUser.get().getId();
                 updateUser(maybeUser.get());
             } else {
                 logger.debug("Create user '{}' in realm '{}'", userToImport.getUsername(), realmName);
-                userRepository.create(realmName, userToImport);
+                importMetrics.record("users", Outcome.CREATED);
+                userId = userRepository.create(realmName, userToImport);
             }
 
             handleRealmRoles();
@@ -157,9 +295,11 @@ public class UserImportService {
 
             if (!CloneUtil.deepEquals(existingUser, patchedUser, "access")) {
                 logger.debug("Update user '{}' in realm '{}'", userToImport.getUsername(), realmName);
+                importMetrics.record("users", Outcome.UPDATED);
                 userRepository.updateUser(realmName, patchedUser);
             } else {
                 logger.debug("No need to update user '{}' in realm '{}'", userToImport.getUsername(), realmName);
+                importMetrics.record("users", Outcome.UNCHANGED);
             }
         }
 
@@ -174,7 +314,7 @@ public class UserImportService {
                     .stream().map(groupName -> groupName.startsWith("/") ? groupName : "/" + groupName)
                     .collect(Collectors.toList());
 
-            List<String> existingUserGroups = userRepository.getGroups(realmName, userToImport)
+            List<String> existingUserGroups = userRepository.getGroups(realmName, userId)
                     .stream().map(GroupRepresentation::getPath)
                     .collect(Collectors.toList());
 
@@ -194,7 +334,7 @@ public class UserImportService {
             logger.debug("Add groups {} to user '{}' in realm '{}'",
                     groupsToAdd, userToImport.getUsername(), realmName);
 
-            groupRepository.addGroupsToUser(realmName, userToImport.getUsername(), groups);
+            groupRepository.addGroupsToUser(realmName, userId, groups);
         }
 
         private void handleGroupsToBeRemoved(
@@ -209,7 +349,7 @@ public class UserImportService {
             logger.debug("Remove groups {} from user '{}' in realm '{}'",
                     groupsToDelete, userToImport.getUsername(), realmName);
 
-            groupRepository.removeGroupsFromUser(realmName, userToImport.getUsername(), groups);
+            groupRepository.removeGroupsFromUser(realmName, userId, groups);
         }
 
         private void handleRealmRoles() {
@@ -219,7 +359,7 @@ public class UserImportService {
             }
 
             List<String> existingUsersRealmLevelRoles = roleRepository
-                    .getUserRealmLevelRoles(realmName, userToImport.getUsername());
+                    .getUserRealmLevelRoles(realmName, userId);
 
             handleRolesToBeAdded(usersRealmLevelRolesToUpdate, existingUsersRealmLevelRoles);
             handleRolesToBeRemoved(usersRealmLevelRolesToUpdate, existingUsersRealmLevelRoles);
@@ -234,7 +374,7 @@ public class UserImportService {
             logger.debug("Add realm-level roles {} to user '{}' in realm '{}'",
                     rolesToAdd, userToImport.getUsername(), realmName);
 
-            roleRepository.addRealmRolesToUser(realmName, userToImport.getUsername(), realmRoles);
+            roleRepository.addRealmRolesToUser(realmName, userId, realmRoles);
         }
 
         private void handleRolesToBeRemoved(List<String> usersRealmLevelRolesToUpdate, List<String> existingUsersRealmLevelRoles) {
@@ -250,14 +390,14 @@ public class UserImportService {
             logger.debug("Remove realm-level roles {} from user '{}' in realm '{}'",
                     rolesToDelete, userToImport.getUsername(), realmName);
 
-            roleRepository.removeRealmRolesForUser(realmName, userToImport.getUsername(), realmRoles);
+            roleRepository.removeRealmRolesForUser(realmName, userId, realmRoles);
         }
 
         private void handleClientRoles() {
             Map<String, List<String>> clientRolesToImport = Optional.ofNullable(userToImport.getClientRoles())
                     .orElseGet(Collections::emptyMap);
             Map<String, List<String>> existingClientsRoles = roleRepository
-                    .getUserClientLevelRoles(realmName, userToImport.getUsername());
+                    .getUserClientLevelRoles(realmName, userId);
 
             for (Map.Entry<String, List<String>> existing : existingClientsRoles.entrySet()) {
                 List<String> rolesToImport = clientRolesToImport.get(existing.getKey());
@@ -291,7 +431,8 @@ public class UserImportService {
         }
 
         private List<String> searchForMissing(List<String> searchedFor, List<String> trawled) {
-            return searchedFor.stream().filter(role -> !trawled.contains(role)).collect(Collectors.toList());
+            Set<String> trawledSet = new HashSet<>(trawled);
+            return searchedFor.stream().filter(role -> !trawledSet.contains(role)).collect(Collectors.toList());
         }
 
         private class ClientRoleImport {
@@ -323,7 +464,7 @@ public class UserImportService {
                 logger.debug("Add client-level roles {} for client '{}' to user '{}' in realm '{}'",
                         clientRolesToAdd, clientId, userToImport.getUsername(), realmName);
 
-                roleRepository.addClientRolesToUser(realmName, userToImport.getUsername(), clientId, clientRoles);
+                roleRepository.addClientRolesToUser(realmName, userId, clientId, clientRoles);
             }
 
             private void handleClientRolesToBeRemoved() {
@@ -336,7 +477,7 @@ public class UserImportService {
                 logger.debug("Remove client-level roles {} for client '{}' from user '{}' in realm '{}'",
                         clientRolesToRemove, clientId, userToImport.getUsername(), realmName);
 
-                roleRepository.removeClientRolesForUser(realmName, userToImport.getUsername(), clientId, clientRoles);
+                roleRepository.removeClientRolesForUser(realmName, userId, clientId, clientRoles);
             }
         }
     }
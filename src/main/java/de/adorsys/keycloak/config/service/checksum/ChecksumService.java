@@ -20,39 +20,89 @@
 
 package de.adorsys.keycloak.config.service.checksum;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.repository.RealmAttributeBuffer;
 import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.util.ObjectMapperUtil;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.keycloak.representations.idm.RealmRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class ChecksumService {
     private static final Logger logger = LoggerFactory.getLogger(ChecksumService.class);
 
+    private static final String SECTION_FILTER = "realmImportSections";
+
+    // the realm section contains everything except the properties of the other sections
+    private static final ObjectWriter SECTION_WRITER = ObjectMapperUtil.create()
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .addMixIn(RealmImport.class, RealmImportSectionFilter.class)
+            .writer(new SimpleFilterProvider().addFilter(SECTION_FILTER, SimpleBeanPropertyFilter.serializeAllExcept(
+                    Arrays.stream(RealmImportSection.values())
+                            .flatMap(section -> section.getProperties().stream())
+                            .collect(Collectors.toSet())
+            )));
+
     private final RealmRepository realmRepository;
+    private final RealmAttributeBuffer realmAttributeBuffer;
     private final ImportConfigProperties importConfigProperties;
 
     @Autowired
-    public ChecksumService(RealmRepository realmRepository, ImportConfigProperties importConfigProperties) {
+    public ChecksumService(
+            RealmRepository realmRepository,
+            RealmAttributeBuffer realmAttributeBuffer,
+            ImportConfigProperties importConfigProperties
+    ) {
         this.realmRepository = realmRepository;
+        this.realmAttributeBuffer = realmAttributeBuffer;
         this.importConfigProperties = importConfigProperties;
     }
 
     public void doImport(RealmImport realmImport) {
-        RealmRepresentation existingRealm = realmRepository.get(realmImport.getRealm());
-        Map<String, String> customAttributes = existingRealm.getAttributes();
+        Map<String, String> existingAttributes = realmAttributeBuffer.getAttributes(realmImport.getRealm());
+        Map<String, String> customAttributes = new LinkedHashMap<>();
 
         String importChecksum = realmImport.getChecksum();
         customAttributes.put(getCustomAttributeKey(), importChecksum);
-        realmRepository.update(existingRealm);
+
+        Map<String, String> sectionChecksums = realmImport.getSectionChecksums();
+        for (RealmImportSection section : RealmImportSection.values()) {
+            String key = getSectionAttributeKey(section.getKey());
+
+            if (sectionChecksums != null) {
+                customAttributes.put(key, sectionChecksums.get(section.getKey()));
+            } else if (existingAttributes.containsKey(key)) {
+                // section checksums of an earlier import are outdated after an import without them
+                customAttributes.put(key, "");
+            }
+        }
+
+        realmAttributeBuffer.putAll(realmImport.getRealm(), customAttributes);
 
         logger.debug("Updated import checksum of realm '{}' to '{}'", realmImport.getRealm(), importChecksum);
     }
@@ -66,10 +116,68 @@ public class ChecksumService {
         return !Objects.equals(realmImport.getChecksum(), readChecksum);
     }
 
+    /**
+     * Compares the checksums of the import sections with the checksums stored by the last import.
+     */
+    public Set<RealmImportSection> getChangedSections(RealmImport realmImport) {
+        Map<String, String> sectionChecksums = calculateSectionChecksums(realmImport);
+        realmImport.setSectionChecksums(sectionChecksums);
+
+        Map<String, String> customAttributes = realmAttributeBuffer.getAttributes(realmImport.getRealm());
+
+        Set<RealmImportSection> changedSections = EnumSet.noneOf(RealmImportSection.class);
+        for (RealmImportSection section : RealmImportSection.values()) {
+            String readChecksum = customAttributes.get(getSectionAttributeKey(section.getKey()));
+
+            if (!Objects.equals(sectionChecksums.get(section.getKey()), readChecksum)) {
+                changedSections.add(section);
+            }
+        }
+
+        logger.debug("Changed import sections of realm '{}': {}", realmImport.getRealm(), changedSections);
+
+        return changedSections;
+    }
+
+    static Map<String, String> calculateSectionChecksums(RealmImport realmImport) {
+        Map<String, String> sectionChecksums = new LinkedHashMap<>();
+
+        for (RealmImportSection section : RealmImportSection.values()) {
+            sectionChecksums.put(section.getKey(), calculateChecksum(section.getContent(realmImport)));
+        }
+
+        return sectionChecksums;
+    }
+
+    // the content is serialized into the digest, so large sections don't have to be kept in memory
+    private static String calculateChecksum(Object content) {
+        MessageDigest digest = DigestUtils.getSha256Digest();
+
+        try (OutputStream outputStream = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            SECTION_WRITER.writeValue(outputStream, content);
+        } catch (IOException e) {
+            throw new ImportProcessingException("Unable to calculate import checksum", e);
+        }
+
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private String getSectionAttributeKey(String section) {
+        return MessageFormat.format(
+                ImportConfigProperties.REALM_SECTION_CHECKSUM_ATTRIBUTE_PREFIX_KEY,
+                importConfigProperties.getCache().getKey(),
+                section
+        );
+    }
+
     private String getCustomAttributeKey() {
         return MessageFormat.format(
                 ImportConfigProperties.REALM_CHECKSUM_ATTRIBUTE_PREFIX_KEY,
                 importConfigProperties.getCache().getKey()
         );
     }
+
+    @JsonFilter(SECTION_FILTER)
+    private interface RealmImportSectionFilter {
+    }
 }
@@ -0,0 +1,76 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.checksum;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Parts of a realm import which are imported by separate import stages and get their own checksum.
+ * All properties which don't belong to a section form the {@link #REALM} section.
+ */
+public enum RealmImportSection {
+    REALM(null),
+    CLIENT_SCOPES(RealmImport::getClientScopes, "clientScopes"),
+    DEFAULT_CLIENT_SCOPES(realmImport -> Arrays.asList(
+            realmImport.getDefaultDefaultClientScopes(),
+            realmImport.getDefaultOptionalClientScopes()
+    ), "defaultDefaultClientScopes", "defaultOptionalClientScopes"),
+    CLIENTS(RealmImport::getClients, "clients"),
+    ROLES(RealmImport::getRoles, "roles"),
+    GROUPS(RealmImport::getGroups, "groups"),
+    DEFAULT_GROUPS(RealmImport::getDefaultGroups, "defaultGroups"),
+    COMPONENTS(RealmImport::getComponents, "components"),
+    USERS(RealmImport::getUsers, "users"),
+    REQUIRED_ACTIONS(RealmImport::getRequiredActions, "requiredActions"),
+    AUTHENTICATION_FLOWS(RealmImport::getAuthenticationFlows, "authenticationFlows"),
+    AUTHENTICATOR_CONFIG(RealmImport::getAuthenticatorConfig, "authenticatorConfig"),
+    IDENTITY_PROVIDERS(realmImport -> Arrays.asList(
+            realmImport.getIdentityProviders(),
+            realmImport.getIdentityProviderMappers()
+    ), "identityProviders", "identityProviderMappers"),
+    SCOPE_MAPPINGS(RealmImport::getScopeMappings, "scopeMappings"),
+    CLIENT_SCOPE_MAPPINGS(RealmImport::getClientScopeMappings, "clientScopeMappings");
+
+    private final Function<RealmImport, Object> content;
+    private final List<String> properties;
+
+    RealmImportSection(Function<RealmImport, Object> content, String... properties) {
+        this.content = content;
+        this.properties = List.of(properties);
+    }
+
+    public String getKey() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    Object getContent(RealmImport realmImport) {
+        return content != null ? content.apply(realmImport) : realmImport;
+    }
+
+    List<String> getProperties() {
+        return properties;
+    }
+}
@@ -0,0 +1,144 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.clientauthorization;
+
+import de.adorsys.keycloak.config.util.JsonUtil;
+import org.keycloak.representations.idm.authorization.PolicyRepresentation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The authorization policies of a client, as keycloak has them during an import. Instead of exporting the authorization
+ * settings again after resources, scopes and policies were removed, this follows the cascades of keycloak:
+ *
+ * <ul>
+ *   <li>a removed resource or scope is removed from all permissions, permissions without any other one are removed</li>
+ *   <li>a removed policy is removed from all permissions applying it, permissions without any other one are removed</li>
+ * </ul>
+ *
+ * <p>
+ * Policies are identified by name. The config values {@code resources}, {@code scopes} and {@code applyPolicies} are
+ * JSON lists of names, as in the exported authorization settings.
+ */
+public class AuthorizationPolicies {
+    private static final String RESOURCES = "resources";
+    private static final String SCOPES = "scopes";
+    private static final String APPLY_POLICIES = "applyPolicies";
+
+    private final Map<String, PolicyRepresentation> policies = new LinkedHashMap<>();
+
+    public AuthorizationPolicies(List<PolicyRepresentation> existingPolicies) {
+        for (PolicyRepresentation policy : existingPolicies) {
+            policies.put(policy.getName(), policy);
+        }
+    }
+
+    public boolean contains(String policyName) {
+        return policies.containsKey(policyName);
+    }
+
+    public PolicyRepresentation get(String policyName) {
+        return policies.get(policyName);
+    }
+
+    public Collection<PolicyRepresentation> getAll() {
+        return new ArrayList<>(policies.values());
+    }
+
+    public void removeResource(String resourceName) {
+        removeReferences(RESOURCES, resourceName);
+    }
+
+    public void removeScope(String scopeName) {
+        removeReferences(SCOPES, scopeName);
+    }
+
+    public void removePolicy(String policyName) {
+        if (policies.remove(policyName) != null) {
+            removeReferences(APPLY_POLICIES, policyName);
+        }
+    }
+
+    private void removeReferences(String configKey, String name) {
+        for (PolicyRepresentation policy : getAll()) {
+            List<String> names = getNames(policy, configKey);
+            if (!names.remove(name)) continue;
+
+            if (names.isEmpty()) {
+                removePolicy(policy.getName());
+            } else {
+                policy.getConfig().put(configKey, JsonUtil.toJson(names));
+            }
+        }
+    }
+
+    /**
+     * Groups policies to create or update into waves: every policy only applies policies of earlier waves or policies
+     * which are not part of the given ones. The policies of one wave can be imported concurrently.
+     * Policies with circular references end up in the last wave, so keycloak reports them as before.
+     */
+    public static List<List<PolicyRepresentation>> groupByDependencies(List<PolicyRepresentation> policiesToImport) {
+        Set<String> pendingNames = policiesToImport.stream()
+                .map(PolicyRepresentation::getName)
+                .collect(Collectors.toCollection(HashSet::new));
+        Map<String, List<String>> appliedPolicies = new HashMap<>();
+        for (PolicyRepresentation policy : policiesToImport) {
+            appliedPolicies.put(policy.getName(), getNames(policy, APPLY_POLICIES));
+        }
+
+        List<List<PolicyRepresentation>> waves = new ArrayList<>();
+        List<PolicyRepresentation> pending = new ArrayList<>(policiesToImport);
+
+        while (!pending.isEmpty()) {
+            List<PolicyRepresentation> wave = pending.stream()
+                    .filter(policy -> appliedPolicies.get(policy.getName()).stream().noneMatch(pendingNames::contains))
+                    .collect(Collectors.toList());
+
+            if (wave.isEmpty()) {
+                wave = pending;
+            }
+
+            waves.add(wave);
+            wave.forEach(policy -> pendingNames.remove(policy.getName()));
+            pending = pending.stream()
+                    .filter(policy -> pendingNames.contains(policy.getName()))
+                    .collect(Collectors.toList());
+        }
+
+        return waves;
+    }
+
+    private static List<String> getNames(PolicyRepresentation policy, String configKey) {
+        if (policy.getConfig() == null || policy.getConfig().get(configKey) == null) {
+            return new ArrayList<>();
+        }
+
+        return new ArrayList<>(JsonUtil.fromJson(policy.getConfig().get(configKey)));
+    }
+}
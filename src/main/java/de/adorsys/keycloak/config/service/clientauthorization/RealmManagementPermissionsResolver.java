@@ -0,0 +1,152 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.clientauthorization;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.repository.ClientRepository;
+import de.adorsys.keycloak.config.repository.GroupRepository;
+import de.adorsys.keycloak.config.repository.IdentityProviderRepository;
+import de.adorsys.keycloak.config.repository.RoleRepository;
+import org.keycloak.representations.idm.authorization.ResourceRepresentation;
+import org.keycloak.representations.idm.authorization.ResourceServerRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Helper class that is scoped per realm per import, so it can keep a cache of certain objects
+ */
+public class RealmManagementPermissionsResolver {
+    private static final Logger logger = LoggerFactory.getLogger(RealmManagementPermissionsResolver.class);
+
+    private final String realmName;
+    private final Map<String, PermissionResolver> resolvers;
+    private final Map<PermissionTypeAndId, String> resolvedObjectIds = new HashMap<>();
+    private final Set<String> permissionEnabledResources = new HashSet<>();
+
+    public RealmManagementPermissionsResolver(
+            String realmName,
+            ClientRepository clientRepository,
+            IdentityProviderRepository identityProviderRepository,
+            RoleRepository roleRepository,
+            GroupRepository groupRepository
+    ) {
+        this(realmName, Map.of(
+                "client", new ClientPermissionResolver(realmName, clientRepository),
+                "idp", new IdpPermissionResolver(realmName, identityProviderRepository),
+                "role", new RolePermissionResolver(realmName, roleRepository),
+                "group", new GroupPermissionResolver(realmName, groupRepository)
+        ));
+    }
+
+    RealmManagementPermissionsResolver(String realmName, Map<String, PermissionResolver> resolvers) {
+        this.realmName = realmName;
+        this.resolvers = resolvers;
+    }
+
+    /**
+     * Keycloak creates the resource {@code <type>.resource.<id>} in the authorization settings of realm-management,
+     * when the permissions of an entity are enabled. Entities with such a resource are not checked again.
+     *
+     * @return true, if permissions of at least one entity had to be enabled
+     */
+    public boolean createFineGrantedPermissions(
+            ResourceServerRepresentation authorizationSettingsToImport,
+            ResourceServerRepresentation existingAuthorizationSettings
+    ) {
+        existingAuthorizationSettings.getResources().stream()
+                .map(ResourceRepresentation::getName)
+                .forEach(permissionEnabledResources::add);
+
+        boolean enabled = false;
+        for (ResourceRepresentation resource : authorizationSettingsToImport.getResources()) {
+            PermissionTypeAndId typeAndId = PermissionTypeAndId.fromResourceName(resource.getName());
+            if (typeAndId != null) {
+                String id = resolveObjectId(typeAndId, resource.getName());
+                enabled |= enableFineGrainedPermission(typeAndId.type, id, resource.getName());
+            }
+        }
+        return enabled;
+    }
+
+    public String resolveObjectId(PermissionTypeAndId typeAndId, String authzName) {
+        if (!typeAndId.isPlaceholder()) {
+            return typeAndId.idOrPlaceholder;
+        }
+
+        String id = resolvedObjectIds.get(typeAndId);
+        if (id == null) {
+            PermissionResolver resolver = getPermissionResolver(typeAndId.type, authzName);
+            id = resolver.resolveObjectId(typeAndId.getPlaceholder(), authzName);
+            resolvedObjectIds.put(typeAndId, id);
+        }
+        return id;
+    }
+
+    private boolean enableFineGrainedPermission(String type, String id, String authzName) {
+        if (!permissionEnabledResources.add(type + ".resource." + id)) {
+            return false;
+        }
+
+        PermissionResolver resolver;
+        try {
+            resolver = getPermissionResolver(type, authzName);
+            resolver.enablePermissions(id);
+            return true;
+        } catch (ImportProcessingException ex) {
+            logger.warn(String.format("Unable to enable permissions for '%s'. Import will continue, but may fail later. Reason: %s",
+                    authzName, ex.getMessage()));
+            return false;
+        }
+    }
+
+    private PermissionResolver getPermissionResolver(String type, String authzName) {
+        PermissionResolver resolver = resolvers.get(type);
+        if (resolver == null) {
+            throw new ImportProcessingException("Cannot resolve '%s' in realm '%s', the type '%s' is not supported by keycloak-config-cli.",
+                    authzName, realmName, type);
+        }
+        return resolver;
+    }
+
+    public String getSanitizedAuthzPolicyName(String authzName) {
+        PermissionTypeAndId typeAndId = PermissionTypeAndId.fromPolicyName(authzName);
+        return getSanitizedAuthzName(authzName, typeAndId);
+    }
+
+    public String getSanitizedAuthzResourceName(String authzName) {
+        PermissionTypeAndId typeAndId = PermissionTypeAndId.fromResourceName(authzName);
+        return getSanitizedAuthzName(authzName, typeAndId);
+    }
+
+    private String getSanitizedAuthzName(String authzName, PermissionTypeAndId typeAndId) {
+        if (typeAndId == null || !typeAndId.isPlaceholder()) {
+            return authzName;
+        }
+
+        String id = resolveObjectId(typeAndId, authzName);
+        return authzName.replace(typeAndId.idOrPlaceholder, id);
+    }
+}
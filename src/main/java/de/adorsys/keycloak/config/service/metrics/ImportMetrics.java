@@ -0,0 +1,356 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.metrics;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportMetricsProperties;
+import de.adorsys.keycloak.config.service.stage.ImportStageExecutor;
+import de.adorsys.keycloak.config.service.stage.ImportTaskExecutor;
+import de.adorsys.keycloak.config.service.stage.ImportTaskExecutor.TaskTimings;
+import de.adorsys.keycloak.config.util.ObjectMapperUtil;
+import de.adorsys.keycloak.config.util.resteasy.MetricsClientFilter;
+import de.adorsys.keycloak.config.util.resteasy.MetricsClientFilter.EndpointMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Collects what an import run did and how long it took: requests to keycloak per endpoint, import stages, import tasks and
+ * created, updated and unchanged entities. With {@code import.metrics.enabled}, a summary is logged at the end of the run and
+ * written as JSON and in the Prometheus text format, if the files are configured.
+ */
+@Component
+public class ImportMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(ImportMetrics.class);
+
+    private static final String PROMETHEUS_PREFIX = "keycloak_config_cli_";
+    private static final int LOGGED_ENDPOINTS = 10;
+
+    private final ImportConfigProperties importConfigProperties;
+    private final ImportStageExecutor importStageExecutor;
+    private final ImportTaskExecutor importTaskExecutor;
+
+    private final MetricsClientFilter httpFilter = new MetricsClientFilter();
+    private final Map<String, Map<Outcome, LongAdder>> entities = new ConcurrentHashMap<>();
+    private final LongAdder successfulRuns = new LongAdder();
+    private final LongAdder failedRuns = new LongAdder();
+
+    private volatile ImportRun lastRun;
+
+    @Autowired
+    public ImportMetrics(
+            ImportConfigProperties importConfigProperties,
+            ImportStageExecutor importStageExecutor,
+            ImportTaskExecutor importTaskExecutor
+    ) {
+        this.importConfigProperties = importConfigProperties;
+        this.importStageExecutor = importStageExecutor;
+        this.importTaskExecutor = importTaskExecutor;
+    }
+
+    public boolean isEnabled() {
+        return importConfigProperties.getMetrics().isEnabled();
+    }
+
+    /**
+     * The filter has to be registered on the keycloak client, if the metrics are enabled.
+     */
+    public MetricsClientFilter getHttpFilter() {
+        return httpFilter;
+    }
+
+    public void record(String entity, Outcome outcome) {
+        record(entity, outcome, 1);
+    }
+
+    public void record(String entity, Outcome outcome, long count) {
+        entities.computeIfAbsent(entity, key -> {
+            Map<Outcome, LongAdder> counts = new EnumMap<>(Outcome.class);
+            for (Outcome value : Outcome.values()) {
+                counts.put(value, new LongAdder());
+            }
+            return counts;
+        }).get(outcome).add(count);
+    }
+
+    /**
+     * Records a run of the watch mode.
+     */
+    public void recordRun(ImportRun run) {
+        (run.isSuccessful() ? successfulRuns : failedRuns).increment();
+        lastRun = run;
+    }
+
+    public ImportRun getLastRun() {
+        return lastRun;
+    }
+
+    public void report(long durationMillis) {
+        if (!isEnabled()) return;
+
+        logSummary(durationMillis);
+
+        ImportMetricsProperties properties = importConfigProperties.getMetrics();
+        if (properties.getJsonFile() != null) {
+            write(properties.getJsonFile(), toJson(durationMillis));
+        }
+
+        if (properties.getPrometheusFile() != null) {
+            write(properties.getPrometheusFile(), toPrometheus(durationMillis));
+        }
+    }
+
+    String toJson(long durationMillis) {
+        Map<String, Object> http = new LinkedHashMap<>();
+        new TreeMap<>(httpFilter.getEndpoints()).forEach((endpoint, metrics) -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", metrics.getCount());
+            values.put("errors", metrics.getErrors());
+            values.put("totalMillis", TimeUnit.NANOSECONDS.toMillis(metrics.getTotalNanos()));
+            values.put("maxMillis", TimeUnit.NANOSECONDS.toMillis(metrics.getMaxNanos()));
+            values.put("requestBytes", metrics.getRequestBytes());
+            values.put("responseBytes", metrics.getResponseBytes());
+
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            long[] counts = metrics.getBuckets();
+            for (int index = 0; index < counts.length; index++) {
+                buckets.put(getBucketLabel(index, false), counts[index]);
+            }
+            values.put("latencyBucketsMillis", buckets);
+
+            http.put(endpoint, values);
+        });
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("durationMillis", durationMillis);
+        summary.put("http", http);
+        summary.put("stages", timingsToJson(importStageExecutor.getTimings()));
+        summary.put("tasks", timingsToJson(importTaskExecutor.getTimings()));
+        summary.put("entities", getEntityCounts());
+
+        try {
+            ObjectWriter writer = ObjectMapperUtil.create().writerWithDefaultPrettyPrinter();
+            return writer.writeValueAsString(summary);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to serialize import metrics", e);
+        }
+    }
+
+    public String toPrometheus(long durationMillis) {
+        StringBuilder text = new StringBuilder();
+
+        appendType(text, "run_duration_seconds", "gauge", "Duration of the import run");
+        appendSample(text, "run_duration_seconds", "", durationMillis / 1000.0);
+
+        ImportRun run = lastRun;
+        if (run != null) {
+            appendType(text, "watch_runs_total", "counter", "Import runs of the watch mode by outcome");
+            appendSample(text, "watch_runs_total", "outcome=\"success\"", successfulRuns.sum());
+            appendSample(text, "watch_runs_total", "outcome=\"failure\"", failedRuns.sum());
+
+            appendType(text, "watch_last_run_timestamp_seconds", "gauge", "Start of the last import run of the watch mode");
+            appendSample(text, "watch_last_run_timestamp_seconds", "", run.getStartedAt().getEpochSecond());
+
+            appendType(text, "watch_last_run_success", "gauge", "1, if the last import run of the watch mode succeeded");
+            appendSample(text, "watch_last_run_success", "", run.isSuccessful() ? 1 : 0);
+        }
+
+        Map<String, EndpointMetrics> endpoints = new TreeMap<>(httpFilter.getEndpoints());
+
+        appendType(text, "http_request_duration_seconds", "histogram", "Latency of the requests to keycloak until the response headers");
+        endpoints.forEach((endpoint, metrics) -> {
+            String labels = getEndpointLabels(endpoint);
+            long[] counts = metrics.getBuckets();
+            long cumulative = 0;
+            for (int index = 0; index < counts.length; index++) {
+                cumulative += counts[index];
+                appendSample(text, "http_request_duration_seconds_bucket", labels + ",le=\"" + getBucketLabel(index, true) + "\"", cumulative);
+            }
+            appendSample(text, "http_request_duration_seconds_sum", labels, metrics.getTotalNanos() / 1e9);
+            appendSample(text, "http_request_duration_seconds_count", labels, metrics.getCount());
+        });
+
+        appendCounter(text, "http_request_errors_total", "Requests to keycloak answered with a status of 400 or above",
+                endpoints, EndpointMetrics::getErrors);
+        appendCounter(text, "http_request_bytes_total", "Bytes of the request bodies sent to keycloak",
+                endpoints, EndpointMetrics::getRequestBytes);
+        appendCounter(text, "http_response_bytes_total", "Bytes of the response bodies read from keycloak",
+                endpoints, EndpointMetrics::getResponseBytes);
+
+        appendTimings(text, "import_stage_duration_seconds", "stage", "Duration of the import stages", importStageExecutor.getTimings());
+        appendTimings(text, "import_task_duration_seconds", "task", "Duration of the import tasks", importTaskExecutor.getTimings());
+
+        appendType(text, "import_entities_total", "counter", "Imported entities by outcome");
+        getEntityCounts().forEach((entity, counts) -> counts.forEach((outcome, count) -> appendSample(
+                text, "import_entities_total", "entity=\"" + escape(entity) + "\",outcome=\"" + outcome + "\"", count
+        )));
+
+        return text.toString();
+    }
+
+    private void logSummary(long durationMillis) {
+        Map<String, EndpointMetrics> endpoints = httpFilter.getEndpoints();
+
+        long requests = endpoints.values().stream().mapToLong(EndpointMetrics::getCount).sum();
+        long requestNanos = endpoints.values().stream().mapToLong(EndpointMetrics::getTotalNanos).sum();
+        logger.info("{} requests to keycloak, {} ms in total, within {} ms", requests, TimeUnit.NANOSECONDS.toMillis(requestNanos), durationMillis);
+
+        endpoints.entrySet()
+                .stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, EndpointMetrics> endpoint) -> endpoint.getValue().getTotalNanos()).reversed())
+                .limit(LOGGED_ENDPOINTS)
+                .forEach(endpoint -> logger.info(
+                        "  {}: {} requests, {} ms in total, {} ms max",
+                        endpoint.getKey(),
+                        endpoint.getValue().getCount(),
+                        TimeUnit.NANOSECONDS.toMillis(endpoint.getValue().getTotalNanos()),
+                        TimeUnit.NANOSECONDS.toMillis(endpoint.getValue().getMaxNanos())
+                ));
+
+        importStageExecutor.getTimings().forEach((stage, timings) -> logger.info("Import stage '{}': {}", stage, timings));
+        getEntityCounts().forEach((entity, counts) -> logger.info("Imported {}: {}", entity, counts));
+    }
+
+    private Map<String, Map<String, Long>> getEntityCounts() {
+        Map<String, Map<String, Long>> counts = new TreeMap<>();
+
+        entities.forEach((entity, outcomes) -> {
+            Map<String, Long> values = new LinkedHashMap<>();
+            outcomes.forEach((outcome, count) -> values.put(outcome.toString(), count.sum()));
+            counts.put(entity, values);
+        });
+
+        return counts;
+    }
+
+    private static Map<String, Object> timingsToJson(Map<String, TaskTimings> timings) {
+        Map<String, Object> values = new TreeMap<>();
+
+        timings.forEach((name, timing) -> {
+            Map<String, Long> value = new LinkedHashMap<>();
+            value.put("count", timing.getCount());
+            value.put("totalMillis", timing.getTotalMillis());
+            value.put("maxMillis", timing.getMaxMillis());
+            values.put(name, value);
+        });
+
+        return values;
+    }
+
+    private static void appendCounter(StringBuilder text, String name, String help, Map<String, EndpointMetrics> endpoints,
+                                      ToLongFunction<EndpointMetrics> value) {
+        appendType(text, name, "counter", help);
+        endpoints.forEach((endpoint, metrics) -> appendSample(text, name, getEndpointLabels(endpoint), value.applyAsLong(metrics)));
+    }
+
+    private static void appendTimings(StringBuilder text, String name, String label, String help, Map<String, TaskTimings> timings) {
+        appendType(text, name, "summary", help);
+
+        new TreeMap<>(timings).forEach((key, timing) -> {
+            String labels = label + "=\"" + escape(key) + "\"";
+            appendSample(text, name + "_sum", labels, timing.getTotalMillis() / 1000.0);
+            appendSample(text, name + "_count", labels, timing.getCount());
+        });
+    }
+
+    private static void appendType(StringBuilder text, String name, String type, String help) {
+        text.append("# HELP ").append(PROMETHEUS_PREFIX).append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(PROMETHEUS_PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void appendSample(StringBuilder text, String name, String labels, double value) {
+        text.append(PROMETHEUS_PREFIX).append(name);
+        if (!labels.isEmpty()) {
+            text.append('{').append(labels).append('}');
+        }
+
+        text.append(' ');
+        if (value == Math.rint(value)) {
+            text.append((long) value);
+        } else {
+            text.append(String.format(Locale.ROOT, "%.6f", value));
+        }
+        text.append('\n');
+    }
+
+    // endpoints are "<method> <path>"
+    private static String getEndpointLabels(String endpoint) {
+        int separator = endpoint.indexOf(' ');
+
+        return "method=\"" + escape(endpoint.substring(0, separator)) + "\",path=\"" + escape(endpoint.substring(separator + 1)) + "\"";
+    }
+
+    private static String getBucketLabel(int index, boolean seconds) {
+        if (index >= MetricsClientFilter.LATENCY_BUCKETS.length) {
+            return "+Inf";
+        }
+
+        long millis = MetricsClientFilter.LATENCY_BUCKETS[index];
+        return seconds ? String.valueOf(millis / 1000.0) : String.valueOf(millis);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static void write(String file, String content) {
+        try {
+            Files.writeString(Path.of(file), content, StandardCharsets.UTF_8);
+            logger.debug("Wrote import metrics to '{}'", file);
+        } catch (IOException e) {
+            logger.error("Unable to write import metrics to '{}': {}", file, e.getMessage());
+        }
+    }
+
+    public enum Outcome {
+        CREATED("created"),
+        UPDATED("updated"),
+        UNCHANGED("unchanged");
+
+        private final String label;
+
+        Outcome(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.metrics;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * One import of the changed realms in watch mode.
+ */
+public class ImportRun {
+    private final Instant startedAt;
+    private final long durationMillis;
+    private final List<String> realms;
+    private final String error;
+
+    public ImportRun(Instant startedAt, long durationMillis, Collection<String> realms, String error) {
+        this.startedAt = startedAt;
+        this.durationMillis = durationMillis;
+        this.realms = List.copyOf(realms);
+        this.error = error;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public List<String> getRealms() {
+        return realms;
+    }
+
+    /**
+     * the message of the failure, null if the run succeeded
+     */
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
@@ -104,8 +104,9 @@ public class ClientCompositeImport {
             Collection<String> existingClientCompositeNames,
             Collection<String> clientCompositesByClient
     ) {
+        Set<String> clientCompositeNames = new HashSet<>(clientCompositesByClient);
         Set<String> clientRoleCompositesToRemove = existingClientCompositeNames.stream()
-                .filter(name -> !clientCompositesByClient.contains(name))
+                .filter(name -> !clientCompositeNames.contains(name))
                 .collect(Collectors.toSet());
 
         roleCompositeRepository.removeClientRoleClientComposites(realmName, roleClientId, realmRole, clientId, clientRoleCompositesToRemove);
@@ -141,8 +142,9 @@ public class ClientCompositeImport {
             Collection<String> existingClientCompositeNames,
             Collection<String> clientCompositesByClient
     ) {
+        Set<String> existingCompositeNames = new HashSet<>(existingClientCompositeNames);
         Set<String> clientRoleCompositesToAdd = clientCompositesByClient.stream()
-                .filter(name -> !existingClientCompositeNames.contains(name))
+                .filter(name -> !existingCompositeNames.contains(name))
                 .collect(Collectors.toSet());
 
         roleCompositeRepository.addClientRoleClientComposites(realmName, clientRoleId, realmRole, clientId, clientRoleCompositesToAdd);
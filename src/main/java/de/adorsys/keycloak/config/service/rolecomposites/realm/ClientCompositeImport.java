@@ -92,8 +92,9 @@ public class ClientCompositeImport {
             Collection<String> existingClientCompositeNames,
             Collection<String> clientCompositesByClient
     ) {
+        Set<String> clientCompositeNames = new HashSet<>(clientCompositesByClient);
         Set<String> clientRoleCompositesToRemove = existingClientCompositeNames.stream()
-                .filter(name -> !clientCompositesByClient.contains(name))
+                .filter(name -> !clientCompositeNames.contains(name))
                 .collect(Collectors.toSet());
 
         roleCompositeRepository.removeRealmRoleClientComposites(realmName, realmRole, clientId, clientRoleCompositesToRemove);
@@ -122,8 +123,9 @@ public class ClientCompositeImport {
             Collection<String> existingClientCompositeNames,
             Collection<String> clientCompositesByClient
     ) {
+        Set<String> existingCompositeNames = new HashSet<>(existingClientCompositeNames);
         Set<String> clientRoleCompositesToAdd = clientCompositesByClient.stream()
-                .filter(name -> !existingClientCompositeNames.contains(name))
+                .filter(name -> !existingCompositeNames.contains(name))
                 .collect(Collectors.toSet());
 
         roleCompositeRepository.addRealmRoleClientComposites(realmName, realmRole, clientId, clientRoleCompositesToAdd);
@@ -0,0 +1,159 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.stage;
+
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.service.stage.ImportStageGraph.ImportStage;
+import de.adorsys.keycloak.config.service.stage.ImportTaskExecutor.TaskTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.PreDestroy;
+
+/**
+ * Runs the stages of an {@link ImportStageGraph}. With {@code import.parallel} enabled, every stage starts as soon as all its
+ * dependencies are done, bounded by {@code import.concurrency.stages}. Otherwise, the stages run strictly serial in declaration order.
+ */
+@Component
+public class ImportStageExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ImportStageExecutor.class);
+
+    private final ImportConfigProperties importConfigProperties;
+    private final Map<String, TaskTimings> timings = new ConcurrentHashMap<>();
+
+    private ExecutorService executorService;
+
+    @Autowired
+    public ImportStageExecutor(ImportConfigProperties importConfigProperties) {
+        this.importConfigProperties = importConfigProperties;
+    }
+
+    public void run(String realmName, ImportStageGraph graph) {
+        if (!importConfigProperties.isParallel() || importConfigProperties.getConcurrency().getStages() <= 1) {
+            for (ImportStage stage : graph.getStages()) {
+                runStage(realmName, stage);
+            }
+            return;
+        }
+
+        runConcurrently(realmName, graph);
+    }
+
+    /**
+     * timings of all stages since the start of the application, summed up over all realms, by stage name
+     */
+    public Map<String, TaskTimings> getTimings() {
+        return Collections.unmodifiableMap(timings);
+    }
+
+    private void runConcurrently(String realmName, ImportStageGraph graph) {
+        ExecutorService executor = getExecutorService();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+        List<CompletableFuture<Void>> allFutures = new ArrayList<>();
+
+        for (ImportStage stage : graph.getStages()) {
+            CompletableFuture<?>[] dependencies = stage.getDependencies()
+                    .stream()
+                    .map(futures::get)
+                    .toArray(CompletableFuture[]::new);
+
+            CompletableFuture<Void> future = CompletableFuture.allOf(dependencies).thenRunAsync(() -> {
+                // don't start new stages once a stage has failed
+                if (failure.get() != null) return;
+
+                try {
+                    runStage(realmName, stage);
+                } catch (RuntimeException error) {
+                    failure.compareAndSet(null, error);
+                    throw error;
+                }
+            }, executor);
+
+            futures.put(stage.getName(), future);
+            allFutures.add(future);
+        }
+
+        try {
+            CompletableFuture.allOf(allFutures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException error) {
+            if (failure.get() == null) {
+                throw error;
+            }
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private void runStage(String realmName, ImportStage stage) {
+        if (stage.isSkipped()) {
+            logger.debug("Skip import stage '{}' in realm '{}'", stage.getName(), realmName);
+            return;
+        }
+
+        logger.debug("Run import stage '{}' in realm '{}'", stage.getName(), realmName);
+
+        long start = System.nanoTime();
+        try {
+            stage.getTask().run();
+        } finally {
+            timings.computeIfAbsent(stage.getName(), name -> new TaskTimings()).record(System.nanoTime() - start);
+        }
+    }
+
+    private synchronized ExecutorService getExecutorService() {
+        if (executorService == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+
+            executorService = Executors.newFixedThreadPool(importConfigProperties.getConcurrency().getStages(), runnable -> {
+                Thread thread = new Thread(runnable, "import-stage-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        return executorService;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.stage;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The import stages of a realm together with their dependencies. Stages have to be added after all stages they depend on,
+ * so the declaration order is always a valid serial execution order and the graph can't contain cycles.
+ */
+public class ImportStageGraph {
+    private final Map<String, ImportStage> stages = new LinkedHashMap<>();
+
+    public ImportStageGraph add(String name, Runnable task, String... dependencies) {
+        if (stages.containsKey(name)) {
+            throw new IllegalArgumentException(String.format("Import stage '%s' is already declared", name));
+        }
+
+        for (String dependency : dependencies) {
+            if (!stages.containsKey(dependency)) {
+                throw new IllegalArgumentException(String.format(
+                        "Import stage '%s' depends on '%s', which has to be declared before", name, dependency
+                ));
+            }
+        }
+
+        stages.put(name, new ImportStage(name, task, List.of(dependencies)));
+        return this;
+    }
+
+    /**
+     * The stage is handled as done without running it, stages depending on it still run.
+     */
+    public ImportStageGraph skip(String name) {
+        ImportStage stage = stages.get(name);
+
+        if (stage == null) {
+            throw new IllegalArgumentException(String.format("Import stage '%s' is not declared", name));
+        }
+
+        stage.skipped = true;
+        return this;
+    }
+
+    Collection<ImportStage> getStages() {
+        return Collections.unmodifiableCollection(stages.values());
+    }
+
+    static class ImportStage {
+        private final String name;
+        private final Runnable task;
+        private final List<String> dependencies;
+
+        private volatile boolean skipped;
+
+        ImportStage(String name, Runnable task, List<String> dependencies) {
+            this.name = name;
+            this.task = task;
+            this.dependencies = dependencies;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Runnable getTask() {
+            return task;
+        }
+
+        List<String> getDependencies() {
+            return dependencies;
+        }
+
+        boolean isSkipped() {
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.stage;
+
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.annotation.PreDestroy;
+
+/**
+ * Shared executor for the per-entity loops of the import services (users, clients, roles, ...).
+ * <p>
+ * With {@code import.parallel} enabled, at most {@code import.concurrency.tasks} entities are imported at the same time,
+ * independent of the number of cpu cores. Callers block until a slot is free, so large imports don't queue up unbounded.
+ * Virtual threads are used if the JVM supports them. Loops started from within an import task run on the calling thread.
+ */
+@Component
+public class ImportTaskExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ImportTaskExecutor.class);
+
+    private static final ThreadLocal<Boolean> IS_IMPORT_TASK = ThreadLocal.withInitial(() -> false);
+
+    private final ImportConfigProperties importConfigProperties;
+    private final Map<String, TaskTimings> timings = new ConcurrentHashMap<>();
+
+    private ExecutorService executorService;
+    private Semaphore permits;
+
+    @Autowired
+    public ImportTaskExecutor(ImportConfigProperties importConfigProperties) {
+        this.importConfigProperties = importConfigProperties;
+    }
+
+    public <T> void forEach(String taskName, Collection<T> items, Consumer<T> action) {
+        TaskTimings taskTimings = timings.computeIfAbsent(taskName, name -> new TaskTimings());
+
+        if (!importConfigProperties.isParallel() || IS_IMPORT_TASK.get() || items.size() <= 1) {
+            for (T item : items) {
+                runTask(taskTimings, item, action);
+            }
+            return;
+        }
+
+        runConcurrently(taskTimings, items, action);
+        logger.debug("Import task '{}': {}", taskName, taskTimings);
+    }
+
+    /**
+     * timings of all tasks since the start of the application, by task name
+     */
+    public Map<String, TaskTimings> getTimings() {
+        return Collections.unmodifiableMap(timings);
+    }
+
+    private <T> void runConcurrently(TaskTimings taskTimings, Collection<T> items, Consumer<T> action) {
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        List<Future<?>> futures = new ArrayList<>(items.size());
+
+        for (T item : items) {
+            // don't start new tasks once a task has failed
+            if (failure.get() != null) break;
+
+            acquirePermit();
+
+            try {
+                futures.add(getExecutorService().submit(() -> {
+                    IS_IMPORT_TASK.set(true);
+                    try {
+                        runTask(taskTimings, item, action);
+                    } catch (RuntimeException error) {
+                        failure.compareAndSet(null, error);
+                    } finally {
+                        IS_IMPORT_TASK.set(false);
+                        permits.release();
+                    }
+                }));
+            } catch (RuntimeException error) {
+                permits.release();
+                throw error;
+            }
+        }
+
+        awaitAll(futures);
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private <T> void runTask(TaskTimings taskTimings, T item, Consumer<T> action) {
+        long start = System.nanoTime();
+        try {
+            action.accept(item);
+        } finally {
+            taskTimings.record(System.nanoTime() - start);
+        }
+    }
+
+    private void acquirePermit() {
+        try {
+            getPermits().acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a free import task slot", e);
+        }
+    }
+
+    private void awaitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for import tasks", e);
+            } catch (ExecutionException e) {
+                // failures of tasks are collected in runConcurrently
+                logger.trace("Import task failed", e);
+            }
+        }
+    }
+
+    private synchronized Semaphore getPermits() {
+        if (permits == null) {
+            permits = new Semaphore(importConfigProperties.getConcurrency().getTasks());
+        }
+
+        return permits;
+    }
+
+    private synchronized ExecutorService getExecutorService() {
+        if (executorService == null) {
+            executorService = createVirtualThreadExecutor();
+        }
+
+        if (executorService == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+
+            executorService = Executors.newFixedThreadPool(importConfigProperties.getConcurrency().getTasks(), runnable -> {
+                Thread thread = new Thread(runnable, "import-task-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        return executorService;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() is available since java 21; the number of tasks is still bounded by the permits
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.trace("Virtual threads are not available, falling back to platform threads");
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    public static class TaskTimings {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+        }
+
+        public long getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d tasks, %d ms in total, %d ms max", getCount(), getTotalMillis(), getMaxMillis());
+        }
+    }
+}
@@ -79,8 +79,8 @@ public class StateService {
         logger.debug("Updated states of realm '{}'", realmImport.getRealm());
     }
 
-    public List<String> getRealmRoles() {
-        return stateRepository.getState("roles-realm");
+    public List<String> getRealmRoles(String realmName) {
+        return stateRepository.getState(realmName, "roles-realm");
     }
 
     private void setRealmRoles(RealmImport realmImport) {
@@ -95,7 +95,7 @@ public class StateService {
                 .map(RoleRepresentation::getName)
                 .collect(Collectors.toList());
 
-        stateRepository.setState("roles-realm", state);
+        stateRepository.setState(realmImport.getRealm(), "roles-realm", state);
     }
 
     private void setClientRoles(RealmImport realmImport) {
@@ -111,7 +111,7 @@ public class StateService {
                     .map(RoleRepresentation::getName)
                     .collect(Collectors.toList());
 
-            stateRepository.setState("roles-client-" + client.getKey(), state);
+            stateRepository.setState(realmImport.getRealm(), "roles-client-" + client.getKey(), state);
         }
     }
 
@@ -129,16 +129,16 @@ public class StateService {
                     .map(ResourceRepresentation::getName)
                     .collect(Collectors.toList());
 
-            stateRepository.setState("resources-client-" + clientKey, resourceNames);
+            stateRepository.setState(realmImport.getRealm(), "resources-client-" + clientKey, resourceNames);
         }
     }
 
-    public List<String> getClientRoles(String client) {
-        return stateRepository.getState("roles-client-" + client);
+    public List<String> getClientRoles(String realmName, String client) {
+        return stateRepository.getState(realmName, "roles-client-" + client);
     }
 
-    public List<String> getClientAuthorizationResources(String client) {
-        return stateRepository.getState("resources-client-" + client);
+    public List<String> getClientAuthorizationResources(String realmName, String client) {
+        return stateRepository.getState(realmName, "resources-client-" + client);
     }
 
     private void setClients(RealmImport realmImport) {
@@ -154,15 +154,15 @@ public class StateService {
             }
         }
 
-        stateRepository.setState("clients", state);
+        stateRepository.setState(realmImport.getRealm(), "clients", state);
     }
 
-    public List<String> getRequiredActions() {
-        return stateRepository.getState("required-actions");
+    public List<String> getRequiredActions(String realmName) {
+        return stateRepository.getState(realmName, "required-actions");
     }
 
-    public List<String> getClients() {
-        return stateRepository.getState("clients");
+    public List<String> getClients(String realmName) {
+        return stateRepository.getState(realmName, "clients");
     }
 
     private void setRequiredActions(RealmImport realmImport) {
@@ -173,13 +173,15 @@ public class StateService {
                 .map(RequiredActionProviderRepresentation::getAlias)
                 .collect(Collectors.toList());
 
-        stateRepository.setState("required-actions", state);
+        stateRepository.setState(realmImport.getRealm(), "required-actions", state);
     }
 
-    public List<ComponentRepresentation> getComponents(List<ComponentRepresentation> components, String parentComponentName) {
+    public List<ComponentRepresentation> getComponents(
+            String realmName, List<ComponentRepresentation> components, String parentComponentName
+    ) {
         List<String> componentsFromState = (parentComponentName != null)
-                ? stateRepository.getState("sub-components-" + parentComponentName)
-                : stateRepository.getState("components");
+                ? stateRepository.getState(realmName, "sub-components-" + parentComponentName)
+                : stateRepository.getState(realmName, "components");
 
         return components.stream()
                 .filter(component -> componentsFromState.contains(component.getName()))
@@ -197,14 +199,14 @@ public class StateService {
                 String componentName = component.getName();
                 state.add(componentName);
 
-                setSubComponents(component);
+                setSubComponents(realmImport, component);
             }
         }
 
-        stateRepository.setState("components", state);
+        stateRepository.setState(realmImport.getRealm(), "components", state);
     }
 
-    private void setSubComponents(ComponentExportRepresentation component) {
+    private void setSubComponents(RealmImport realmImport, ComponentExportRepresentation component) {
         MultivaluedHashMap<String, ComponentExportRepresentation> subComponents = component.getSubComponents();
         if (subComponents.isEmpty()) {
             return;
@@ -219,6 +221,6 @@ public class StateService {
             state.addAll(nameOfSubComponents);
         }
 
-        stateRepository.setState("sub-components-" + component.getName(), state);
+        stateRepository.setState(realmImport.getRealm(), "sub-components-" + component.getName(), state);
     }
 }
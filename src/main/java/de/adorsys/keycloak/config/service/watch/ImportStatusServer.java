@@ -0,0 +1,105 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.watch;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.metrics.ImportRun;
+import de.adorsys.keycloak.config.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serves the health of the watch mode on /health and the import metrics in the Prometheus text format on /metrics.
+ * The health is down while the last import run failed.
+ */
+class ImportStatusServer implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ImportStatusServer.class);
+
+    private final HttpServer server;
+    private final ImportMetrics importMetrics;
+
+    ImportStatusServer(int port, ImportMetrics importMetrics) throws IOException {
+        this.importMetrics = importMetrics;
+
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/health", this::handleHealth);
+        server.createContext("/metrics", this::handleMetrics);
+        server.start();
+
+        logger.info("Serving health and metrics on port {}", getPort());
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        ImportRun run = importMetrics.getLastRun();
+        boolean up = run == null || run.isSuccessful();
+
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", up ? "UP" : "DOWN");
+
+        if (run != null) {
+            Map<String, Object> lastRun = new LinkedHashMap<>();
+            lastRun.put("startedAt", run.getStartedAt().toString());
+            lastRun.put("durationMillis", run.getDurationMillis());
+            lastRun.put("realms", run.getRealms());
+            lastRun.put("error", run.getError());
+            health.put("lastRun", lastRun);
+        }
+
+        respond(exchange, up ? 200 : 503, "application/json", JsonUtil.toJson(health));
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        ImportRun run = importMetrics.getLastRun();
+        String metrics = importMetrics.toPrometheus(run != null ? run.getDurationMillis() : 0);
+
+        respond(exchange, 200, "text/plain; version=0.0.4", metrics);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, content.length);
+
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(content);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.watch;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportWatchProperties;
+import de.adorsys.keycloak.config.provider.KeycloakImportProvider;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.metrics.ImportRun;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import javax.annotation.PreDestroy;
+
+/**
+ * Keeps the application running and imports the realms again, whenever their files change. The import locations are read on
+ * every change below a watched directory and at least once per poll interval. Only realms whose files differ from the last
+ * successful import are imported again, so the keycloak session, the connection pool and all caches stay warm in between.
+ */
+@Component
+public class ImportWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(ImportWatcher.class);
+
+    private final KeycloakImportProvider keycloakImportProvider;
+    private final ImportConfigProperties importConfigProperties;
+    private final ImportMetrics importMetrics;
+
+    // realm -> file and checksum of each part, in import order, as of the last successful import
+    private final Map<String, List<String>> importedRealms = new HashMap<>();
+
+    private volatile boolean running;
+
+    @Autowired
+    public ImportWatcher(
+            KeycloakImportProvider keycloakImportProvider,
+            ImportConfigProperties importConfigProperties,
+            ImportMetrics importMetrics
+    ) {
+        this.keycloakImportProvider = keycloakImportProvider;
+        this.importConfigProperties = importConfigProperties;
+        this.importMetrics = importMetrics;
+    }
+
+    /**
+     * Blocks until the application is stopped.
+     *
+     * @param importer imports the given realm imports (location -> file -> parts of the file)
+     */
+    public void watch(Collection<String> locations, Consumer<Map<String, Map<String, List<RealmImport>>>> importer) {
+        ImportWatchProperties properties = importConfigProperties.getWatch();
+        running = true;
+
+        try (LocationWatcher locationWatcher = new LocationWatcher(locations);
+                ImportStatusServer ignored = properties.getPort() > 0 ? new ImportStatusServer(properties.getPort(), importMetrics) : null) {
+            logger.info("Watching import locations {}", locations);
+
+            while (running) {
+                importChanges(locations, importer);
+                locationWatcher.await(properties.getPollInterval(), properties.getDelay());
+            }
+        } catch (IOException e) {
+            throw new ImportProcessingException("Unable to watch import locations: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        logger.info("Stopped watching import locations");
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Reads all locations and imports the realms which changed since their last successful import. A failed import is retried on
+     * the next change or after the poll interval.
+     */
+    void importChanges(Collection<String> locations, Consumer<Map<String, Map<String, List<RealmImport>>>> importer) {
+        long start = System.currentTimeMillis();
+        Set<String> changedRealms = Set.of();
+
+        try {
+            Map<String, Map<String, List<RealmImport>>> realmImports = keycloakImportProvider.readFromLocations(locations).getRealmImports();
+            Map<String, List<String>> realmChecksums = getRealmChecksums(realmImports);
+
+            // realms removed from the files are imported again as soon as they come back
+            importedRealms.keySet().retainAll(realmChecksums.keySet());
+
+            changedRealms = getChangedRealms(realmChecksums);
+            if (changedRealms.isEmpty()) {
+                logger.debug("No changes in import locations");
+                return;
+            }
+
+            logger.info("Importing changed realms {}", changedRealms);
+            importer.accept(filterRealms(realmImports, changedRealms));
+
+            for (String realm : changedRealms) {
+                importedRealms.put(realm, realmChecksums.get(realm));
+            }
+
+            finishRun(start, changedRealms, null);
+        } catch (RuntimeException e) {
+            logger.error("Import of changed realms failed: {}", e.getMessage());
+            finishRun(start, changedRealms, e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+        }
+    }
+
+    private void finishRun(long start, Set<String> realms, String error) {
+        long durationMillis = System.currentTimeMillis() - start;
+
+        importMetrics.recordRun(new ImportRun(Instant.ofEpochMilli(start), durationMillis, realms, error));
+        importMetrics.report(durationMillis);
+    }
+
+    private Set<String> getChangedRealms(Map<String, List<String>> realmChecksums) {
+        Set<String> changedRealms = new LinkedHashSet<>();
+
+        realmChecksums.forEach((realm, checksums) -> {
+            if (!checksums.equals(importedRealms.get(realm))) {
+                changedRealms.add(realm);
+            }
+        });
+
+        return changedRealms;
+    }
+
+    private static Map<String, List<String>> getRealmChecksums(Map<String, Map<String, List<RealmImport>>> realmImports) {
+        Map<String, List<String>> realmChecksums = new LinkedHashMap<>();
+
+        for (Map<String, List<RealmImport>> files : realmImports.values()) {
+            files.forEach((file, parts) -> {
+                for (RealmImport part : parts) {
+                    realmChecksums.computeIfAbsent(part.getRealm(), realm -> new ArrayList<>()).add(file + "@" + part.getChecksum());
+                }
+            });
+        }
+
+        return realmChecksums;
+    }
+
+    private static Map<String, Map<String, List<RealmImport>>> filterRealms(
+            Map<String, Map<String, List<RealmImport>>> realmImports, Set<String> realms
+    ) {
+        Map<String, Map<String, List<RealmImport>>> filtered = new LinkedHashMap<>();
+
+        realmImports.forEach((location, files) -> files.forEach((file, parts) -> {
+            for (RealmImport part : parts) {
+                if (realms.contains(part.getRealm())) {
+                    filtered.computeIfAbsent(location, key -> new LinkedHashMap<>())
+                            .computeIfAbsent(file, key -> new ArrayList<>())
+                            .add(part);
+                }
+            }
+        }));
+
+        return filtered;
+    }
+}
@@ -0,0 +1,155 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.watch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Waits for changes below the directories of the file locations. Other locations (http, classpath, zip, ...) can't be watched
+ * and are covered by the poll interval only.
+ */
+class LocationWatcher implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(LocationWatcher.class);
+
+    private static final String FILE_PREFIX = "file:";
+
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    LocationWatcher(Collection<String> locations) throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+
+        for (String location : locations) {
+            Path directory = getBaseDirectory(location);
+
+            if (directory == null) {
+                logger.debug("Location '{}' can't be watched, it is polled", location);
+            } else {
+                register(directory);
+            }
+        }
+    }
+
+    /**
+     * Blocks until something below one of the watched directories changed or the poll interval elapsed. Changes following each
+     * other within the delay are collected into one, so a file is not read while it is still being written.
+     */
+    void await(Duration pollInterval, Duration delay) throws InterruptedException {
+        WatchKey key = watchService.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        while (key != null) {
+            handleEvents(key);
+            key = watchService.poll(delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * The directory in front of the first wildcard of a file location, null if the location isn't a file location.
+     */
+    static Path getBaseDirectory(String location) {
+        String path;
+        if (location.startsWith(FILE_PREFIX)) {
+            path = location.substring(FILE_PREFIX.length());
+        } else if (!location.contains(":")) {
+            path = location;
+        } else {
+            return null;
+        }
+
+        int wildcard = indexOfWildcard(path);
+        if (wildcard >= 0) {
+            path = path.substring(0, path.lastIndexOf('/', wildcard) + 1);
+        }
+
+        if (path.isEmpty()) {
+            path = ".";
+        }
+
+        Path directory = Paths.get(path);
+        if (Files.isRegularFile(directory)) {
+            directory = directory.toAbsolutePath().getParent();
+        }
+
+        return Files.isDirectory(directory) ? directory : null;
+    }
+
+    private static int indexOfWildcard(String path) {
+        for (int index = 0; index < path.length(); index++) {
+            if ("*?{[".indexOf(path.charAt(index)) >= 0) {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    private void handleEvents(WatchKey key) {
+        Path directory = directories.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || directory == null) continue;
+
+            Path path = directory.resolve((Path) event.context());
+            logger.trace("{} of '{}'", event.kind().name(), path);
+
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    register(path);
+                } catch (IOException e) {
+                    logger.warn("Unable to watch directory '{}': {}", path, e.getMessage());
+                }
+            }
+        }
+
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    private void register(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+                logger.debug("Watching directory '{}'", directory);
+                directories.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -24,9 +24,14 @@ import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.model.RealmImport;
 import org.keycloak.representations.idm.AbstractAuthenticationExecutionRepresentation;
 import org.keycloak.representations.idm.AuthenticationExecutionExportRepresentation;
+import org.keycloak.representations.idm.AuthenticationExecutionInfoRepresentation;
 import org.keycloak.representations.idm.AuthenticationFlowRepresentation;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -84,4 +89,126 @@ public class AuthenticationFlowUtil {
                 .map(alias -> getSubFlow(realmImport, alias))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Maps the alias of every sub-flow below the given flow of the import to the alias of its parent flow.
+     */
+    @SuppressWarnings("deprecation")
+    public static Map<String, String> getSubFlowParents(
+            RealmImport realmImport,
+            AuthenticationFlowRepresentation flow
+    ) {
+        Map<String, String> parents = new HashMap<>();
+
+        for (AuthenticationExecutionExportRepresentation execution : flow.getAuthenticationExecutions()) {
+            if (!execution.isAutheticatorFlow()) continue;
+
+            parents.put(execution.getFlowAlias(), flow.getAlias());
+            parents.putAll(getSubFlowParents(realmImport, getSubFlow(realmImport, execution.getFlowAlias())));
+        }
+
+        return parents;
+    }
+
+    /**
+     * Maps the alias of every sub-flow in the executions of a flow, as returned by keycloak, to the alias of its parent flow.
+     */
+    public static Map<String, String> getSubFlowParents(
+            String flowAlias,
+            List<AuthenticationExecutionInfoRepresentation> executions
+    ) {
+        Map<String, String> parents = new HashMap<>();
+        Map<Integer, String> flowAliasByLevel = new HashMap<>();
+        flowAliasByLevel.put(0, flowAlias);
+
+        for (AuthenticationExecutionInfoRepresentation execution : executions) {
+            if (!Boolean.TRUE.equals(execution.getAuthenticationFlow())) continue;
+
+            parents.put(execution.getDisplayName(), flowAliasByLevel.get(execution.getLevel()));
+            flowAliasByLevel.put(execution.getLevel() + 1, execution.getDisplayName());
+        }
+
+        return parents;
+    }
+
+    /**
+     * Keycloak returns the executions of a flow and all its sub-flows as one list, depth-first and with their nesting level.
+     * This picks the executions directly below the given execution-flow, or directly below the flow itself if it is null.
+     */
+    public static List<AuthenticationExecutionInfoRepresentation> getDirectExecutions(
+            List<AuthenticationExecutionInfoRepresentation> executions,
+            AuthenticationExecutionInfoRepresentation parentExecution
+    ) {
+        int start = parentExecution == null ? 0 : executions.indexOf(parentExecution) + 1;
+        int level = parentExecution == null ? 0 : parentExecution.getLevel() + 1;
+
+        List<AuthenticationExecutionInfoRepresentation> directExecutions = new ArrayList<>();
+        for (int index = start; index < executions.size() && executions.get(index).getLevel() >= level; index++) {
+            if (executions.get(index).getLevel() == level) {
+                directExecutions.add(executions.get(index));
+            }
+        }
+
+        return directExecutions;
+    }
+
+    /**
+     * Pairs every execution to import with the first unpaired existing execution of the same authenticator or sub-flow.
+     * The result is in the order of the executions to import and contains null for executions which do not exist yet.
+     */
+    public static List<AuthenticationExecutionInfoRepresentation> matchExecutions(
+            List<AuthenticationExecutionExportRepresentation> executionsToImport,
+            List<AuthenticationExecutionInfoRepresentation> existingExecutions
+    ) {
+        List<AuthenticationExecutionInfoRepresentation> unpairedExecutions = new ArrayList<>(existingExecutions);
+        List<AuthenticationExecutionInfoRepresentation> matches = new ArrayList<>();
+
+        for (AuthenticationExecutionExportRepresentation executionToImport : executionsToImport) {
+            Optional<AuthenticationExecutionInfoRepresentation> match = unpairedExecutions.stream()
+                    .filter(existingExecution -> isSameExecution(executionToImport, existingExecution))
+                    .findFirst();
+
+            match.ifPresent(unpairedExecutions::remove);
+            matches.add(match.orElse(null));
+        }
+
+        return matches;
+    }
+
+    /**
+     * Execution-flows are identified by the alias of their sub-flow, which keycloak returns as display name.
+     */
+    @SuppressWarnings("deprecation")
+    private static boolean isSameExecution(
+            AuthenticationExecutionExportRepresentation executionToImport,
+            AuthenticationExecutionInfoRepresentation existingExecution
+    ) {
+        boolean isExistingExecutionFlow = Boolean.TRUE.equals(existingExecution.getAuthenticationFlow());
+
+        if (executionToImport.isAutheticatorFlow()) {
+            return isExistingExecutionFlow && Objects.equals(existingExecution.getDisplayName(), executionToImport.getFlowAlias());
+        }
+
+        return !isExistingExecutionFlow && Objects.equals(existingExecution.getProviderId(), executionToImport.getAuthenticator());
+    }
+
+    /**
+     * Keycloak can only move an execution one position up or down. This returns the executions to raise one after another,
+     * to bring them from the current into the desired order with the least number of moves.
+     */
+    public static List<String> getPriorityRaises(List<String> currentOrder, List<String> desiredOrder) {
+        List<String> order = new ArrayList<>(currentOrder);
+        List<String> raises = new ArrayList<>();
+
+        for (int position = 0; position < desiredOrder.size(); position++) {
+            String executionId = desiredOrder.get(position);
+
+            for (int current = order.indexOf(executionId); current > position; current--) {
+                Collections.swap(order, current, current - 1);
+                raises.add(executionId);
+            }
+        }
+
+        return raises;
+    }
 }
@@ -0,0 +1,600 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.util;
+
+import com.fasterxml.jackson.annotation.*;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.introspect.*;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.ClassUtil;
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Structural comparison and merging of representation objects without JSON tree round-trips.
+ * <p>
+ * Properties are resolved once per class through Jackson's bean introspection, so the results match
+ * {@link CloneUtil}'s JSON based semantics. Values which can not be walked safely (custom serializers,
+ * polymorphic types, creator based beans, ...) fall back to a Jackson conversion of that value only.
+ */
+public class BeanDiffUtil {
+    private static final String ROOT_PATH = "$";
+
+    private static final List<Class<? extends Annotation>> SERIALIZATION_ANNOTATIONS = Arrays.asList(
+            JsonSerialize.class, JsonFormat.class, JsonRawValue.class, JsonUnwrapped.class, JsonTypeInfo.class, JsonTypeId.class,
+            JsonIdentityInfo.class, JsonIdentityReference.class, JsonManagedReference.class, JsonBackReference.class, JsonView.class,
+            JsonFilter.class, JsonValue.class, JsonKey.class
+    );
+
+    private static final List<Class<? extends Annotation>> DESERIALIZATION_ANNOTATIONS = Arrays.asList(
+            JsonDeserialize.class, JsonFormat.class, JsonUnwrapped.class, JsonTypeInfo.class, JsonIdentityInfo.class,
+            JsonIdentityReference.class, JsonManagedReference.class, JsonBackReference.class, JsonView.class, JsonMerge.class,
+            JsonSetter.class
+    );
+
+    private static final Set<Class<?>> SCALAR_TYPES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+            Float.class, Double.class, BigInteger.class, BigDecimal.class
+    ));
+
+    private static final ObjectMapper nonNullMapper;
+    private static final ObjectMapper nonFailingMapper;
+
+    private static final Map<Class<?>, BeanModel> beanModels = new ConcurrentHashMap<>();
+
+    static {
+        nonNullMapper = ObjectMapperUtil.create();
+        nonNullMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+        nonFailingMapper = ObjectMapperUtil.create();
+        nonFailingMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    BeanDiffUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static boolean isEqual(Object origin, Object other, String... ignoredProperties) {
+        return compareRoot(origin, other, ignoredProperties, null);
+    }
+
+    /**
+     * Returns the paths of all properties which differ, e.g. {@code attributes.key} or {@code redirectUris[1]}.
+     * An empty list means both objects are equal.
+     */
+    public static List<String> diff(Object origin, Object other, String... ignoredProperties) {
+        List<String> differences = new ArrayList<>();
+        compareRoot(origin, other, ignoredProperties, differences);
+        return differences;
+    }
+
+    public static <T> T copy(T object, String... ignoredProperties) {
+        if (object == null) return null;
+
+        BeanModel model = getBeanModel(object.getClass());
+        if (!model.isCopyable()) {
+            return convertTree(toTree(object, ignoredProperties), nonFailingMapper.constructType(object.getClass()));
+        }
+
+        @SuppressWarnings("unchecked")
+        T copy = (T) copyBean(object, model, Arrays.asList(ignoredProperties));
+        return copy;
+    }
+
+    /**
+     * Applies all non-null top-level properties of {@code patch} to a copy of {@code origin}. Nested objects and lists are replaced.
+     */
+    public static <S, T> S patch(S origin, T patch, String... ignoredProperties) {
+        if (origin == null) return null;
+        if (patch == null) return origin;
+
+        BeanModel model = getBeanModel(origin.getClass());
+        if (origin.getClass() != patch.getClass() || !model.isCopyable()) {
+            return patchTree(origin, patch, ignoredProperties);
+        }
+
+        List<String> ignored = Arrays.asList(ignoredProperties);
+
+        @SuppressWarnings("unchecked")
+        S patched = (S) copyBean(origin, model, Collections.emptyList());
+
+        for (BeanModel.Property property : model.properties) {
+            if (ignored.contains(property.name)) continue;
+
+            Object value = property.get(patch);
+            if (value != null) {
+                property.set(patched, value);
+            }
+        }
+
+        return patched;
+    }
+
+    private static boolean compareRoot(Object origin, Object other, String[] ignoredProperties, List<String> differences) {
+        if (origin == null && other == null) return true;
+        if (origin == null || other == null) return difference(differences, ROOT_PATH);
+
+        BeanModel model = getBeanModel(origin.getClass());
+        if (origin.getClass() == other.getClass() && model.isComparable()) {
+            return compareBeans("", origin, other, model, Arrays.asList(ignoredProperties), differences);
+        }
+
+        boolean isEqual = Objects.equals(toTree(origin, ignoredProperties), toTree(other, ignoredProperties));
+        return isEqual || difference(differences, ROOT_PATH);
+    }
+
+    private static boolean compareBeans(
+            String path, Object origin, Object other, BeanModel model, Collection<String> ignoredProperties, List<String> differences
+    ) {
+        boolean isEqual = true;
+
+        for (BeanModel.Property property : model.properties) {
+            if (ignoredProperties.contains(property.name)) continue;
+
+            if (!compareValues(propertyPath(path, property.name), property.get(origin), property.get(other), differences)) {
+                if (differences == null) return false;
+                isEqual = false;
+            }
+        }
+
+        return isEqual;
+    }
+
+    private static boolean compareValues(String path, Object origin, Object other, List<String> differences) {
+        if (origin == other) return true;
+        if (origin == null || other == null) return difference(differences, path);
+
+        Class<?> type = origin.getClass();
+
+        if (origin instanceof Map && other instanceof Map) {
+            return compareMaps(path, (Map<?, ?>) origin, (Map<?, ?>) other, differences);
+        }
+
+        if (origin instanceof Collection && other instanceof Collection) {
+            return compareIterables(path, (Collection<?>) origin, (Collection<?>) other, differences);
+        }
+
+        if (type == other.getClass()) {
+            if (SCALAR_TYPES.contains(type) || type.isEnum()) {
+                return origin.equals(other) || difference(differences, path);
+            }
+
+            if (origin instanceof Object[]) {
+                return compareIterables(path, Arrays.asList((Object[]) origin), Arrays.asList((Object[]) other), differences);
+            }
+
+            BeanModel model = getBeanModel(type);
+            if (model.isComparable()) {
+                return compareBeans(path, origin, other, model, Collections.emptyList(), differences);
+            }
+        }
+
+        boolean isEqual = Objects.equals(nonNullMapper.valueToTree(origin), nonNullMapper.valueToTree(other));
+        return isEqual || difference(differences, path);
+    }
+
+    private static boolean compareMaps(String path, Map<?, ?> origin, Map<?, ?> other, List<String> differences) {
+        if (!hasStringKeys(origin) || !hasStringKeys(other)) {
+            boolean isEqual = Objects.equals(nonNullMapper.valueToTree(origin), nonNullMapper.valueToTree(other));
+            return isEqual || difference(differences, path);
+        }
+
+        if (differences == null && origin.size() != other.size()) return false;
+
+        boolean isEqual = true;
+
+        for (Map.Entry<?, ?> entry : origin.entrySet()) {
+            String entryPath = propertyPath(path, (String) entry.getKey());
+            Object otherValue = other.get(entry.getKey());
+
+            boolean isEntryEqual = otherValue != null || other.containsKey(entry.getKey())
+                    ? compareValues(entryPath, entry.getValue(), otherValue, differences)
+                    : difference(differences, entryPath);
+
+            if (!isEntryEqual) {
+                if (differences == null) return false;
+                isEqual = false;
+            }
+        }
+
+        for (Object key : other.keySet()) {
+            if (!origin.containsKey(key)) {
+                isEqual = difference(differences, propertyPath(path, (String) key));
+            }
+        }
+
+        return isEqual;
+    }
+
+    private static boolean compareIterables(String path, Collection<?> origin, Collection<?> other, List<String> differences) {
+        if (origin.size() != other.size()) return difference(differences, path);
+
+        boolean isEqual = true;
+
+        Iterator<?> otherIterator = other.iterator();
+        int index = 0;
+        for (Object value : origin) {
+            if (!compareValues(path + "[" + index++ + "]", value, otherIterator.next(), differences)) {
+                if (differences == null) return false;
+                isEqual = false;
+            }
+        }
+
+        return isEqual;
+    }
+
+    private static Object copyBean(Object source, BeanModel model, Collection<String> ignoredProperties) {
+        Object target = model.newInstance();
+
+        for (BeanModel.Property property : model.properties) {
+            if (ignoredProperties.contains(property.name)) continue;
+
+            Object value = property.get(source);
+            if (value != null) {
+                property.set(target, value);
+            }
+        }
+
+        return target;
+    }
+
+    /**
+     * Copies a value into the given declared type, the same way Jackson would deserialize it
+     */
+    private static Object copyValue(Object value, JavaType type) {
+        if (value == null) return null;
+
+        Class<?> rawType = type.isPrimitive() ? ClassUtil.wrapperType(type.getRawClass()) : type.getRawClass();
+        Class<?> valueType = value.getClass();
+
+        if (rawType == Object.class) {
+            return copyUntypedValue(value);
+        }
+
+        if (rawType == valueType && (SCALAR_TYPES.contains(valueType) || valueType.isEnum())) {
+            return value;
+        }
+
+        if (value instanceof Collection && type.isCollectionLikeType()) {
+            Collection<Object> collection = newCollection(rawType);
+            if (collection != null) {
+                for (Object element : (Collection<?>) value) {
+                    collection.add(copyValue(element, type.getContentType()));
+                }
+                return collection;
+            }
+        }
+
+        if (value instanceof Map && type.isMapLikeType() && type.getKeyType().getRawClass() == String.class && hasStringKeys((Map<?, ?>) value)) {
+            Map<String, Object> map = newMap(rawType);
+            if (map != null) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    map.put((String) entry.getKey(), copyValue(entry.getValue(), type.getContentType()));
+                }
+                return map;
+            }
+        }
+
+        if (rawType == valueType) {
+            BeanModel model = getBeanModel(valueType);
+            if (model.isCopyable()) {
+                return copyBean(value, model, Collections.emptyList());
+            }
+        }
+
+        return convertTree(nonNullMapper.valueToTree(value), type);
+    }
+
+    private static Object copyUntypedValue(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Integer || value instanceof Double) {
+            return value;
+        }
+
+        if (value instanceof Map && hasStringKeys((Map<?, ?>) value)) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put((String) entry.getKey(), copyUntypedValue(entry.getValue()));
+            }
+            return map;
+        }
+
+        if (value instanceof Collection) {
+            List<Object> list = new ArrayList<>();
+            for (Object element : (Collection<?>) value) {
+                list.add(copyUntypedValue(element));
+            }
+            return list;
+        }
+
+        return convertTree(nonNullMapper.valueToTree(value), nonFailingMapper.constructType(Object.class));
+    }
+
+    private static Collection<Object> newCollection(Class<?> type) {
+        if (type == Collection.class || type == List.class || type == ArrayList.class) return new ArrayList<>();
+        if (type == Set.class || type == HashSet.class) return new HashSet<>();
+        if (type == LinkedHashSet.class) return new LinkedHashSet<>();
+
+        return null;
+    }
+
+    private static Map<String, Object> newMap(Class<?> type) {
+        if (type == Map.class || type == LinkedHashMap.class) return new LinkedHashMap<>();
+        if (type == HashMap.class) return new HashMap<>();
+
+        return null;
+    }
+
+    private static boolean hasStringKeys(Map<?, ?> map) {
+        for (Object key : map.keySet()) {
+            if (!(key instanceof String)) return false;
+        }
+        return true;
+    }
+
+    private static boolean difference(List<String> differences, String path) {
+        if (differences != null) {
+            differences.add(path);
+        }
+        return false;
+    }
+
+    private static String propertyPath(String path, String name) {
+        return path.isEmpty() ? name : path + "." + name;
+    }
+
+    private static JsonNode toTree(Object object, String[] ignoredProperties) {
+        JsonNode jsonNode = nonNullMapper.valueToTree(object);
+        ((ObjectNode) jsonNode).remove(Arrays.asList(ignoredProperties));
+        return jsonNode;
+    }
+
+    private static <T> T convertTree(JsonNode jsonNode, JavaType type) {
+        try {
+            return nonFailingMapper.readerFor(type).readValue(jsonNode);
+        } catch (IOException e) {
+            throw new ImportProcessingException(e);
+        }
+    }
+
+    private static <S, T> S patchTree(S origin, T patch, String[] ignoredProperties) {
+        S clonedOrigin = copy(origin);
+        JsonNode patchAsNode = toTree(patch, ignoredProperties);
+
+        try {
+            return nonFailingMapper.readerForUpdating(clonedOrigin).readValue(patchAsNode);
+        } catch (IOException e) {
+            throw new ImportProcessingException(e);
+        }
+    }
+
+    private static BeanModel getBeanModel(Class<?> type) {
+        return beanModels.computeIfAbsent(type, BeanModel::introspect);
+    }
+
+    private static final class BeanModel {
+        private static final BeanModel UNSUPPORTED = new BeanModel(Collections.emptyList(), false, null);
+
+        private final List<Property> properties;
+        private final boolean comparable;
+        private final AnnotatedConstructor defaultConstructor;
+
+        private BeanModel(List<Property> properties, boolean comparable, AnnotatedConstructor defaultConstructor) {
+            this.properties = properties;
+            this.comparable = comparable;
+            this.defaultConstructor = defaultConstructor;
+        }
+
+        boolean isComparable() {
+            return comparable;
+        }
+
+        boolean isCopyable() {
+            return defaultConstructor != null;
+        }
+
+        Object newInstance() {
+            try {
+                return defaultConstructor.call();
+            } catch (Exception e) {
+                throw new ImportProcessingException(e);
+            }
+        }
+
+        private static BeanModel introspect(Class<?> type) {
+            if (!isBeanType(type)) return UNSUPPORTED;
+
+            JavaType javaType = nonNullMapper.constructType(type);
+            BeanDescription serialization = nonNullMapper.getSerializationConfig().introspect(javaType);
+            BeanDescription deserialization = nonFailingMapper.getDeserializationConfig().introspect(javaType);
+
+            if (serialization.findJsonValueAccessor() != null
+                    || serialization.findAnyGetter() != null
+                    || serialization.getObjectIdInfo() != null
+                    || hasAnnotation(serialization.getClassInfo(), SERIALIZATION_ANNOTATIONS)) {
+                return UNSUPPORTED;
+            }
+
+            JsonInclude.Value classInclusion = serialization.findPropertyInclusion(JsonInclude.Value.empty());
+
+            Map<String, BeanPropertyDefinition> deserializationProperties = new HashMap<>();
+            for (BeanPropertyDefinition definition : deserialization.findProperties()) {
+                deserializationProperties.put(definition.getName(), definition);
+            }
+
+            List<Property> properties = new ArrayList<>();
+
+            for (BeanPropertyDefinition definition : serialization.findProperties()) {
+                if (!definition.couldSerialize()) continue;
+
+                AnnotatedMember accessor = definition.getAccessor();
+                JsonInclude.Value inclusion = classInclusion.withOverrides(definition.findInclusion());
+
+                if (accessor == null || hasAnnotation(accessor, SERIALIZATION_ANNOTATIONS) || !isSupportedInclusion(inclusion)) {
+                    return UNSUPPORTED;
+                }
+
+                AnnotatedMember mutator = findMutator(deserializationProperties.get(definition.getName()));
+
+                accessor.fixAccess(false);
+                if (mutator != null) {
+                    mutator.fixAccess(false);
+                }
+
+                boolean omitEmpty = inclusion.getValueInclusion() == JsonInclude.Include.NON_EMPTY;
+                properties.add(new Property(definition.getName(), accessor, mutator, omitEmpty));
+            }
+
+            AnnotatedConstructor defaultConstructor = isPlainDeserialization(deserialization) ? deserialization.findDefaultConstructor() : null;
+            if (defaultConstructor != null) {
+                defaultConstructor.fixAccess(false);
+            }
+
+            return new BeanModel(Collections.unmodifiableList(properties), true, defaultConstructor);
+        }
+
+        private static boolean isBeanType(Class<?> type) {
+            if (type.isPrimitive() || type.isArray() || type.isEnum() || type.isInterface()) return false;
+            if (Map.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type)) return false;
+
+            String name = type.getName();
+            return !name.startsWith("java.") && !name.startsWith("javax.") && !name.startsWith("com.fasterxml.");
+        }
+
+        private static boolean isPlainDeserialization(BeanDescription deserialization) {
+            if (deserialization.getObjectIdInfo() != null || hasAnnotation(deserialization.getClassInfo(), DESERIALIZATION_ANNOTATIONS)) {
+                return false;
+            }
+
+            for (AnnotatedConstructor constructor : deserialization.getConstructors()) {
+                if (constructor.hasAnnotation(JsonCreator.class) || constructor.getParameterCount() > 0 && hasPropertyParameters(constructor)) {
+                    return false;
+                }
+            }
+
+            for (AnnotatedMethod factory : deserialization.getFactoryMethods()) {
+                if (factory.hasAnnotation(JsonCreator.class)) return false;
+            }
+
+            return true;
+        }
+
+        private static boolean hasPropertyParameters(AnnotatedConstructor constructor) {
+            for (int i = 0; i < constructor.getParameterCount(); i++) {
+                if (!constructor.getParameter(i).hasAnnotation(JsonProperty.class)) return false;
+            }
+            return true;
+        }
+
+        private static boolean hasAnnotation(Annotated annotated, List<Class<? extends Annotation>> annotations) {
+            for (Class<? extends Annotation> annotation : annotations) {
+                if (annotated.hasAnnotation(annotation)) return true;
+            }
+            return false;
+        }
+
+        private static boolean isSupportedInclusion(JsonInclude.Value inclusion) {
+            JsonInclude.Include valueInclusion = inclusion.getValueInclusion();
+            JsonInclude.Include contentInclusion = inclusion.getContentInclusion();
+
+            return (valueInclusion == JsonInclude.Include.USE_DEFAULTS
+                    || valueInclusion == JsonInclude.Include.ALWAYS
+                    || valueInclusion == JsonInclude.Include.NON_NULL
+                    || valueInclusion == JsonInclude.Include.NON_EMPTY)
+                    && (contentInclusion == JsonInclude.Include.USE_DEFAULTS || contentInclusion == JsonInclude.Include.ALWAYS);
+        }
+
+        /**
+         * Returns a setter or field which can be assigned directly, or null if Jackson has to deserialize the property
+         */
+        private static AnnotatedMember findMutator(BeanPropertyDefinition definition) {
+            if (definition == null) return null;
+
+            AnnotatedMember mutator = definition.getMutator();
+            if (!(mutator instanceof AnnotatedMethod || mutator instanceof AnnotatedField) || hasAnnotation(mutator, DESERIALIZATION_ANNOTATIONS)) {
+                return null;
+            }
+
+            return mutator;
+        }
+
+        private static final class Property {
+            private final String name;
+            private final AnnotatedMember accessor;
+            private final AnnotatedMember mutator;
+            private final JavaType type;
+            private final boolean omitEmpty;
+
+            private Property(String name, AnnotatedMember accessor, AnnotatedMember mutator, boolean omitEmpty) {
+                this.name = name;
+                this.accessor = accessor;
+                this.mutator = mutator;
+                this.omitEmpty = omitEmpty;
+
+                if (mutator instanceof AnnotatedMethod) {
+                    this.type = ((AnnotatedMethod) mutator).getParameterType(0);
+                } else {
+                    this.type = mutator != null ? mutator.getType() : null;
+                }
+            }
+
+            /**
+             * Returns the property value, or null if the value would not be serialized
+             */
+            Object get(Object bean) {
+                Object value = accessor.getValue(bean);
+                return omitEmpty && isEmpty(value) ? null : value;
+            }
+
+            void set(Object bean, Object value) {
+                if (mutator != null) {
+                    mutator.setValue(bean, copyValue(value, type));
+                    return;
+                }
+
+                ObjectNode node = nonNullMapper.createObjectNode();
+                node.set(name, nonNullMapper.valueToTree(value));
+
+                try {
+                    nonFailingMapper.readerForUpdating(bean).readValue(node);
+                } catch (IOException e) {
+                    throw new ImportProcessingException(e);
+                }
+            }
+
+            private static boolean isEmpty(Object value) {
+                if (value instanceof String) return ((String) value).isEmpty();
+                if (value instanceof Collection) return ((Collection<?>) value).isEmpty();
+                if (value instanceof Map) return ((Map<?, ?>) value).isEmpty();
+                if (value instanceof Object[]) return ((Object[]) value).length == 0;
+
+                return value == null;
+            }
+        }
+    }
+}
@@ -29,7 +29,6 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.Objects;
 
 public class CloneUtil {
     private static final Logger logger = LoggerFactory.getLogger(CloneUtil.class);
@@ -38,11 +37,10 @@ public class CloneUtil {
     private static final ObjectMapper nonFailingMapper;
 
     static {
-        nonNullMapper = new ObjectMapper();
+        nonNullMapper = ObjectMapperUtil.create();
         nonNullMapper.setSerializationInclusion(Include.NON_NULL);
-        nonNullMapper.setDefaultMergeable(true);
 
-        nonFailingMapper = new ObjectMapper();
+        nonFailingMapper = ObjectMapperUtil.create();
         nonFailingMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     }
 
@@ -57,11 +55,16 @@ public class CloneUtil {
     public static <T, S> T deepClone(S object, Class<T> targetClass, String... ignoredProperties) {
         if (object == null) return null;
 
+        if (targetClass == null || targetClass == object.getClass()) {
+            @SuppressWarnings("unchecked")
+            T clone = (T) BeanDiffUtil.copy(object, ignoredProperties);
+            return clone;
+        }
+
         JsonNode jsonNode = nonNullMapper.valueToTree(object);
         removeIgnoredProperties(jsonNode, ignoredProperties);
 
-        Class<?> clazz = targetClass != null ? targetClass : object.getClass();
-        JavaType javaType = nonFailingMapper.constructType(clazz);
+        JavaType javaType = nonFailingMapper.constructType(targetClass);
 
         try {
             return nonFailingMapper.treeToValue(jsonNode, javaType);
@@ -75,36 +78,17 @@ public class CloneUtil {
      */
 
     public static <T, S> S patch(S origin, T patch, String... ignoredProperties) {
-        if (origin == null) return null;
-        if (patch == null) return origin;
-
-        S clonedOrigin = CloneUtil.deepClone(origin);
-        T clonedPatch = CloneUtil.deepClone(patch, ignoredProperties);
-
-        ObjectReader objectReader = nonFailingMapper.readerForUpdating(clonedOrigin);
-        JsonNode patchAsNode = nonNullMapper.valueToTree(clonedPatch);
-
-        try {
-            return objectReader.readValue(patchAsNode);
-        } catch (IOException e) {
-            throw new ImportProcessingException(e);
-        }
+        return BeanDiffUtil.patch(origin, patch, ignoredProperties);
     }
 
     public static <S, T> boolean deepEquals(S origin, T other, String... ignoredProperties) {
-        if (origin == null && other == null) return true;
-        if (origin == null || other == null) return false;
+        boolean ret = BeanDiffUtil.isEqual(origin, other, ignoredProperties);
 
-        JsonNode originJsonNode = nonNullMapper.valueToTree(origin);
-        JsonNode otherJsonNode = nonNullMapper.valueToTree(other);
-
-        removeIgnoredProperties(originJsonNode, ignoredProperties);
-        removeIgnoredProperties(otherJsonNode, ignoredProperties);
-
-        boolean ret = Objects.equals(originJsonNode, otherJsonNode);
-        logger.trace("objects.deepEquals: ret: {} | origin: {} | other: {} | ignoredProperties: {}",
-                ret, originJsonNode, otherJsonNode, ignoredProperties
-        );
+        if (logger.isTraceEnabled()) {
+            logger.trace("objects.deepEquals: ret: {} | differences: {} | ignoredProperties: {}",
+                    ret, BeanDiffUtil.diff(origin, other, ignoredProperties), ignoredProperties
+            );
+        }
 
         return ret;
     }
@@ -20,18 +20,50 @@
 
 package de.adorsys.keycloak.config.util;
 
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
 import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The encryptors derive their key from the password with PBKDF2, which is expensive, so they are created once per key and salt.
+ * They synchronize on their ciphers and can be shared between threads.
+ */
 public class CryptoUtil {
+    private static final Map<List<String>, TextEncryptor> textEncryptors = new ConcurrentHashMap<>();
+    private static final Map<List<String>, BytesEncryptor> bytesEncryptors = new ConcurrentHashMap<>();
+
     CryptoUtil() {
         throw new IllegalStateException("Utility class");
     }
 
     public static String encrypt(String data, String key, String salt) {
-        return Encryptors.text(key, salt).encrypt(data);
+        return getTextEncryptor(key, salt).encrypt(data);
+    }
+
+    /**
+     * Encrypts with AES-GCM, so a modified or truncated payload is detected on decryption.
+     */
+    public static byte[] encrypt(byte[] data, String key, String salt) {
+        return getBytesEncryptor(key, salt).encrypt(data);
     }
 
     public static String decrypt(String data, String key, String salt) {
-        return Encryptors.text(key, salt).decrypt(data);
+        return getTextEncryptor(key, salt).decrypt(data);
+    }
+
+    public static byte[] decrypt(byte[] data, String key, String salt) {
+        return getBytesEncryptor(key, salt).decrypt(data);
+    }
+
+    private static TextEncryptor getTextEncryptor(String key, String salt) {
+        return textEncryptors.computeIfAbsent(List.of(key, salt), k -> Encryptors.text(key, salt));
+    }
+
+    private static BytesEncryptor getBytesEncryptor(String key, String salt) {
+        return bytesEncryptors.computeIfAbsent(List.of(key, salt), k -> Encryptors.stronger(key, salt));
     }
 }
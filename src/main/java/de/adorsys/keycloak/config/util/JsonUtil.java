@@ -20,6 +20,7 @@
 
 package de.adorsys.keycloak.config.util;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.keycloak.config.exception.ImportProcessingException;
 
@@ -31,7 +32,7 @@ public class JsonUtil {
         throw new IllegalStateException("Utility class");
     }
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = ObjectMapperUtil.create();
 
     public static List<String> fromJson(String value) {
         try {
@@ -41,6 +42,14 @@ public class JsonUtil {
         }
     }
 
+    public static <T> T fromJson(byte[] value, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(value, type);
+        } catch (IOException e) {
+            throw new ImportProcessingException(e);
+        }
+    }
+
     public static String toJson(Object value) {
         try {
             return objectMapper.writeValueAsString(value);
@@ -48,4 +57,12 @@ public class JsonUtil {
             throw new ImportProcessingException(e);
         }
     }
+
+    public static byte[] toJsonBytes(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new ImportProcessingException(e);
+        }
+    }
 }
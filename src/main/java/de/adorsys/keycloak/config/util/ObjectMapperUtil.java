@@ -0,0 +1,46 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * Creates the object mappers of keycloak-config-cli. Their bean properties are accessed through generated lambdas instead of
+ * reflection, which makes (de)serializing large realms considerably cheaper.
+ */
+public class ObjectMapperUtil {
+    ObjectMapperUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static ObjectMapper create() {
+        return create(null);
+    }
+
+    /**
+     * @param factory e.g. a YAML factory, or null for JSON
+     */
+    public static ObjectMapper create(JsonFactory factory) {
+        return new ObjectMapper(factory).registerModule(new BlackbirdModule());
+    }
+}
@@ -21,6 +21,10 @@
 package de.adorsys.keycloak.config.util;
 
 import de.adorsys.keycloak.config.util.resteasy.CookieClientFilter;
+import de.adorsys.keycloak.config.util.resteasy.MetricsClientFilter;
+import de.adorsys.keycloak.config.util.resteasy.ObjectMapperContextResolver;
+import de.adorsys.keycloak.config.util.resteasy.RealmWriteClientFilter;
+import de.adorsys.keycloak.config.util.resteasy.ReauthenticatingHttpEngine;
 import org.jboss.resteasy.client.jaxrs.ResteasyClient;
 import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
 import org.jboss.resteasy.client.jaxrs.internal.ResteasyClientBuilderImpl;
@@ -29,16 +33,26 @@ import java.net.URL;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 public class ResteasyUtil {
     ResteasyUtil() {
         throw new IllegalStateException("Utility class");
     }
 
-    public static ResteasyClient getClient(boolean sslVerification, URL httpProxy, Duration connectTimeout, Duration readTimeout) {
+    /**
+     * @param metricsFilter   records the requests, if not null
+     * @param reauthenticator returns a new access token for one rejected by keycloak, see {@link ReauthenticatingHttpEngine}
+     * @param writeListener   is notified about writes to a realm, if not null, see {@link RealmWriteClientFilter}
+     */
+    public static ResteasyClient getClient(boolean sslVerification, URL httpProxy, Duration connectTimeout, Duration readTimeout,
+                                           int connectionPoolSize, MetricsClientFilter metricsFilter, UnaryOperator<String> reauthenticator,
+                                           Consumer<String> writeListener) {
         ResteasyClientBuilder clientBuilder = new ResteasyClientBuilderImpl();
         clientBuilder
-                .connectionPoolSize(10)
+                .connectionPoolSize(connectionPoolSize)
+                .maxPooledPerRoute(connectionPoolSize)
                 .connectTimeout(connectTimeout.get(ChronoUnit.NANOS), TimeUnit.NANOSECONDS)
                 .readTimeout(readTimeout.get(ChronoUnit.NANOS), TimeUnit.NANOSECONDS);
 
@@ -62,6 +76,17 @@ public class ResteasyUtil {
         }
 
         clientBuilder.register(new CookieClientFilter());
+        clientBuilder.register(new ObjectMapperContextResolver());
+
+        if (metricsFilter != null) {
+            clientBuilder.register(metricsFilter);
+        }
+
+        if (writeListener != null) {
+            clientBuilder.register(new RealmWriteClientFilter(writeListener));
+        }
+
+        clientBuilder.httpEngine(new ReauthenticatingHttpEngine.Builder(reauthenticator).resteasyClientBuilder(clientBuilder).build());
 
         return clientBuilder.build();
     }
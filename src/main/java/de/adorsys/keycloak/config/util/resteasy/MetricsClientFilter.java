@@ -0,0 +1,258 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.util.resteasy;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Records count, bytes and latency of the requests to keycloak per HTTP method and templated path, e.g.
+ * {@code GET /admin/realms/{realm}/clients/{id}}. The latency is measured until the response headers are received.
+ */
+public class MetricsClientFilter implements ClientRequestFilter, ClientResponseFilter, WriterInterceptor {
+    /**
+     * upper bounds of the latency histogram buckets in milliseconds, the last bucket is unbounded
+     */
+    public static final long[] LATENCY_BUCKETS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    // a path segment following one of these is an id or a name
+    private static final Set<String> COLLECTIONS = Set.of(
+            "realms", "clients", "roles", "roles-by-id", "groups", "users", "client-scopes", "components", "flows",
+            "executions", "config", "required-actions", "instances", "models", "resource", "policy", "permission", "scope",
+            "default-default-client-scopes", "default-optional-client-scopes", "default-client-scopes", "optional-client-scopes",
+            "default-groups", "federated-identity", "credentials", "sessions", "client-templates", "localization", "mappers"
+    );
+
+    // the remaining path segments following this one are a group path
+    private static final String GROUP_BY_PATH = "group-by-path";
+
+    private static final Set<String> EXECUTION_TYPES = Set.of("execution", "flow");
+
+    private static final String START_PROPERTY = MetricsClientFilter.class.getName() + ".start";
+    private static final String REQUEST_BYTES_PROPERTY = MetricsClientFilter.class.getName() + ".requestBytes";
+
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public void filter(ClientRequestContext requestContext) {
+        requestContext.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+        Object start = requestContext.getProperty(START_PROPERTY);
+        if (!(start instanceof Long)) return;
+
+        long nanos = System.nanoTime() - (Long) start;
+
+        String endpoint = requestContext.getMethod() + " " + toPathTemplate(requestContext.getUri().getRawPath());
+        EndpointMetrics metrics = endpoints.computeIfAbsent(endpoint, key -> new EndpointMetrics());
+
+        metrics.record(nanos, responseContext.getStatus());
+
+        Object requestBytes = requestContext.getProperty(REQUEST_BYTES_PROPERTY);
+        if (requestBytes instanceof LongAdder) {
+            metrics.requestBytes.add(((LongAdder) requestBytes).sum());
+        }
+
+        if (responseContext.hasEntity()) {
+            responseContext.setEntityStream(new CountingInputStream(responseContext.getEntityStream(), metrics.responseBytes));
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        LongAdder requestBytes = new LongAdder();
+        context.setProperty(REQUEST_BYTES_PROPERTY, requestBytes);
+        context.setOutputStream(new CountingOutputStream(context.getOutputStream(), requestBytes));
+
+        context.proceed();
+    }
+
+    /**
+     * metrics since the start of the application, by HTTP method and templated path
+     */
+    public Map<String, EndpointMetrics> getEndpoints() {
+        return Collections.unmodifiableMap(endpoints);
+    }
+
+    static String toPathTemplate(String path) {
+        String[] segments = path.split("/", -1);
+
+        for (int index = 1; index < segments.length; index++) {
+            String collection = segments[index - 1];
+            if (GROUP_BY_PATH.equals(collection)) {
+                return String.join("/", Arrays.copyOf(segments, index)) + "/{path}";
+            }
+
+            if (segments[index].isEmpty() || !COLLECTIONS.contains(collection)) continue;
+
+            // POST .../executions/execution and .../executions/flow add executions to a flow
+            if ("executions".equals(collection) && EXECUTION_TYPES.contains(segments[index])) continue;
+
+            segments[index] = "realms".equals(collection) ? "{realm}" : "{id}";
+        }
+
+        return String.join("/", segments);
+    }
+
+    public static class EndpointMetrics {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final LongAdder[] buckets = new LongAdder[LATENCY_BUCKETS.length + 1];
+
+        EndpointMetrics() {
+            for (int index = 0; index < buckets.length; index++) {
+                buckets[index] = new LongAdder();
+            }
+        }
+
+        void record(long nanos, int status) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+
+            if (status >= 400) {
+                errors.increment();
+            }
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKETS.length && millis > LATENCY_BUCKETS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * responses with a status of 400 or above
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public long getRequestBytes() {
+            return requestBytes.sum();
+        }
+
+        /**
+         * bytes of the response bodies read so far
+         */
+        public long getResponseBytes() {
+            return responseBytes.sum();
+        }
+
+        /**
+         * number of requests per bucket of {@link #LATENCY_BUCKETS}, not cumulative
+         */
+        public long[] getBuckets() {
+            long[] counts = new long[buckets.length];
+            for (int index = 0; index < buckets.length; index++) {
+                counts[index] = buckets[index].sum();
+            }
+
+            return counts;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private final LongAdder bytes;
+
+        CountingOutputStream(OutputStream outputStream, LongAdder bytes) {
+            super(outputStream);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes.increment();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes.add(len);
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private final LongAdder bytes;
+
+        CountingInputStream(InputStream inputStream, LongAdder bytes) {
+            super(inputStream);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                bytes.increment();
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) {
+                bytes.add(read);
+            }
+
+            return read;
+        }
+    }
+}
@@ -18,16 +18,22 @@
  * ---license-end
  */
 
-package de.adorsys.keycloak.config.model;
+package de.adorsys.keycloak.config.util.resteasy;
 
-import org.apache.commons.lang3.tuple.MutablePair;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.adorsys.keycloak.config.util.ObjectMapperUtil;
 
-public class ImportResource extends MutablePair<String, String> {
-    public ImportResource(String key, String value) {
-        super(key, value);
-    }
+import javax.ws.rs.ext.ContextResolver;
+
+/**
+ * Provides the object mapper for the JSON bodies of the requests to keycloak. Without it, RESTEasy would use a plain
+ * object mapper, see {@link ObjectMapperUtil}.
+ */
+public class ObjectMapperContextResolver implements ContextResolver<ObjectMapper> {
+    private final ObjectMapper objectMapper = ObjectMapperUtil.create();
 
-    public String getFilename() {
-        return getKey();
+    @Override
+    public ObjectMapper getContext(Class<?> type) {
+        return objectMapper;
     }
 }
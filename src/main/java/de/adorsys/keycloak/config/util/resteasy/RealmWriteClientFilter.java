@@ -0,0 +1,77 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.util.resteasy;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+
+/**
+ * Notifies a listener about every write through the admin API with the name of the affected realm, or null if the write isn't
+ * bound to a single realm, like the creation of a realm. The listener is notified before the request is sent and once more after
+ * the response arrived, so nothing read while the write is in flight survives it.
+ */
+public class RealmWriteClientFilter implements ClientRequestFilter, ClientResponseFilter {
+    private static final Set<String> READ_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final Consumer<String> listener;
+
+    public RealmWriteClientFilter(Consumer<String> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext) {
+        notifyListener(requestContext);
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+        notifyListener(requestContext);
+    }
+
+    private void notifyListener(ClientRequestContext requestContext) {
+        if (READ_METHODS.contains(requestContext.getMethod())) return;
+
+        String[] segments = requestContext.getUri().getRawPath().split("/");
+
+        for (int index = 0; index + 1 < segments.length; index++) {
+            if ("admin".equals(segments[index]) && "realms".equals(segments[index + 1])) {
+                listener.accept(getRealmName(segments, index + 2));
+                return;
+            }
+        }
+    }
+
+    private static String getRealmName(String[] segments, int index) {
+        if (index >= segments.length || segments[index].isEmpty()) {
+            return null;
+        }
+
+        return URLDecoder.decode(segments[index], StandardCharsets.UTF_8);
+    }
+}
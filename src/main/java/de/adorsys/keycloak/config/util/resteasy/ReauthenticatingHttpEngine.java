@@ -0,0 +1,131 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.util.resteasy;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.jboss.resteasy.client.jaxrs.ClientHttpEngine;
+import org.jboss.resteasy.client.jaxrs.ClientHttpEngineBuilder;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient43Engine;
+import org.jboss.resteasy.client.jaxrs.engines.ClientHttpEngineBuilder43;
+import org.jboss.resteasy.client.jaxrs.internal.ClientInvocation;
+
+import java.util.function.UnaryOperator;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+/**
+ * Sends a request once more with a new access token, if keycloak rejected its bearer token with 401. The request has not been
+ * processed in that case, so this is safe for every method. Filters only see the final response.
+ * <p>
+ * RESTEasy expects the engine of a client to be an apache engine, so this extends it instead of wrapping one.
+ */
+public class ReauthenticatingHttpEngine extends ApacheHttpClient43Engine {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final UnaryOperator<String> reauthenticator;
+
+    /**
+     * @param reauthenticator returns a new access token for a rejected one, or null if there is none
+     */
+    public ReauthenticatingHttpEngine(HttpClient httpClient, UnaryOperator<String> reauthenticator) {
+        super(httpClient, true);
+        this.reauthenticator = reauthenticator;
+    }
+
+    @Override
+    public Response invoke(Invocation request) {
+        Response response = send(request);
+        if (response.getStatus() != Response.Status.UNAUTHORIZED.getStatusCode() || !(request instanceof ClientInvocation)) {
+            return response;
+        }
+
+        MultivaluedMap<String, Object> headers = ((ClientInvocation) request).getHeaders().getHeaders();
+        Object authorization = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        if (!(authorization instanceof String) || !((String) authorization).startsWith(BEARER_PREFIX)) {
+            return response;
+        }
+
+        String token = reauthenticator.apply(((String) authorization).substring(BEARER_PREFIX.length()));
+        if (token == null) {
+            return response;
+        }
+
+        response.close();
+        headers.putSingle(HttpHeaders.AUTHORIZATION, BEARER_PREFIX + token);
+
+        return send(request);
+    }
+
+    protected Response send(Invocation request) {
+        return super.invoke(request);
+    }
+
+    /**
+     * Configures the engine like {@link ClientHttpEngineBuilder43} does for the default one.
+     */
+    public static class Builder extends ClientHttpEngineBuilder43 {
+        private final UnaryOperator<String> reauthenticator;
+        private ResteasyClientBuilder clientBuilder;
+
+        public Builder(UnaryOperator<String> reauthenticator) {
+            this.reauthenticator = reauthenticator;
+        }
+
+        @Override
+        public ClientHttpEngineBuilder resteasyClientBuilder(ResteasyClientBuilder resteasyClientBuilder) {
+            this.clientBuilder = resteasyClientBuilder;
+            return super.resteasyClientBuilder(resteasyClientBuilder);
+        }
+
+        @Override
+        protected ClientHttpEngine createEngine(HttpClientConnectionManager connectionManager, RequestConfig.Builder requestConfigBuilder,
+                                                HttpHost defaultProxy, int responseBufferSize, HostnameVerifier verifier, SSLContext context) {
+            requestConfigBuilder.setProxy(defaultProxy);
+
+            HttpClientBuilder httpClientBuilder = HttpClientBuilder.create()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(requestConfigBuilder.build())
+                    .disableContentCompression();
+            if (!clientBuilder.isCookieManagementEnabled()) {
+                httpClientBuilder.disableCookieManagement();
+            }
+            if (clientBuilder.isDisableAutomaticRetries()) {
+                httpClientBuilder.disableAutomaticRetries();
+            }
+
+            ReauthenticatingHttpEngine engine = new ReauthenticatingHttpEngine(httpClientBuilder.build(), reauthenticator);
+            engine.setResponseBufferSize(responseBufferSize);
+            engine.setHostnameVerifier(verifier);
+            engine.setSslContext(context);
+            engine.setFollowRedirects(clientBuilder.isFollowRedirects());
+            return engine;
+        }
+    }
+}
@@ -30,6 +30,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.Duration;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
@@ -53,6 +55,7 @@ import static org.hamcrest.Matchers.is;
         "import.var-substitution.suffix=}",
         "import.cache.enabled=false",
         "import.cache.key=custom",
+        "import.cache.sections=true",
         "import.remote-state.enabled=false",
         "import.remote-state.encryption-key=password",
         "import.remote-state.encryption-salt=0123456789ABCDEFabcdef",
@@ -72,6 +75,20 @@ import static org.hamcrest.Matchers.is;
         "import.behaviors.sync-user-federation=true",
         "import.behaviors.remove-default-role-from-user=true",
         "import.behaviors.skip-attributes-for-federated-user=true",
+        "import.behaviors.user-batch-size=500",
+        "import.behaviors.create-realm-in-one-request=true",
+        "import.behaviors.client-authorization-batch-size=200",
+        "import.concurrency.stages=2",
+        "import.concurrency.realms=3",
+        "import.concurrency.tasks=5",
+        "import.concurrency.read-ttl=2s",
+        "import.metrics.enabled=true",
+        "import.metrics.json-file=metrics.json",
+        "import.metrics.prometheus-file=metrics.prom",
+        "import.watch.enabled=true",
+        "import.watch.poll-interval=30s",
+        "import.watch.delay=1s",
+        "import.watch.port=8081",
 })
 class ImportConfigPropertiesTest {
 
@@ -93,6 +110,7 @@ class ImportConfigPropertiesTest {
         assertThat(properties.getVarSubstitution().getSuffix(), is("}"));
         assertThat(properties.getCache().isEnabled(), is(false));
         assertThat(properties.getCache().getKey(), is("custom"));
+        assertThat(properties.getCache().isSections(), is(true));
         assertThat(properties.getRemoteState().isEnabled(), is(false));
         assertThat(properties.getRemoteState().getEncryptionKey(), is("password"));
         assertThat(properties.getRemoteState().getEncryptionSalt(), is("0123456789ABCDEFabcdef"));
@@ -112,6 +130,20 @@ class ImportConfigPropertiesTest {
         assertThat(properties.getBehaviors().isSyncUserFederation(), is(true));
         assertThat(properties.getBehaviors().isRemoveDefaultRoleFromUser(), is(true));
         assertThat(properties.getBehaviors().isSkipAttributesForFederatedUser(), is(true));
+        assertThat(properties.getBehaviors().getUserBatchSize(), is(500));
+        assertThat(properties.getBehaviors().isCreateRealmInOneRequest(), is(true));
+        assertThat(properties.getBehaviors().getClientAuthorizationBatchSize(), is(200));
+        assertThat(properties.getConcurrency().getStages(), is(2));
+        assertThat(properties.getConcurrency().getRealms(), is(3));
+        assertThat(properties.getConcurrency().getTasks(), is(5));
+        assertThat(properties.getConcurrency().getReadTtl(), is(Duration.ofSeconds(2)));
+        assertThat(properties.getMetrics().isEnabled(), is(true));
+        assertThat(properties.getMetrics().getJsonFile(), is("metrics.json"));
+        assertThat(properties.getMetrics().getPrometheusFile(), is("metrics.prom"));
+        assertThat(properties.getWatch().isEnabled(), is(true));
+        assertThat(properties.getWatch().getPollInterval(), is(Duration.ofSeconds(30)));
+        assertThat(properties.getWatch().getDelay(), is(Duration.ofSeconds(1)));
+        assertThat(properties.getWatch().getPort(), is(8081));
     }
 
     @EnableConfigurationProperties(ImportConfigProperties.class)
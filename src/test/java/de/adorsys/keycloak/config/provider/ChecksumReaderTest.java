@@ -0,0 +1,52 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+class ChecksumReaderTest {
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "{\"realm\": \"test\"}",
+            "umlauts äöü and emoji 😀😀",
+            "lone surrogate \uD83D",
+    })
+    void shouldComputeSameChecksumAsDigestUtils(String content) throws IOException {
+        try (ChecksumReader reader = new ChecksumReader(new StringReader(content))) {
+            char[] buffer = new char[3];
+            while (reader.read(buffer, 0, buffer.length) >= 0) {
+                // consume all
+            }
+
+            assertThat(reader.getLength(), is((long) content.length()));
+            assertThat(reader.getChecksum(), is(DigestUtils.sha256Hex(content)));
+        }
+    }
+}
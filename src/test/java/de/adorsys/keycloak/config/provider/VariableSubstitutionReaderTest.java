@@ -0,0 +1,109 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import org.apache.commons.text.StringSubstitutor;
+import org.apache.commons.text.lookup.StringLookupFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VariableSubstitutionReaderTest {
+    private static final Map<String, String> VARIABLES = Map.of(
+            "name", "value",
+            "object", "{\"key\": \"value\"}",
+            "inner", "name",
+            "recursive", "$(name)"
+    );
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "no variables",
+            "$(name)",
+            "before $(name) after",
+            "\"$(object)\" $(object)",
+            "$$(name) is escaped, $$$(name) as well",
+            "nested $($(inner))",
+            "$(recursive)",
+            "unclosed $(name",
+            "trailing $",
+            "$(name)$(name)$",
+    })
+    void shouldSubstituteLikeStringSubstitutor(String content) throws IOException {
+        StringSubstitutor substitutor = createSubstitutor(false);
+
+        assertThat(readAll(content, substitutor), is(substitutor.replace(content)));
+    }
+
+    @Test
+    void shouldSubstituteVariablesAcrossChunks() throws IOException {
+        StringSubstitutor substitutor = createSubstitutor(false);
+        String content = "x".repeat(8190) + "$(name)" + "y".repeat(20000) + "$$(name)";
+
+        assertThat(readAll(content, substitutor), is(substitutor.replace(content)));
+    }
+
+    @Test
+    void shouldKeepSubstitutionError() {
+        StringSubstitutor substitutor = createSubstitutor(true);
+        VariableSubstitutionReader reader = createReader("$(unknown)", substitutor);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> reader.read(new char[16]));
+
+        assertThat(reader.getSubstitutionError(), is(error));
+    }
+
+    private static String readAll(String content, StringSubstitutor substitutor) throws IOException {
+        StringBuilder result = new StringBuilder();
+
+        try (Reader reader = createReader(content, substitutor)) {
+            char[] buffer = new char[7];
+            int count;
+            while ((count = reader.read(buffer, 0, buffer.length)) >= 0) {
+                result.append(buffer, 0, count);
+            }
+        }
+
+        return result.toString();
+    }
+
+    private static VariableSubstitutionReader createReader(String content, StringSubstitutor substitutor) {
+        return new VariableSubstitutionReader(new StringReader(content), substitutor, "$(", ")", true);
+    }
+
+    private static StringSubstitutor createSubstitutor(boolean undefinedIsError) {
+        return new StringSubstitutor(StringLookupFactory.INSTANCE.mapStringLookup(VARIABLES))
+                .setVariablePrefix("$(")
+                .setVariableSuffix(")")
+                .setEnableSubstitutionInVariables(true)
+                .setEnableUndefinedVariableException(undefinedIsError);
+    }
+}
@@ -0,0 +1,116 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportConcurrencyProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadCoalescerTest {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @Timeout(10)
+    void shouldShareReadInFlight() throws Exception {
+        ReadCoalescer readCoalescer = createReadCoalescer(Duration.ZERO);
+        AtomicReference<Thread> waiter = new AtomicReference<>();
+        CompletableFuture<String> waiterResult = new CompletableFuture<>();
+
+        String result = readCoalescer.read("realm", "clients?clientId=test", () -> {
+            Thread thread = new Thread(() -> waiterResult.complete(readCoalescer.read("realm", "clients?clientId=test", this::load)));
+            waiter.set(thread);
+            thread.start();
+
+            while (thread.getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+
+            return load();
+        });
+
+        assertThat(result, is("value-1"));
+        assertThat(waiterResult.get(), is("value-1"));
+        assertThat(loads.get(), is(1));
+
+        waiter.get().join();
+        assertThat(readCoalescer.read("realm", "clients?clientId=test", this::load), is("value-2"));
+    }
+
+    @Test
+    void shouldShareResultWithinTtl() {
+        ReadCoalescer readCoalescer = createReadCoalescer(Duration.ofMinutes(1));
+
+        assertThat(readCoalescer.read("realm", "roles/admin", this::load), is("value-1"));
+        assertThat(readCoalescer.read("realm", "roles/admin", this::load), is("value-1"));
+        assertThat(readCoalescer.read("realm", "roles/user", this::load), is("value-2"));
+        assertThat(readCoalescer.read("other", "roles/admin", this::load), is("value-3"));
+    }
+
+    @Test
+    void shouldDiscardResultsOnInvalidate() {
+        ReadCoalescer readCoalescer = createReadCoalescer(Duration.ofMinutes(1));
+
+        readCoalescer.read("realm", "roles/admin", this::load);
+        readCoalescer.read("other", "roles/admin", this::load);
+
+        readCoalescer.invalidate("realm");
+        assertThat(readCoalescer.read("realm", "roles/admin", this::load), is("value-3"));
+        assertThat(readCoalescer.read("other", "roles/admin", this::load), is("value-2"));
+
+        readCoalescer.invalidate(null);
+        assertThat(readCoalescer.read("other", "roles/admin", this::load), is("value-4"));
+    }
+
+    @Test
+    void shouldNotShareFailures() {
+        ReadCoalescer readCoalescer = createReadCoalescer(Duration.ofMinutes(1));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> readCoalescer.read("realm", "roles/admin", () -> {
+            throw new IllegalStateException("unavailable");
+        }));
+
+        assertThat(error.getMessage(), is("unavailable"));
+        assertThat(readCoalescer.read("realm", "roles/admin", this::load), is("value-1"));
+    }
+
+    private String load() {
+        return "value-" + loads.incrementAndGet();
+    }
+
+    private static ReadCoalescer createReadCoalescer(Duration readTtl) {
+        ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+        when(importConfigProperties.getConcurrency()).thenReturn(new ImportConcurrencyProperties(1, 1, 1, readTtl));
+
+        return new ReadCoalescer(importConfigProperties);
+    }
+}
@@ -0,0 +1,112 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.mockito.ArgumentCaptor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RealmAttributeBufferTest {
+    private static final String REALM_NAME = "realm";
+
+    private final Map<String, String> remoteAttributes = new HashMap<>();
+    private RealmRepository realmRepository;
+    private RealmAttributeBuffer realmAttributeBuffer;
+
+    @BeforeEach
+    void setUp() {
+        remoteAttributes.put("custom", "value");
+
+        realmRepository = mock(RealmRepository.class);
+        when(realmRepository.get(REALM_NAME)).thenAnswer(invocation -> createRealm());
+        when(realmRepository.fetch(REALM_NAME)).thenAnswer(invocation -> createRealm());
+
+        realmAttributeBuffer = new RealmAttributeBuffer(realmRepository);
+    }
+
+    @Test
+    void shouldWriteBufferedAttributesWithOneUpdate() {
+        realmAttributeBuffer.open(REALM_NAME);
+        realmAttributeBuffer.putAll(REALM_NAME, Map.of("state-0", "a"));
+        realmAttributeBuffer.putAll(REALM_NAME, Map.of("checksum", "b"));
+
+        verify(realmRepository, never()).update(any());
+        assertThat(realmAttributeBuffer.getAttributes(REALM_NAME), hasEntry("checksum", "b"));
+
+        realmAttributeBuffer.flush(REALM_NAME);
+        realmAttributeBuffer.close(REALM_NAME);
+
+        ArgumentCaptor<RealmRepresentation> realm = ArgumentCaptor.forClass(RealmRepresentation.class);
+        verify(realmRepository, times(1)).update(realm.capture());
+        assertThat(realm.getValue().getAttributes(), is(Map.of("custom", "value", "state-0", "a", "checksum", "b")));
+    }
+
+    @Test
+    void shouldNotUpdateUnchangedAttributes() {
+        realmAttributeBuffer.open(REALM_NAME);
+        realmAttributeBuffer.putAll(REALM_NAME, Map.of("custom", "value"));
+        realmAttributeBuffer.flush(REALM_NAME);
+
+        verify(realmRepository, never()).update(any());
+    }
+
+    @Test
+    void shouldFailOnConcurrentChange() {
+        realmAttributeBuffer.open(REALM_NAME);
+        realmAttributeBuffer.putAll(REALM_NAME, Map.of("custom", "mine", "checksum", "b"));
+
+        remoteAttributes.put("custom", "theirs");
+
+        KeycloakRepositoryException thrown = assertThrows(KeycloakRepositoryException.class, () -> realmAttributeBuffer.flush(REALM_NAME));
+        assertThat(thrown.getMessage(), is("Cannot update attributes [custom] of realm 'realm', they were changed during the import"));
+        verify(realmRepository, never()).update(any());
+    }
+
+    @Test
+    void shouldWriteDirectlyWithoutOpenBuffer() {
+        realmAttributeBuffer.putAll(REALM_NAME, Map.of("checksum", "b"));
+
+        verify(realmRepository, times(1)).update(any());
+    }
+
+    private RealmRepresentation createRealm() {
+        RealmRepresentation realm = new RealmRepresentation();
+        realm.setRealm(REALM_NAME);
+        realm.setAttributes(new HashMap<>(remoteAttributes));
+        return realm;
+    }
+}
@@ -0,0 +1,79 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.provider.KeycloakProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.RealmRepresentation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Answers.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RealmRepositoryTest {
+    private static final String REALM_NAME = "realm";
+
+    private RealmResource realmResource;
+    private RealmRepository realmRepository;
+
+    @BeforeEach
+    void setUp() {
+        realmResource = mock(RealmResource.class);
+        when(realmResource.toRepresentation()).thenAnswer(invocation -> {
+            RealmRepresentation realm = new RealmRepresentation();
+            realm.setRealm(REALM_NAME);
+            realm.setDisplayName("display name");
+            return realm;
+        });
+
+        KeycloakProvider keycloakProvider = mock(KeycloakProvider.class, RETURNS_DEEP_STUBS);
+        when(keycloakProvider.getInstance().realms().realm(REALM_NAME)).thenReturn(realmResource);
+
+        realmRepository = new RealmRepository(keycloakProvider);
+    }
+
+    @Test
+    void shouldFetchRealmOncePerWriteWhileCacheIsOpen() {
+        realmRepository.openCache(REALM_NAME);
+
+        realmRepository.get(REALM_NAME).setDisplayName("changed copy");
+        assertThat(realmRepository.get(REALM_NAME).getDisplayName(), is("display name"));
+        verify(realmResource, times(1)).toRepresentation();
+
+        long version = realmRepository.getVersion(REALM_NAME);
+        realmRepository.update(realmRepository.get(REALM_NAME));
+        assertThat(realmRepository.getVersion(REALM_NAME), is(version + 1));
+
+        realmRepository.get(REALM_NAME);
+        realmRepository.get(REALM_NAME);
+        verify(realmResource, times(2)).toRepresentation();
+
+        realmRepository.closeCache(REALM_NAME);
+        realmRepository.get(REALM_NAME);
+        verify(realmResource, times(3)).toRepresentation();
+    }
+}
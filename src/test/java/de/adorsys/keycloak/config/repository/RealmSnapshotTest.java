@@ -0,0 +1,78 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.RealmRepresentation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RealmSnapshotTest {
+    private final RealmResource realmResource = mock(RealmResource.class);
+    private final RealmSnapshot snapshot = new RealmSnapshot(() -> realmResource);
+
+    @Test
+    void shouldExportEachVariantOnce() {
+        when(realmResource.partialExport(true, true)).thenAnswer(invocation -> new RealmRepresentation());
+        when(realmResource.partialExport(false, false)).thenAnswer(invocation -> new RealmRepresentation());
+
+        RealmRepresentation full = snapshot.getExport(true, true);
+        RealmRepresentation authentication = snapshot.getExport(false, false);
+
+        assertThat(snapshot.getExport(true, true), sameInstance(full));
+        assertThat(snapshot.getExport(false, false), sameInstance(authentication));
+        verify(realmResource, times(1)).partialExport(true, true);
+        verify(realmResource, times(1)).partialExport(false, false);
+    }
+
+    @Test
+    void shouldDropExportsWithContentOnWrite() {
+        when(realmResource.partialExport(true, true)).thenAnswer(invocation -> new RealmRepresentation());
+        when(realmResource.partialExport(false, false)).thenAnswer(invocation -> new RealmRepresentation());
+
+        RealmRepresentation full = snapshot.getExport(true, true);
+        RealmRepresentation authentication = snapshot.getExport(false, false);
+
+        snapshot.getClients().put(new ClientRepresentation());
+
+        assertThat(snapshot.getExport(true, true), not(sameInstance(full)));
+        assertThat(snapshot.getExport(false, false), sameInstance(authentication));
+    }
+
+    @Test
+    void shouldDropAllExportsOnAuthenticationWrite() {
+        when(realmResource.partialExport(false, false)).thenAnswer(invocation -> new RealmRepresentation());
+
+        RealmRepresentation authentication = snapshot.getExport(false, false);
+
+        snapshot.invalidateAuthentication();
+
+        assertThat(snapshot.getExport(false, false), not(sameInstance(authentication)));
+    }
+}
@@ -0,0 +1,107 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.RoleRepresentation;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.core.Is.is;
+
+class SnapshotIndexTest {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SnapshotIndex<RoleRepresentation> createIndex() {
+        return new SnapshotIndex<>(
+                () -> {
+                    loads.incrementAndGet();
+                    return List.of(role("1", "admin"), role("2", "user"));
+                },
+                RoleRepresentation::getId, RoleRepresentation::getName
+        );
+    }
+
+    @Test
+    void shouldLoadOnceOnFirstAccess() {
+        SnapshotIndex<RoleRepresentation> index = createIndex();
+        assertThat(loads.get(), is(0));
+
+        assertThat(index.findByPrimaryKey("1").isPresent(), is(true));
+        assertThat(index.findBySecondaryKey("user").isPresent(), is(true));
+        assertThat(index.findBySecondaryKey("missing").isPresent(), is(false));
+        assertThat(index.getAll(), hasSize(2));
+
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    void shouldApplyWrites() {
+        SnapshotIndex<RoleRepresentation> index = createIndex();
+        index.getAll();
+
+        index.put(role("3", "guest"));
+        index.put(role("2", "member"));
+        index.remove("1");
+
+        assertThat(index.findBySecondaryKey("guest").isPresent(), is(true));
+        assertThat(index.findBySecondaryKey("member").isPresent(), is(true));
+        assertThat(index.findBySecondaryKey("user").isPresent(), is(false));
+        assertThat(index.findBySecondaryKey("admin").isPresent(), is(false));
+        assertThat(index.getAll(), hasSize(2));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    void shouldIgnoreWritesBeforeLoad() {
+        SnapshotIndex<RoleRepresentation> index = createIndex();
+
+        index.put(role("3", "guest"));
+        index.remove("1");
+
+        assertThat(index.findBySecondaryKey("guest").isPresent(), is(false));
+        assertThat(index.findBySecondaryKey("admin").isPresent(), is(true));
+    }
+
+    @Test
+    void shouldReloadAfterInvalidate() {
+        SnapshotIndex<RoleRepresentation> index = createIndex();
+        index.getAll();
+        index.remove("1");
+
+        index.invalidate();
+
+        assertThat(index.getAll().stream().map(RoleRepresentation::getName).collect(Collectors.toList()), contains("admin", "user"));
+        assertThat(loads.get(), is(2));
+    }
+
+    private static RoleRepresentation role(String id, String name) {
+        RoleRepresentation role = new RoleRepresentation();
+        role.setId(id);
+        role.setName(name);
+        return role;
+    }
+}
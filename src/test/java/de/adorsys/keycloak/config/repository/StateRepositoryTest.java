@@ -0,0 +1,177 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.util.CryptoUtil;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.RealmRepresentation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StateRepositoryTest {
+    private static final String REALM_NAME = "realm";
+    private static final String SALT = "8488890B3D6473AE1B6BF0829DA959B3";
+
+    private final Map<String, String> remoteAttributes = new HashMap<>();
+    private int realmUpdates;
+
+    @Test
+    void shouldReadWrittenState() {
+        List<String> clients = createNames("client", 1000);
+
+        StateRepository stateRepository = createStateRepository(null);
+        stateRepository.setState(REALM_NAME, "clients", clients);
+        stateRepository.setState(REALM_NAME, "roles-realm", List.of("role"));
+        stateRepository.update(createRealmImport());
+
+        assertThat(remoteAttributes, hasKey("de.adorsys.keycloak.config.remote-state-default"));
+        assertThat(remoteAttributes.size(), lessThan(20));
+
+        StateRepository reloadedRepository = createStateRepository(null);
+        assertThat(reloadedRepository.getState(REALM_NAME, "clients"), equalTo(clients));
+        assertThat(reloadedRepository.getState(REALM_NAME, "roles-realm"), equalTo(List.of("role")));
+        assertThat(reloadedRepository.getState(REALM_NAME, "components"), is(empty()));
+    }
+
+    @Test
+    void shouldReadWrittenEncryptedState() {
+        StateRepository stateRepository = createStateRepository("password");
+        stateRepository.setState(REALM_NAME, "roles-realm", List.of("my-role"));
+        stateRepository.update(createRealmImport());
+
+        assertThat(remoteAttributes.get("de.adorsys.keycloak.config.remote-state-default-0"), not(containsString("my-role")));
+        assertThat(createStateRepository("password").getState(REALM_NAME, "roles-realm"), equalTo(List.of("my-role")));
+    }
+
+    @Test
+    void shouldNotWriteUnchangedState() {
+        StateRepository stateRepository = createStateRepository("password");
+        stateRepository.setState(REALM_NAME, "clients", List.of("client"));
+        stateRepository.update(createRealmImport());
+
+        stateRepository = createStateRepository("password");
+        stateRepository.setState(REALM_NAME, "clients", List.of("client"));
+        stateRepository.update(createRealmImport());
+
+        assertThat(realmUpdates, is(1));
+    }
+
+    @Test
+    void shouldEmptyObsoleteChunks() {
+        StateRepository stateRepository = createStateRepository("password");
+        stateRepository.setState(REALM_NAME, "clients", createNames("client", 1000));
+        stateRepository.update(createRealmImport());
+
+        stateRepository = createStateRepository("password");
+        stateRepository.setState(REALM_NAME, "clients", List.of("client"));
+        stateRepository.update(createRealmImport());
+
+        assertThat(remoteAttributes.get("de.adorsys.keycloak.config.remote-state-default-1"), is(""));
+        assertThat(createStateRepository("password").getState(REALM_NAME, "clients"), equalTo(List.of("client")));
+    }
+
+    @Test
+    void shouldConvertLegacyState() {
+        String legacyState = CryptoUtil.encrypt("[\"client-a\",\"client-b\"]", "password", SALT);
+        remoteAttributes.put("de.adorsys.keycloak.config.state-default-clients-0", legacyState.substring(0, 10));
+        remoteAttributes.put("de.adorsys.keycloak.config.state-default-clients-1", legacyState.substring(10));
+        remoteAttributes.put("de.adorsys.keycloak.config.state-other-clients-0", "other");
+
+        StateRepository stateRepository = createStateRepository("password");
+        assertThat(stateRepository.getState(REALM_NAME, "clients"), equalTo(List.of("client-a", "client-b")));
+
+        stateRepository.update(createRealmImport());
+
+        Map<String, String> legacyAttributes = remoteAttributes.entrySet()
+                .stream()
+                .filter(attribute -> attribute.getKey().startsWith("de.adorsys.keycloak.config.state-default-"))
+                .filter(attribute -> !attribute.getValue().isEmpty())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+        assertThat(legacyAttributes, is(anEmptyMap()));
+        assertThat(remoteAttributes.get("de.adorsys.keycloak.config.state-other-clients-0"), is("other"));
+        assertThat(createStateRepository("password").getState(REALM_NAME, "clients"), equalTo(List.of("client-a", "client-b")));
+    }
+
+    private StateRepository createStateRepository(String encryptionKey) {
+        RealmRepository realmRepository = mock(RealmRepository.class);
+        when(realmRepository.get(REALM_NAME)).thenAnswer(invocation -> createRealm());
+        when(realmRepository.fetch(REALM_NAME)).thenAnswer(invocation -> createRealm());
+        doAnswer(invocation -> {
+            RealmRepresentation realm = invocation.getArgument(0);
+            remoteAttributes.putAll(realm.getAttributes());
+            realmUpdates++;
+            return null;
+        }).when(realmRepository).update(any());
+
+        ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+        when(importConfigProperties.getCache()).thenReturn(new ImportConfigProperties.ImportCacheProperties(true, "default", false));
+        when(importConfigProperties.getRemoteState())
+                .thenReturn(new ImportConfigProperties.ImportRemoteStateProperties(true, encryptionKey, SALT));
+
+        StateRepository stateRepository = new StateRepository(realmRepository, new RealmAttributeBuffer(realmRepository), importConfigProperties);
+        stateRepository.loadCustomAttributes(REALM_NAME);
+
+        return stateRepository;
+    }
+
+    private RealmRepresentation createRealm() {
+        RealmRepresentation realm = new RealmRepresentation();
+        realm.setRealm(REALM_NAME);
+        realm.setAttributes(new HashMap<>(remoteAttributes));
+        return realm;
+    }
+
+    private static RealmImport createRealmImport() {
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm(REALM_NAME);
+        return realmImport;
+    }
+
+    private static List<String> createNames(String prefix, int count) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            names.add(prefix + "-" + i);
+        }
+
+        return names;
+    }
+}
@@ -0,0 +1,140 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportBehaviorsProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportConcurrencyProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties;
+import de.adorsys.keycloak.config.repository.ClientRepository;
+import de.adorsys.keycloak.config.repository.GroupRepository;
+import de.adorsys.keycloak.config.repository.IdentityProviderRepository;
+import de.adorsys.keycloak.config.repository.RoleRepository;
+import de.adorsys.keycloak.config.service.stage.ImportTaskExecutor;
+import de.adorsys.keycloak.config.service.state.StateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.authorization.ResourceRepresentation;
+import org.keycloak.representations.idm.authorization.ResourceServerRepresentation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static de.adorsys.keycloak.config.service.ClientAuthorizationImportService.REALM_MANAGEMENT_CLIENT_ID;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClientAuthorizationImportServiceTest {
+    private static final String REALM_NAME = "realm";
+    private static final String REALM_MANAGEMENT_ID = "realm-management-id";
+
+    private final ClientRepository clientRepository = mock(ClientRepository.class);
+    private ClientAuthorizationImportService clientAuthorizationImportService;
+
+    @BeforeEach
+    void setUp() {
+        ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+        when(importConfigProperties.getBehaviors()).thenReturn(mock(ImportBehaviorsProperties.class));
+        when(importConfigProperties.getManaged()).thenReturn(mock(ImportManagedProperties.class));
+
+        ImportTaskExecutor importTaskExecutor = new ImportTaskExecutor(new ImportConfigProperties(
+                false, false, null, null, null, null, null, null, new ImportConcurrencyProperties(1, 1, 1, Duration.ZERO), null, null
+        ));
+
+        clientAuthorizationImportService = new ClientAuthorizationImportService(
+                clientRepository,
+                mock(IdentityProviderRepository.class),
+                mock(RoleRepository.class),
+                mock(GroupRepository.class),
+                importConfigProperties,
+                mock(StateService.class),
+                importTaskExecutor
+        );
+
+        ClientRepresentation realmManagement = new ClientRepresentation();
+        realmManagement.setId(REALM_MANAGEMENT_ID);
+        realmManagement.setClientId(REALM_MANAGEMENT_CLIENT_ID);
+        when(clientRepository.getByClientId(REALM_NAME, REALM_MANAGEMENT_CLIENT_ID)).thenReturn(realmManagement);
+
+        ClientRepresentation client = new ClientRepresentation();
+        client.setId("client-id");
+        client.setClientId("my-client");
+        when(clientRepository.getByClientId(REALM_NAME, "my-client")).thenReturn(client);
+    }
+
+    @Test
+    void shouldNotEnablePermissionsOrExportAgainIfPermissionResourcesExist() {
+        when(clientRepository.getAuthorizationConfigById(REALM_NAME, REALM_MANAGEMENT_ID))
+                .thenReturn(settings("client.resource.client-id"));
+
+        clientAuthorizationImportService.doImport(realmImport("client.resource.$my-client"));
+
+        verify(clientRepository, never()).isPermissionEnabled(anyString(), anyString());
+        verify(clientRepository, never()).enablePermission(anyString(), anyString());
+        verify(clientRepository, times(1)).getAuthorizationConfigById(REALM_NAME, REALM_MANAGEMENT_ID);
+    }
+
+    @Test
+    void shouldExportAgainAfterEnablingPermissions() {
+        when(clientRepository.getAuthorizationConfigById(REALM_NAME, REALM_MANAGEMENT_ID))
+                .thenReturn(settings(), settings("client.resource.client-id"));
+
+        clientAuthorizationImportService.doImport(realmImport("client.resource.$my-client"));
+
+        verify(clientRepository, times(1)).isPermissionEnabled(REALM_NAME, "client-id");
+        verify(clientRepository, times(1)).enablePermission(REALM_NAME, "client-id");
+        verify(clientRepository, times(2)).getAuthorizationConfigById(REALM_NAME, REALM_MANAGEMENT_ID);
+    }
+
+    private static RealmImport realmImport(String... resourceNames) {
+        ClientRepresentation realmManagement = new ClientRepresentation();
+        realmManagement.setClientId(REALM_MANAGEMENT_CLIENT_ID);
+        realmManagement.setAuthorizationSettings(settings(resourceNames));
+
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm(REALM_NAME);
+        realmImport.setClients(List.of(realmManagement));
+        return realmImport;
+    }
+
+    private static ResourceServerRepresentation settings(String... resourceNames) {
+        List<ResourceRepresentation> resources = new ArrayList<>();
+        for (String resourceName : resourceNames) {
+            ResourceRepresentation resource = new ResourceRepresentation(resourceName);
+            resource.setAttributes(new HashMap<>());
+            resources.add(resource);
+        }
+
+        ResourceServerRepresentation settings = new ResourceServerRepresentation();
+        settings.setResources(resources);
+        settings.setScopes(new ArrayList<>());
+        settings.setPolicies(new ArrayList<>());
+        return settings;
+    }
+}
@@ -1133,6 +1133,35 @@ class ImportAuthenticationFlowsIT extends AbstractImportIT {
         assertThat(thrown.getMessage(), is("Execution property authenticator 'registration-page-form' can be only set if the sub-flow 'JToken Conditional' type is 'form-flow'."));
     }
 
+    @Test
+    @Order(65)
+    void shouldUpdateExecutionsOfFlowInPlace() throws IOException {
+        RealmRepresentation existingRealm = keycloakProvider.getInstance().realm(REALM_NAME).partialExport(true, true);
+        String existingFlowId = getAuthenticationFlow(existingRealm, "my-first-broker-login").getId();
+
+        doImport("65_update_realm__reorder_remove_and_add_executions_of_flow.json");
+
+        RealmRepresentation realm = keycloakProvider.getInstance().realm(REALM_NAME).partialExport(true, true);
+
+        AuthenticationFlowRepresentation flow = getAuthenticationFlow(realm, "my-first-broker-login");
+        assertThat(flow.getId(), is(existingFlowId));
+
+        List<AuthenticationExecutionExportRepresentation> executions = flow.getAuthenticationExecutions();
+        assertThat(executions, hasSize(3));
+        assertThat(executions.get(0).getFlowAlias(), is("my-first-broker-login-user-creation-or-linking"));
+        assertThat(executions.get(0).getRequirement(), is("REQUIRED"));
+        assertThat(executions.get(1).getAuthenticator(), is("idp-review-profile"));
+        assertThat(executions.get(1).getRequirement(), is("REQUIRED"));
+        assertThat(executions.get(2).getAuthenticator(), is("idp-email-verification"));
+        assertThat(executions.get(2).getRequirement(), is("DISABLED"));
+
+        AuthenticationFlowRepresentation subFlow = getAuthenticationFlow(realm, "my-first-broker-login-handle-existing-account");
+        List<AuthenticationExecutionExportRepresentation> subFlowExecutions = subFlow.getAuthenticationExecutions();
+        assertThat(subFlowExecutions, hasSize(1));
+        assertThat(subFlowExecutions.get(0).getAuthenticator(), is("idp-confirm-link"));
+        assertThat(subFlowExecutions.get(0).getRequirement(), is("ALTERNATIVE"));
+    }
+
     private List<AuthenticationExecutionExportRepresentation> getExecutionFromFlow(AuthenticationFlowRepresentation flow, String executionAuthenticator) {
         List<AuthenticationExecutionExportRepresentation> executions = flow.getAuthenticationExecutions();
 
@@ -0,0 +1,265 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.adorsys.keycloak.config.AbstractImportIT;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.keycloak.representations.idm.authorization.AbstractPolicyRepresentation;
+import org.keycloak.representations.idm.authorization.PolicyEnforcementMode;
+import org.keycloak.representations.idm.authorization.PolicyRepresentation;
+import org.keycloak.representations.idm.authorization.ResourceRepresentation;
+import org.keycloak.representations.idm.authorization.ResourceServerRepresentation;
+import org.keycloak.representations.idm.authorization.ScopeRepresentation;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.core.Is.is;
+
+/*
+ * Imports the authorization settings of ImportClientsIT, while new scopes, resources and policies are created in batches
+ */
+@TestPropertySource(properties = {
+        "import.behaviors.client-authorization-batch-size=2",
+})
+class ImportClientAuthorizationBatchIT extends AbstractImportIT {
+    private static final String REALM_NAME = "realmWithClientAuthorizationBatches";
+
+    ImportClientAuthorizationBatchIT() {
+        this.resourcePath = "import-files/client-authorization-batch";
+    }
+
+    @Test
+    @Order(0)
+    void shouldCreateAuthorizationInBatches() throws IOException {
+        doImport("0_create_realm__add_authorization.json");
+
+        ResourceServerRepresentation authorizationSettings = getAuthorizationSettings("auth-moped-client");
+        assertThat(authorizationSettings.getPolicyEnforcementMode(), is(PolicyEnforcementMode.ENFORCING));
+        assertThat(authorizationSettings.isAllowRemoteResourceManagement(), is(true));
+
+        assertThat(getScopeNames(authorizationSettings), containsInAnyOrder(
+                "urn:servlet-authz:protected:admin:access",
+                "urn:servlet-authz:protected:resource:access",
+                "urn:servlet-authz:page:main:actionForAdmin",
+                "urn:servlet-authz:page:main:actionForUser"
+        ));
+
+        assertThat(getResourceNames(authorizationSettings), containsInAnyOrder("Admin Resource", "Protected Resource", "Main Page"));
+
+        ResourceRepresentation resource = getResource(authorizationSettings, "Protected Resource");
+        assertThat(resource.getOwner().getName(), is("service-account-auth-moped-client"));
+        assertThat(resource.getAttributes(), aMapWithSize(1));
+        assertThat(resource.getAttributes(), hasEntry(is("key"), contains("value")));
+
+        resource = getResource(authorizationSettings, "Main Page");
+        assertThat(resource.getScopes(), containsInAnyOrder(
+                new ScopeRepresentation("urn:servlet-authz:page:main:actionForAdmin"),
+                new ScopeRepresentation("urn:servlet-authz:page:main:actionForUser")
+        ));
+
+        assertThat(getPolicyNames(authorizationSettings), containsInAnyOrder(
+                "Any Admin Policy",
+                "Any User Policy",
+                "All Users Policy",
+                "Administrative Resource Permission",
+                "User Action Scope Permission",
+                "Administrator Action Scope Permission",
+                "Protected Resource Permission"
+        ));
+
+        // policies applying policies of the same import
+        PolicyRepresentation policy = getPolicy(authorizationSettings, "All Users Policy");
+        assertThat(readJson(policy.getConfig().get("applyPolicies")), containsInAnyOrder("Any Admin Policy", "Any User Policy"));
+
+        policy = getPolicy(authorizationSettings, "Protected Resource Permission");
+        assertThat(policy.getConfig(), hasEntry(equalTo("applyPolicies"), equalTo("[\"All Users Policy\"]")));
+
+        policy = getPolicy(authorizationSettings, "Administrative Resource Permission");
+        assertThat(policy.getConfig(), hasEntry(equalTo("resources"), equalTo("[\"Admin Resource\"]")));
+        assertThat(policy.getConfig(), hasEntry(equalTo("applyPolicies"), equalTo("[\"Any Admin Policy\"]")));
+
+        authorizationSettings = getAuthorizationSettings("missing-id-client");
+        assertThat(authorizationSettings.isAllowRemoteResourceManagement(), is(false));
+        assertThat(getScopeNames(authorizationSettings), contains("urn:servlet-authz:protected:admin:access"));
+        assertThat(getResourceNames(authorizationSettings), contains("Admin Resource"));
+        assertThat(getPolicyNames(authorizationSettings), contains("Any Admin Policy"));
+    }
+
+    @Test
+    @Order(1)
+    void shouldUpdateAuthorizationAndCreateNewEntitiesInBatches() throws IOException {
+        doImport("1_update_realm__update_authorization.json");
+
+        ResourceServerRepresentation authorizationSettings = getAuthorizationSettings("auth-moped-client");
+        assertThat(authorizationSettings.getPolicyEnforcementMode(), is(PolicyEnforcementMode.PERMISSIVE));
+
+        assertThat(getScopeNames(authorizationSettings), containsInAnyOrder(
+                "urn:servlet-authz:protected:admin:access",
+                "urn:servlet-authz:protected:resource:access",
+                "urn:servlet-authz:protected:premium:access",
+                "urn:servlet-authz:page:main:actionForPremiumUser",
+                "urn:servlet-authz:page:main:actionForAdmin",
+                "urn:servlet-authz:page:main:actionForUser"
+        ));
+
+        assertThat(getResourceNames(authorizationSettings), containsInAnyOrder(
+                "Admin Resource", "Protected Resource", "Premium Resource", "Main Page"
+        ));
+
+        // existing resource
+        ResourceRepresentation resource = getResource(authorizationSettings, "Protected Resource");
+        assertThat(resource.getAttributes(), aMapWithSize(2));
+        assertThat(resource.getAttributes(), hasEntry(is("key2"), contains("value2")));
+
+        resource = getResource(authorizationSettings, "Main Page");
+        assertThat(resource.getScopes(), containsInAnyOrder(
+                new ScopeRepresentation("urn:servlet-authz:page:main:actionForPremiumUser"),
+                new ScopeRepresentation("urn:servlet-authz:page:main:actionForAdmin"),
+                new ScopeRepresentation("urn:servlet-authz:page:main:actionForUser")
+        ));
+
+        assertThat(getPolicyNames(authorizationSettings), containsInAnyOrder(
+                "Any Admin Policy",
+                "Any User Policy",
+                "Only Premium User Policy",
+                "All Users Policy",
+                "Administrative Resource Permission",
+                "Premium User Scope Permission",
+                "User Action Scope Permission",
+                "Administrator Action Scope Permission",
+                "Protected Resource Permission"
+        ));
+
+        // existing policy applying a new policy
+        PolicyRepresentation policy = getPolicy(authorizationSettings, "All Users Policy");
+        assertThat(readJson(policy.getConfig().get("applyPolicies")), containsInAnyOrder(
+                "Any Admin Policy", "Any User Policy", "Only Premium User Policy"
+        ));
+
+        // new policy applying a new policy
+        policy = getPolicy(authorizationSettings, "Premium User Scope Permission");
+        assertThat(policy.getConfig(), hasEntry(equalTo("scopes"), equalTo("[\"urn:servlet-authz:page:main:actionForPremiumUser\"]")));
+        assertThat(policy.getConfig(), hasEntry(equalTo("applyPolicies"), equalTo("[\"Only Premium User Policy\"]")));
+
+        authorizationSettings = getAuthorizationSettings("missing-id-client");
+        assertThat(authorizationSettings.isAllowRemoteResourceManagement(), is(true));
+        assertThat(getScopeNames(authorizationSettings), contains("urn:servlet-authz:protected:user:access"));
+        assertThat(getResource(authorizationSettings, "Admin Resource").getScopes(), contains(
+                new ScopeRepresentation("urn:servlet-authz:protected:user:access")
+        ));
+        assertThat(getPolicy(authorizationSettings, "Any Admin Policy").getConfig(),
+                hasEntry(equalTo("roles"), equalTo("[{\"id\":\"user\",\"required\":false}]")));
+    }
+
+    @Test
+    @Order(2)
+    void shouldRemoveAuthorization() throws IOException {
+        doImport("2_update_realm__remove_authorization.json");
+
+        ResourceServerRepresentation authorizationSettings = getAuthorizationSettings("auth-moped-client");
+
+        assertThat(getScopeNames(authorizationSettings), containsInAnyOrder(
+                "urn:servlet-authz:protected:admin:access",
+                "urn:servlet-authz:protected:premium:access",
+                "urn:servlet-authz:page:main:actionForPremiumUser",
+                "urn:servlet-authz:page:main:actionForAdmin"
+        ));
+
+        assertThat(getResourceNames(authorizationSettings), containsInAnyOrder("Admin Resource", "Premium Resource", "Main Page"));
+
+        assertThat(getPolicyNames(authorizationSettings), containsInAnyOrder(
+                "Any Admin Policy",
+                "Only Premium User Policy",
+                "All Users Policy",
+                "Administrative Resource Permission",
+                "Premium User Scope Permission",
+                "Administrator Action Scope Permission"
+        ));
+
+        PolicyRepresentation policy = getPolicy(authorizationSettings, "All Users Policy");
+        assertThat(readJson(policy.getConfig().get("applyPolicies")), containsInAnyOrder("Any Admin Policy", "Only Premium User Policy"));
+
+        authorizationSettings = getAuthorizationSettings("missing-id-client");
+        assertThat(authorizationSettings.getScopes(), empty());
+        assertThat(authorizationSettings.getResources(), empty());
+        assertThat(authorizationSettings.getPolicies(), empty());
+    }
+
+    private ResourceServerRepresentation getAuthorizationSettings(String clientName) {
+        RealmRepresentation realm = keycloakProvider.getInstance().realm(REALM_NAME).partialExport(false, true);
+
+        return realm.getClients()
+                .stream()
+                .filter(client -> Objects.equals(client.getName(), clientName))
+                .map(ClientRepresentation::getAuthorizationSettings)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private List<String> getScopeNames(ResourceServerRepresentation authorizationSettings) {
+        return authorizationSettings.getScopes().stream().map(ScopeRepresentation::getName).collect(Collectors.toList());
+    }
+
+    private List<String> getResourceNames(ResourceServerRepresentation authorizationSettings) {
+        return authorizationSettings.getResources().stream().map(ResourceRepresentation::getName).collect(Collectors.toList());
+    }
+
+    private List<String> getPolicyNames(ResourceServerRepresentation authorizationSettings) {
+        return authorizationSettings.getPolicies().stream().map(AbstractPolicyRepresentation::getName).collect(Collectors.toList());
+    }
+
+    private ResourceRepresentation getResource(ResourceServerRepresentation authorizationSettings, String name) {
+        return authorizationSettings.getResources()
+                .stream()
+                .filter(resource -> Objects.equals(resource.getName(), name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private PolicyRepresentation getPolicy(ResourceServerRepresentation authorizationSettings, String name) {
+        return authorizationSettings.getPolicies()
+                .stream()
+                .filter(policy -> Objects.equals(policy.getName(), name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private List<String> readJson(String jsonString) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        return objectMapper.readValue(jsonString, objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
+    }
+}
@@ -33,6 +33,7 @@ import java.text.MessageFormat;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.core.Is.is;
 
@@ -60,11 +61,12 @@ class ImportManagedWithEncryptedStateIT extends AbstractImportIT {
         assertThat(realm.isEnabled(), is(true));
 
         String attributeKey = MessageFormat.format(
-                ImportConfigProperties.REALM_STATE_ATTRIBUTE_PREFIX_KEY,
+                ImportConfigProperties.REALM_STATE_CHUNK_ATTRIBUTE_PREFIX_KEY,
                 importConfigProperties.getCache().getKey(),
-                "roles-realm"
-        ) + "-0";
+                "0"
+        );
 
+        assertThat(realm.getAttributes(), hasKey(attributeKey));
         assertThat(realm.getAttributes().get(attributeKey), not(containsString("role")));
     }
 
@@ -78,11 +80,12 @@ class ImportManagedWithEncryptedStateIT extends AbstractImportIT {
         assertThat(realm.isEnabled(), is(true));
 
         String attributeKey = MessageFormat.format(
-                ImportConfigProperties.REALM_STATE_ATTRIBUTE_PREFIX_KEY,
+                ImportConfigProperties.REALM_STATE_CHUNK_ATTRIBUTE_PREFIX_KEY,
                 importConfigProperties.getCache().getKey(),
-                "roles-realm"
-        ) + "-0";
+                "0"
+        );
 
+        assertThat(realm.getAttributes(), hasKey(attributeKey));
         assertThat(realm.getAttributes().get(attributeKey), not(containsString("role")));
     }
 }
@@ -0,0 +1,92 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service;
+
+import de.adorsys.keycloak.config.AbstractImportIT;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.core.Is.is;
+
+@TestPropertySource(properties = {
+        "import.behaviors.create-realm-in-one-request=true",
+})
+class ImportRealmInOneRequestIT extends AbstractImportIT {
+    private static final String REALM_NAME = "realmCreatedInOneRequest";
+    private static final String DEFAULT_ROLE = "default-roles-realmcreatedinonerequest";
+
+    ImportRealmInOneRequestIT() {
+        this.resourcePath = "import-files/realm-creation";
+    }
+
+    @Test
+    @Order(0)
+    void shouldCreateRealmWithContent() throws IOException {
+        doImport("0_create_realm.json");
+
+        RealmRepresentation realm = keycloakProvider.getInstance().realm(REALM_NAME).toRepresentation();
+        assertThat(realm.getDefaultGroups(), contains("/group1"));
+
+        ClientRepresentation client = keycloakRepository.getClient(REALM_NAME, "my-app");
+        assertThat(client.getDefaultClientScopes(), containsInAnyOrder("profile", "my-scope"));
+        assertThat(client.getAuthenticationFlowBindingOverrides().get("browser"), notNullValue());
+        assertThat(keycloakRepository.isClientRoleExisting(REALM_NAME, "my-app", "app-role"), is(true));
+
+        assertThat(getRealmRoleNamesByUser("user1"), containsInAnyOrder("role1", DEFAULT_ROLE));
+        assertThat(getRealmRoleNamesByUser("user2"), contains(DEFAULT_ROLE));
+        assertThat(keycloakRepository.getUserClientLevelRoles(REALM_NAME, "user1", "my-app"), contains("app-role"));
+        assertThat(getGroupPathsByUser("user1"), contains("/group1/subgroup1"));
+
+        UserRepresentation user1 = keycloakRepository.getUser(REALM_NAME, "user1");
+        assertThat(keycloakProvider.getInstance().realm(REALM_NAME).users().get(user1.getId()).credentials().size(), is(1));
+    }
+
+    // the direct role mappings, the default role is a composite of further roles
+    private List<String> getRealmRoleNamesByUser(String username) {
+        UserRepresentation user = keycloakRepository.getUser(REALM_NAME, username);
+
+        return keycloakProvider.getInstance().realm(REALM_NAME).users().get(user.getId()).roles().realmLevel().listAll()
+                .stream().map(RoleRepresentation::getName)
+                .collect(Collectors.toList());
+    }
+
+    private List<String> getGroupPathsByUser(String username) {
+        UserRepresentation user = keycloakRepository.getUser(REALM_NAME, username);
+
+        return keycloakProvider.getInstance().realm(REALM_NAME).users().get(user.getId()).groups()
+                .stream().map(GroupRepresentation::getPath)
+                .collect(Collectors.toList());
+    }
+}
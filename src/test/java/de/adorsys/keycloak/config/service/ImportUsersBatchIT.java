@@ -0,0 +1,121 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service;
+
+import de.adorsys.keycloak.config.AbstractImportIT;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.core.Is.is;
+
+@TestPropertySource(properties = {
+        "import.behaviors.user-batch-size=2",
+})
+class ImportUsersBatchIT extends AbstractImportIT {
+    private static final String REALM_NAME = "realmWithUserBatches";
+    private static final String DEFAULT_ROLE = "default-roles-realmwithuserbatches";
+
+    ImportUsersBatchIT() {
+        this.resourcePath = "import-files/users-batch";
+    }
+
+    @Test
+    @Order(0)
+    void shouldCreateUsersInBatches() throws IOException {
+        doImport("0_create_realm_with_users.json");
+
+        assertThat(getRealmRoleNamesByUser("user1"), containsInAnyOrder("role1", DEFAULT_ROLE));
+        assertThat(getRealmRoleNamesByUser("user2"), contains(DEFAULT_ROLE));
+        assertThat(getRealmRoleNamesByUser("user3"), contains(DEFAULT_ROLE));
+        assertThat(getGroupPathsByUser("user1"), contains("/group1"));
+        assertThat(getGroupPathsByUser("user3"), contains("/group2"));
+
+        UserRepresentation user2 = keycloakRepository.getUser(REALM_NAME, "user2");
+        assertThat(user2.getEmail(), is("user2@mail.de"));
+        assertThat(keycloakProvider.getInstance().realm(REALM_NAME).users().get(user2.getId()).credentials().size(), is(1));
+    }
+
+    @Test
+    @Order(1)
+    void shouldUpdateExistingUsersAndCreateNewUsers() throws IOException {
+        doImport("1_update_realm_with_users.json");
+
+        UserRepresentation user1 = keycloakRepository.getUser(REALM_NAME, "user1");
+        assertThat(user1.getFirstName(), is("firstName1"));
+
+        assertThat(getRealmRoleNamesByUser("user1"), containsInAnyOrder("role2", DEFAULT_ROLE));
+        assertThat(getGroupPathsByUser("user1"), contains("/group2"));
+
+        assertThat(getRealmRoleNamesByUser("user2"), contains(DEFAULT_ROLE));
+        assertThat(getRealmRoleNamesByUser("user4"), containsInAnyOrder("role1", DEFAULT_ROLE));
+    }
+
+    @Test
+    @Order(2)
+    void shouldImportServiceAccountUserOneByOne() throws IOException {
+        doImport("2_update_realm_with_service_account.json");
+
+        ClientRepresentation client = keycloakRepository.getClient(REALM_NAME, "my-service");
+        UserRepresentation serviceAccountUser = keycloakProvider.getInstance().realm(REALM_NAME)
+                .clients()
+                .get(client.getId())
+                .getServiceAccountUser();
+
+        assertThat(serviceAccountUser.getUsername(), is("service-account-my-service"));
+        assertThat(getRealmRoleNamesByUserId(serviceAccountUser.getId()), hasItem("role1"));
+        assertThat(keycloakRepository.getServiceAccountUserClientLevelRoles(REALM_NAME, "my-service", "my-service"),
+                contains("service-role"));
+
+        assertThat(getRealmRoleNamesByUser("user5"), contains(DEFAULT_ROLE));
+    }
+
+    private List<String> getRealmRoleNamesByUser(String username) {
+        return getRealmRoleNamesByUserId(keycloakRepository.getUser(REALM_NAME, username).getId());
+    }
+
+    // the direct role mappings, the default role is a composite of further roles
+    private List<String> getRealmRoleNamesByUserId(String userId) {
+        return keycloakProvider.getInstance().realm(REALM_NAME).users().get(userId).roles().realmLevel().listAll()
+                .stream().map(RoleRepresentation::getName)
+                .collect(Collectors.toList());
+    }
+
+    private List<String> getGroupPathsByUser(String username) {
+        UserRepresentation user = keycloakRepository.getUser(REALM_NAME, username);
+
+        return keycloakProvider.getInstance().realm(REALM_NAME).users().get(user.getId()).groups()
+                .stream().map(GroupRepresentation::getPath)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,73 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.checksum;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+
+class ChecksumServiceTest {
+    @Test
+    void shouldOnlyChangeChecksumOfChangedSection() {
+        Map<String, String> checksums = ChecksumService.calculateSectionChecksums(createRealmImport("client"));
+        Map<String, String> changedChecksums = ChecksumService.calculateSectionChecksums(createRealmImport("changed-client"));
+
+        assertThat(changedChecksums.get("clients"), not(is(checksums.get("clients"))));
+        assertThat(changedChecksums.get("users"), is(checksums.get("users")));
+        assertThat(changedChecksums.get("realm"), is(checksums.get("realm")));
+    }
+
+    @Test
+    void shouldNotIncludeSectionsInRealmChecksum() {
+        RealmImport realmImport = createRealmImport("client");
+        String realmChecksum = ChecksumService.calculateSectionChecksums(realmImport).get("realm");
+
+        realmImport.setUsers(null);
+        realmImport.setDisplayName("changed");
+
+        Map<String, String> checksums = ChecksumService.calculateSectionChecksums(realmImport);
+        assertThat(checksums.get("realm"), not(is(realmChecksum)));
+        assertThat(checksums.get("client-scopes"), is(ChecksumService.calculateSectionChecksums(createRealmImport("client")).get("client-scopes")));
+    }
+
+    private static RealmImport createRealmImport(String clientId) {
+        ClientRepresentation client = new ClientRepresentation();
+        client.setClientId(clientId);
+
+        UserRepresentation user = new UserRepresentation();
+        user.setUsername("user");
+
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm("realm");
+        realmImport.setClients(List.of(client));
+        realmImport.setUsers(List.of(user));
+
+        return realmImport;
+    }
+}
@@ -0,0 +1,107 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.clientauthorization;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.authorization.PolicyRepresentation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+class AuthorizationPoliciesTest {
+
+    @Test
+    void shouldFollowCascadesOfRemovedResourcesAndScopes() {
+        AuthorizationPolicies policies = new AuthorizationPolicies(List.of(
+                policy("single resource", "resources", "[\"a\"]"),
+                policy("two resources", "resources", "[\"a\",\"b\"]"),
+                policy("single scope", "scopes", "[\"view\"]"),
+                policy("role policy", null, null)
+        ));
+
+        policies.removeResource("a");
+        policies.removeScope("view");
+
+        assertThat(names(policies), containsInAnyOrder("two resources", "role policy"));
+        assertThat(policies.get("two resources").getConfig().get("resources"), is("[\"b\"]"));
+    }
+
+    @Test
+    void shouldFollowCascadesOfRemovedPolicies() {
+        AuthorizationPolicies policies = new AuthorizationPolicies(List.of(
+                policy("user policy", null, null),
+                policy("admin policy", null, null),
+                policy("user permission", "applyPolicies", "[\"user policy\"]"),
+                policy("shared permission", "applyPolicies", "[\"user policy\",\"admin policy\"]"),
+                policy("user permission wrapper", "applyPolicies", "[\"user permission\"]")
+        ));
+
+        policies.removePolicy("user policy");
+
+        assertThat(names(policies), containsInAnyOrder("admin policy", "shared permission"));
+        assertThat(policies.get("shared permission").getConfig().get("applyPolicies"), is("[\"admin policy\"]"));
+    }
+
+    @Test
+    void shouldGroupPoliciesByDependencies() {
+        List<List<PolicyRepresentation>> waves = AuthorizationPolicies.groupByDependencies(List.of(
+                policy("permission", "applyPolicies", "[\"aggregate\",\"existing policy\"]"),
+                policy("aggregate", "applyPolicies", "[\"user policy\"]"),
+                policy("user policy", null, null),
+                policy("cycle a", "applyPolicies", "[\"cycle b\"]"),
+                policy("cycle b", "applyPolicies", "[\"cycle a\"]")
+        ));
+
+        assertThat(waves, hasSize(4));
+        assertThat(names(waves.get(0)), contains("user policy"));
+        assertThat(names(waves.get(1)), contains("aggregate"));
+        assertThat(names(waves.get(2)), contains("permission"));
+        assertThat(names(waves.get(3)), contains("cycle a", "cycle b"));
+    }
+
+    private static List<String> names(AuthorizationPolicies policies) {
+        return names(List.copyOf(policies.getAll()));
+    }
+
+    private static List<String> names(List<PolicyRepresentation> policies) {
+        return policies.stream().map(PolicyRepresentation::getName).collect(Collectors.toList());
+    }
+
+    private static PolicyRepresentation policy(String name, String configKey, String configValue) {
+        Map<String, String> config = new HashMap<>();
+        if (configKey != null) {
+            config.put(configKey, configValue);
+        }
+
+        PolicyRepresentation policy = new PolicyRepresentation();
+        policy.setName(name);
+        policy.setConfig(config);
+        return policy;
+    }
+}
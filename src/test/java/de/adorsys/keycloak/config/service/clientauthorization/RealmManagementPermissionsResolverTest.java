@@ -0,0 +1,108 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.clientauthorization;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.authorization.ResourceRepresentation;
+import org.keycloak.representations.idm.authorization.ResourceServerRepresentation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RealmManagementPermissionsResolverTest {
+    private final PermissionResolver clientResolver = mock(PermissionResolver.class);
+    private final RealmManagementPermissionsResolver resolver = new RealmManagementPermissionsResolver(
+            "realm", Map.of("client", clientResolver)
+    );
+
+    @Test
+    void shouldResolveEachPlaceholderOnce() {
+        when(clientResolver.resolveObjectId("my-client", "client.resource.$my-client")).thenReturn("id-1");
+
+        assertThat(resolver.getSanitizedAuthzResourceName("client.resource.$my-client"), is("client.resource.id-1"));
+        assertThat(resolver.getSanitizedAuthzPolicyName("manage.permission.client.$my-client"), is("manage.permission.client.id-1"));
+        assertThat(resolver.getSanitizedAuthzResourceName("client.resource.$my-client"), is("client.resource.id-1"));
+
+        verify(clientResolver, times(1)).resolveObjectId(anyString(), anyString());
+    }
+
+    @Test
+    void shouldEnablePermissionsOnlyForEntitiesWithoutPermissionResource() {
+        when(clientResolver.resolveObjectId("enabled", "client.resource.$enabled")).thenReturn("id-1");
+        when(clientResolver.resolveObjectId("disabled", "client.resource.$disabled")).thenReturn("id-2");
+
+        boolean enabled = resolver.createFineGrantedPermissions(
+                settings("client.resource.$enabled", "client.resource.$disabled", "client.resource.$disabled"),
+                settings("client.resource.id-1")
+        );
+
+        assertThat(enabled, is(true));
+        verify(clientResolver, never()).enablePermissions("id-1");
+        verify(clientResolver, times(1)).enablePermissions("id-2");
+    }
+
+    @Test
+    void shouldReportNoEnabledPermissionsIfAllEntitiesHavePermissionResources() {
+        boolean enabled = resolver.createFineGrantedPermissions(
+                settings("client.resource.id-1", "client.resource.id-2"),
+                settings("client.resource.id-1", "client.resource.id-2", "Default Resource")
+        );
+
+        assertThat(enabled, is(false));
+        verify(clientResolver, never()).enablePermissions(anyString());
+    }
+
+    @Test
+    void shouldReportNoEnabledPermissionsIfEnablingFailed() {
+        doThrow(new ImportProcessingException("Cannot find client")).when(clientResolver).enablePermissions("id-1");
+
+        boolean enabled = resolver.createFineGrantedPermissions(
+                settings("client.resource.id-1", "unknown.resource.id-2"),
+                settings()
+        );
+
+        assertThat(enabled, is(false));
+        verify(clientResolver, times(1)).enablePermissions("id-1");
+    }
+
+    private static ResourceServerRepresentation settings(String... resourceNames) {
+        List<ResourceRepresentation> resources = Stream.of(resourceNames)
+                .map(ResourceRepresentation::new)
+                .collect(Collectors.toList());
+
+        ResourceServerRepresentation settings = new ResourceServerRepresentation();
+        settings.setResources(resources);
+        return settings;
+    }
+}
@@ -0,0 +1,78 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.metrics;
+
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportConcurrencyProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportMetricsProperties;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics.Outcome;
+import de.adorsys.keycloak.config.service.stage.ImportStageExecutor;
+import de.adorsys.keycloak.config.service.stage.ImportTaskExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.core.Is.is;
+
+class ImportMetricsTest {
+    private final ImportMetrics importMetrics = createMetrics();
+
+    @Test
+    void shouldCountEntitiesInPrometheusFormat() {
+        importMetrics.record("clients", Outcome.CREATED);
+        importMetrics.record("clients", Outcome.CREATED);
+        importMetrics.record("users", Outcome.UNCHANGED, 5);
+
+        String text = importMetrics.toPrometheus(1500);
+
+        assertThat(text, containsString("keycloak_config_cli_run_duration_seconds 1.500000\n"));
+        assertThat(text, containsString("# TYPE keycloak_config_cli_import_entities_total counter\n"));
+        assertThat(text, containsString("keycloak_config_cli_import_entities_total{entity=\"clients\",outcome=\"created\"} 2\n"));
+        assertThat(text, containsString("keycloak_config_cli_import_entities_total{entity=\"clients\",outcome=\"updated\"} 0\n"));
+        assertThat(text, containsString("keycloak_config_cli_import_entities_total{entity=\"users\",outcome=\"unchanged\"} 5\n"));
+    }
+
+    @Test
+    void shouldCountEntitiesInJson() {
+        importMetrics.record("roles", Outcome.UPDATED, 3);
+
+        String json = importMetrics.toJson(42);
+
+        assertThat(json, containsString("\"durationMillis\" : 42"));
+        assertThat(json, containsString("\"updated\" : 3"));
+    }
+
+    @Test
+    void shouldBeDisabled() {
+        assertThat(importMetrics.isEnabled(), is(false));
+    }
+
+    private static ImportMetrics createMetrics() {
+        ImportConfigProperties properties = new ImportConfigProperties(
+                false, false, null, null, null, null, null, null, new ImportConcurrencyProperties(1, 1, 1, Duration.ZERO),
+                new ImportMetricsProperties(false, null, null), null
+        );
+
+        return new ImportMetrics(properties, new ImportStageExecutor(properties), new ImportTaskExecutor(properties));
+    }
+}
@@ -0,0 +1,125 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.stage;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportConcurrencyProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImportStageExecutorTest {
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    @Test
+    void shouldRunSerialInDeclarationOrder() {
+        ImportStageExecutor executor = createExecutor(false, 4);
+
+        executor.run("realm", new ImportStageGraph()
+                .add("a", () -> executed.add("a"))
+                .add("b", () -> executed.add("b"))
+                .add("c", () -> executed.add("c"), "a"));
+
+        assertThat(executed, contains("a", "b", "c"));
+    }
+
+    @Test
+    void shouldRunIndependentStagesConcurrently() {
+        ImportStageExecutor executor = createExecutor(true, 2);
+        CountDownLatch latch = new CountDownLatch(2);
+
+        executor.run("realm", new ImportStageGraph()
+                .add("a", () -> await(latch, "a"))
+                .add("b", () -> await(latch, "b"))
+                .add("c", () -> executed.add("c"), "a", "b"));
+
+        assertThat(executed.indexOf("c"), is(2));
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldPropagateFailureAndSkipDependentStages() {
+        ImportStageExecutor executor = createExecutor(true, 2);
+        ImportStageGraph graph = new ImportStageGraph()
+                .add("a", () -> {
+                    throw new ImportProcessingException("broken");
+                })
+                .add("b", () -> executed.add("b"), "a");
+
+        ImportProcessingException error = assertThrows(ImportProcessingException.class, () -> executor.run("realm", graph));
+
+        assertThat(error.getMessage(), is("broken"));
+        assertThat(executed, not(hasItem("b")));
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldSkipStagesAndRunTheirDependents() {
+        ImportStageExecutor executor = createExecutor(true, 2);
+
+        executor.run("realm", new ImportStageGraph()
+                .add("a", () -> executed.add("a"))
+                .add("b", () -> executed.add("b"), "a")
+                .skip("a"));
+
+        assertThat(executed, contains("b"));
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldRejectUndeclaredDependency() {
+        ImportStageGraph graph = new ImportStageGraph();
+
+        assertThrows(IllegalArgumentException.class, () -> graph.add("a", () -> {
+        }, "b"));
+    }
+
+    private void await(CountDownLatch latch, String name) {
+        latch.countDown();
+        try {
+            // both stages have to run at the same time to get here in time
+            assertThat(latch.await(10, TimeUnit.SECONDS), is(true));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executed.add(name);
+    }
+
+    private static ImportStageExecutor createExecutor(boolean parallel, int stages) {
+        ImportConfigProperties properties = new ImportConfigProperties(
+                false, parallel, null, null, null, null, null, null, new ImportConcurrencyProperties(stages, 1, 1, Duration.ZERO), null, null
+        );
+
+        return new ImportStageExecutor(properties);
+    }
+}
@@ -0,0 +1,111 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.stage;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportConcurrencyProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImportTaskExecutorTest {
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    @Test
+    void shouldRunSerialInOrder() {
+        ImportTaskExecutor executor = createExecutor(false, 4);
+
+        executor.forEach("test", Arrays.asList("a", "b", "c"), executed::add);
+
+        assertThat(executed, contains("a", "b", "c"));
+        assertThat(executor.getTimings().get("test").getCount(), is(3L));
+    }
+
+    @Test
+    void shouldLimitConcurrentTasks() {
+        ImportTaskExecutor executor = createExecutor(true, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        executor.forEach("test", Arrays.asList("a", "b", "c", "d", "e", "f"), item -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep();
+            running.decrementAndGet();
+            executed.add(item);
+        });
+
+        assertThat(executed, containsInAnyOrder("a", "b", "c", "d", "e", "f"));
+        assertThat(maxRunning.get(), lessThanOrEqualTo(2));
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldRunNestedLoopsOnCallingThread() {
+        ImportTaskExecutor executor = createExecutor(true, 1);
+
+        executor.forEach("outer", Arrays.asList("a", "b"), item ->
+                executor.forEach("inner", Arrays.asList(item + "1", item + "2"), executed::add));
+
+        assertThat(executed, containsInAnyOrder("a1", "a2", "b1", "b2"));
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldPropagateFirstFailure() {
+        ImportTaskExecutor executor = createExecutor(true, 2);
+        List<String> items = Arrays.asList("a", "b");
+
+        ImportProcessingException error = assertThrows(ImportProcessingException.class, () -> executor.forEach("test", items, item -> {
+            throw new ImportProcessingException("broken");
+        }));
+
+        assertThat(error.getMessage(), is("broken"));
+        executor.shutdown();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ImportTaskExecutor createExecutor(boolean parallel, int tasks) {
+        ImportConfigProperties properties = new ImportConfigProperties(
+                false, parallel, null, null, null, null, null, null, new ImportConcurrencyProperties(1, 1, tasks, Duration.ZERO), null, null
+        );
+
+        return new ImportTaskExecutor(properties);
+    }
+}
@@ -0,0 +1,87 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.watch;
+
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.metrics.ImportRun;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImportStatusServerTest {
+    private final ImportMetrics importMetrics = mock(ImportMetrics.class);
+
+    @Test
+    void shouldBeUpWithoutRun() throws IOException {
+        try (ImportStatusServer server = new ImportStatusServer(0, importMetrics)) {
+            HttpURLConnection connection = open(server, "/health");
+
+            assertThat(connection.getResponseCode(), is(200));
+            assertThat(read(connection.getInputStream()), is("{\"status\":\"UP\"}"));
+        }
+    }
+
+    @Test
+    void shouldBeDownAfterFailedRun() throws IOException {
+        when(importMetrics.getLastRun()).thenReturn(new ImportRun(Instant.EPOCH, 10, List.of("realm"), "keycloak is down"));
+
+        try (ImportStatusServer server = new ImportStatusServer(0, importMetrics)) {
+            HttpURLConnection connection = open(server, "/health");
+
+            assertThat(connection.getResponseCode(), is(503));
+            assertThat(read(connection.getErrorStream()), containsString("\"error\":\"keycloak is down\""));
+        }
+    }
+
+    @Test
+    void shouldServeMetrics() throws IOException {
+        when(importMetrics.toPrometheus(0)).thenReturn("keycloak_config_cli_run_duration_seconds 0\n");
+
+        try (ImportStatusServer server = new ImportStatusServer(0, importMetrics)) {
+            HttpURLConnection connection = open(server, "/metrics");
+
+            assertThat(connection.getResponseCode(), is(200));
+            assertThat(read(connection.getInputStream()), is("keycloak_config_cli_run_duration_seconds 0\n"));
+        }
+    }
+
+    private static HttpURLConnection open(ImportStatusServer server, String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+    }
+
+    private static String read(InputStream inputStream) throws IOException {
+        try (InputStream stream = inputStream) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
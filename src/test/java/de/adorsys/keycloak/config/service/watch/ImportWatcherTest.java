@@ -0,0 +1,143 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.watch;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.model.KeycloakImport;
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportConcurrencyProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportMetricsProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportWatchProperties;
+import de.adorsys.keycloak.config.provider.KeycloakImportProvider;
+import de.adorsys.keycloak.config.service.metrics.ImportMetrics;
+import de.adorsys.keycloak.config.service.stage.ImportStageExecutor;
+import de.adorsys.keycloak.config.service.stage.ImportTaskExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImportWatcherTest {
+    private static final List<String> LOCATIONS = List.of("file:config/*");
+
+    private final KeycloakImportProvider keycloakImportProvider = mock(KeycloakImportProvider.class);
+    private final ImportMetrics importMetrics = createMetrics();
+    private final ImportWatcher importWatcher = new ImportWatcher(keycloakImportProvider, createProperties(), importMetrics);
+
+    private final List<List<String>> importedRealms = new ArrayList<>();
+    private final Consumer<Map<String, Map<String, List<RealmImport>>>> importer = realmImports -> importedRealms.add(getRealms(realmImports));
+
+    @Test
+    void shouldImportOnlyChangedRealms() {
+        givenFiles(realmImport("a", "1"), realmImport("b", "1"));
+        importWatcher.importChanges(LOCATIONS, importer);
+
+        givenFiles(realmImport("a", "1"), realmImport("b", "1"));
+        importWatcher.importChanges(LOCATIONS, importer);
+
+        givenFiles(realmImport("a", "1"), realmImport("b", "2"));
+        importWatcher.importChanges(LOCATIONS, importer);
+
+        assertThat(importedRealms, contains(List.of("a", "b"), List.of("b")));
+        assertThat(importMetrics.getLastRun().getRealms(), contains("b"));
+        assertThat(importMetrics.getLastRun().isSuccessful(), is(true));
+    }
+
+    @Test
+    void shouldRetryFailedRealms() {
+        givenFiles(realmImport("a", "1"));
+        importWatcher.importChanges(LOCATIONS, realmImports -> {
+            throw new ImportProcessingException("keycloak is down");
+        });
+
+        assertThat(importMetrics.getLastRun().getError(), is("keycloak is down"));
+
+        importWatcher.importChanges(LOCATIONS, importer);
+
+        assertThat(importedRealms, contains(List.of("a")));
+        assertThat(importMetrics.getLastRun().isSuccessful(), is(true));
+    }
+
+    @Test
+    void shouldKeepRunningOnUnreadableFiles() {
+        when(keycloakImportProvider.readFromLocations(anyCollection())).thenThrow(new ImportProcessingException("broken file"));
+
+        importWatcher.importChanges(LOCATIONS, importer);
+
+        assertThat(importedRealms, is(empty()));
+        assertThat(importMetrics.getLastRun().getError(), is("broken file"));
+    }
+
+    private void givenFiles(RealmImport... realmImports) {
+        Map<String, List<RealmImport>> files = new LinkedHashMap<>();
+        for (RealmImport realmImport : realmImports) {
+            files.put(realmImport.getRealm() + ".json", List.of(realmImport));
+        }
+
+        when(keycloakImportProvider.readFromLocations(anyCollection())).thenReturn(new KeycloakImport(Map.of(LOCATIONS.get(0), files)));
+    }
+
+    private static RealmImport realmImport(String realm, String checksum) {
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm(realm);
+        realmImport.setChecksum(checksum);
+        return realmImport;
+    }
+
+    private static List<String> getRealms(Map<String, Map<String, List<RealmImport>>> realmImports) {
+        List<String> realms = new ArrayList<>();
+
+        realmImports.values().stream()
+                .map(Map::values)
+                .flatMap(Collection::stream)
+                .flatMap(Collection::stream)
+                .forEach(realmImport -> realms.add(realmImport.getRealm()));
+
+        return realms;
+    }
+
+    private static ImportConfigProperties createProperties() {
+        return new ImportConfigProperties(
+                false, false, null, null, null, null, null, null, new ImportConcurrencyProperties(1, 1, 1, Duration.ZERO),
+                new ImportMetricsProperties(false, null, null), new ImportWatchProperties(true, Duration.ofSeconds(10), Duration.ZERO, 0)
+        );
+    }
+
+    private static ImportMetrics createMetrics() {
+        ImportConfigProperties properties = createProperties();
+
+        return new ImportMetrics(properties, new ImportStageExecutor(properties), new ImportTaskExecutor(properties));
+    }
+}
@@ -0,0 +1,80 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.watch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+
+class LocationWatcherTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldFindBaseDirectory() throws IOException {
+        Path file = Files.writeString(directory.resolve("realm.json"), "{}");
+
+        assertThat(LocationWatcher.getBaseDirectory("file:" + directory + "/*"), is(directory));
+        assertThat(LocationWatcher.getBaseDirectory("file:" + directory + "/**/*.json"), is(directory));
+        assertThat(LocationWatcher.getBaseDirectory(directory + "/realm-?.json"), is(directory));
+        assertThat(LocationWatcher.getBaseDirectory("file:" + file), is(directory));
+    }
+
+    @Test
+    void shouldNotWatchOtherLocations() {
+        assertThat(LocationWatcher.getBaseDirectory("http://localhost/realm.json"), is(nullValue()));
+        assertThat(LocationWatcher.getBaseDirectory("classpath:import-files/*"), is(nullValue()));
+        assertThat(LocationWatcher.getBaseDirectory("file:" + directory + "/missing/*"), is(nullValue()));
+    }
+
+    @Test
+    void shouldReturnOnChange() throws Exception {
+        Files.createDirectory(directory.resolve("realms"));
+
+        try (LocationWatcher watcher = new LocationWatcher(List.of("file:" + directory + "/**/*.json"))) {
+            Thread writer = new Thread(() -> {
+                try {
+                    Thread.sleep(200);
+                    Files.writeString(directory.resolve("realms/realm.json"), "{}");
+                } catch (IOException | InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            writer.start();
+
+            long start = System.currentTimeMillis();
+            watcher.await(Duration.ofSeconds(30), Duration.ofMillis(50));
+
+            assertThat(System.currentTimeMillis() - start, lessThan(20_000L));
+            writer.join();
+        }
+    }
+}
@@ -23,7 +23,18 @@ package de.adorsys.keycloak.config.util;
 import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.representations.idm.AuthenticationExecutionExportRepresentation;
+import org.keycloak.representations.idm.AuthenticationExecutionInfoRepresentation;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ExtendWith(GithubActionsExtension.class)
@@ -32,4 +43,79 @@ class AuthenticationFlowUtilTest {
     void shouldThrowOnNew() {
         assertThrows(IllegalStateException.class, AuthenticationFlowUtil::new);
     }
+
+    @Test
+    void shouldGetDirectExecutions() {
+        AuthenticationExecutionInfoRepresentation cookie = execution("1", 0, "auth-cookie");
+        AuthenticationExecutionInfoRepresentation forms = executionFlow("2", 0, "forms");
+        AuthenticationExecutionInfoRepresentation password = execution("3", 1, "auth-username-password-form");
+        AuthenticationExecutionInfoRepresentation conditional = executionFlow("4", 1, "conditional");
+        AuthenticationExecutionInfoRepresentation otp = execution("5", 2, "auth-otp-form");
+        AuthenticationExecutionInfoRepresentation idp = execution("6", 0, "identity-provider-redirector");
+        List<AuthenticationExecutionInfoRepresentation> executions = Arrays.asList(cookie, forms, password, conditional, otp, idp);
+
+        assertThat(AuthenticationFlowUtil.getDirectExecutions(executions, null), contains(cookie, forms, idp));
+        assertThat(AuthenticationFlowUtil.getDirectExecutions(executions, forms), contains(password, conditional));
+        assertThat(AuthenticationFlowUtil.getDirectExecutions(executions, conditional), contains(otp));
+
+        Map<String, String> subFlowParents = AuthenticationFlowUtil.getSubFlowParents("browser", executions);
+        assertThat(subFlowParents.get("forms"), is("browser"));
+        assertThat(subFlowParents.get("conditional"), is("forms"));
+    }
+
+    @Test
+    void shouldMatchExecutionsInOrder() {
+        AuthenticationExecutionInfoRepresentation firstCondition = execution("1", 0, "conditional-user-role");
+        AuthenticationExecutionInfoRepresentation secondCondition = execution("2", 0, "conditional-user-role");
+        AuthenticationExecutionInfoRepresentation forms = executionFlow("3", 0, "forms");
+        AuthenticationExecutionInfoRepresentation cookie = execution("4", 0, "auth-cookie");
+
+        List<AuthenticationExecutionInfoRepresentation> matches = AuthenticationFlowUtil.matchExecutions(
+                Arrays.asList(
+                        executionToImport("forms", null),
+                        executionToImport(null, "conditional-user-role"),
+                        executionToImport(null, "auth-otp-form"),
+                        executionToImport(null, "conditional-user-role")
+                ),
+                Arrays.asList(firstCondition, secondCondition, forms, cookie)
+        );
+
+        assertThat(matches.get(0), is(forms));
+        assertThat(matches.get(1), is(firstCondition));
+        assertThat(matches.get(2), is(nullValue()));
+        assertThat(matches.get(3), is(secondCondition));
+    }
+
+    @Test
+    void shouldRaiseExecutionsIntoDesiredOrder() {
+        assertThat(AuthenticationFlowUtil.getPriorityRaises(List.of("a", "b", "c"), List.of("a", "b", "c")), is(empty()));
+        assertThat(AuthenticationFlowUtil.getPriorityRaises(List.of("a", "b", "c"), List.of("c", "a", "b")), contains("c", "c"));
+        assertThat(AuthenticationFlowUtil.getPriorityRaises(List.of("a", "b", "c"), List.of("b", "c", "a")), contains("b", "c"));
+        assertThat(AuthenticationFlowUtil.getPriorityRaises(List.of("a", "b", "c"), List.of("c", "b", "a")), contains("c", "c", "b"));
+    }
+
+    private static AuthenticationExecutionInfoRepresentation execution(String id, int level, String providerId) {
+        AuthenticationExecutionInfoRepresentation execution = new AuthenticationExecutionInfoRepresentation();
+        execution.setId(id);
+        execution.setLevel(level);
+        execution.setProviderId(providerId);
+        execution.setAuthenticationFlow(false);
+        return execution;
+    }
+
+    private static AuthenticationExecutionInfoRepresentation executionFlow(String id, int level, String alias) {
+        AuthenticationExecutionInfoRepresentation execution = execution(id, level, null);
+        execution.setDisplayName(alias);
+        execution.setAuthenticationFlow(true);
+        return execution;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static AuthenticationExecutionExportRepresentation executionToImport(String flowAlias, String authenticator) {
+        AuthenticationExecutionExportRepresentation execution = new AuthenticationExecutionExportRepresentation();
+        execution.setFlowAlias(flowAlias);
+        execution.setAuthenticator(authenticator);
+        execution.setAutheticatorFlow(flowAlias != null);
+        return execution;
+    }
 }
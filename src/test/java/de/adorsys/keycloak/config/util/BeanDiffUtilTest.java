@@ -0,0 +1,155 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.util;
+
+import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.ProtocolMapperRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.keycloak.representations.idm.authorization.PolicyRepresentation;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(GithubActionsExtension.class)
+class BeanDiffUtilTest {
+    @Test
+    void shouldThrowOnNew() {
+        assertThrows(IllegalStateException.class, BeanDiffUtil::new);
+    }
+
+    @Test
+    void shouldReportDifferentProperties() {
+        ClientRepresentation origin = createClient();
+        ClientRepresentation other = createClient();
+
+        assertThat(BeanDiffUtil.isEqual(origin, other), is(true));
+        assertThat(BeanDiffUtil.diff(origin, other), empty());
+
+        other.setId("other-id");
+        other.setRedirectUris(Arrays.asList("https://example.com/*", "https://example.org/*"));
+        other.getAttributes().put("pkce.code.challenge.method", "plain");
+        other.getProtocolMappers().get(0).getConfig().remove("claim.name");
+
+        assertThat(BeanDiffUtil.isEqual(origin, other), is(false));
+        assertThat(BeanDiffUtil.diff(origin, other), containsInAnyOrder(
+                "id",
+                "redirectUris[1]",
+                "attributes.pkce.code.challenge.method",
+                "protocolMappers[0].config.claim.name"
+        ));
+        assertThat(BeanDiffUtil.diff(origin, other, "id", "redirectUris", "attributes", "protocolMappers"), empty());
+    }
+
+    @Test
+    void shouldTreatEmptyAsMissingForNonEmptyProperties() {
+        PolicyRepresentation origin = new PolicyRepresentation();
+        origin.setName("policy");
+        origin.setScopesData(Collections.emptySet());
+
+        PolicyRepresentation other = new PolicyRepresentation();
+        other.setName("policy");
+
+        assertThat(BeanDiffUtil.isEqual(origin, other), is(true));
+    }
+
+    @Test
+    void shouldCopyIndependently() {
+        ClientRepresentation origin = createClient();
+
+        ClientRepresentation copy = BeanDiffUtil.copy(origin, "id");
+
+        assertThat(copy.getId(), nullValue());
+        assertThat(BeanDiffUtil.diff(origin, copy), contains("id"));
+
+        copy.getAttributes().put("key", "value");
+        copy.getProtocolMappers().get(0).getConfig().put("claim.name", "other");
+
+        assertThat(origin.getAttributes(), not(hasKey("key")));
+        assertThat(origin.getProtocolMappers().get(0).getConfig(), hasEntry("claim.name", "email"));
+    }
+
+    @Test
+    void shouldCopyPropertiesWithCustomDeserializer() {
+        UserRepresentation origin = new UserRepresentation();
+        origin.setUsername("user");
+        origin.setAttributes(Collections.singletonMap("locale", Collections.singletonList("de")));
+
+        UserRepresentation copy = BeanDiffUtil.copy(origin);
+
+        assertThat(copy.getAttributes(), is(origin.getAttributes()));
+        assertThat(copy.getAttributes(), not(sameInstance(origin.getAttributes())));
+    }
+
+    @Test
+    void shouldPatchTopLevelProperties() {
+        ClientRepresentation origin = createClient();
+
+        ClientRepresentation patch = new ClientRepresentation();
+        patch.setId("patched-id");
+        patch.setClientId("patched-client");
+        patch.setAttributes(Collections.singletonMap("key", "value"));
+
+        ClientRepresentation patched = BeanDiffUtil.patch(origin, patch, "id");
+
+        assertThat(patched, not(sameInstance(origin)));
+        assertThat(patched.getId(), is("id"));
+        assertThat(patched.getClientId(), is("patched-client"));
+        assertThat(patched.getAttributes(), is(Collections.singletonMap("key", "value")));
+        assertThat(patched.getRedirectUris(), is(origin.getRedirectUris()));
+        assertThat(origin.getClientId(), is("client"));
+    }
+
+    @Test
+    void shouldReturnNull() {
+        Object object = new Object();
+
+        assertThat(BeanDiffUtil.copy(null), nullValue());
+        assertThat(BeanDiffUtil.patch(null, null), nullValue());
+        assertThat(BeanDiffUtil.patch(object, null), is(object));
+        assertThat(BeanDiffUtil.isEqual(null, null), is(true));
+        assertThat(BeanDiffUtil.diff(object, null), contains("$"));
+    }
+
+    private static ClientRepresentation createClient() {
+        ProtocolMapperRepresentation protocolMapper = new ProtocolMapperRepresentation();
+        protocolMapper.setName("email");
+        protocolMapper.setProtocolMapper("oidc-usermodel-property-mapper");
+        protocolMapper.setConfig(new HashMap<>(Collections.singletonMap("claim.name", "email")));
+
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("pkce.code.challenge.method", "S256");
+
+        ClientRepresentation client = new ClientRepresentation();
+        client.setId("id");
+        client.setClientId("client");
+        client.setEnabled(true);
+        client.setRedirectUris(Arrays.asList("https://example.com/*", "https://example.net/*"));
+        client.setAttributes(attributes);
+        client.setProtocolMappers(new ArrayList<>(Collections.singletonList(protocolMapper)));
+        return client;
+    }
+}
@@ -25,6 +25,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junitpioneer.jupiter.RetryingTest;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
@@ -51,6 +53,26 @@ class CryptoUtilTest {
         assertThat(decryptedData, is(data));
     }
 
+    @Test
+    void encryptDecryptBytes() {
+        byte[] data = "secure data".getBytes(StandardCharsets.UTF_8);
+        String key = "secure key";
+
+        byte[] encryptedData = CryptoUtil.encrypt(data, key, salt);
+        assertThat(encryptedData, not(is(data)));
+
+        byte[] decryptedData = CryptoUtil.decrypt(encryptedData, key, salt);
+        assertThat(decryptedData, is(data));
+    }
+
+    @Test
+    void decryptModifiedBytes() {
+        byte[] encryptedData = CryptoUtil.encrypt("data".getBytes(StandardCharsets.UTF_8), "key", salt);
+        encryptedData[encryptedData.length - 1] ^= 1;
+
+        assertThrows(IllegalStateException.class, () -> CryptoUtil.decrypt(encryptedData, "key", salt));
+    }
+
     @RetryingTest(3)
     void encryptDecryptWrong() {
         String encryptedData = CryptoUtil.encrypt("data", "key1", salt);
@@ -0,0 +1,75 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.RealmRepresentation;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ObjectMapperUtilTest {
+    @Test
+    void shouldThrowOnNew() {
+        assertThrows(IllegalStateException.class, ObjectMapperUtil::new);
+    }
+
+    @Test
+    void shouldWriteAndReadLikePlainObjectMapper() throws Exception {
+        ClientRepresentation client = new ClientRepresentation();
+        client.setClientId("test");
+        client.setEnabled(true);
+        client.setRedirectUris(List.of("https://example.com/*"));
+        client.setAttributes(Map.of("pkce.code.challenge.method", "S256"));
+
+        RealmRepresentation realm = new RealmRepresentation();
+        realm.setRealm("realm");
+        realm.setAccessTokenLifespan(300);
+        realm.setClients(List.of(client));
+
+        ObjectMapper objectMapper = ObjectMapperUtil.create();
+        ObjectMapper plainObjectMapper = new ObjectMapper();
+
+        String json = objectMapper.writeValueAsString(realm);
+        assertThat(json, is(plainObjectMapper.writeValueAsString(realm)));
+
+        RealmRepresentation result = objectMapper.readValue(json, RealmRepresentation.class);
+        RealmRepresentation plainResult = plainObjectMapper.readValue(json, RealmRepresentation.class);
+        assertThat(plainObjectMapper.writeValueAsString(result), is(plainObjectMapper.writeValueAsString(plainResult)));
+    }
+
+    @Test
+    void shouldReadYaml() throws Exception {
+        ObjectMapper objectMapper = ObjectMapperUtil.create(new YAMLFactory());
+
+        RealmRepresentation realm = objectMapper.readValue("realm: test\nenabled: true\n", RealmRepresentation.class);
+
+        assertThat(realm.getRealm(), is("test"));
+        assertThat(realm.isEnabled(), is(true));
+    }
+}
@@ -0,0 +1,57 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.util.resteasy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+class MetricsClientFilterTest {
+    @Test
+    void shouldTemplateIdsAndNames() {
+        assertThat(MetricsClientFilter.toPathTemplate("/admin/realms/test/clients/abc/roles/r1"),
+                is("/admin/realms/{realm}/clients/{id}/roles/{id}"));
+        assertThat(MetricsClientFilter.toPathTemplate("/admin/realms/test/users"), is("/admin/realms/{realm}/users"));
+        assertThat(MetricsClientFilter.toPathTemplate("/admin/realms"), is("/admin/realms"));
+        assertThat(MetricsClientFilter.toPathTemplate("/admin/realms/test/clients/abc/default-client-scopes/def"),
+                is("/admin/realms/{realm}/clients/{id}/default-client-scopes/{id}"));
+        assertThat(MetricsClientFilter.toPathTemplate("/admin/realms/test/clients/abc/optional-client-scopes/def"),
+                is("/admin/realms/{realm}/clients/{id}/optional-client-scopes/{id}"));
+        assertThat(MetricsClientFilter.toPathTemplate("/admin/realms/test/identity-provider/instances/my-idp/mappers/abc"),
+                is("/admin/realms/{realm}/identity-provider/instances/{id}/mappers/{id}"));
+        assertThat(MetricsClientFilter.toPathTemplate("/admin/realms/test/group-by-path/group1/subgroup1"),
+                is("/admin/realms/{realm}/group-by-path/{path}"));
+    }
+
+    @Test
+    void shouldKeepExecutionTypes() {
+        assertThat(MetricsClientFilter.toPathTemplate("/admin/realms/test/authentication/flows/browser/executions/execution"),
+                is("/admin/realms/{realm}/authentication/flows/{id}/executions/execution"));
+        assertThat(MetricsClientFilter.toPathTemplate("/admin/realms/test/authentication/executions/abc"),
+                is("/admin/realms/{realm}/authentication/executions/{id}"));
+    }
+
+    @Test
+    void shouldStartWithoutEndpoints() {
+        assertThat(new MetricsClientFilter().getEndpoints().isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,71 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.util.resteasy;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.ws.rs.client.ClientRequestContext;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RealmWriteClientFilterTest {
+    private final List<String> writes = new ArrayList<>();
+    private final RealmWriteClientFilter filter = new RealmWriteClientFilter(writes::add);
+
+    @Test
+    void shouldNotifyAboutWritesToRealm() {
+        filter.filter(request("POST", "http://localhost/auth/admin/realms/my%20realm/clients"));
+        filter.filter(request("DELETE", "http://localhost/admin/realms/test/groups/abc"));
+
+        assertThat(writes, is(List.of("my realm", "test")));
+    }
+
+    @Test
+    void shouldNotifyWithoutRealmAboutRealmCreation() {
+        filter.filter(request("POST", "http://localhost/admin/realms"));
+
+        assertThat(writes, is(Arrays.asList((String) null)));
+    }
+
+    @Test
+    void shouldIgnoreReadsAndTokenRequests() {
+        filter.filter(request("GET", "http://localhost/admin/realms/test/clients"));
+        filter.filter(request("POST", "http://localhost/realms/master/protocol/openid-connect/token"));
+
+        assertThat(writes, is(Collections.emptyList()));
+    }
+
+    private static ClientRequestContext request(String method, String uri) {
+        ClientRequestContext requestContext = mock(ClientRequestContext.class);
+        when(requestContext.getMethod()).thenReturn(method);
+        when(requestContext.getUri()).thenReturn(URI.create(uri));
+
+        return requestContext;
+    }
+}